@@ -1,90 +0,0 @@
--- MySQL dump 10.13  Distrib 9.6.0, for macos26.2 (arm64)
---
--- Host: localhost    Database: jogger_db
--- ------------------------------------------------------
--- Server version	9.6.0
-
-/*!40101 SET @OLD_CHARACTER_SET_CLIENT=@@CHARACTER_SET_CLIENT */;
-/*!40101 SET @OLD_CHARACTER_SET_RESULTS=@@CHARACTER_SET_RESULTS */;
-/*!40101 SET @OLD_COLLATION_CONNECTION=@@COLLATION_CONNECTION */;
-/*!50503 SET NAMES utf8mb4 */;
-/*!40103 SET @OLD_TIME_ZONE=@@TIME_ZONE */;
-/*!40103 SET TIME_ZONE='+00:00' */;
-/*!40014 SET @OLD_UNIQUE_CHECKS=@@UNIQUE_CHECKS, UNIQUE_CHECKS=0 */;
-/*!40014 SET @OLD_FOREIGN_KEY_CHECKS=@@FOREIGN_KEY_CHECKS, FOREIGN_KEY_CHECKS=0 */;
-/*!40101 SET @OLD_SQL_MODE=@@SQL_MODE, SQL_MODE='NO_AUTO_VALUE_ON_ZERO' */;
-/*!40111 SET @OLD_SQL_NOTES=@@SQL_NOTES, SQL_NOTES=0 */;
-
---
--- Table structure for table `activities`
---
-
-DROP TABLE IF EXISTS `activities`;
-/*!40101 SET @saved_cs_client     = @@character_set_client */;
-/*!50503 SET character_set_client = utf8mb4 */;
-CREATE TABLE `activities` (
-  `id` bigint NOT NULL AUTO_INCREMENT,
-  `calories` int NOT NULL,
-  `date` date NOT NULL,
-  `distance_km` double NOT NULL,
-  `duration_sec` int NOT NULL,
-  `route` varchar(255) DEFAULT NULL,
-  `runner_id` bigint NOT NULL,
-  PRIMARY KEY (`id`),
-  KEY `FKo8fgr8n0m5tlfgpqf0ih452w3` (`runner_id`),
-  CONSTRAINT `FKo8fgr8n0m5tlfgpqf0ih452w3` FOREIGN KEY (`runner_id`) REFERENCES `runners` (`id`)
-) ENGINE=InnoDB AUTO_INCREMENT=56 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
-/*!40101 SET character_set_client = @saved_cs_client */;
-
---
--- Table structure for table `badges`
---
-
-DROP TABLE IF EXISTS `badges`;
-/*!40101 SET @saved_cs_client     = @@character_set_client */;
-/*!50503 SET character_set_client = utf8mb4 */;
-CREATE TABLE `badges` (
-  `id` bigint NOT NULL AUTO_INCREMENT,
-  `awarded_at` date DEFAULT NULL,
-  `description` varchar(255) DEFAULT NULL,
-  `name` varchar(255) DEFAULT NULL,
-  `runner_id` bigint DEFAULT NULL,
-  `code` varchar(255) NOT NULL,
-  `seen` bit(1) NOT NULL,
-  PRIMARY KEY (`id`),
-  UNIQUE KEY `UK2lnld9q6xcpf2ngghixfjduw0` (`runner_id`,`code`),
-  CONSTRAINT `FKpyshpukvstphxwj5aqdirsq45` FOREIGN KEY (`runner_id`) REFERENCES `runners` (`id`)
-) ENGINE=InnoDB AUTO_INCREMENT=66 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
-/*!40101 SET character_set_client = @saved_cs_client */;
-
---
--- Table structure for table `runners`
---
-
-DROP TABLE IF EXISTS `runners`;
-/*!40101 SET @saved_cs_client     = @@character_set_client */;
-/*!50503 SET character_set_client = utf8mb4 */;
-CREATE TABLE `runners` (
-  `id` bigint NOT NULL AUTO_INCREMENT,
-  `date_joined` datetime(6) NOT NULL,
-  `email` varchar(255) NOT NULL,
-  `password_hash` varchar(255) NOT NULL,
-  `username` varchar(255) NOT NULL,
-  `role` varchar(255) NOT NULL,
-  `weight` double DEFAULT NULL,
-  PRIMARY KEY (`id`),
-  UNIQUE KEY `UKhj9kyi9m63so71vqd1eops2xi` (`email`),
-  UNIQUE KEY `UK71tg5v9di7vwh1e642kiin8nr` (`username`)
-) ENGINE=InnoDB AUTO_INCREMENT=28 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
-/*!40101 SET character_set_client = @saved_cs_client */;
-/*!40103 SET TIME_ZONE=@OLD_TIME_ZONE */;
-
-/*!40101 SET SQL_MODE=@OLD_SQL_MODE */;
-/*!40014 SET FOREIGN_KEY_CHECKS=@OLD_FOREIGN_KEY_CHECKS */;
-/*!40014 SET UNIQUE_CHECKS=@OLD_UNIQUE_CHECKS */;
-/*!40101 SET CHARACTER_SET_CLIENT=@OLD_CHARACTER_SET_CLIENT */;
-/*!40101 SET CHARACTER_SET_RESULTS=@OLD_CHARACTER_SET_RESULTS */;
-/*!40101 SET COLLATION_CONNECTION=@OLD_COLLATION_CONNECTION */;
-/*!40111 SET SQL_NOTES=@OLD_SQL_NOTES */;
-
--- Dump completed on 2026-03-29 16:05:28
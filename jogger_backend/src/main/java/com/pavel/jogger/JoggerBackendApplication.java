@@ -3,9 +3,11 @@ package com.pavel.jogger;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableAsync
+@EnableScheduling
 public class JoggerBackendApplication {
     public static void main(String[] args) {
         SpringApplication.run(JoggerBackendApplication.class, args);
@@ -1,30 +1,125 @@
 package com.pavel.jogger.config;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
 
+/**
+ * Thread pools of the background work.
+ * <p>
+ * <b>Virtual threads</b> ({@code spring.threads.virtual.enabled=true}, Java 21 or newer): Spring Boot then runs the
+ * servlet requests and the scheduled jobs on virtual threads, and the pools below create virtual threads too.
+ * The pools keep their size and queue limits, because those limits protect the database, the CPU and the memory
+ * (e.g. only two reports render at a time), not the number of threads. On older runtimes the flag is ignored
+ * and platform threads are used.
+ * </p>
+ */
 @Configuration
 public class AsyncConfig {
 
+    private final boolean virtualThreads;
+
+    public AsyncConfig(Environment environment) {
+        this.virtualThreads = Threading.VIRTUAL.isActive(environment);
+    }
+
+    /**
+     * Creates the pool used by the rollup rebuild.
+     * <p>
+     * One thread coordinates the rebuild and the others regenerate chunks of runners in parallel,
+     * so the pool must have at least two threads. Chunks wait in the queue until a thread is free.
+     * </p>
+     * @return The configured Executor for rollup maintenance tasks.
+     */
+    @Bean(name = "rollupExecutor")
+    public Executor rollupExecutor() {
+        return pool("RollupThread-", 4, Integer.MAX_VALUE);
+    }
+
     /**
-     * Creates a specific task executor for handling Badge-related operations.
+     * Creates the pool that renders PDF reports.
      * <p>
-     * When a method is annotated with @Async("badgeExecutor"), it will be executed
-     * using a thread from this specific pool. This isolates badge processing from
-     * other application parts.
+     * Rendering is CPU and memory heavy, so only two reports are rendered at a time and at most
+     * twenty wait in the queue. Further requests are rejected and answered with HTTP 503.
      * </p>
-     * @return The configured Executor specifically for badge tasks.
+     * @return The configured Executor for report rendering.
      */
-    @Bean(name = "badgeExecutor")
-    public Executor badgeExecutor() {
+    @Bean(name = "reportExecutor")
+    public Executor reportExecutor() {
+        return pool("ReportThread-", 2, 20);
+    }
+
+    /**
+     * Creates the single thread that runs the badge recompute job.
+     * <p>
+     * The job itself evaluates runners on its own fork-join pool; this thread only walks the chunks.
+     * </p>
+     * @return The configured Executor for the badge recompute job.
+     */
+    @Bean(name = "badgeRecomputeExecutor")
+    public Executor badgeRecomputeExecutor() {
+        return pool("BadgeRecomputeThread-", 1, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Creates the pool that writes server-sent events to the open client streams.
+     * <p>
+     * Writing to a slow client blocks until its socket accepts the data, so events are never written on the
+     * thread that made the change. When the queue is full, the target stream is closed instead of queuing more
+     * (its client reconnects and reloads), so memory stays bounded and no event is lost silently. The heartbeats
+     * of all idle streams share one task per tick.
+     * <br>
+     * With virtual threads a blocked write costs almost nothing, so more writes may be in flight at once.
+     * </p>
+     * @return The configured Executor for event delivery.
+     */
+    @Bean(name = "eventExecutor")
+    public Executor eventExecutor() {
+        return pool("EventThread-", virtualThreads ? 64 : 2, 10000);
+    }
+
+    /**
+     * Creates the single thread that deletes the data of disabled accounts.
+     * <p>
+     * One run handles all waiting accounts, so at most one further run is queued; more requests are dropped.
+     * </p>
+     * @return The configured Executor for account deletion.
+     */
+    @Bean(name = "accountDeletionExecutor")
+    public Executor accountDeletionExecutor() {
+        return pool("AccountDeletionThread-", 1, 1);
+    }
+
+    /**
+     * Creates the pool that hashes passwords at login and registration.
+     * <p>
+     * Hashing is pure CPU work, so there is one thread per core. At most {@code app.security.password.queue-capacity}
+     * hashes wait; further ones are rejected and answered with HTTP 503 (see
+     * {@link com.pavel.jogger.security.BoundedPasswordEncoder}).
+     * </p>
+     * @param queueCapacity How many hashes may wait for a free thread.
+     * @return The configured Executor for password hashing.
+     */
+    @Bean(name = "passwordExecutor")
+    public Executor passwordExecutor(@Value("${app.security.password.queue-capacity:64}") int queueCapacity) {
+        return pool("PasswordThread-", Runtime.getRuntime().availableProcessors(), queueCapacity);
+    }
+
+    private ThreadPoolTaskExecutor pool(String threadNamePrefix, int threads, int queueCapacity) {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(2);
-        executor.setMaxPoolSize(4);
-        executor.setQueueCapacity(50);
-        executor.setThreadNamePrefix("BadgeThread-");
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix(threadNamePrefix);
+        if (virtualThreads) {
+            executor.setThreadFactory(new VirtualThreadTaskExecutor(threadNamePrefix).getVirtualThreadFactory());
+        }
         executor.initialize();
         return executor;
     }
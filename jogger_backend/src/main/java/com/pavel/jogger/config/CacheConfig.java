@@ -0,0 +1,45 @@
+package com.pavel.jogger.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Arrays;
+
+/**
+ * Configuration of the in-process read caches.
+ * <p>
+ * The caches themselves (Caffeine, bounded by size and time-to-live, with statistics enabled) are created by
+ * Spring Boot from the {@code spring.cache.*} properties. Because the cache names are declared up front,
+ * Actuator publishes hit, miss and eviction counters for each of them under {@code /actuator/metrics/cache.*}.
+ * <br>
+ * - {@link #CHARTS}: chart data, keyed by {@link RunnerCacheKey}. <br>
+ * - {@link #BADGES}: badge lists, keyed by runner ID. <br>
+ * - {@link #RUNNERS}: runner profiles, keyed by username.
+ * </p>
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String CHARTS = "charts";
+    public static final String BADGES = "badges";
+    public static final String RUNNERS = "runners";
+
+    /**
+     * Builds a {@link RunnerCacheKey} for methods whose first parameter is the runner ID.
+     * <p>
+     * Usage: {@code @Cacheable(cacheNames = CacheConfig.CHARTS, keyGenerator = "runnerKeyGenerator")}.
+     * </p>
+     * @return The key generator.
+     */
+    @Bean(name = "runnerKeyGenerator")
+    public KeyGenerator runnerKeyGenerator() {
+        return (target, method, params) -> new RunnerCacheKey(
+                (Long) params[0],
+                method.getName(),
+                Arrays.copyOfRange(params, 1, params.length)
+        );
+    }
+}
@@ -0,0 +1,91 @@
+package com.pavel.jogger.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts the SQL statements of every HTTP request and reports them per controller method.
+ * <p>
+ * <b>Logic:</b> <br>
+ * 1. Before a controller method runs, counting starts on the request thread ({@link SqlStatementCounter}). <br>
+ * 2. Afterwards the count and the JDBC time are recorded as {@value #STATEMENTS_METRIC} (a histogram) and
+ *    {@value #JDBC_TIME_METRIC}, tagged with {@code endpoint=Controller.method}. <br>
+ * 3. A request with more statements than {@code app.queries.budget-per-request} is logged as a warning,
+ *    and so is a request that ran the same SQL {@code app.queries.repeat-threshold} times or more (likely N+1). <br>
+ * 4. For asynchronous requests (e.g. event streams) only the part on the request thread is counted.
+ * </p>
+ */
+public class QueryBudgetInterceptor implements AsyncHandlerInterceptor {
+
+    static final String STATEMENTS_METRIC = "jogger.http.sql.statements";
+    static final String JDBC_TIME_METRIC = "jogger.http.sql.time";
+
+    private static final Logger log = LoggerFactory.getLogger(QueryBudgetInterceptor.class);
+
+    private final MeterRegistry meterRegistry;
+    private final int budgetPerRequest;
+    private final int repeatThreshold;
+
+    public QueryBudgetInterceptor(MeterRegistry meterRegistry, int budgetPerRequest, int repeatThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.budgetPerRequest = budgetPerRequest;
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod && request.getDispatcherType() != DispatcherType.ASYNC) {
+            SqlStatementCounter.start();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        report(handler);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        report(handler);
+    }
+
+    private void report(Object handler) {
+        SqlStatementCounter.Counts counts = SqlStatementCounter.stop();
+        if (counts == null || !(handler instanceof HandlerMethod method)) {
+            return;
+        }
+        String endpoint = method.getBeanType().getSimpleName() + "." + method.getMethod().getName();
+
+        DistributionSummary.builder(STATEMENTS_METRIC)
+                .description("SQL statements executed per HTTP request")
+                .tag("endpoint", endpoint)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(counts.getStatements());
+        Timer.builder(JDBC_TIME_METRIC)
+                .description("Time spent in JDBC per HTTP request")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry)
+                .record(counts.getJdbcNanos(), TimeUnit.NANOSECONDS);
+
+        if (counts.getStatements() > budgetPerRequest) {
+            log.warn("{} ran {} SQL statements ({} ms in JDBC), over the budget of {}",
+                    endpoint, counts.getStatements(), TimeUnit.NANOSECONDS.toMillis(counts.getJdbcNanos()), budgetPerRequest);
+        }
+        if (counts.getMostRepeatedCount() >= repeatThreshold) {
+            log.warn("{} ran the same SQL {} times, possible N+1: {}",
+                    endpoint, counts.getMostRepeatedCount(), counts.getMostRepeatedSql());
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.pavel.jogger.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.listener.logging.SLF4JLogLevel;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+
+/**
+ * SQL statement instrumentation, replacing {@code show-sql}.
+ * <p>
+ * The connection pool is wrapped in a datasource-proxy {@link ProxyDataSource} that reports every executed
+ * statement to {@link SqlStatementCounter}. {@link QueryBudgetInterceptor} turns the counts into per-endpoint
+ * metrics and budget warnings.
+ * <br>
+ * Individual statements are logged at DEBUG by the {@value #SQL_LOGGER} logger, only when that level is enabled
+ * (e.g. {@code logging.level.jogger.sql=debug}).
+ * </p>
+ */
+@Configuration
+public class QueryMetricsConfig implements WebMvcConfigurer {
+
+    static final String SQL_LOGGER = "jogger.sql";
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final int budgetPerRequest;
+    private final int repeatThreshold;
+
+    public QueryMetricsConfig(ObjectProvider<MeterRegistry> meterRegistry,
+                              @Value("${app.queries.budget-per-request:10}") int budgetPerRequest,
+                              @Value("${app.queries.repeat-threshold:5}") int repeatThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.budgetPerRequest = budgetPerRequest;
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    /**
+     * Wraps every {@link DataSource} bean once it is initialized. Static, so it is registered before
+     * the data source is created.
+     */
+    @Bean
+    public static BeanPostProcessor sqlCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create(beanName, dataSource)
+                            .listener(new SqlStatementCounter())
+                            .logQueryBySlf4j(SLF4JLogLevel.DEBUG, SQL_LOGGER)
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        meterRegistry.ifAvailable(meters ->
+                registry.addInterceptor(new QueryBudgetInterceptor(meters, budgetPerRequest, repeatThreshold)));
+    }
+}
@@ -0,0 +1,48 @@
+package com.pavel.jogger.config;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Cache key for results that belong to one runner.
+ * <p>
+ * Besides the runner ID, the key holds the method name and its remaining arguments, so different charts
+ * of the same runner get different entries. The arguments include the runner's data version, so entries of
+ * older versions are simply never looked up again.
+ * </p>
+ */
+public final class RunnerCacheKey {
+
+    private final Long runnerId;
+    private final String method;
+    private final Object[] arguments;
+
+    public RunnerCacheKey(Long runnerId, String method, Object... arguments) {
+        this.runnerId = runnerId;
+        this.method = method;
+        this.arguments = arguments;
+    }
+
+    public Long getRunnerId() {
+        return runnerId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RunnerCacheKey other)) return false;
+        return Objects.equals(runnerId, other.runnerId)
+                && method.equals(other.method)
+                && Arrays.equals(arguments, other.arguments);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Objects.hash(runnerId, method) + Arrays.hashCode(arguments);
+    }
+
+    @Override
+    public String toString() {
+        return "RunnerCacheKey[" + runnerId + ", " + method + ", " + Arrays.toString(arguments) + "]";
+    }
+}
@@ -0,0 +1,109 @@
+package com.pavel.jogger.config;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts the SQL statements executed by the current thread, and how long JDBC took for them.
+ * <p>
+ * Registered as a listener of the proxied {@link javax.sql.DataSource} (see {@link QueryMetricsConfig}), so it sees
+ * everything: Hibernate queries, flushes, {@code JdbcTemplate} batches. Nothing is counted until {@link #start()}
+ * is called on a thread; {@link QueryBudgetInterceptor} does this for every HTTP request.
+ * <br>
+ * A JDBC batch counts as one statement (one round trip). Identical SQL strings are tallied as well, so the
+ * typical N+1 pattern (the same SELECT once per row of a previous result) can be reported.
+ * </p>
+ */
+public class SqlStatementCounter implements QueryExecutionListener {
+
+    private static final ThreadLocal<Counts> CURRENT = new ThreadLocal<>();
+    private static final String STARTED_AT = SqlStatementCounter.class.getName() + ".startedAt";
+
+    /**
+     * Starts counting on the current thread, discarding any previous counts.
+     * @return The counts, updated as statements run.
+     */
+    public static Counts start() {
+        Counts counts = new Counts();
+        CURRENT.set(counts);
+        return counts;
+    }
+
+    /**
+     * Stops counting on the current thread.
+     * @return The counts since {@link #start()}, or null if counting was not started.
+     */
+    public static Counts stop() {
+        Counts counts = CURRENT.get();
+        CURRENT.remove();
+        return counts;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (CURRENT.get() != null) {
+            execInfo.addCustomValue(STARTED_AT, System.nanoTime());
+        }
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Counts counts = CURRENT.get();
+        if (counts == null) {
+            return;
+        }
+        Long startedAt = execInfo.getCustomValue(STARTED_AT, Long.class);
+        long elapsedNanos = (startedAt != null) ? System.nanoTime() - startedAt : 0;
+        String sql = queryInfoList.isEmpty() ? "" : queryInfoList.get(0).getQuery();
+        counts.record(sql, elapsedNanos);
+    }
+
+    /**
+     * Statements seen on one thread since {@link #start()}. Only used by that thread.
+     */
+    public static final class Counts {
+
+        private int statements;
+        private long jdbcNanos;
+        private final Map<String, Integer> executionsBySql = new HashMap<>();
+
+        private Counts() {
+        }
+
+        void record(String sql, long elapsedNanos) {
+            statements++;
+            jdbcNanos += elapsedNanos;
+            executionsBySql.merge(sql, 1, Integer::sum);
+        }
+
+        public int getStatements() {
+            return statements;
+        }
+
+        public long getJdbcNanos() {
+            return jdbcNanos;
+        }
+
+        /**
+         * Returns the SQL that was executed most often, or null if nothing ran.
+         */
+        public String getMostRepeatedSql() {
+            return executionsBySql.entrySet().stream()
+                    .max(Map.Entry.comparingByValue())
+                    .map(Map.Entry::getKey)
+                    .orElse(null);
+        }
+
+        /**
+         * Returns how often {@link #getMostRepeatedSql()} was executed.
+         */
+        public int getMostRepeatedCount() {
+            return executionsBySql.values().stream().max(Integer::compare).orElse(0);
+        }
+    }
+}
@@ -10,9 +10,16 @@ import java.time.LocalDate;
  * This class maps directly to the "activities" table. It holds all the metrics
  * recorded during a run (distance, duration, calories) and links them to the user who performed it.
  * </p>
+ * <p>
+ * The composite index on (runner_id, date, id) matches the order in which a runner's history
+ * is paged (newest first), so every page is a short index range scan no matter how many runs exist.
+ * </p>
  */
 @Entity
-@Table(name = "activities")
+@Table(
+        name = "activities",
+        indexes = @Index(name = "idx_activities_runner_date_id", columnList = "runner_id, date, id")
+)
 public class ActivityEntity {
 
     @Id
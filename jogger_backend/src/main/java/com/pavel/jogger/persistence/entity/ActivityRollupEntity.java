@@ -0,0 +1,82 @@
+package com.pavel.jogger.persistence.entity;
+
+import com.pavel.jogger.web.dto.chart.ChartBucket;
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+
+/**
+ * Pre-summed activity totals of one runner for one calendar bucket (a day, an ISO week or a month).
+ * <p>
+ * Maps to the "activity_rollups" table. There is at most one row per (runner, period, bucket start),
+ * enforced by a unique key that also serves as the index for chart range reads.
+ * <br>
+ * Rows are adjusted by {@link com.pavel.jogger.service.ActivityRollupService} on every activity write and
+ * regenerated from the activities table by {@link com.pavel.jogger.service.RollupMaintenanceService}.
+ * Yearly charts are served from the monthly rows, so YEAR is never stored.
+ * </p>
+ */
+@Entity
+@Table(
+        name = "activity_rollups",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_rollups_runner_period_bucket",
+                columnNames = {"runner_id", "period", "bucket_start"}
+        )
+)
+public class ActivityRollupEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "runner_id", nullable = false)
+    private Long runnerId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 8)
+    private ChartBucket period;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDate bucketStart;
+
+    @Column(nullable = false)
+    private long runs;
+
+    @Column(name = "distance_km", nullable = false)
+    private double distanceKm;
+
+    @Column(name = "duration_sec", nullable = false)
+    private long durationSec;
+
+    @Column(nullable = false)
+    private long calories;
+
+    public ActivityRollupEntity() {}
+
+    public ActivityRollupEntity(Long runnerId, ChartBucket period, LocalDate bucketStart) {
+        this.runnerId = runnerId;
+        this.period = period;
+        this.bucketStart = bucketStart;
+    }
+
+    public Long getId() { return id; }
+
+    public Long getRunnerId() { return runnerId; }
+
+    public ChartBucket getPeriod() { return period; }
+
+    public LocalDate getBucketStart() { return bucketStart; }
+
+    public long getRuns() { return runs; }
+    public void setRuns(long runs) { this.runs = runs; }
+
+    public double getDistanceKm() { return distanceKm; }
+    public void setDistanceKm(double distanceKm) { this.distanceKm = distanceKm; }
+
+    public long getDurationSec() { return durationSec; }
+    public void setDurationSec(long durationSec) { this.durationSec = durationSec; }
+
+    public long getCalories() { return calories; }
+    public void setCalories(long calories) { this.calories = calories; }
+}
@@ -0,0 +1,80 @@
+package com.pavel.jogger.persistence.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * A pending badge evaluation, written in the same transaction as the activity that triggered it.
+ * <p>
+ * Maps to the "badge_outbox" table. Because the row commits (or rolls back) together with the activity,
+ * an evaluation can neither run for an activity that was never saved nor get lost when the server restarts.
+ * The row carries a copy of the run's values, so it stays meaningful even if the activity is edited or deleted.
+ * <br>
+ * {@code availableAt} is the earliest time a worker may pick the row up. It is moved forward while a worker
+ * holds the row (lease) and after a failed attempt (retry back-off). Rows that used up all attempts keep
+ * a null {@code availableAt} and are no longer picked up.
+ * </p>
+ */
+@Entity
+@Table(
+        name = "badge_outbox",
+        indexes = @Index(name = "idx_badge_outbox_available", columnList = "available_at, id")
+)
+public class BadgeOutboxEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "runner_id", nullable = false)
+    private Long runnerId;
+
+    @Column(name = "distance_km", nullable = false)
+    private double distanceKm;
+
+    @Column(name = "duration_sec", nullable = false)
+    private int durationSec;
+
+    @Column(name = "run_date", nullable = false)
+    private LocalDate runDate;
+
+    @Column(name = "available_at")
+    private Instant availableAt;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    public BadgeOutboxEntity() {}
+
+    /**
+     * Creates an event for a run that is ready to be evaluated right away.
+     */
+    public BadgeOutboxEntity(Long runnerId, double distanceKm, int durationSec, LocalDate runDate) {
+        this.runnerId = runnerId;
+        this.distanceKm = distanceKm;
+        this.durationSec = durationSec;
+        this.runDate = runDate;
+        this.availableAt = Instant.now();
+    }
+
+    public Long getId() { return id; }
+
+    public Long getRunnerId() { return runnerId; }
+
+    public double getDistanceKm() { return distanceKm; }
+
+    public int getDurationSec() { return durationSec; }
+
+    public LocalDate getRunDate() { return runDate; }
+
+    public Instant getAvailableAt() { return availableAt; }
+
+    public int getAttempts() { return attempts; }
+
+    public String getLastError() { return lastError; }
+}
@@ -0,0 +1,84 @@
+package com.pavel.jogger.persistence.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Progress of a badge recompute job over all runners.
+ * <p>
+ * Maps to the "badge_recompute_jobs" table. The job walks the runners in ID order, and
+ * {@code lastRunnerId} is the highest runner ID of the last chunk that committed. It is updated in the
+ * same transaction as that chunk's badges, so a job interrupted by a restart continues right after it
+ * without skipping or repeating a chunk.
+ * </p>
+ */
+@Entity
+@Table(name = "badge_recompute_jobs")
+public class BadgeRecomputeJobEntity {
+
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    @Column(name = "started_at", nullable = false)
+    private Instant startedAt;
+
+    @Column(name = "finished_at")
+    private Instant finishedAt;
+
+    @Column(name = "total_runners", nullable = false)
+    private long totalRunners;
+
+    @Column(name = "last_runner_id", nullable = false)
+    private long lastRunnerId;
+
+    @Column(name = "processed_runners", nullable = false)
+    private long processedRunners;
+
+    @Column(name = "awarded_badges", nullable = false)
+    private long awardedBadges;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    public BadgeRecomputeJobEntity() {}
+
+    /**
+     * Creates a job that starts before the first runner.
+     * @param totalRunners Number of runners when the job started (used to report progress).
+     */
+    public BadgeRecomputeJobEntity(long totalRunners) {
+        this.status = Status.RUNNING;
+        this.startedAt = Instant.now();
+        this.totalRunners = totalRunners;
+    }
+
+    public Long getId() { return id; }
+
+    public Status getStatus() { return status; }
+
+    public Instant getStartedAt() { return startedAt; }
+
+    public Instant getFinishedAt() { return finishedAt; }
+
+    public long getTotalRunners() { return totalRunners; }
+
+    public long getLastRunnerId() { return lastRunnerId; }
+
+    public long getProcessedRunners() { return processedRunners; }
+
+    public long getAwardedBadges() { return awardedBadges; }
+
+    public String getLastError() { return lastError; }
+}
@@ -12,17 +12,28 @@ import java.util.List;
  * It serves as the root entity for the application.
  */
 @Entity
-@Table(name = "runners")
+@Table(
+        name = "runners",
+        uniqueConstraints = {
+                @UniqueConstraint(name = RunnerEntity.UK_USERNAME, columnNames = "username"),
+                @UniqueConstraint(name = RunnerEntity.UK_EMAIL, columnNames = "email")
+        },
+        indexes = @Index(name = "idx_runners_disabled_id", columnList = "disabled, id")
+)
 public class RunnerEntity {
 
+    /** Unique constraint names, used to tell which value was taken when an insert fails. */
+    public static final String UK_USERNAME = "uk_runners_username";
+    public static final String UK_EMAIL = "uk_runners_email";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String username;
 
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String email;
 
     @Column(nullable = false)
@@ -37,6 +48,35 @@ public class RunnerEntity {
     @Column(nullable = true)
     private Double weight;
 
+    /**
+     * Counter bumped on every change to the runner's activities, badges or profile.
+     * <p>
+     * Used as the HTTP ETag of the runner's data. It is only changed by the relative UPDATE in
+     * {@link com.pavel.jogger.persistence.repository.RunnerRepository#bumpDataVersion}, never by
+     * saving the entity, so a stale in-memory copy cannot move it backwards.
+     * </p>
+     */
+    @Column(name = "data_version", nullable = false, updatable = false)
+    private long dataVersion;
+
+    /**
+     * Version of the runner's access tokens, copied into every JWT as the {@code ver} claim.
+     * <p>
+     * Bumping it with a relative UPDATE marks the tokens issued before as outdated. Like the data version,
+     * it is never changed by saving the entity.
+     * </p>
+     */
+    @Column(name = "token_version", nullable = false, updatable = false)
+    private int tokenVersion;
+
+    /**
+     * Set when the runner deletes the account. The account can no longer log in, and its data is deleted
+     * in the background (see {@link com.pavel.jogger.service.AccountDeletionService}).
+     * Only changed by {@link com.pavel.jogger.persistence.repository.RunnerRepository#disable}.
+     */
+    @Column(nullable = false, updatable = false)
+    private boolean disabled;
+
     /**
      * One-to-Many relationship with Activities.
      * <p>
@@ -133,4 +173,16 @@ public class RunnerEntity {
     public void setWeight(Double weight) {
         this.weight = weight;
     }
+
+    public long getDataVersion() {
+        return dataVersion;
+    }
+
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+
+    public boolean isDisabled() {
+        return disabled;
+    }
 }
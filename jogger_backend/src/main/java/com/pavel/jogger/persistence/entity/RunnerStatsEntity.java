@@ -0,0 +1,111 @@
+package com.pavel.jogger.persistence.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+
+/**
+ * Pre-computed lifetime totals for a single runner.
+ * <p>
+ * Maps to the "runner_stats" table, which holds exactly one row per runner (the primary key is the runner ID).
+ * The row is kept up to date by {@link com.pavel.jogger.service.RunnerStatsService} whenever an activity
+ * is added, changed or removed, in the same transaction as the activity itself.
+ * <br>
+ * This turns "total km" / "total runs" lookups into a single primary key read instead of
+ * a SUM/COUNT over the whole activities table.
+ * <br>
+ * {@code unseenBadges} counts the badges the runner has not seen yet, so the "new badge" indicator
+ * does not have to load the badge list.
+ * </p>
+ */
+@Entity
+@Table(
+        name = "runner_stats",
+        indexes = @Index(name = "idx_runner_stats_last_activity", columnList = "last_activity_date, runner_id")
+)
+public class RunnerStatsEntity {
+
+    @Id
+    @Column(name = "runner_id")
+    private Long runnerId;
+
+    @Column(name = "total_distance_km", nullable = false)
+    private double totalDistanceKm;
+
+    @Column(name = "total_runs", nullable = false)
+    private long totalRuns;
+
+    @Column(name = "total_duration_sec", nullable = false)
+    private long totalDurationSec;
+
+    @Column(name = "total_calories", nullable = false)
+    private long totalCalories;
+
+    @Column(name = "last_activity_date")
+    private LocalDate lastActivityDate;
+
+    @Column(name = "unseen_badges", nullable = false)
+    private int unseenBadges;
+
+    public RunnerStatsEntity() {}
+
+    /**
+     * Creates an empty stats row for a runner without any activities.
+     * @param runnerId The ID of the runner.
+     */
+    public RunnerStatsEntity(Long runnerId) {
+        this.runnerId = runnerId;
+    }
+
+    public Long getRunnerId() {
+        return runnerId;
+    }
+
+    public double getTotalDistanceKm() {
+        return totalDistanceKm;
+    }
+
+    public void setTotalDistanceKm(double totalDistanceKm) {
+        this.totalDistanceKm = totalDistanceKm;
+    }
+
+    public long getTotalRuns() {
+        return totalRuns;
+    }
+
+    public void setTotalRuns(long totalRuns) {
+        this.totalRuns = totalRuns;
+    }
+
+    public long getTotalDurationSec() {
+        return totalDurationSec;
+    }
+
+    public void setTotalDurationSec(long totalDurationSec) {
+        this.totalDurationSec = totalDurationSec;
+    }
+
+    public long getTotalCalories() {
+        return totalCalories;
+    }
+
+    public void setTotalCalories(long totalCalories) {
+        this.totalCalories = totalCalories;
+    }
+
+    public LocalDate getLastActivityDate() {
+        return lastActivityDate;
+    }
+
+    public void setLastActivityDate(LocalDate lastActivityDate) {
+        this.lastActivityDate = lastActivityDate;
+    }
+
+    public int getUnseenBadges() {
+        return unseenBadges;
+    }
+
+    public void setUnseenBadges(int unseenBadges) {
+        this.unseenBadges = unseenBadges;
+    }
+}
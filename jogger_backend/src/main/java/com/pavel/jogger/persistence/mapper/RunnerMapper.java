@@ -1,7 +1,9 @@
 package com.pavel.jogger.persistence.mapper;
 
 import com.pavel.jogger.persistence.entity.RunnerEntity;
+import com.pavel.jogger.persistence.projection.RunnerSummary;
 import com.pavel.jogger.web.dto.runner.RunnerResponse;
+import com.pavel.jogger.web.dto.runner.RunnerSummaryResponse;
 
 /**
  * Utility class for mapping between Runner entities and DTOs.
@@ -21,4 +23,16 @@ public class RunnerMapper {
                 entity.getDateJoined()
         );
     }
+
+    public static RunnerSummaryResponse toResponse(RunnerSummary summary) {
+        return new RunnerSummaryResponse(
+                summary.getId(),
+                summary.getUsername(),
+                summary.getEmail(),
+                summary.getRole(),
+                summary.getDateJoined(),
+                summary.getTotalRuns(),
+                summary.getTotalDistanceKm()
+        );
+    }
 }
@@ -0,0 +1,23 @@
+package com.pavel.jogger.persistence.projection;
+
+import java.time.LocalDate;
+
+/**
+ * Read-only projection holding the lifetime totals of one runner, computed directly from the activities table.
+ * <p>
+ * Spring Data fills this interface from the column aliases of the aggregate query,
+ * so no ActivityEntity objects are loaded to compute it.
+ * </p>
+ */
+public interface ActivityTotals {
+
+    double getTotalDistanceKm();
+
+    long getTotalRuns();
+
+    long getTotalDurationSec();
+
+    long getTotalCalories();
+
+    LocalDate getLastActivityDate();
+}
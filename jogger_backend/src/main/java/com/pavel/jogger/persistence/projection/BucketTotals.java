@@ -0,0 +1,33 @@
+package com.pavel.jogger.persistence.projection;
+
+import java.time.LocalDate;
+
+/**
+ * Sums of all activities that fall into one time bucket (day, week, month or year).
+ * <p>
+ * Instances are created directly by the GROUP BY query, so only one small object
+ * per bucket is allocated no matter how many activities the bucket contains.
+ * </p>
+ */
+public class BucketTotals {
+
+    private final LocalDate bucketStart;
+    private final long runs;
+    private final double distanceKm;
+    private final long durationSec;
+    private final long calories;
+
+    public BucketTotals(LocalDate bucketStart, long runs, double distanceKm, long durationSec, long calories) {
+        this.bucketStart = bucketStart;
+        this.runs = runs;
+        this.distanceKm = distanceKm;
+        this.durationSec = durationSec;
+        this.calories = calories;
+    }
+
+    public LocalDate getBucketStart() { return bucketStart; }
+    public long getRuns() { return runs; }
+    public double getDistanceKm() { return distanceKm; }
+    public long getDurationSec() { return durationSec; }
+    public long getCalories() { return calories; }
+}
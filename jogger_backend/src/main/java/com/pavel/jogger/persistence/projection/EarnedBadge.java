@@ -0,0 +1,29 @@
+package com.pavel.jogger.persistence.projection;
+
+import java.time.LocalDate;
+
+/**
+ * The displayed columns of an earned badge, read without loading the badge entity.
+ */
+public class EarnedBadge {
+
+    private final String code;
+    private final String name;
+    private final String description;
+    private final LocalDate awardedAt;
+    private final boolean seen;
+
+    public EarnedBadge(String code, String name, String description, LocalDate awardedAt, boolean seen) {
+        this.code = code;
+        this.name = name;
+        this.description = description;
+        this.awardedAt = awardedAt;
+        this.seen = seen;
+    }
+
+    public String getCode() { return code; }
+    public String getName() { return name; }
+    public String getDescription() { return description; }
+    public LocalDate getAwardedAt() { return awardedAt; }
+    public boolean isSeen() { return seen; }
+}
@@ -0,0 +1,18 @@
+package com.pavel.jogger.persistence.projection;
+
+/**
+ * A badge code earned by a runner, without loading the badge entity.
+ */
+public class RunnerBadgeCode {
+
+    private final Long runnerId;
+    private final String code;
+
+    public RunnerBadgeCode(Long runnerId, String code) {
+        this.runnerId = runnerId;
+        this.code = code;
+    }
+
+    public Long getRunnerId() { return runnerId; }
+    public String getCode() { return code; }
+}
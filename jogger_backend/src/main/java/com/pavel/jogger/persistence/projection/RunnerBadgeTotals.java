@@ -0,0 +1,35 @@
+package com.pavel.jogger.persistence.projection;
+
+/**
+ * Lifetime figures of one runner that the badge rules look at, computed from the activities table.
+ * <p>
+ * Instances are created directly by a GROUP BY over a range of runner IDs, so a chunk of runners
+ * costs one query and one small object per runner, no matter how many runs they have.
+ * </p>
+ */
+public class RunnerBadgeTotals {
+
+    private final Long runnerId;
+    private final long runs;
+    private final double distanceKm;
+    private final double longestRunKm;
+    private final Double bestPaceSecPerKm;
+
+    public RunnerBadgeTotals(Long runnerId, long runs, double distanceKm, double longestRunKm, Double bestPaceSecPerKm) {
+        this.runnerId = runnerId;
+        this.runs = runs;
+        this.distanceKm = distanceKm;
+        this.longestRunKm = longestRunKm;
+        this.bestPaceSecPerKm = bestPaceSecPerKm;
+    }
+
+    public Long getRunnerId() { return runnerId; }
+    public long getRuns() { return runs; }
+    public double getDistanceKm() { return distanceKm; }
+    public double getLongestRunKm() { return longestRunKm; }
+
+    /**
+     * Best average pace (seconds per km) over the runs long enough to count, or null if there is none.
+     */
+    public Double getBestPaceSecPerKm() { return bestPaceSecPerKm; }
+}
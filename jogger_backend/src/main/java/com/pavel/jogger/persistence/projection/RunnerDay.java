@@ -0,0 +1,20 @@
+package com.pavel.jogger.persistence.projection;
+
+import java.time.LocalDate;
+
+/**
+ * A (runner, day) pair for a day on which the runner has at least one run.
+ */
+public class RunnerDay {
+
+    private final Long runnerId;
+    private final LocalDate day;
+
+    public RunnerDay(Long runnerId, LocalDate day) {
+        this.runnerId = runnerId;
+        this.day = day;
+    }
+
+    public Long getRunnerId() { return runnerId; }
+    public LocalDate getDay() { return day; }
+}
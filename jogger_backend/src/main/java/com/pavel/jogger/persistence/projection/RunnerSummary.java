@@ -0,0 +1,45 @@
+package com.pavel.jogger.persistence.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of the admin runner list.
+ * <p>
+ * Created directly by the query with only the listed columns, so password hashes and the runner's
+ * collections are never loaded. The totals are only filled when they were requested (joined from
+ * the precomputed stats row); otherwise they are null.
+ * </p>
+ */
+public class RunnerSummary {
+
+    private final Long id;
+    private final String username;
+    private final String email;
+    private final String role;
+    private final LocalDateTime dateJoined;
+    private final Long totalRuns;
+    private final Double totalDistanceKm;
+
+    public RunnerSummary(Long id, String username, String email, String role, LocalDateTime dateJoined) {
+        this(id, username, email, role, dateJoined, null, null);
+    }
+
+    public RunnerSummary(Long id, String username, String email, String role, LocalDateTime dateJoined,
+                         Long totalRuns, Double totalDistanceKm) {
+        this.id = id;
+        this.username = username;
+        this.email = email;
+        this.role = role;
+        this.dateJoined = dateJoined;
+        this.totalRuns = totalRuns;
+        this.totalDistanceKm = totalDistanceKm;
+    }
+
+    public Long getId() { return id; }
+    public String getUsername() { return username; }
+    public String getEmail() { return email; }
+    public String getRole() { return role; }
+    public LocalDateTime getDateJoined() { return dateJoined; }
+    public Long getTotalRuns() { return totalRuns; }
+    public Double getTotalDistanceKm() { return totalDistanceKm; }
+}
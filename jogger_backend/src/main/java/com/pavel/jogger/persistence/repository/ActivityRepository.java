@@ -1,12 +1,20 @@
 package com.pavel.jogger.persistence.repository;
 
 import com.pavel.jogger.persistence.entity.ActivityEntity;
-import com.pavel.jogger.persistence.entity.RunnerEntity;
+import com.pavel.jogger.persistence.projection.ActivityTotals;
+import com.pavel.jogger.persistence.projection.RunnerBadgeTotals;
+import com.pavel.jogger.web.dto.activity.ActivityResponse;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository interface for accessing Activity data.
@@ -16,67 +24,175 @@ import java.util.List;
  * to fetch statistics specifically for our jogging app.
  * </p>
  */
-public interface ActivityRepository extends JpaRepository<ActivityEntity, Long> {
+public interface ActivityRepository extends JpaRepository<ActivityEntity, Long>, ActivityRepositoryCustom {
 
     /**
-     * Finds all activities belonging to a specific runner.
+     * Fetches one page of a runner's history using keyset (seek) pagination.
      * <p>
-     * Spring Data JPA automatically generates the SQL for this based on the method name.
-     * SQL equivalent: SELECT * FROM activities WHERE runner_id = ?
+     * Rows are ordered newest first by (date, id). Instead of an OFFSET, the query continues
+     * strictly after the last row of the previous page (beforeDate, beforeId), which lets the
+     * database jump directly into the (runner_id, date, id) index. The cost of a page therefore
+     * stays the same whether it is the first page or the hundredth.
+     * <br>
+     * The rows are read straight into response DTOs, with the pace (min/km, rounded to two decimals)
+     * computed in SQL, so no managed entities or dirty-checking snapshots are created for a read.
      * </p>
-     * @param runnerId The ID of the user.
-     * @return A list of activities sorted by default order.
+     * @param runnerId   The ID of the user.
+     * @param from       Inclusive lower bound for the activity date.
+     * @param beforeDate Date of the last row already returned (or the inclusive upper bound on the first page).
+     * @param beforeId   ID of the last row already returned (or Long.MAX_VALUE on the first page).
+     * @param limit      Maximum number of rows to return.
+     * @return Activities ordered by date and id, descending.
      */
-    List<ActivityEntity> findByRunnerId(Long runnerId);
+    @Query("""
+        SELECT new com.pavel.jogger.web.dto.activity.ActivityResponse(
+                   a.id, a.distanceKm, a.durationSec, a.calories, a.date, a.route,
+                   CASE WHEN a.distanceKm > 0 THEN ROUND(a.durationSec / 60.0 / a.distanceKm, 2) ELSE 0.0 END)
+        FROM ActivityEntity a
+        WHERE a.runner.id = :runnerId
+          AND a.date >= :from
+          AND (a.date < :beforeDate OR (a.date = :beforeDate AND a.id < :beforeId))
+        ORDER BY a.date DESC, a.id DESC
+    """)
+    List<ActivityResponse> findPageForRunner(
+            @Param("runnerId") Long runnerId,
+            @Param("from") LocalDate from,
+            @Param("beforeDate") LocalDate beforeDate,
+            @Param("beforeId") Long beforeId,
+            Limit limit
+    );
 
     /**
-     * Counts how many activities a specific runner has.
+     * Computes the lifetime totals of a runner straight from the activities table.
      * <p>
-     * Useful for checking badge conditions (e.g., "10th Run Badge").
+     * This is the expensive full aggregation. It is only used to (re)build the
+     * {@link com.pavel.jogger.persistence.entity.RunnerStatsEntity} row, which then serves all regular reads.
+     * COALESCE makes sure a runner without activities gets zeros instead of nulls.
      * </p>
-     * @param runner The runner entity object.
-     * @return The total count of activities.
+     * @param runnerId The ID of the user.
+     * @return The aggregated totals (never null).
+     */
+    @Query("""
+        SELECT COALESCE(SUM(a.distanceKm), 0) AS totalDistanceKm,
+               COUNT(a) AS totalRuns,
+               COALESCE(SUM(a.durationSec), 0) AS totalDurationSec,
+               COALESCE(SUM(a.calories), 0) AS totalCalories,
+               MAX(a.date) AS lastActivityDate
+        FROM ActivityEntity a
+        WHERE a.runner.id = :runnerId
+    """)
+    ActivityTotals aggregateTotals(@Param("runnerId") Long runnerId);
+
+    /**
+     * Finds the date of the most recent activity of a runner.
+     * Served by the (runner_id, date, id) index without touching the table rows.
+     * @param runnerId The ID of the user.
+     * @return The latest activity date, or null if the runner has no activities.
+     */
+    @Query("SELECT MAX(a.date) FROM ActivityEntity a WHERE a.runner.id = :runnerId")
+    LocalDate findLastActivityDate(@Param("runnerId") Long runnerId);
+
+    /**
+     * Finds the date of the first activity of a runner (start of the full-history report).
+     * @param runnerId The ID of the user.
+     * @return The earliest activity date, or null if the runner has no activities.
      */
-    long countByRunner(RunnerEntity runner);
+    @Query("SELECT MIN(a.date) FROM ActivityEntity a WHERE a.runner.id = :runnerId")
+    LocalDate findFirstActivityDate(@Param("runnerId") Long runnerId);
 
     /**
-     * Calculates the total distance run by a user using a custom JPQL query.
+     * Finds the longest runs of a runner.
+     * <p>
+     * Used for the personal bests. The LIMIT keeps the result at a few rows even for
+     * runners with tens of thousands of activities.
+     * </p>
      * @param runnerId The ID of the user.
-     * @return The sum of distanceKm for all activities of this runner. Can be null if no runs exist.
+     * @param limit    Maximum number of rows to return.
+     * @return Activities ordered by distance, descending (the earlier run wins a tie).
      */
     @Query("""
-        SELECT SUM(a.distanceKm)
+        SELECT a
         FROM ActivityEntity a
         WHERE a.runner.id = :runnerId
+        ORDER BY a.distanceKm DESC, a.date, a.id
     """)
-    Double totalDistance(@Param("runnerId") Long runnerId);
+    List<ActivityEntity> findLongestRuns(@Param("runnerId") Long runnerId, Limit limit);
 
     /**
-     * Counts the total activities for a user (Alternative to countByRunner).
+     * Finds the runs with the best average pace (seconds per km) of at least a minimum distance.
      * <p>
-     * This uses a custom query to do the exact same thing as countByRunner,
-     * but explicitly selects the count based on the ID.
+     * The minimum distance keeps very short test recordings out of the personal bests.
      * </p>
-     * @param runnerId The ID of the user.
-     * @return The count of rows.
+     * @param runnerId      The ID of the user.
+     * @param minDistanceKm Minimum distance of a run to be considered.
+     * @param limit         Maximum number of rows to return.
+     * @return Activities ordered by pace, fastest first.
      */
     @Query("""
-        SELECT COUNT(a)
+        SELECT a
         FROM ActivityEntity a
         WHERE a.runner.id = :runnerId
+          AND a.distanceKm >= :minDistanceKm
+          AND a.durationSec > 0
+        ORDER BY a.durationSec / a.distanceKm, a.date, a.id
+    """)
+    List<ActivityEntity> findFastestRuns(
+            @Param("runnerId") Long runnerId,
+            @Param("minDistanceKm") double minDistanceKm,
+            Limit limit
+    );
+
+    /**
+     * Computes the badge-relevant lifetime figures of every runner with activities in an ID range.
+     * <p>
+     * One GROUP BY over the (runner_id, date) index for a whole chunk of runners, used by the badge recompute job.
+     * Runners without activities are not returned.
+     * </p>
+     * @param fromRunnerId      First runner ID of the range (inclusive).
+     * @param toRunnerId        Last runner ID of the range (inclusive).
+     * @param paceMinDistanceKm Minimum distance of a run to count for the best pace.
+     * @return One row per runner, ordered by runner ID.
+     */
+    @Query("""
+        SELECT new com.pavel.jogger.persistence.projection.RunnerBadgeTotals(
+                   a.runner.id,
+                   COUNT(a),
+                   SUM(a.distanceKm),
+                   MAX(a.distanceKm),
+                   MIN(CASE WHEN a.distanceKm >= :paceMinDistanceKm AND a.durationSec > 0
+                            THEN a.durationSec / a.distanceKm END))
+        FROM ActivityEntity a
+        WHERE a.runner.id BETWEEN :fromRunnerId AND :toRunnerId
+        GROUP BY a.runner.id
+        ORDER BY a.runner.id
     """)
-    Long totalActivities(@Param("runnerId") Long runnerId);
+    List<RunnerBadgeTotals> findBadgeTotals(
+            @Param("fromRunnerId") Long fromRunnerId,
+            @Param("toRunnerId") Long toRunnerId,
+            @Param("paceMinDistanceKm") double paceMinDistanceKm
+    );
+
+    /**
+     * Deletes up to {@code limit} activities of a runner in one statement.
+     * Used by the account deletion job, which repeats it in short transactions until fewer rows are deleted.
+     * @return The number of deleted rows.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM activities WHERE runner_id = :runnerId LIMIT :limit", nativeQuery = true)
+    int deleteChunkByRunner(@Param("runnerId") Long runnerId, @Param("limit") int limit);
 
     /**
-     * Calculates total distance ensuring a non-null result.
+     * Loads and locks an activity for an edit or a deletion, but only if it belongs to the given runner.
      * <p>
-     * COALESCE is a SQL function that returns the first non-null value.
-     * If SUM returns null (user has 0 runs), this returns 0 instead.
-     * This is safer than 'totalDistance' above which might return null.
+     * The ownership check is part of the WHERE clause, so the owner never has to be loaded separately.
+     * The row lock ({@code SELECT ... FOR UPDATE}) keeps a concurrent edit or deletion of the same activity
+     * waiting until this transaction commits, so the old values used for the stats deltas are current.
      * </p>
-     * @param runner The runner entity.
-     * @return The total distance or 0.0 if no runs found.
+     * @param activityId The ID of the activity.
+     * @param runnerId   The ID of the owner, or null to skip the ownership check (admins).
+     * @return Empty if the activity does not exist or belongs to someone else.
      */
-    @Query("SELECT COALESCE(SUM(a.distanceKm), 0) FROM ActivityEntity a WHERE a.runner = :runner")
-    Double sumDistanceByRunner(@Param("runner") RunnerEntity runner);
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM ActivityEntity a WHERE a.id = :activityId AND (:runnerId IS NULL OR a.runner.id = :runnerId)")
+    Optional<ActivityEntity> findOwnedForUpdate(@Param("activityId") Long activityId, @Param("runnerId") Long runnerId);
 }
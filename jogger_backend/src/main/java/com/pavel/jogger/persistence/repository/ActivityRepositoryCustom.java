@@ -0,0 +1,27 @@
+package com.pavel.jogger.persistence.repository;
+
+import com.pavel.jogger.persistence.entity.ActivityEntity;
+
+import java.util.List;
+
+/**
+ * Bulk write operations on activities that bypass the JPA persistence context.
+ * <p>
+ * Spring Data merges this fragment into {@link ActivityRepository}; the implementation lives in
+ * {@link ActivityRepositoryImpl}.
+ * </p>
+ */
+public interface ActivityRepositoryCustom {
+
+    /**
+     * Inserts many activities of one runner as a single JDBC batch.
+     * <p>
+     * The rows are not attached to the persistence context and their generated IDs are not read back,
+     * so the caller must not use the passed entities as managed objects afterwards.
+     * </p>
+     * @param runnerId   The owner of all rows.
+     * @param activities The rows to insert (the runner reference of each row is ignored).
+     * @return The number of inserted rows.
+     */
+    int insertAll(Long runnerId, List<ActivityEntity> activities);
+}
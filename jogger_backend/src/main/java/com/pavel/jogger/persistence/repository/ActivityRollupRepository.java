@@ -0,0 +1,117 @@
+package com.pavel.jogger.persistence.repository;
+
+import com.pavel.jogger.persistence.entity.ActivityRollupEntity;
+import com.pavel.jogger.persistence.projection.BucketTotals;
+import com.pavel.jogger.persistence.projection.RunnerDay;
+import com.pavel.jogger.web.dto.chart.ChartBucket;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Repository for the pre-summed chart buckets ("activity_rollups" table).
+ * <p>
+ * Like the runner stats, buckets are changed with relative statements (value = value + delta),
+ * so concurrent uploads for the same runner and day never lose each other's changes.
+ * Range reads and the bulk rebuild live in {@link ActivityRollupRepositoryImpl}.
+ * </p>
+ */
+public interface ActivityRollupRepository extends JpaRepository<ActivityRollupEntity, Long>, ActivityRollupRepositoryCustom {
+
+    /**
+     * Adds the given deltas to one bucket, creating the bucket if it does not exist yet.
+     * <p>
+     * A single INSERT ... ON DUPLICATE KEY UPDATE on the unique (runner, period, bucket start) key,
+     * so two transactions creating the same bucket at the same time cannot both insert it.
+     * </p>
+     * @param period The stored period name (DAY, WEEK or MONTH).
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+        INSERT INTO activity_rollups (runner_id, period, bucket_start, runs, distance_km, duration_sec, calories)
+        VALUES (:runnerId, :period, :bucketStart, :runs, :distanceKm, :durationSec, :calories)
+        ON DUPLICATE KEY UPDATE
+            runs = runs + :runs,
+            distance_km = distance_km + :distanceKm,
+            duration_sec = duration_sec + :durationSec,
+            calories = calories + :calories
+    """, nativeQuery = true)
+    int addToBucket(
+            @Param("runnerId") Long runnerId,
+            @Param("period") String period,
+            @Param("bucketStart") LocalDate bucketStart,
+            @Param("runs") long runs,
+            @Param("distanceKm") double distanceKm,
+            @Param("durationSec") long durationSec,
+            @Param("calories") long calories
+    );
+
+    /**
+     * Deletes all buckets of the runners in an ID range (inclusive on both ends).
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM ActivityRollupEntity r WHERE r.runnerId BETWEEN :fromRunnerId AND :toRunnerId")
+    int deleteByRunnerRange(@Param("fromRunnerId") Long fromRunnerId, @Param("toRunnerId") Long toRunnerId);
+
+    /**
+     * Deletes buckets whose activities were all removed again.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM ActivityRollupEntity r WHERE r.runs <= 0")
+    int deleteEmptyBuckets();
+
+    /**
+     * Finds the buckets with the largest distance of a runner (e.g. the best month ever).
+     * Reads only the runner's rows of one period, never the raw activities.
+     * @param runnerId The ID of the user.
+     * @param period   The stored period (DAY, WEEK or MONTH).
+     * @param limit    Maximum number of buckets to return.
+     * @return Buckets ordered by distance, descending (the earlier bucket wins a tie).
+     */
+    @Query("""
+        SELECT new com.pavel.jogger.persistence.projection.BucketTotals(
+                   r.bucketStart, r.runs, r.distanceKm, r.durationSec, r.calories)
+        FROM ActivityRollupEntity r
+        WHERE r.runnerId = :runnerId
+          AND r.period = :period
+          AND r.runs > 0
+        ORDER BY r.distanceKm DESC, r.bucketStart
+    """)
+    List<BucketTotals> findTopBuckets(
+            @Param("runnerId") Long runnerId,
+            @Param("period") ChartBucket period,
+            Limit limit
+    );
+
+    /**
+     * Streams the days with runs of all runners in an ID range, ordered by runner and day.
+     * <p>
+     * Read from the daily buckets (one row per runner and day) instead of the activities. The result is streamed
+     * so a chunk of long-time runners is never held in memory at once; the caller must consume it inside a transaction.
+     * </p>
+     */
+    @Query("""
+        SELECT new com.pavel.jogger.persistence.projection.RunnerDay(r.runnerId, r.bucketStart)
+        FROM ActivityRollupEntity r
+        WHERE r.runnerId BETWEEN :fromRunnerId AND :toRunnerId
+          AND r.period = com.pavel.jogger.web.dto.chart.ChartBucket.DAY
+          AND r.runs > 0
+        ORDER BY r.runnerId, r.bucketStart
+    """)
+    Stream<RunnerDay> streamRunDays(@Param("fromRunnerId") Long fromRunnerId, @Param("toRunnerId") Long toRunnerId);
+
+    /**
+     * Deletes up to {@code limit} chart buckets of a runner in one statement.
+     * Used by the account deletion job, which repeats it in short transactions until fewer rows are deleted.
+     * @return The number of deleted rows.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM activity_rollups WHERE runner_id = :runnerId LIMIT :limit", nativeQuery = true)
+    int deleteChunkByRunner(@Param("runnerId") Long runnerId, @Param("limit") int limit);
+}
@@ -0,0 +1,40 @@
+package com.pavel.jogger.persistence.repository;
+
+import com.pavel.jogger.persistence.projection.BucketTotals;
+import com.pavel.jogger.web.dto.chart.ChartBucket;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Rollup queries whose text depends on the bucket size and therefore cannot be a single static {@code @Query}.
+ * <p>
+ * Spring Data merges this fragment into {@link ActivityRollupRepository}; the implementation lives in
+ * {@link ActivityRollupRepositoryImpl}.
+ * </p>
+ */
+public interface ActivityRollupRepositoryCustom {
+
+    /**
+     * Reads the pre-summed buckets of a runner in a date range.
+     * @param runnerId The ID of the user.
+     * @param bucket   The bucket size. YEAR is summed from the monthly rows.
+     * @param from     Inclusive start date (a bucket start).
+     * @param until    Exclusive end date (a bucket start).
+     * @return One row per non-empty bucket, ordered by bucket start.
+     */
+    List<BucketTotals> findBuckets(Long runnerId, ChartBucket bucket, LocalDate from, LocalDate until);
+
+    /**
+     * Regenerates the buckets of one period for all runners in an ID range straight from the activities table,
+     * with a single INSERT ... SELECT ... GROUP BY statement.
+     * <p>
+     * The caller must delete the existing buckets of the range first, in the same transaction.
+     * </p>
+     * @param fromRunnerId First runner ID of the range (inclusive).
+     * @param toRunnerId   Last runner ID of the range (inclusive).
+     * @param period       The stored period (DAY, WEEK or MONTH).
+     * @return The number of buckets written.
+     */
+    int insertFromActivities(Long fromRunnerId, Long toRunnerId, ChartBucket period);
+}
@@ -0,0 +1,94 @@
+package com.pavel.jogger.persistence.repository;
+
+import com.pavel.jogger.persistence.projection.BucketTotals;
+import com.pavel.jogger.web.dto.chart.ChartBucket;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Implementation of {@link ActivityRollupRepositoryCustom}.
+ * <p>
+ * The bucket start of an activity is computed with portable HQL functions that Hibernate
+ * translates for the configured database (never from user input):
+ * <br>
+ * - DAY: the activity date itself. <br>
+ * - WEEK: the Monday of the ISO week (day of week is 1 = Sunday ... 7 = Saturday). <br>
+ * - MONTH: the date truncated to the first day of the month.
+ * </p>
+ */
+public class ActivityRollupRepositoryImpl implements ActivityRollupRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<BucketTotals> findBuckets(Long runnerId, ChartBucket bucket, LocalDate from, LocalDate until) {
+        if (bucket == ChartBucket.YEAR) {
+            return entityManager.createQuery("""
+                SELECT new com.pavel.jogger.persistence.projection.BucketTotals(
+                           truncate(r.bucketStart, year), SUM(r.runs), SUM(r.distanceKm), SUM(r.durationSec), SUM(r.calories))
+                FROM ActivityRollupEntity r
+                WHERE r.runnerId = :runnerId
+                  AND r.period = :period
+                  AND r.bucketStart >= :from
+                  AND r.bucketStart < :until
+                  AND r.runs > 0
+                GROUP BY truncate(r.bucketStart, year)
+                ORDER BY truncate(r.bucketStart, year)
+            """, BucketTotals.class)
+                    .setParameter("runnerId", runnerId)
+                    .setParameter("period", ChartBucket.MONTH)
+                    .setParameter("from", from)
+                    .setParameter("until", until)
+                    .getResultList();
+        }
+
+        return entityManager.createQuery("""
+            SELECT new com.pavel.jogger.persistence.projection.BucketTotals(
+                       r.bucketStart, r.runs, r.distanceKm, r.durationSec, r.calories)
+            FROM ActivityRollupEntity r
+            WHERE r.runnerId = :runnerId
+              AND r.period = :period
+              AND r.bucketStart >= :from
+              AND r.bucketStart < :until
+              AND r.runs > 0
+            ORDER BY r.bucketStart
+        """, BucketTotals.class)
+                .setParameter("runnerId", runnerId)
+                .setParameter("period", bucket)
+                .setParameter("from", from)
+                .setParameter("until", until)
+                .getResultList();
+    }
+
+    @Override
+    public int insertFromActivities(Long fromRunnerId, Long toRunnerId, ChartBucket period) {
+        String bucketStart = bucketStartExpression(period);
+
+        String hql = """
+            INSERT INTO ActivityRollupEntity (runnerId, period, bucketStart, runs, distanceKm, durationSec, calories)
+            SELECT a.runner.id, :period, %1$s, COUNT(a), SUM(a.distanceKm), SUM(a.durationSec), SUM(a.calories)
+            FROM ActivityEntity a
+            WHERE a.runner.id BETWEEN :fromRunnerId AND :toRunnerId
+            GROUP BY a.runner.id, %1$s
+        """.formatted(bucketStart);
+
+        return entityManager.createQuery(hql)
+                .setParameter("period", period)
+                .setParameter("fromRunnerId", fromRunnerId)
+                .setParameter("toRunnerId", toRunnerId)
+                .executeUpdate();
+    }
+
+    private static String bucketStartExpression(ChartBucket period) {
+        return switch (period) {
+            case DAY -> "a.date";
+            case WEEK -> "a.date - mod(extract(day of week from a.date) + 5, 7) day";
+            case MONTH -> "truncate(a.date, month)";
+            case YEAR -> throw new IllegalArgumentException("Yearly buckets are not stored");
+        };
+    }
+}
@@ -0,0 +1,72 @@
+package com.pavel.jogger.persistence.repository;
+
+import com.pavel.jogger.persistence.entity.BadgeOutboxEntity;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository for the pending badge evaluations ("badge_outbox" table).
+ */
+public interface BadgeOutboxRepository extends JpaRepository<BadgeOutboxEntity, Long> {
+
+    /**
+     * Locks the oldest events that are due, skipping rows another worker has already locked.
+     * <p>
+     * The lock timeout hint -2 makes Hibernate render {@code FOR UPDATE SKIP LOCKED} (MySQL 8+), so several
+     * workers or instances can claim batches at the same time without waiting for, or double-processing,
+     * each other's rows.
+     * </p>
+     * @param now   Only events with {@code availableAt <= now} are returned.
+     * @param limit Maximum number of events to claim.
+     * @return The locked events, oldest first.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM BadgeOutboxEntity e WHERE e.availableAt <= :now ORDER BY e.id")
+    List<BadgeOutboxEntity> claimDue(@Param("now") Instant now, Limit limit);
+
+    /**
+     * Hides claimed events from other workers until the lease expires.
+     * If the worker dies, the events simply become due again.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE BadgeOutboxEntity e SET e.availableAt = :until WHERE e.id IN :ids")
+    int lease(@Param("ids") Collection<Long> ids, @Param("until") Instant until);
+
+    /**
+     * Records a failed attempt and schedules the next one ({@code retryAt} null = give up).
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+        UPDATE BadgeOutboxEntity e
+        SET e.attempts = e.attempts + 1,
+            e.availableAt = :retryAt,
+            e.lastError = :error
+        WHERE e.id IN :ids
+    """)
+    int markFailed(@Param("ids") Collection<Long> ids, @Param("retryAt") Instant retryAt, @Param("error") String error);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM BadgeOutboxEntity e WHERE e.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Deletes up to {@code limit} outbox events of a runner in one statement.
+     * Used by the account deletion job, which repeats it in short transactions until fewer rows are deleted.
+     * @return The number of deleted rows.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM badge_outbox WHERE runner_id = :runnerId LIMIT :limit", nativeQuery = true)
+    int deleteChunkByRunner(@Param("runnerId") Long runnerId, @Param("limit") int limit);
+}
@@ -0,0 +1,67 @@
+package com.pavel.jogger.persistence.repository;
+
+import com.pavel.jogger.persistence.entity.BadgeRecomputeJobEntity;
+import com.pavel.jogger.persistence.entity.BadgeRecomputeJobEntity.Status;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Repository for the progress rows of the badge recompute job.
+ * <p>
+ * Progress is changed with relative UPDATE statements, so the job never has to keep a managed entity
+ * across its chunk transactions.
+ * </p>
+ */
+public interface BadgeRecomputeJobRepository extends JpaRepository<BadgeRecomputeJobEntity, Long> {
+
+    /**
+     * Returns the most recently started job, if any.
+     */
+    Optional<BadgeRecomputeJobEntity> findFirstByOrderByIdDesc();
+
+    /**
+     * Records a committed chunk. Must run in the chunk's transaction.
+     * @param lastRunnerId Highest runner ID of the chunk.
+     * @param runners      Number of runners in the chunk.
+     * @param awarded      Number of badges inserted for the chunk.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+        UPDATE BadgeRecomputeJobEntity j
+        SET j.lastRunnerId = :lastRunnerId,
+            j.processedRunners = j.processedRunners + :runners,
+            j.awardedBadges = j.awardedBadges + :awarded
+        WHERE j.id = :id
+    """)
+    int recordChunk(
+            @Param("id") Long id,
+            @Param("lastRunnerId") long lastRunnerId,
+            @Param("runners") long runners,
+            @Param("awarded") long awarded
+    );
+
+    /**
+     * Moves a job to another status, e.g. RUNNING again when a failed job is resumed.
+     * @param finishedAt The end time, or null while the job is running.
+     * @param error      The failure message, or null.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+        UPDATE BadgeRecomputeJobEntity j
+        SET j.status = :status,
+            j.finishedAt = :finishedAt,
+            j.lastError = :error
+        WHERE j.id = :id
+    """)
+    int updateStatus(
+            @Param("id") Long id,
+            @Param("status") Status status,
+            @Param("finishedAt") Instant finishedAt,
+            @Param("error") String error
+    );
+}
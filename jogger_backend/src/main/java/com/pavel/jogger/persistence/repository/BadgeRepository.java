@@ -1,31 +1,75 @@
 package com.pavel.jogger.persistence.repository;
 
 import com.pavel.jogger.persistence.entity.BadgeEntity;
-import com.pavel.jogger.persistence.entity.RunnerEntity;
+import com.pavel.jogger.persistence.projection.EarnedBadge;
+import com.pavel.jogger.persistence.projection.RunnerBadgeCode;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
-import java.util.Optional;
+import java.util.Set;
 
 /**
  * Repository for managing Badge entities.
  */
-public interface BadgeRepository extends JpaRepository<BadgeEntity, Long> {
+public interface BadgeRepository extends JpaRepository<BadgeEntity, Long>, BadgeRepositoryCustom {
 
     /**
-     * Checks if a specific runner already has a specific badge type.
+     * Loads the codes of all badges a runner already has.
      * <p>
-     * This is critical for <b>Idempotency</b>: preventing the system from awarding
-     * the "First 5K" badge every time the user runs 5km.
+     * This is critical for <b>Idempotency</b>: the badge rules skip every code in this set,
+     * so the "First 5K" badge is not awarded again every time the user runs 5km.
+     * One query replaces a lookup per rule.
      * </p>
-     * @param runner The user entity.
-     * @param code   The unique badge code.
-     * @return An Optional containing the badge if it exists.
+     * @param runnerId The ID of the user.
+     * @return The earned badge codes.
      */
-    Optional<BadgeEntity> findByRunnerAndCode(RunnerEntity runner, String code);
+    @Query("SELECT b.code FROM BadgeEntity b WHERE b.runner.id = :runnerId")
+    Set<String> findCodesByRunnerId(@Param("runnerId") Long runnerId);
 
     /**
-     * Retrieves all badges earned by a specific runner.
+     * Retrieves all badges earned by a specific runner, as projections of the displayed columns.
      */
-    List<BadgeEntity> findByRunnerId(Long runnerId);
+    @Query("""
+        SELECT new com.pavel.jogger.persistence.projection.EarnedBadge(b.code, b.name, b.description, b.awardedAt, b.seen)
+        FROM BadgeEntity b
+        WHERE b.runner.id = :runnerId
+    """)
+    List<EarnedBadge> findEarnedByRunnerId(@Param("runnerId") Long runnerId);
+
+    /**
+     * Marks all unseen badges of a runner as seen with a single UPDATE.
+     * @return The number of badges that changed.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE BadgeEntity b SET b.seen = true WHERE b.runner.id = :runnerId AND b.seen = false")
+    int markAllSeen(@Param("runnerId") Long runnerId);
+
+    /**
+     * Counts the badges of a runner that were not seen yet.
+     */
+    @Query("SELECT COUNT(b) FROM BadgeEntity b WHERE b.runner.id = :runnerId AND b.seen = false")
+    int countUnseen(@Param("runnerId") Long runnerId);
+
+    /**
+     * Loads the earned badge codes of all runners in an ID range (inclusive on both ends).
+     * Used by the recompute job, which handles a chunk of runners per query.
+     */
+    @Query("""
+        SELECT new com.pavel.jogger.persistence.projection.RunnerBadgeCode(b.runner.id, b.code)
+        FROM BadgeEntity b
+        WHERE b.runner.id BETWEEN :fromRunnerId AND :toRunnerId
+    """)
+    List<RunnerBadgeCode> findCodesByRunnerRange(@Param("fromRunnerId") Long fromRunnerId, @Param("toRunnerId") Long toRunnerId);
+
+    /**
+     * Deletes up to {@code limit} badges of a runner in one statement.
+     * Used by the account deletion job, which repeats it in short transactions until fewer rows are deleted.
+     * @return The number of deleted rows.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM badges WHERE runner_id = :runnerId LIMIT :limit", nativeQuery = true)
+    int deleteChunkByRunner(@Param("runnerId") Long runnerId, @Param("limit") int limit);
 }
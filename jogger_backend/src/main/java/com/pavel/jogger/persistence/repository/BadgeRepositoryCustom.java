@@ -0,0 +1,34 @@
+package com.pavel.jogger.persistence.repository;
+
+import com.pavel.jogger.persistence.entity.BadgeEntity;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bulk write operations on badges that bypass the JPA persistence context.
+ * <p>
+ * Spring Data merges this fragment into {@link BadgeRepository}; the implementation lives in
+ * {@link BadgeRepositoryImpl}.
+ * </p>
+ */
+public interface BadgeRepositoryCustom {
+
+    /**
+     * Inserts newly earned badges of one runner and reports which of them were actually written.
+     * <p>
+     * A badge the runner already has (e.g. awarded by a concurrent evaluation a moment earlier)
+     * is skipped by the unique (runner_id, code) key instead of failing the insert.
+     * </p>
+     * @param runnerId The owner of all badges.
+     * @param badges   The badges to insert (the runner reference of each badge is ignored).
+     * @return The badges that were inserted, in the given order (the skipped duplicates left out).
+     */
+    List<BadgeEntity> insertIgnoringDuplicates(Long runnerId, List<BadgeEntity> badges);
+
+    /**
+     * Inserts newly earned badges of several runners as a single JDBC batch, with the same duplicate handling.
+     * @param badgesByRunner The badges to insert, keyed by the ID of their owner.
+     */
+    void insertIgnoringDuplicates(Map<Long, List<BadgeEntity>> badgesByRunner);
+}
@@ -0,0 +1,66 @@
+package com.pavel.jogger.persistence.repository;
+
+import com.pavel.jogger.persistence.entity.BadgeEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementation of {@link BadgeRepositoryCustom}.
+ * <p>
+ * Badges use IDENTITY keys, which Hibernate cannot batch, so new badges are written with plain JDBC
+ * on the transaction's connection. INSERT IGNORE skips an already existing (runner_id, code) pair.
+ * <br>
+ * The badges of one runner are inserted one statement each, because only a single statement reports
+ * reliably whether its row was written: the batch counts of a rewritten multi-row insert are not per row.
+ * An evaluation earns at most a handful of badges, so this costs a few round trips at most.
+ * </p>
+ */
+public class BadgeRepositoryImpl implements BadgeRepositoryCustom {
+
+    private static final String INSERT_SQL = """
+        INSERT IGNORE INTO badges (runner_id, code, name, description, awarded_at, seen)
+        VALUES (?, ?, ?, ?, ?, ?)
+    """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BadgeRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<BadgeEntity> insertIgnoringDuplicates(Long runnerId, List<BadgeEntity> badges) {
+        List<BadgeEntity> inserted = new ArrayList<>(badges.size());
+        for (BadgeEntity badge : badges) {
+            int rows = jdbcTemplate.update(INSERT_SQL, runnerId, badge.getCode(), badge.getName(),
+                    badge.getDescription(), Date.valueOf(badge.getAwardedAt()), badge.isSeen());
+            if (rows > 0) {
+                inserted.add(badge);
+            }
+        }
+        return inserted;
+    }
+
+    @Override
+    public void insertIgnoringDuplicates(Map<Long, List<BadgeEntity>> badgesByRunner) {
+        List<Map.Entry<Long, BadgeEntity>> rows = new ArrayList<>();
+        badgesByRunner.forEach((runnerId, badges) -> badges.forEach(badge -> rows.add(Map.entry(runnerId, badge))));
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows, rows.size(), (ps, row) -> {
+            BadgeEntity badge = row.getValue();
+            ps.setLong(1, row.getKey());
+            ps.setString(2, badge.getCode());
+            ps.setString(3, badge.getName());
+            ps.setString(4, badge.getDescription());
+            ps.setDate(5, Date.valueOf(badge.getAwardedAt()));
+            ps.setBoolean(6, badge.isSeen());
+        });
+    }
+}
@@ -1,9 +1,18 @@
 package com.pavel.jogger.persistence.repository;
 
 import com.pavel.jogger.persistence.entity.RunnerEntity;
+import com.pavel.jogger.persistence.projection.RunnerSummary;
+import com.pavel.jogger.web.dto.runner.RunnerResponse;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository for managing Runner entities.
@@ -19,6 +28,27 @@ public interface RunnerRepository extends JpaRepository<RunnerEntity, Long> {
      */
     Optional<RunnerEntity> findByUsername(String username);
 
+    /**
+     * Reads the public profile of an active runner straight into the response DTO.
+     * Only the five profile columns are selected; no entity is loaded into the persistence context.
+     */
+    @Query("""
+        SELECT new com.pavel.jogger.web.dto.runner.RunnerResponse(r.id, r.username, r.email, r.role, r.dateJoined)
+        FROM RunnerEntity r
+        WHERE r.id = :id AND r.disabled = false
+    """)
+    Optional<RunnerResponse> findProfileById(@Param("id") Long id);
+
+    /**
+     * Same as {@link #findProfileById}, looked up by username (used by {@code /runners/me}).
+     */
+    @Query("""
+        SELECT new com.pavel.jogger.web.dto.runner.RunnerResponse(r.id, r.username, r.email, r.role, r.dateJoined)
+        FROM RunnerEntity r
+        WHERE r.username = :username AND r.disabled = false
+    """)
+    Optional<RunnerResponse> findProfileByUsername(@Param("username") String username);
+
     /**
      * Checks if a username is already taken.
      * @return true if the username exists, false otherwise.
@@ -30,4 +60,173 @@ public interface RunnerRepository extends JpaRepository<RunnerEntity, Long> {
      * @return true if the email exists, false otherwise.
      */
     boolean existsByEmail(String email);
+
+    /**
+     * Returns the next runner IDs after a given ID, in ascending order.
+     * Used by background jobs to walk all runners in chunks over the primary key.
+     */
+    @Query("SELECT r.id FROM RunnerEntity r WHERE r.id > :afterId ORDER BY r.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Returns the data version of a runner (a primary key lookup of a single column).
+     */
+    @Query("SELECT r.dataVersion FROM RunnerEntity r WHERE r.id = :id")
+    Optional<Long> findDataVersion(@Param("id") Long id);
+
+    /**
+     * Increments the data version of a runner.
+     * @return The number of updated rows (0 if the runner does not exist).
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE RunnerEntity r SET r.dataVersion = r.dataVersion + 1 WHERE r.id = :id")
+    int bumpDataVersion(@Param("id") Long id);
+
+    /**
+     * Increments the data version of several runners with one statement.
+     * @return The number of updated rows.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE RunnerEntity r SET r.dataVersion = r.dataVersion + 1 WHERE r.id IN :ids")
+    int bumpDataVersions(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Replaces the stored password hash of a runner (e.g. re-hashed with a new cost).
+     * @return The number of updated rows (0 if the runner does not exist).
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE RunnerEntity r SET r.passwordHash = :hash WHERE r.username = :username")
+    int updatePasswordHash(@Param("username") String username, @Param("hash") String hash);
+
+    /**
+     * Streams all usernames. Must be consumed inside a transaction.
+     * Used to build the in-memory username filter (see UsernameAvailabilityService).
+     */
+    @Query("SELECT r.username FROM RunnerEntity r")
+    Stream<String> streamUsernames();
+
+    /**
+     * Fetches one page of the admin runner list using keyset pagination over the primary key.
+     * <p>
+     * Only the listed columns are selected and accounts waiting for deletion are left out.
+     * Searches use {@link #findIdsByUsernamePrefix} and {@link #findIdsByEmailPrefix} instead.
+     * </p>
+     * @param afterId ID of the last row already returned (0 on the first page).
+     * @param limit   Maximum number of rows to return.
+     * @return Rows ordered by id.
+     */
+    @Query("""
+        SELECT new com.pavel.jogger.persistence.projection.RunnerSummary(r.id, r.username, r.email, r.role, r.dateJoined)
+        FROM RunnerEntity r
+        WHERE r.id > :afterId
+          AND r.disabled = false
+        ORDER BY r.id
+    """)
+    List<RunnerSummary> findSummaries(@Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Same as {@link #findSummaries}, with the lifetime totals joined from the stats table in the same query.
+     * Runners without a stats row get null totals.
+     */
+    @Query("""
+        SELECT new com.pavel.jogger.persistence.projection.RunnerSummary(
+            r.id, r.username, r.email, r.role, r.dateJoined, s.totalRuns, s.totalDistanceKm)
+        FROM RunnerEntity r
+        LEFT JOIN RunnerStatsEntity s ON s.runnerId = r.id
+        WHERE r.id > :afterId
+          AND r.disabled = false
+        ORDER BY r.id
+    """)
+    List<RunnerSummary> findSummariesWithTotals(@Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Returns the IDs of the runners whose username starts with a prefix, after a cursor.
+     * <p>
+     * The prefix (already escaped with {@code !}) is a range of the unique username index, so only the matching
+     * rows are read and sorted, however rare the prefix is. Matching username and email in one
+     * {@code OR} condition would walk the primary key instead and filter the whole table.
+     * <br>
+     * Disabled accounts are not filtered here (that condition would steer the planner to the (disabled, id) index);
+     * {@link #findSummariesByIds} leaves them out.
+     * </p>
+     * @param afterId ID of the last row already returned (0 on the first page).
+     * @param prefix  A LIKE pattern such as {@code "ali%"}.
+     * @param limit   Maximum number of IDs to return.
+     * @return IDs in ascending order.
+     */
+    @Query("""
+        SELECT r.id FROM RunnerEntity r
+        WHERE r.username LIKE :prefix ESCAPE '!'
+          AND r.id > :afterId
+        ORDER BY r.id
+    """)
+    List<Long> findIdsByUsernamePrefix(@Param("afterId") Long afterId, @Param("prefix") String prefix, Limit limit);
+
+    /**
+     * Same as {@link #findIdsByUsernamePrefix}, matching the email (a range of the unique email index).
+     */
+    @Query("""
+        SELECT r.id FROM RunnerEntity r
+        WHERE r.email LIKE :prefix ESCAPE '!'
+          AND r.id > :afterId
+        ORDER BY r.id
+    """)
+    List<Long> findIdsByEmailPrefix(@Param("afterId") Long afterId, @Param("prefix") String prefix, Limit limit);
+
+    /**
+     * Loads the list columns of the given runners (primary key lookups), leaving out disabled accounts.
+     * @return Rows ordered by id.
+     */
+    @Query("""
+        SELECT new com.pavel.jogger.persistence.projection.RunnerSummary(r.id, r.username, r.email, r.role, r.dateJoined)
+        FROM RunnerEntity r
+        WHERE r.id IN :ids
+          AND r.disabled = false
+        ORDER BY r.id
+    """)
+    List<RunnerSummary> findSummariesByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Same as {@link #findSummariesByIds}, with the lifetime totals joined from the stats table.
+     */
+    @Query("""
+        SELECT new com.pavel.jogger.persistence.projection.RunnerSummary(
+            r.id, r.username, r.email, r.role, r.dateJoined, s.totalRuns, s.totalDistanceKm)
+        FROM RunnerEntity r
+        LEFT JOIN RunnerStatsEntity s ON s.runnerId = r.id
+        WHERE r.id IN :ids
+          AND r.disabled = false
+        ORDER BY r.id
+    """)
+    List<RunnerSummary> findSummariesWithTotalsByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Marks an account as disabled (waiting for deletion) and invalidates its tokens by bumping the token version.
+     * @return 1 if the account was disabled now, 0 if it does not exist or was already disabled.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE RunnerEntity r SET r.disabled = true, r.tokenVersion = r.tokenVersion + 1 WHERE r.id = :id AND r.disabled = false")
+    int disable(@Param("id") Long id);
+
+    /**
+     * Returns the token version of an account that is not disabled (a primary key lookup of two columns).
+     * @return Empty if the account does not exist or is disabled.
+     */
+    @Query("SELECT r.tokenVersion FROM RunnerEntity r WHERE r.id = :id AND r.disabled = false")
+    Optional<Integer> findActiveTokenVersion(@Param("id") Long id);
+
+    /**
+     * Returns disabled accounts, i.e. accounts waiting to be deleted.
+     */
+    @Query("SELECT r.id FROM RunnerEntity r WHERE r.disabled = true ORDER BY r.id")
+    List<Long> findDisabledIds(Limit limit);
+
+    /**
+     * Deletes the row of a disabled account, without loading it or cascading to its collections.
+     * Its activities, badges and other rows must have been deleted before.
+     * @return The number of deleted rows.
+     */
+    @Modifying
+    @Query("DELETE FROM RunnerEntity r WHERE r.id = :id AND r.disabled = true")
+    int deleteDisabled(@Param("id") Long id);
 }
@@ -0,0 +1,127 @@
+package com.pavel.jogger.persistence.repository;
+
+import com.pavel.jogger.persistence.entity.RunnerStatsEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository for the per-runner aggregate rows ("runner_stats" table).
+ * <p>
+ * Totals are changed with relative UPDATE statements (total = total + delta) instead of
+ * read-modify-write in Java, so two concurrent activity uploads for the same runner cannot
+ * overwrite each other's changes.
+ * </p>
+ */
+public interface RunnerStatsRepository extends JpaRepository<RunnerStatsEntity, Long> {
+
+    /**
+     * Adds the given deltas to a runner's totals.
+     * <p>
+     * When {@code activityDate} is not null and newer than the stored last activity date,
+     * the last activity date is moved forward as well.
+     * </p>
+     * @return The number of updated rows (0 if the runner has no stats row yet).
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("""
+        UPDATE RunnerStatsEntity s
+        SET s.totalDistanceKm = s.totalDistanceKm + :distanceKm,
+            s.totalRuns = s.totalRuns + :runs,
+            s.totalDurationSec = s.totalDurationSec + :durationSec,
+            s.totalCalories = s.totalCalories + :calories,
+            s.lastActivityDate = CASE
+                WHEN :activityDate IS NOT NULL
+                     AND (s.lastActivityDate IS NULL OR s.lastActivityDate < :activityDate)
+                THEN :activityDate
+                ELSE s.lastActivityDate
+            END
+        WHERE s.runnerId = :runnerId
+    """)
+    int applyDelta(
+            @Param("runnerId") Long runnerId,
+            @Param("distanceKm") double distanceKm,
+            @Param("runs") long runs,
+            @Param("durationSec") long durationSec,
+            @Param("calories") long calories,
+            @Param("activityDate") LocalDate activityDate
+    );
+
+    /**
+     * Creates a runner's row with the given values unless the runner already has one.
+     * <p>
+     * Two transactions building the first row of the same runner at the same time cannot both insert it:
+     * the second one waits for the first, then skips the row instead of failing on the primary key.
+     * <br>
+     * INSERT IGNORE rather than ON DUPLICATE KEY UPDATE, because the MySQL driver reports a no-op
+     * duplicate update as one affected row, so the caller could not tell which transaction created the row.
+     * </p>
+     * @return 1 if the row was created, 0 if it already existed.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+        INSERT IGNORE INTO runner_stats
+            (runner_id, total_runs, total_distance_km, total_duration_sec, total_calories, last_activity_date, unseen_badges)
+        VALUES (:runnerId, :runs, :distanceKm, :durationSec, :calories, :lastActivityDate, :unseenBadges)
+    """, nativeQuery = true)
+    int insertIfAbsent(
+            @Param("runnerId") Long runnerId,
+            @Param("runs") long runs,
+            @Param("distanceKm") double distanceKm,
+            @Param("durationSec") long durationSec,
+            @Param("calories") long calories,
+            @Param("lastActivityDate") LocalDate lastActivityDate,
+            @Param("unseenBadges") int unseenBadges
+    );
+
+    /**
+     * Overwrites the last activity date (used after the most recent run was deleted).
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE RunnerStatsEntity s SET s.lastActivityDate = :date WHERE s.runnerId = :runnerId")
+    int updateLastActivityDate(@Param("runnerId") Long runnerId, @Param("date") LocalDate date);
+
+    /**
+     * Returns the runners whose most recent activity is on or after the given date.
+     */
+    @Query("SELECT s.runnerId FROM RunnerStatsEntity s WHERE s.lastActivityDate >= :since ORDER BY s.runnerId")
+    List<Long> findRunnerIdsActiveSince(@Param("since") LocalDate since);
+
+    /**
+     * Returns the number of unseen badges of a runner (a primary key lookup of a single column).
+     */
+    @Query("SELECT s.unseenBadges FROM RunnerStatsEntity s WHERE s.runnerId = :runnerId")
+    Optional<Integer> findUnseenBadges(@Param("runnerId") Long runnerId);
+
+    /**
+     * Recounts the unseen badges of the given runners after badges were awarded.
+     * <p>
+     * The badge insert skips duplicates silently, so the number of new rows is not known reliably and the counter
+     * is set from the badges table instead of incremented. The count reads at most one row per catalog badge
+     * from the (runner_id, code) index.
+     * </p>
+     * @return The number of updated rows (runners without a stats row are skipped).
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("""
+        UPDATE RunnerStatsEntity s
+        SET s.unseenBadges = (
+            SELECT COUNT(b) FROM BadgeEntity b WHERE b.runner.id = s.runnerId AND b.seen = false
+        )
+        WHERE s.runnerId IN :runnerIds
+    """)
+    int refreshUnseenBadges(@Param("runnerIds") Collection<Long> runnerIds);
+
+    /**
+     * Sets the unseen badge counter of a runner to zero (after all badges were marked as seen).
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE RunnerStatsEntity s SET s.unseenBadges = 0 WHERE s.runnerId = :runnerId")
+    int resetUnseenBadges(@Param("runnerId") Long runnerId);
+}
@@ -0,0 +1,80 @@
+package com.pavel.jogger.security;
+
+import com.pavel.jogger.web.exception.ServiceUnavailableException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * PasswordEncoder that hashes on a dedicated, bounded pool instead of the request thread.
+ * <p>
+ * A BCrypt hash takes tens of milliseconds of CPU. Without a limit, a burst of logins would keep every
+ * request thread busy hashing and starve the rest of the API.
+ * <br>
+ * <b>Logic:</b> <br>
+ * 1. {@link #encode} and {@link #matches} run on the {@code passwordExecutor} pool (one thread per core). <br>
+ * 2. The request thread waits for the result, but does not use the CPU while it waits. <br>
+ * 3. When the pool's queue is full the call fails at once with {@link ServiceUnavailableException} (HTTP 503),
+ *    instead of queueing logins that the client would give up on anyway.
+ * </p>
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final Executor executor;
+
+    /**
+     * @param delegate The encoder doing the actual hashing (e.g. BCrypt).
+     * @param executor The bounded pool; it must reject tasks when full.
+     */
+    public BoundedPasswordEncoder(PasswordEncoder delegate, Executor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    /**
+     * @throws ServiceUnavailableException If too many passwords are being hashed.
+     */
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword));
+    }
+
+    /**
+     * @throws ServiceUnavailableException If too many passwords are being hashed.
+     */
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Cheap check of the stored hash's settings (e.g. another BCrypt cost), done on the calling thread.
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T run(Supplier<T> hashing) {
+        CompletableFuture<T> result;
+        try {
+            result = CompletableFuture.supplyAsync(hashing, executor);
+        } catch (RejectedExecutionException e) {
+            throw new ServiceUnavailableException("Too many sign-ins right now, try again later");
+        }
+
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
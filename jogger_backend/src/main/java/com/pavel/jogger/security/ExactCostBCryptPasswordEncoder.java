@@ -0,0 +1,42 @@
+package com.pavel.jogger.security;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt encoder that asks for a re-hash whenever the stored cost differs from the configured one.
+ * <p>
+ * {@link BCryptPasswordEncoder#upgradeEncoding} only reports hashes with a <i>lower</i> cost, so lowering
+ * {@code app.security.bcrypt.strength} (e.g. to cut login CPU time) would never reach the stored hashes.
+ * Here a higher stored cost is re-hashed at the next login as well.
+ * </p>
+ */
+public class ExactCostBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+    private static final Pattern COST = Pattern.compile("^\\$2[aby]?\\$(\\d\\d)\\$");
+
+    private final int strength;
+
+    /**
+     * @param strength The BCrypt cost (log2 of the number of rounds).
+     */
+    public ExactCostBCryptPasswordEncoder(int strength) {
+        super(strength);
+        this.strength = strength;
+    }
+
+    /**
+     * Called by {@link #upgradeEncoding} for non-empty hashes.
+     * @return True if the hash was made with another cost than the configured one.
+     */
+    @Override
+    protected boolean upgradeEncodingNonNull(String encodedPassword) {
+        Matcher cost = COST.matcher(encodedPassword);
+        if (!cost.find()) {
+            return super.upgradeEncodingNonNull(encodedPassword);
+        }
+        return Integer.parseInt(cost.group(1)) != strength;
+    }
+}
@@ -7,7 +7,6 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
@@ -21,19 +20,20 @@ import java.util.List;
  * <p>
  * This filter intercepts incoming HTTP requests, looks for a JWT token in the Authorization header
  * (or query parameter), validates it, and sets the user authentication in the SecurityContext.
+ * The principal is a {@link RunnerPrincipal} built from the token claims; the database is not queried.
  * </p>
  */
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    private final JwtService jwtService;
+    private final VerifiedTokenCache verifiedTokenCache;
 
     /**
-     * Constructor injection for the JwtService helper.
-     * @param jwtService Service used to decode and validate the raw token string.
+     * Constructor injection for the token cache.
+     * @param verifiedTokenCache Verifies the raw token string, or returns the principal of an already verified one.
      */
-    public JwtAuthenticationFilter(JwtService jwtService) {
-        this.jwtService = jwtService;
+    public JwtAuthenticationFilter(VerifiedTokenCache verifiedTokenCache) {
+        this.verifiedTokenCache = verifiedTokenCache;
     }
 
     /**
@@ -68,16 +68,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         try {
-            Jwt jwt = jwtService.decode(token);
-
-            String username = jwt.getSubject();
-            String role = jwt.getClaim("role");
+            RunnerPrincipal principal = verifiedTokenCache.verify(token);
 
             UsernamePasswordAuthenticationToken authentication =
                     new UsernamePasswordAuthenticationToken(
-                            username,
+                            principal,
                             null,
-                            List.of(new SimpleGrantedAuthority("ROLE_" + role))
+                            List.of(new SimpleGrantedAuthority("ROLE_" + principal.getRole()))
                     );
 
             authentication.setDetails(
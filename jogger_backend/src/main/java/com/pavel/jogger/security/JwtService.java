@@ -1,6 +1,7 @@
 package com.pavel.jogger.security;
 
 import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import com.pavel.jogger.persistence.entity.RunnerEntity;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
 import org.springframework.security.oauth2.jwt.*;
@@ -19,11 +20,18 @@ import java.time.Instant;
  * 1. Generating tokens (Signing) when a user successfully logs in.
  * <br>
  * 2. Decoding tokens (Validation) when a user makes a request.
+ * <br>
+ * Besides the username and role, a token carries the runner id ({@code rid}) and the runner's token version
+ * ({@code ver}), so a request can be authorized from the token alone.
  * </p>
  */
 @Service
 public class JwtService {
 
+    static final String ROLE_CLAIM = "role";
+    static final String RUNNER_ID_CLAIM = "rid";
+    static final String TOKEN_VERSION_CLAIM = "ver";
+
     private final JwtEncoder jwtEncoder;
     private final JwtDecoder jwtDecoder;
 
@@ -51,18 +59,19 @@ public class JwtService {
     }
 
     /**
-     * Generates a new JWT token for a user.
-     * @param username The user's identifier (usually email).
-     * @param role     The user's role (e.g., "USER", "ADMIN").
+     * Generates a new JWT token for a runner.
+     * @param runner The saved runner (its id must be set).
      * @return A String representing the signed JWT token.
      */
-    public String generateToken(String username, String role) {
+    public String generateToken(RunnerEntity runner) {
 
         JwtClaimsSet claims = JwtClaimsSet.builder()
-                .subject(username)
-                .claim("role", role)
+                .subject(runner.getUsername())
+                .claim(ROLE_CLAIM, runner.getRole())
+                .claim(RUNNER_ID_CLAIM, runner.getId())
+                .claim(TOKEN_VERSION_CLAIM, runner.getTokenVersion())
                 .issuedAt(Instant.now())
-                .expiresAt(Instant.now().plusSeconds(60 * 60 * 24)) 
+                .expiresAt(Instant.now().plusSeconds(60 * 60 * 24))
                 .build();
 
         JwsHeader header = JwsHeader.with(MacAlgorithm.HS256).build();
@@ -81,4 +90,25 @@ public class JwtService {
     public Jwt decode(String token) {
         return jwtDecoder.decode(token);
     }
+
+    /**
+     * Builds the request principal from the claims of a decoded token.
+     * @param jwt A token returned by {@link #decode(String)}.
+     * @return The principal.
+     * @throws JwtException If the token has no runner id (issued before the claim existed), so the client logs in again.
+     */
+    public RunnerPrincipal toPrincipal(Jwt jwt) {
+        Number runnerId = jwt.getClaim(RUNNER_ID_CLAIM);
+        if (runnerId == null) {
+            throw new BadJwtException("Token has no runner id");
+        }
+        Number tokenVersion = jwt.getClaim(TOKEN_VERSION_CLAIM);
+
+        return new RunnerPrincipal(
+                runnerId.longValue(),
+                jwt.getSubject(),
+                jwt.getClaimAsString(ROLE_CLAIM),
+                tokenVersion != null ? tokenVersion.intValue() : 0
+        );
+    }
 }
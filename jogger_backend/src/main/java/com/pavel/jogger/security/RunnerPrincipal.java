@@ -0,0 +1,45 @@
+package com.pavel.jogger.security;
+
+import java.security.Principal;
+
+/**
+ * The authenticated runner of a request, built from the claims of its JWT.
+ * <p>
+ * It carries everything the authorization checks need (id, username, role), so a request never
+ * has to load the runner from the database just to find out who is calling.
+ * <br>
+ * {@link #getName()} returns the username, so {@code authentication.getName()} keeps working.
+ * </p>
+ */
+public class RunnerPrincipal implements Principal {
+
+    private final Long id;
+    private final String username;
+    private final String role;
+    private final int tokenVersion;
+
+    public RunnerPrincipal(Long id, String username, String role, int tokenVersion) {
+        this.id = id;
+        this.username = username;
+        this.role = role;
+        this.tokenVersion = tokenVersion;
+    }
+
+    public Long getId() { return id; }
+
+    public String getUsername() { return username; }
+
+    public String getRole() { return role; }
+
+    public int getTokenVersion() { return tokenVersion; }
+
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    @Override
+    public String toString() {
+        return "RunnerPrincipal{id=" + id + ", username=" + username + ", role=" + role + "}";
+    }
+}
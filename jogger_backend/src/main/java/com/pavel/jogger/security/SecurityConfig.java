@@ -1,16 +1,20 @@
 package com.pavel.jogger.security;
 
+import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.util.concurrent.Executor;
+
 /**
  * Main security configuration class for the application.
  * <p>
@@ -49,8 +53,12 @@ public class SecurityConfig {
                         sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 )
                 .authorizeHttpRequests(auth -> auth
+                        // Completion of an already authorized async request (e.g. an event stream timing out).
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/auth/**").permitAll()
                         .requestMatchers("/error").permitAll()
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
                 .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class)
@@ -62,12 +70,20 @@ public class SecurityConfig {
      * <p>
      * We use BCrypt, a strong hashing function. Passwords are never stored in plain text.
      * When a user logs in, the entered password is hashed and compared to the stored hash.
+     * <br>
+     * The cost is set by {@code app.security.bcrypt.strength}. Hashes stored with another cost, lower or higher,
+     * are re-hashed on the next successful login (see {@link ExactCostBCryptPasswordEncoder} and
+     * {@link UserDetailsServiceImpl#updatePassword}).
+     * Hashing runs on the bounded {@code passwordExecutor} pool (see {@link BoundedPasswordEncoder}).
      * </p>
-     * @return A BCryptPasswordEncoder instance.
+     * @param strength The BCrypt cost (log2 of the number of rounds).
+     * @param executor The pool that runs the hashing.
+     * @return The bounded BCrypt encoder.
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${app.security.bcrypt.strength:10}") int strength,
+                                           @Qualifier("passwordExecutor") Executor executor) {
+        return new BoundedPasswordEncoder(new ExactCostBCryptPasswordEncoder(strength), executor);
     }
 
     /**
@@ -2,12 +2,15 @@ package com.pavel.jogger.security;
 
 import com.pavel.jogger.persistence.entity.RunnerEntity;
 import com.pavel.jogger.persistence.repository.RunnerRepository;
+import com.pavel.jogger.service.RunnerCacheEvictor;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -17,15 +20,20 @@ import java.util.List;
  * This service is used automatically by the AuthenticationManager during the login process.
  * Its sole purpose is to bridge the gap between the database (RunnerEntity) and
  * Spring Security's internal user representation (UserDetails).
+ * <br>
+ * As a {@link UserDetailsPasswordService} it also stores re-hashed passwords: after a successful login,
+ * Spring Security re-hashes the password when the stored hash was made with another BCrypt cost.
  * </p>
  */
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     private final RunnerRepository runnerRepository;
+    private final RunnerCacheEvictor runnerCacheEvictor;
 
-    public UserDetailsServiceImpl(RunnerRepository runnerRepository) {
+    public UserDetailsServiceImpl(RunnerRepository runnerRepository, RunnerCacheEvictor runnerCacheEvictor) {
         this.runnerRepository = runnerRepository;
+        this.runnerCacheEvictor = runnerCacheEvictor;
     }
 
     /**
@@ -47,10 +55,32 @@ public class UserDetailsServiceImpl implements UserDetailsService {
         
         String role = "ROLE_" + runner.getRole();
 
+        // A disabled account (waiting for deletion) makes the login fail with DisabledException.
         return new User(
                 runner.getUsername(),
                 runner.getPasswordHash(),
+                !runner.isDisabled(),
+                true,
+                true,
+                true,
                 List.of(new SimpleGrantedAuthority(role))
         );
     }
+
+    /**
+     * Stores the new hash of a user's password.
+     * <p>
+     * Called by Spring Security after a successful login, when the stored hash uses an outdated cost.
+     * </p>
+     * @param user        The authenticated user.
+     * @param newPassword The new password hash.
+     * @return The user with the new hash.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        runnerRepository.updatePasswordHash(user.getUsername(), newPassword);
+        runnerCacheEvictor.evictProfile(user.getUsername());
+        return User.withUserDetails(user).password(newPassword).build();
+    }
 }
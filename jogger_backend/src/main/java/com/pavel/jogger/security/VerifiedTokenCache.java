@@ -0,0 +1,151 @@
+package com.pavel.jogger.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.pavel.jogger.persistence.repository.RunnerRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+
+/**
+ * Cache of already verified tokens, used by {@link JwtAuthenticationFilter}.
+ * <p>
+ * A client sends the same token with every request for a whole day. Verifying it once is enough:
+ * <br>
+ * <b>Logic:</b> <br>
+ * 1. The key is the SHA-256 of the token, so the raw bearer tokens are not kept in memory. <br>
+ * 2. On a miss the token is decoded and its signature checked by {@link JwtService}, and the principal is stored. <br>
+ * 3. Every entry expires at the token's own {@code exp}, so an expired token is never accepted from the cache,
+ *    and at the latest after {@code app.jwt.cache.revalidate-after}. <br>
+ * 4. Invalid tokens are not cached; they fail again on the next request. <br>
+ * 5. On a miss, the token version ({@code ver}) is compared with the runner's current one (a primary key
+ *    lookup, once per token). Tokens of a deleted account, or issued before the version was bumped, are
+ *    rejected. {@link #evictRunner} drops the cached tokens of a runner at once, but only on this instance:
+ *    the other instances of a cluster keep accepting them until their entries are revalidated (step 3). <br>
+ * 6. The cache is bounded by {@code app.jwt.cache.max-size}. Hit, miss and eviction counters are published
+ *    as {@code cache.*} metrics with the tag {@code cache=jwt}.
+ * </p>
+ */
+@Component
+public class VerifiedTokenCache {
+
+    static final String CACHE_NAME = "jwt";
+
+    private final JwtService jwtService;
+    private final RunnerRepository runnerRepository;
+    private final Cache<String, VerifiedToken> cache;
+
+    public VerifiedTokenCache(JwtService jwtService,
+                              RunnerRepository runnerRepository,
+                              @Value("${app.jwt.cache.max-size:100000}") long maxSize,
+                              @Value("${app.jwt.cache.revalidate-after:60s}") Duration revalidateAfter,
+                              ObjectProvider<MeterRegistry> meterRegistry) {
+        this.jwtService = jwtService;
+        this.runnerRepository = runnerRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new UntilTokenExpiry(revalidateAfter))
+                .recordStats()
+                .build();
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME));
+    }
+
+    /**
+     * Returns the principal of a token, verifying the token only if it is not cached yet.
+     * @param token The raw token string coming from the client.
+     * @return The principal built from the token claims.
+     * @throws JwtException If the token is expired, invalid, has no runner id or was revoked.
+     */
+    public RunnerPrincipal verify(String token) {
+        return cache.get(sha256(token), key -> {
+            Jwt jwt = jwtService.decode(token);
+            RunnerPrincipal principal = jwtService.toPrincipal(jwt);
+            Integer currentVersion = runnerRepository.findActiveTokenVersion(principal.getId()).orElse(null);
+            if (currentVersion == null || currentVersion != principal.getTokenVersion()) {
+                throw new BadJwtException("Token was revoked");
+            }
+            return new VerifiedToken(principal, jwt.getExpiresAt());
+        }).principal;
+    }
+
+    /**
+     * Drops the cached tokens of a runner, so they are checked against the database again on their next use.
+     * <p>
+     * Only this instance's cache is affected. Other instances notice a disabled account or a bumped token version
+     * when their own entries are revalidated, within {@code app.jwt.cache.revalidate-after}.
+     * </p>
+     * @param runnerId The ID of the runner (e.g. whose account was just disabled).
+     */
+    public void evictRunner(Long runnerId) {
+        cache.asMap().values().removeIf(token -> token.principal.getId().equals(runnerId));
+    }
+
+    long size() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    private static String sha256(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static final class VerifiedToken {
+        private final RunnerPrincipal principal;
+        private final Instant expiresAt;
+
+        private VerifiedToken(RunnerPrincipal principal, Instant expiresAt) {
+            this.principal = principal;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Keeps an entry until its token expires or the revalidation interval has passed, whichever comes first.
+     * Reads do not extend it.
+     */
+    private static final class UntilTokenExpiry implements Expiry<String, VerifiedToken> {
+
+        private final long revalidateAfterNanos;
+
+        private UntilTokenExpiry(Duration revalidateAfter) {
+            this.revalidateAfterNanos = revalidateAfter.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            if (value.expiresAt == null) {
+                return 0;
+            }
+            long untilExpiry = Duration.between(Instant.now(), value.expiresAt).toNanos();
+            return Math.max(0, Math.min(untilExpiry, revalidateAfterNanos));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
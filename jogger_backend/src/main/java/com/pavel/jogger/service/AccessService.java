@@ -1,9 +1,7 @@
 package com.pavel.jogger.service;
 
-import com.pavel.jogger.persistence.entity.RunnerEntity;
-import com.pavel.jogger.persistence.repository.RunnerRepository;
+import com.pavel.jogger.security.RunnerPrincipal;
 import com.pavel.jogger.web.exception.ForbiddenException;
-import com.pavel.jogger.web.exception.NotFoundException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Service;
@@ -11,20 +9,14 @@ import org.springframework.stereotype.Service;
 /**
  * Service dedicated to authorization logic and user context retrieval.
  * <p>
- * This class acts as a security guard for service methods. It bridges the gap between
- * Spring Security's generic Authentication object and our specific RunnerEntity domain.
+ * This class acts as a security guard for service methods. It reads the
+ * {@link RunnerPrincipal} that the JWT filter put into Spring Security's Authentication object.
  * It ensures users can only modify their own data unless they are administrators.
  * </p>
  */
 @Service
 public class AccessService {
 
-    private final RunnerRepository runnerRepository;
-
-    public AccessService(RunnerRepository runnerRepository) {
-        this.runnerRepository = runnerRepository;
-    }
-
     /**
      * Checks if the currently authenticated user has administrative privileges.
      * <p>
@@ -45,25 +37,19 @@ public class AccessService {
     }
 
     /**
-     * Retrieves the full RunnerEntity corresponding to the logged-in user.
+     * Returns the ID of the logged-in user.
      * <p>
-     * This is a helper method to get the "Current User" object from the database
-     * based on the username stored in the token.
+     * The ID comes from the token claims (see {@link RunnerPrincipal}), so no database lookup is needed.
      * </p>
-     * @param authentication The security context containing the username.
-     * @return The RunnerEntity object for the current user.
-     * @throws ForbiddenException If the authentication object is null (user not logged in).
-     * @throws NotFoundException If the username in the token no longer exists in the database.
+     * @param authentication The security context of the current user.
+     * @return The ID of the current user.
+     * @throws ForbiddenException If the user is not logged in with a runner token.
      */
-    public RunnerEntity currentRunner(Authentication authentication) {
-        if (authentication == null) {
+    public Long currentRunnerId(Authentication authentication) {
+        if (authentication == null || !(authentication.getPrincipal() instanceof RunnerPrincipal principal)) {
             throw new ForbiddenException("Not authenticated");
         }
-
-        String username = authentication.getName();
-
-        return runnerRepository.findByUsername(username)
-                .orElseThrow(() -> new NotFoundException("Current user not found"));
+        return principal.getId();
     }
 
     /**
@@ -71,9 +57,8 @@ public class AccessService {
      * <p>
      * Logic: <br>
      * 1. If the user is an ADMIN, access is always granted. <br>
-     * 2. Otherwise, fetch the current user's entity. <br>
-     * 3. Compare the current user's ID with the requested runnerId. <br>
-     * 4. If they don't match, block access.
+     * 2. Otherwise, compare the current user's ID (from the token) with the requested runnerId. <br>
+     * 3. If they don't match, block access.
      * </p>
      * @param authentication The security context.
      * @param runnerId       The ID of the runner whose data is being accessed.
@@ -84,10 +69,22 @@ public class AccessService {
             return;
         }
 
-        RunnerEntity me = currentRunner(authentication);
-
-        if (!me.getId().equals(runnerId)) {
+        if (!currentRunnerId(authentication).equals(runnerId)) {
             throw new ForbiddenException("Access denied");
         }
     }
+
+    /**
+     * Returns the runner ID that queries for writes must be restricted to.
+     * <p>
+     * Lets the ownership check run inside the query itself (e.g. {@code WHERE id = ? AND runner_id = ?})
+     * instead of loading the owner first.
+     * </p>
+     * @param authentication The security context.
+     * @return The current user's ID, or null for admins, who may modify any runner's data.
+     * @throws ForbiddenException If the user is not logged in with a runner token.
+     */
+    public Long ownerScope(Authentication authentication) {
+        return isAdmin(authentication) ? null : currentRunnerId(authentication);
+    }
 }
@@ -0,0 +1,144 @@
+package com.pavel.jogger.service;
+
+import com.pavel.jogger.persistence.repository.ActivityRepository;
+import com.pavel.jogger.persistence.repository.ActivityRollupRepository;
+import com.pavel.jogger.persistence.repository.BadgeOutboxRepository;
+import com.pavel.jogger.persistence.repository.BadgeRepository;
+import com.pavel.jogger.persistence.repository.RunnerRepository;
+import com.pavel.jogger.persistence.repository.RunnerStatsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntSupplier;
+
+/**
+ * Background job that deletes the data of disabled accounts.
+ * <p>
+ * Deleting the runner entity would make Hibernate load every activity and badge and delete them one row at
+ * a time, in one long transaction. Instead, {@link RunnerService#deleteRunner} only disables the account,
+ * and this job removes its rows with set-based statements:
+ * <br>
+ * <b>Logic:</b> <br>
+ * 1. Pick up disabled accounts (right after a deletion, and every {@code app.accounts.deletion.poll-interval-ms},
+ *    so a deletion interrupted by a restart is finished later). <br>
+ * 2. For each table (outbox events, activities, badges, chart buckets), run
+ *    {@code DELETE ... WHERE runner_id = ? LIMIT app.accounts.deletion.chunk-size} in its own short transaction,
+ *    until a statement deletes less than a full chunk. Locks are only held for one chunk. <br>
+ * 3. Delete the stats row and finally the runner row. If something was added meanwhile (e.g. a badge from
+ *    the recompute job), the foreign key stops the last step and the next run deletes the rest.
+ * </p>
+ */
+@Service
+public class AccountDeletionService {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountDeletionService.class);
+
+    private static final int ACCOUNTS_PER_RUN = 50;
+
+    private final RunnerRepository runnerRepository;
+    private final ActivityRepository activityRepository;
+    private final BadgeRepository badgeRepository;
+    private final BadgeOutboxRepository badgeOutboxRepository;
+    private final ActivityRollupRepository rollupRepository;
+    private final RunnerStatsRepository runnerStatsRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor executor;
+    private final int chunkSize;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public AccountDeletionService(RunnerRepository runnerRepository,
+                                  ActivityRepository activityRepository,
+                                  BadgeRepository badgeRepository,
+                                  BadgeOutboxRepository badgeOutboxRepository,
+                                  ActivityRollupRepository rollupRepository,
+                                  RunnerStatsRepository runnerStatsRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Qualifier("accountDeletionExecutor") Executor executor,
+                                  @Value("${app.accounts.deletion.chunk-size:1000}") int chunkSize) {
+        this.runnerRepository = runnerRepository;
+        this.activityRepository = activityRepository;
+        this.badgeRepository = badgeRepository;
+        this.badgeOutboxRepository = badgeOutboxRepository;
+        this.rollupRepository = rollupRepository;
+        this.runnerStatsRepository = runnerStatsRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.executor = executor;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Starts deleting disabled accounts in the background. Call after the disabling transaction has committed.
+     */
+    public void deleteSoon() {
+        try {
+            executor.execute(this::deleteDisabledAccounts);
+        } catch (RejectedExecutionException e) {
+            // A run is already queued; it will pick this account up too.
+        }
+    }
+
+    /**
+     * Deletes the data of up to {@value #ACCOUNTS_PER_RUN} disabled accounts.
+     * Skipped if another run is still busy.
+     */
+    @Scheduled(fixedDelayString = "${app.accounts.deletion.poll-interval-ms:60000}")
+    public void deleteDisabledAccounts() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            List<Long> runnerIds = runnerRepository.findDisabledIds(Limit.of(ACCOUNTS_PER_RUN));
+            for (Long runnerId : runnerIds) {
+                try {
+                    delete(runnerId);
+                } catch (RuntimeException e) {
+                    log.warn("Deleting account {} failed, retrying on the next run", runnerId, e);
+                }
+            }
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Deletes all rows of one disabled account.
+     * @return The number of deleted rows, the runner row included.
+     */
+    long delete(Long runnerId) {
+        long deleted = inChunks(() -> badgeOutboxRepository.deleteChunkByRunner(runnerId, chunkSize))
+                + inChunks(() -> activityRepository.deleteChunkByRunner(runnerId, chunkSize))
+                + inChunks(() -> badgeRepository.deleteChunkByRunner(runnerId, chunkSize))
+                + inChunks(() -> rollupRepository.deleteChunkByRunner(runnerId, chunkSize));
+
+        Integer last = transactionTemplate.execute(status -> {
+            runnerStatsRepository.findById(runnerId).ifPresent(runnerStatsRepository::delete);
+            return runnerRepository.deleteDisabled(runnerId);
+        });
+        deleted += (last != null) ? last : 0;
+
+        log.info("Deleted account {} ({} rows)", runnerId, deleted);
+        return deleted;
+    }
+
+    private long inChunks(IntSupplier deleteChunk) {
+        long total = 0;
+        int deleted;
+        do {
+            Integer result = transactionTemplate.execute(status -> deleteChunk.getAsInt());
+            deleted = (result != null) ? result : 0;
+            total += deleted;
+        } while (deleted >= chunkSize);
+        return total;
+    }
+}
@@ -0,0 +1,64 @@
+package com.pavel.jogger.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position of the last activity returned in a page of history.
+ * <p>
+ * Activities are listed newest first by (date, id), so these two values are enough to
+ * continue exactly where the previous page stopped. The cursor is sent to the client as an
+ * opaque Base64 string so the format can change later without breaking the API.
+ * </p>
+ */
+public class ActivityCursor {
+
+    private final LocalDate date;
+    private final Long id;
+
+    public ActivityCursor(LocalDate date, Long id) {
+        this.date = date;
+        this.id = id;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Converts the cursor into the opaque token handed to the client.
+     * @return A URL-safe Base64 string.
+     */
+    public String encode() {
+        String raw = date + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parses a token previously produced by {@link #encode()}.
+     * @param token The cursor string received from the client.
+     * @return The decoded cursor.
+     * @throws IllegalArgumentException If the token is malformed (mapped to HTTP 400).
+     */
+    public static ActivityCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new ActivityCursor(
+                    LocalDate.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1))
+            );
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.pavel.jogger.service;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk activity import.
+ * <p>
+ * Rows that fail validation are skipped and do not stop the import. Only the first
+ * {@link ActivityImportService#MAX_REPORTED_ERRORS} error messages are kept.
+ * </p>
+ */
+public class ActivityImportResult {
+
+    private final int imported;
+    private final int rejected;
+    private final List<String> errors;
+
+    public ActivityImportResult(int imported, int rejected, List<String> errors) {
+        this.imported = imported;
+        this.rejected = rejected;
+        this.errors = errors;
+    }
+
+    public int getImported() {
+        return imported;
+    }
+
+    public int getRejected() {
+        return rejected;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+}
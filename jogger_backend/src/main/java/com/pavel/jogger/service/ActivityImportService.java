@@ -0,0 +1,230 @@
+package com.pavel.jogger.service;
+
+import com.pavel.jogger.persistence.entity.ActivityEntity;
+import com.pavel.jogger.persistence.projection.BucketTotals;
+import com.pavel.jogger.persistence.entity.RunnerEntity;
+import com.pavel.jogger.persistence.repository.ActivityRepository;
+import com.pavel.jogger.persistence.repository.RunnerRepository;
+import com.pavel.jogger.web.dto.activity.CreateActivityRequest;
+import com.pavel.jogger.web.dto.chart.ChartBucket;
+import com.pavel.jogger.web.exception.NotFoundException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.MappingIterator;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Service importing a runner's history (e.g. from another app) in one request.
+ * <p>
+ * <b>Logic:</b> <br>
+ * 1. The body is a JSON array of {@link CreateActivityRequest} objects. It is read one element at a time
+ *    from the request stream, so the whole upload is never held in memory. <br>
+ * 2. Every row is validated with the same constraints as the single-activity endpoint. Invalid rows
+ *    are skipped and reported back. <br>
+ * 3. Valid rows are inserted in JDBC batches of {@code app.import.batch-size}. <br>
+ * 4. After the last row the aggregates are updated once: the stats row with a single summed delta and
+ *    the chart buckets with one rebuild of the runner. The data version is bumped once. <br>
+ * 5. Badge evaluation is queued in the outbox for at most three imported runs, the only ones that can earn a
+ *    badge the others cannot: the longest run, the fastest run long enough for the pace badges, and a run
+ *    inside the longest streak of consecutive days (read from the freshly rebuilt daily buckets). The totals
+ *    badges are checked with each of them.
+ * <br>
+ * The import runs in one transaction, so a failure (e.g. malformed JSON) leaves no partial history behind.
+ * </p>
+ */
+@Service
+public class ActivityImportService {
+
+    static final int MAX_REPORTED_ERRORS = 50;
+
+    private final ActivityRepository activityRepository;
+    private final RunnerRepository runnerRepository;
+    private final RunnerStatsService runnerStatsService;
+    private final ActivityRollupService activityRollupService;
+    private final BadgeOutboxService badgeOutboxService;
+    private final DataVersionService dataVersionService;
+    private final RunnerEventPublisher runnerEventPublisher;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final int maxRows;
+
+    public ActivityImportService(ActivityRepository activityRepository,
+                                 RunnerRepository runnerRepository,
+                                 RunnerStatsService runnerStatsService,
+                                 ActivityRollupService activityRollupService,
+                                 BadgeOutboxService badgeOutboxService,
+                                 DataVersionService dataVersionService,
+                                 RunnerEventPublisher runnerEventPublisher,
+                                 Validator validator,
+                                 ObjectMapper objectMapper,
+                                 @Value("${app.import.batch-size:500}") int batchSize,
+                                 @Value("${app.import.max-rows:50000}") int maxRows) {
+        this.activityRepository = activityRepository;
+        this.runnerRepository = runnerRepository;
+        this.runnerStatsService = runnerStatsService;
+        this.activityRollupService = activityRollupService;
+        this.badgeOutboxService = badgeOutboxService;
+        this.dataVersionService = dataVersionService;
+        this.runnerEventPublisher = runnerEventPublisher;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.maxRows = maxRows;
+    }
+
+    /**
+     * Imports a JSON array of activities for a runner.
+     * @param runnerId The ID of the user receiving the activities.
+     * @param json     The request body.
+     * @return How many rows were imported and rejected.
+     * @throws NotFoundException        If the runner does not exist.
+     * @throws IllegalArgumentException If the body is not a valid JSON array or has more than {@code app.import.max-rows} rows.
+     */
+    @Transactional
+    public ActivityImportResult importActivities(Long runnerId, InputStream json) {
+        RunnerEntity runner = runnerRepository.findById(runnerId)
+                .orElseThrow(() -> new NotFoundException("Runner not found"));
+
+        List<ActivityEntity> batch = new ArrayList<>(batchSize);
+        List<String> errors = new ArrayList<>();
+        int row = 0;
+        int imported = 0;
+        int rejected = 0;
+
+        double distanceKm = 0;
+        long durationSec = 0;
+        long calories = 0;
+        LocalDate lastDate = null;
+        ActivityEntity longest = null;
+        ActivityEntity fastest = null;
+        TreeMap<LocalDate, ActivityEntity> runByDate = new TreeMap<>();
+
+        try (MappingIterator<CreateActivityRequest> rows =
+                     objectMapper.readerFor(CreateActivityRequest.class).readValues(json)) {
+
+            while (rows.hasNextValue()) {
+                CreateActivityRequest request = rows.nextValue();
+                row++;
+                if (row > maxRows) {
+                    throw new IllegalArgumentException("An import is limited to " + maxRows + " activities");
+                }
+
+                Set<ConstraintViolation<CreateActivityRequest>> violations = validator.validate(request);
+                if (!violations.isEmpty()) {
+                    rejected++;
+                    if (errors.size() < MAX_REPORTED_ERRORS) {
+                        errors.add("Row " + row + ": " + violations.iterator().next().getMessage());
+                    }
+                    continue;
+                }
+
+                ActivityEntity activity = toActivity(request, runner);
+                batch.add(activity);
+
+                distanceKm += activity.getDistanceKm();
+                durationSec += activity.getDurationSec();
+                calories += activity.getCalories();
+                if (lastDate == null || activity.getDate().isAfter(lastDate)) {
+                    lastDate = activity.getDate();
+                }
+                if (longest == null || activity.getDistanceKm() > longest.getDistanceKm()) {
+                    longest = activity;
+                }
+                if (activity.getDistanceKm() >= BadgeRule.PACE_MIN_DISTANCE_KM
+                        && (fastest == null || pace(activity) < pace(fastest))) {
+                    fastest = activity;
+                }
+                runByDate.putIfAbsent(activity.getDate(), activity);
+
+                if (batch.size() == batchSize) {
+                    imported += activityRepository.insertAll(runnerId, batch);
+                    batch.clear();
+                }
+            }
+        } catch (JacksonException e) {
+            throw new IllegalArgumentException("Invalid JSON after row " + row + ": " + e.getOriginalMessage());
+        }
+
+        imported += activityRepository.insertAll(runnerId, batch);
+
+        if (imported > 0) {
+            runnerStatsService.recordImported(runnerId, imported, distanceKm, durationSec, calories, lastDate);
+            activityRollupService.rebuildRunner(runnerId);
+            dataVersionService.bump(runnerId);
+            runnerEventPublisher.statsChanged(runnerId);
+
+            Set<ActivityEntity> candidates = new LinkedHashSet<>();
+            candidates.add(longest);
+            if (fastest != null) {
+                candidates.add(fastest);
+            }
+            candidates.add(inLongestStreak(runnerId, runByDate));
+            candidates.forEach(run -> badgeOutboxService.enqueue(runnerId, run));
+        }
+
+        return new ActivityImportResult(imported, rejected, errors);
+    }
+
+    /**
+     * Picks an imported run that lies in the longest streak of consecutive days, counting the runner's
+     * existing runs too. Reads the daily buckets of the imported date range, widened by the longest streak
+     * in the catalog, in one query. Streaks are only counted up to that length, like in {@link BadgeService}.
+     * @param runByDate One imported run per imported date.
+     * @return A run of the longest streak (the earliest run if no two days are consecutive).
+     */
+    private ActivityEntity inLongestStreak(Long runnerId, TreeMap<LocalDate, ActivityEntity> runByDate) {
+        int window = BadgeCatalog.MAX_STREAK_DAYS;
+        Set<LocalDate> runDays = new HashSet<>(runByDate.keySet());
+        for (BucketTotals day : activityRollupService.getBuckets(runnerId, ChartBucket.DAY,
+                runByDate.firstKey().minusDays(window), runByDate.lastKey().plusDays(window + 1))) {
+            runDays.add(day.getBucketStart());
+        }
+
+        ActivityEntity best = runByDate.firstEntry().getValue();
+        int bestLength = 0;
+        for (LocalDate date : runByDate.keySet()) {
+            int length = 1;
+            for (LocalDate d = date.minusDays(1); length < window && runDays.contains(d); d = d.minusDays(1)) {
+                length++;
+            }
+            for (LocalDate d = date.plusDays(1); length < window && runDays.contains(d); d = d.plusDays(1)) {
+                length++;
+            }
+            if (length > bestLength) {
+                best = runByDate.get(date);
+                bestLength = length;
+            }
+            if (bestLength >= window) {
+                break;
+            }
+        }
+        return best;
+    }
+
+    private static double pace(ActivityEntity activity) {
+        return activity.getDurationSec() / activity.getDistanceKm();
+    }
+
+    private static ActivityEntity toActivity(CreateActivityRequest request, RunnerEntity runner) {
+        ActivityEntity activity = new ActivityEntity(request.getDistanceKm(), request.getDurationSec(), request.getDate());
+        activity.setRoute(request.getRoute());
+        activity.setCalories(request.getCalories() != null
+                ? request.getCalories()
+                : ActivityService.estimateCalories(request.getDistanceKm(), runner.getWeight()));
+        return activity;
+    }
+}
@@ -0,0 +1,35 @@
+package com.pavel.jogger.service;
+
+import com.pavel.jogger.web.dto.activity.ActivityResponse;
+
+import java.util.List;
+
+/**
+ * One page of a runner's activity history, newest first.
+ * <p>
+ * {@code nextCursor} is null when the page is the last one. Otherwise it must be passed back
+ * as the {@code cursor} parameter to fetch the following page.
+ * </p>
+ */
+public class ActivityPage {
+
+    private final List<ActivityResponse> items;
+    private final String nextCursor;
+
+    public ActivityPage(List<ActivityResponse> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<ActivityResponse> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
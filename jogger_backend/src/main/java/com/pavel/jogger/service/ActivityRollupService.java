@@ -0,0 +1,133 @@
+package com.pavel.jogger.service;
+
+import com.pavel.jogger.persistence.entity.ActivityEntity;
+import com.pavel.jogger.persistence.projection.BucketTotals;
+import com.pavel.jogger.persistence.repository.ActivityRollupRepository;
+import com.pavel.jogger.web.dto.chart.ChartBucket;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Service maintaining the pre-summed daily, weekly and monthly buckets used by the charts and the PDF report.
+ * <p>
+ * Writers ({@link ActivityService}) report every change as a delta, which is added to the day, ISO week
+ * and month of the activity inside the caller's transaction (three single-row upserts). Readers get a
+ * handful of rows per chart instead of scanning the runner's raw activities.
+ * <br>
+ * Drift (e.g. rows written before this table existed) is repaired by {@link RollupMaintenanceService}.
+ * </p>
+ */
+@Service
+public class ActivityRollupService {
+
+    /**
+     * Bucket sizes stored in the rollup table. Yearly charts are summed from the monthly rows.
+     */
+    static final List<ChartBucket> STORED_PERIODS = List.of(ChartBucket.DAY, ChartBucket.WEEK, ChartBucket.MONTH);
+
+    private final ActivityRollupRepository rollupRepository;
+
+    public ActivityRollupService(ActivityRollupRepository rollupRepository) {
+        this.rollupRepository = rollupRepository;
+    }
+
+    /**
+     * Reads the pre-summed buckets of a runner.
+     * @param runnerId The ID of the user.
+     * @param bucket   The bucket size.
+     * @param from     Inclusive start (a bucket start).
+     * @param until    Exclusive end (a bucket start).
+     * @return One row per non-empty bucket, ordered by bucket start.
+     */
+    @Transactional(readOnly = true)
+    public List<BucketTotals> getBuckets(Long runnerId, ChartBucket bucket, LocalDate from, LocalDate until) {
+        return rollupRepository.findBuckets(runnerId, bucket, from, until);
+    }
+
+    /**
+     * Reads the buckets with the largest distance of a runner (e.g. the best month ever).
+     * @param runnerId The ID of the user.
+     * @param period   A stored bucket size (DAY, WEEK or MONTH).
+     * @param limit    Maximum number of buckets to return.
+     * @return Buckets ordered by distance, descending.
+     */
+    @Transactional(readOnly = true)
+    public List<BucketTotals> getTopBuckets(Long runnerId, ChartBucket period, int limit) {
+        return rollupRepository.findTopBuckets(runnerId, period, Limit.of(limit));
+    }
+
+    /**
+     * Adds a freshly saved activity to its buckets.
+     * @param runnerId The owner of the activity.
+     * @param activity The saved activity.
+     */
+    @Transactional
+    public void recordAdded(Long runnerId, ActivityEntity activity) {
+        applyDelta(runnerId, activity.getDate(),
+                1, activity.getDistanceKm(), activity.getDurationSec(), activity.getCalories());
+    }
+
+    /**
+     * Replaces the old values of an edited activity with the new ones (the date of an activity never changes).
+     * @param runnerId       The owner of the activity.
+     * @param oldDistanceKm  Distance before the edit.
+     * @param oldDurationSec Duration before the edit.
+     * @param oldCalories    Calories before the edit.
+     * @param updated        The activity after the edit.
+     */
+    @Transactional
+    public void recordUpdated(Long runnerId,
+                              double oldDistanceKm,
+                              int oldDurationSec,
+                              int oldCalories,
+                              ActivityEntity updated) {
+        applyDelta(runnerId, updated.getDate(),
+                0,
+                updated.getDistanceKm() - oldDistanceKm,
+                updated.getDurationSec() - oldDurationSec,
+                updated.getCalories() - oldCalories);
+    }
+
+    /**
+     * Removes a deleted activity from its buckets. Buckets that become empty are purged by the compaction job.
+     * @param runnerId The owner of the activity.
+     * @param removed  The activity that was deleted.
+     */
+    @Transactional
+    public void recordRemoved(Long runnerId, ActivityEntity removed) {
+        applyDelta(runnerId, removed.getDate(),
+                -1, -removed.getDistanceKm(), -removed.getDurationSec(), -removed.getCalories());
+    }
+
+    /**
+     * Regenerates all buckets of one runner from the activities table.
+     * <p>
+     * Used after a bulk import: one DELETE and one INSERT ... SELECT per stored period
+     * is cheaper than thousands of single-bucket upserts.
+     * </p>
+     */
+    @Transactional
+    public void rebuildRunner(Long runnerId) {
+        rollupRepository.deleteByRunnerRange(runnerId, runnerId);
+        for (ChartBucket period : STORED_PERIODS) {
+            rollupRepository.insertFromActivities(runnerId, runnerId, period);
+        }
+    }
+
+    private void applyDelta(Long runnerId,
+                            LocalDate date,
+                            long runs,
+                            double distanceKm,
+                            long durationSec,
+                            long calories) {
+        for (ChartBucket period : STORED_PERIODS) {
+            rollupRepository.addToBucket(
+                    runnerId, period.name(), period.startOf(date), runs, distanceKm, durationSec, calories
+            );
+        }
+    }
+}
@@ -4,8 +4,12 @@ import com.pavel.jogger.persistence.entity.ActivityEntity;
 import com.pavel.jogger.persistence.entity.RunnerEntity;
 import com.pavel.jogger.persistence.repository.ActivityRepository;
 import com.pavel.jogger.persistence.repository.RunnerRepository;
+import com.pavel.jogger.web.dto.activity.ActivityResponse;
+import com.pavel.jogger.web.exception.ForbiddenException;
 import com.pavel.jogger.web.exception.NotFoundException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -14,22 +18,48 @@ import java.util.List;
  * Service class for managing jogging activities.
  * <p>
  * This class handles the business logic for creating, updating, retrieving, and deleting runs.
- * It also automatically triggers badge evaluation whenever a new activity is added.
+ * It also automatically queues a badge evaluation (see {@link BadgeOutboxService}) whenever a new activity is added.
+ * <br>
+ * Every write also updates the runner's aggregate row through {@link RunnerStatsService} and the
+ * chart buckets through {@link ActivityRollupService} in the same transaction, so totals can never
+ * drift from the activities table. The runner's data version is bumped in the same transaction. Once the write
+ * has committed, the cached charts are dropped and the runner's open clients are notified ({@link RunnerEventPublisher}).
  * </p>
  */
 @Service
 public class ActivityService {
 
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    /**
+     * Bounds of the MySQL DATE type, used when the client does not restrict the date range.
+     */
+    private static final LocalDate EARLIEST_DATE = LocalDate.of(1000, 1, 1);
+    private static final LocalDate LATEST_DATE = LocalDate.of(9999, 12, 31);
+
     private final ActivityRepository activityRepository;
     private final RunnerRepository runnerRepository;
-    private final BadgeService badgeService;
+    private final BadgeOutboxService badgeOutboxService;
+    private final RunnerStatsService runnerStatsService;
+    private final ActivityRollupService activityRollupService;
+    private final DataVersionService dataVersionService;
+    private final RunnerEventPublisher runnerEventPublisher;
 
     public ActivityService(ActivityRepository activityRepository,
                            RunnerRepository runnerRepository,
-                           BadgeService badgeService) {
+                           BadgeOutboxService badgeOutboxService,
+                           RunnerStatsService runnerStatsService,
+                           ActivityRollupService activityRollupService,
+                           DataVersionService dataVersionService,
+                           RunnerEventPublisher runnerEventPublisher) {
         this.activityRepository = activityRepository;
         this.runnerRepository = runnerRepository;
-        this.badgeService = badgeService;
+        this.badgeOutboxService = badgeOutboxService;
+        this.runnerStatsService = runnerStatsService;
+        this.activityRollupService = activityRollupService;
+        this.dataVersionService = dataVersionService;
+        this.runnerEventPublisher = runnerEventPublisher;
     }
 
     /**
@@ -43,6 +73,7 @@ public class ActivityService {
      * @return The saved ActivityEntity.
      * @throws NotFoundException If the runnerId does not exist.
      */
+    @Transactional
     public ActivityEntity addActivity(
             Long runnerId,
             double distanceKm,
@@ -68,7 +99,13 @@ public class ActivityService {
         }
 
         ActivityEntity saved = activityRepository.save(activity);
-        badgeService.evaluateBadgesAsync(runner, saved);
+        runnerStatsService.recordAdded(runnerId, saved);
+        activityRollupService.recordAdded(runnerId, saved);
+        dataVersionService.bump(runnerId);
+        runnerEventPublisher.activityAdded(runnerId, saved);
+        runnerEventPublisher.statsChanged(runnerId);
+
+        badgeOutboxService.enqueue(runnerId, saved);
 
         return saved;
     }
@@ -80,40 +117,101 @@ public class ActivityService {
      * @param runnerWeight User's weight (defaults to 70kg if not set).
      * @return Estimated calories as an integer.
      */
-    private int estimateCalories(double distanceKm, Double runnerWeight) {
+    static int estimateCalories(double distanceKm, Double runnerWeight) {
         double weight = (runnerWeight != null) ? runnerWeight : 70.0;
 
         return (int) Math.round(distanceKm * weight * 1.036);
     }
 
     /**
-     * Retrieves a single activity by ID.
-     * @throws NotFoundException If the activity doesn't exist.
+     * Returns one page of a runner's history, newest first.
+     * <p>
+     * <b>Logic:</b> <br>
+     * 1. Clamp the page size to {@link #MAX_PAGE_SIZE} (default {@link #DEFAULT_PAGE_SIZE}). <br>
+     * 2. Start after the cursor position, or at the end of the date range on the first page. <br>
+     * 3. Fetch one extra row to find out whether another page exists without a COUNT query. <br>
+     * 4. Read the rows as response DTOs in a read-only transaction (nothing is tracked by the persistence context).
+     * </p>
+     * @param runnerId The ID of the user.
+     * @param from     Optional inclusive start date.
+     * @param to       Optional inclusive end date.
+     * @param cursor   Optional cursor returned by the previous page.
+     * @param limit    Optional page size.
+     * @return The page of activities and the cursor for the next one.
+     * @throws IllegalArgumentException If the cursor, range or page size is invalid.
      */
-    public ActivityEntity getActivityById(Long activityId) {
-        return activityRepository.findById(activityId)
-                .orElseThrow(() -> new NotFoundException("Activity not found"));
-    }
+    @Transactional(readOnly = true)
+    public ActivityPage getActivitiesPage(
+            Long runnerId,
+            LocalDate from,
+            LocalDate to,
+            String cursor,
+            Integer limit
+    ) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        if (limit != null && limit < 1) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
 
-    /**
-     * Returns all activities for a specific runner.
-     */
-    public List<ActivityEntity> getActivitiesForRunner(Long runnerId) {
-        return activityRepository.findByRunnerId(runnerId);
+        int pageSize = (limit == null) ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+        LocalDate lowerBound = (from != null) ? from : EARLIEST_DATE;
+
+        LocalDate beforeDate = (to != null) ? to : LATEST_DATE;
+        long beforeId = Long.MAX_VALUE;
+
+        if (cursor != null) {
+            ActivityCursor position = ActivityCursor.decode(cursor);
+            if (!position.getDate().isAfter(beforeDate)) {
+                beforeDate = position.getDate();
+                beforeId = position.getId();
+            }
+        }
+
+        List<ActivityResponse> rows = activityRepository.findPageForRunner(
+                runnerId, lowerBound, beforeDate, beforeId, Limit.of(pageSize + 1)
+        );
+
+        if (rows.size() <= pageSize) {
+            return new ActivityPage(rows, null);
+        }
+
+        List<ActivityResponse> items = rows.subList(0, pageSize);
+        ActivityResponse last = items.get(pageSize - 1);
+        return new ActivityPage(items, new ActivityCursor(last.getDate(), last.getId()).encode());
     }
 
     /**
      * Updates an existing activity.
-     * Recalculates calories if distance or weight logic changes.
+     * Recalculates calories if they are not given.
+     * <p>
+     * <b>Logic:</b> <br>
+     * 1. Load and lock the activity with the ownership check in the same query
+     *    (see {@link ActivityRepository#findOwnedForUpdate}). <br>
+     * 2. Apply the new values; the change is written with one UPDATE at commit. <br>
+     * 3. Apply the difference to the runner's totals and chart buckets.
+     * </p>
+     * @param activityId The ID of the activity.
+     * @param ownerId    The ID the activity must belong to, or null to allow any owner (admins).
+     * @return The updated activity.
+     * @throws NotFoundException  If the activity does not exist.
+     * @throws ForbiddenException If the activity belongs to another runner.
      */
+    @Transactional
     public ActivityEntity updateActivity(
             Long activityId,
+            Long ownerId,
             double distanceKm,
             int durationSec,
             String route,
             Integer calories
     ) {
-        ActivityEntity activity = getActivityById(activityId);
+        ActivityEntity activity = findOwnedForUpdate(activityId, ownerId);
+
+        double oldDistanceKm = activity.getDistanceKm();
+        int oldDurationSec = activity.getDurationSec();
+        int oldCalories = activity.getCalories();
 
         activity.setDistanceKm(distanceKm);
         activity.setDurationSec(durationSec);
@@ -125,15 +223,41 @@ public class ActivityService {
             activity.setCalories(estimateCalories(distanceKm, activity.getRunner().getWeight()));
         }
 
-        return activityRepository.save(activity);
+        Long runnerId = activity.getRunner().getId();
+        runnerStatsService.recordUpdated(runnerId, oldDistanceKm, oldDurationSec, oldCalories, activity);
+        activityRollupService.recordUpdated(runnerId, oldDistanceKm, oldDurationSec, oldCalories, activity);
+        dataVersionService.bump(runnerId);
+        runnerEventPublisher.statsChanged(runnerId);
+
+        return activity;
     }
 
     /**
-     * Deletes an activity based on it's ID
+     * Deletes an activity, checking its owner in the same query that loads it.
      * @param activityId The ID of an Activity
+     * @param ownerId    The ID the activity must belong to, or null to allow any owner (admins).
+     * @throws NotFoundException  If the activity does not exist.
+     * @throws ForbiddenException If the activity belongs to another runner.
      */
-    public void deleteActivity(Long activityId) {
-        ActivityEntity activity = getActivityById(activityId);
+    @Transactional
+    public void deleteActivity(Long activityId, Long ownerId) {
+        ActivityEntity activity = findOwnedForUpdate(activityId, ownerId);
+        Long runnerId = activity.getRunner().getId();
         activityRepository.delete(activity);
+        runnerStatsService.recordRemoved(runnerId, activity);
+        activityRollupService.recordRemoved(runnerId, activity);
+        dataVersionService.bump(runnerId);
+        runnerEventPublisher.statsChanged(runnerId);
+    }
+
+    /**
+     * Loads an activity of the given owner for a write.
+     * Only when nothing matches, one more lookup tells a missing activity (404) from someone else's (403).
+     */
+    private ActivityEntity findOwnedForUpdate(Long activityId, Long ownerId) {
+        return activityRepository.findOwnedForUpdate(activityId, ownerId)
+                .orElseThrow(() -> activityRepository.existsById(activityId)
+                        ? new ForbiddenException("Access denied")
+                        : new NotFoundException("Activity not found"));
     }
 }
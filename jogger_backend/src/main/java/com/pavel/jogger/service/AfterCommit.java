@@ -0,0 +1,32 @@
+package com.pavel.jogger.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Small helper to defer work until the current transaction has committed.
+ * <p>
+ * Background tasks (like badge evaluation) read the data written by the request.
+ * Starting them before the commit would let them see the old state, so they are
+ * queued here and started only once the data is visible to other connections.
+ * Outside of a transaction the action runs immediately.
+ * </p>
+ */
+final class AfterCommit {
+
+    private AfterCommit() {}
+
+    static void run(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -7,12 +7,15 @@ import com.pavel.jogger.web.dto.auth.LoginRequest;
 import com.pavel.jogger.web.dto.auth.RegisterRequest;
 import com.pavel.jogger.web.exception.ConflictException;
 import com.pavel.jogger.web.exception.NotFoundException;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.Locale;
 
 /**
  * Service class handling core authentication logic.
@@ -28,6 +31,7 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtService jwtService;
+    private final UsernameAvailabilityService usernameAvailabilityService;
 
     /**
      * Constructor injection for required dependencies.
@@ -35,44 +39,49 @@ public class AuthService {
      * @param passwordEncoder       To hash passwords before saving them.
      * @param authenticationManager To verify username/password combinations during login.
      * @param jwtService            To generate the JWT token upon successful auth.
+     * @param usernameAvailabilityService To record newly registered usernames.
      */
     public AuthService(
             RunnerRepository runnerRepository,
             PasswordEncoder passwordEncoder,
             AuthenticationManager authenticationManager,
-            JwtService jwtService
+            JwtService jwtService,
+            UsernameAvailabilityService usernameAvailabilityService
     ) {
         this.runnerRepository = runnerRepository;
         this.passwordEncoder = passwordEncoder;
         this.authenticationManager = authenticationManager;
         this.jwtService = jwtService;
+        this.usernameAvailabilityService = usernameAvailabilityService;
     }
 
     /**
      * Registers a new user (Runner) in the system.
+     * <p>
+     * The insert is attempted directly: the unique constraints on username and email detect duplicates
+     * in the same round trip, with no window between a check and the insert.
+     * </p>
      * @param req The registration request containing username, email, and raw password.
      * @return A valid JWT token so the user is immediately logged in after registration.
      * @throws ConflictException If the username or email is already taken.
      */
     public String register(RegisterRequest req) {
 
-        if (runnerRepository.existsByUsername(req.username)) {
-            throw new ConflictException("Username already exists");
-        }
-        if (runnerRepository.existsByEmail(req.email)) {
-            throw new ConflictException("Email already exists");
-        }
-
         RunnerEntity runner = new RunnerEntity();
-        runner.setUsername(req.username);
+        runner.setUsername(UsernameAvailabilityService.normalize(req.username));
         runner.setEmail(req.email);
         runner.setPasswordHash(passwordEncoder.encode(req.password));
         runner.setRole("USER");
         runner.setDateJoined(LocalDateTime.now());
 
-        runnerRepository.save(runner);
+        try {
+            runnerRepository.saveAndFlush(runner);
+        } catch (DataIntegrityViolationException e) {
+            throw conflict(e, runner);
+        }
+        usernameAvailabilityService.added(runner.getUsername());
 
-        return jwtService.generateToken(runner.getUsername(), runner.getRole());
+        return jwtService.generateToken(runner);
     }
 
     /**
@@ -83,13 +92,45 @@ public class AuthService {
      */
     public String login(LoginRequest req) {
 
+        String username = UsernameAvailabilityService.normalize(req.username);
         authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(req.username, req.password)
+                new UsernamePasswordAuthenticationToken(username, req.password)
         );
 
-        RunnerEntity runner = runnerRepository.findByUsername(req.username)
+        RunnerEntity runner = runnerRepository.findByUsername(username)
                 .orElseThrow(() -> new NotFoundException("User not found"));
 
-        return jwtService.generateToken(runner.getUsername(), runner.getRole());
+        return jwtService.generateToken(runner);
+    }
+
+    /**
+     * Translates a unique-constraint violation of the runners table into the message for the client.
+     * <p>
+     * The violated key is normally recognized by its name. If the database reports a name that is not one of
+     * {@link RunnerEntity#UK_USERNAME} / {@link RunnerEntity#UK_EMAIL} (e.g. a schema whose keys were not
+     * renamed by the migrations), the taken value is looked up instead. The failed insert was rolled back,
+     * so these lookups only run on this rare path.
+     * </p>
+     * @return The conflict to report, or the original exception if the violation was not a duplicate.
+     */
+    RuntimeException conflict(DataIntegrityViolationException e, RunnerEntity runner) {
+        String violated = e.getCause() instanceof ConstraintViolationException cve && cve.getConstraintName() != null
+                ? cve.getConstraintName()
+                : String.valueOf(e.getMostSpecificCause().getMessage());
+        violated = violated.toLowerCase(Locale.ROOT);
+
+        if (violated.contains(RunnerEntity.UK_USERNAME)) {
+            return new ConflictException("Username already exists");
+        }
+        if (violated.contains(RunnerEntity.UK_EMAIL)) {
+            return new ConflictException("Email already exists");
+        }
+        if (runnerRepository.existsByUsername(runner.getUsername())) {
+            return new ConflictException("Username already exists");
+        }
+        if (runnerRepository.existsByEmail(runner.getEmail())) {
+            return new ConflictException("Email already exists");
+        }
+        return e;
     }
 }
@@ -0,0 +1,74 @@
+package com.pavel.jogger.service;
+
+import com.pavel.jogger.service.BadgeRule.Metric;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * The list of all badges that can be earned.
+ * <p>
+ * To add a badge, add a rule here. The codes are stored in the database, so existing codes must never change.
+ * </p>
+ */
+final class BadgeCatalog {
+
+    static final List<BadgeRule> RULES = List.of(
+            // Single run distance
+            new BadgeRule("FIRST_5K", "First 5K", "Completed a run of at least 5 km",
+                    BadgeTier.BRONZE, Metric.RUN_DISTANCE_KM, 5.0),
+            new BadgeRule("FIRST_10K", "10K Finisher", "Completed a run of at least 10 km",
+                    BadgeTier.SILVER, Metric.RUN_DISTANCE_KM, 10.0),
+            new BadgeRule("HALF_MARATHON", "Half Marathon", "Ran 21 km in one go!",
+                    BadgeTier.GOLD, Metric.RUN_DISTANCE_KM, 21.0),
+
+            // Single run pace (5:00 min/km)
+            new BadgeRule("PACE_5K_SUB_5", "Speedster", "Ran at least 5 km faster than 5:00 min/km",
+                    BadgeTier.SILVER, Metric.RUN_PACE_5K_SEC_PER_KM, 300),
+
+            // Run count
+            new BadgeRule("FIRST_RUN", "First Steps", "Completed your very first run",
+                    BadgeTier.BRONZE, Metric.TOTAL_RUNS, 1),
+            new BadgeRule("10_RUNS", "Consistent", "Completed 10 runs total",
+                    BadgeTier.BRONZE, Metric.TOTAL_RUNS, 10),
+            new BadgeRule("50_RUNS", "Dedicated", "Completed 50 runs total",
+                    BadgeTier.GOLD, Metric.TOTAL_RUNS, 50),
+
+            // Total distance
+            new BadgeRule("DIST_100_KM", "Century Club", "Ran a total of 100 km",
+                    BadgeTier.SILVER, Metric.TOTAL_DISTANCE_KM, 100.0),
+            new BadgeRule("DIST_500_KM", "Pro Runner", "Ran a total of 500 km",
+                    BadgeTier.BRONZE, Metric.TOTAL_DISTANCE_KM, 500.0),
+            new BadgeRule("DIST_1000_KM", "Kilometer Eater", "Ran a total of 1000 km",
+                    BadgeTier.GOLD, Metric.TOTAL_DISTANCE_KM, 1000.0),
+
+            // Streaks
+            new BadgeRule("STREAK_7_DAYS", "On a Roll", "Ran on 7 days in a row",
+                    BadgeTier.SILVER, Metric.STREAK_DAYS, 7)
+    );
+
+    private static final Map<String, BadgeRule> BY_CODE = RULES.stream()
+            .collect(Collectors.toUnmodifiableMap(BadgeRule::getCode, Function.identity()));
+
+    /**
+     * Longest streak any rule asks for, which bounds how many days of history a streak check reads.
+     */
+    static final int MAX_STREAK_DAYS = (int) RULES.stream()
+            .filter(rule -> rule.getMetric() == Metric.STREAK_DAYS)
+            .mapToDouble(BadgeRule::getThreshold)
+            .max()
+            .orElse(0);
+
+    private BadgeCatalog() {
+    }
+
+    /**
+     * Tier of a stored badge code. Codes that are no longer in the catalog are shown as BRONZE.
+     */
+    static BadgeTier tierOf(String code) {
+        BadgeRule rule = BY_CODE.get(code);
+        return rule != null ? rule.getTier() : BadgeTier.BRONZE;
+    }
+}
@@ -0,0 +1,44 @@
+package com.pavel.jogger.service;
+
+/**
+ * Snapshot of everything the badge rules can look at, taken once per evaluation.
+ * <p>
+ * Single-run values describe the activity that triggered the evaluation. Lifetime values come from the
+ * runner's stats row, which already includes that activity.
+ * <br>
+ * The recompute job ({@link BadgeRecomputeService}) builds one snapshot per runner instead, with the longest run
+ * and the best qualifying pace as single-run values.
+ * </p>
+ */
+final class BadgeFacts {
+
+    private final double runDistanceKm;
+    private final double runPaceSecPerKm;
+    private final long totalRuns;
+    private final double totalDistanceKm;
+    private final int streakDays;
+
+    BadgeFacts(double runDistanceKm, double runPaceSecPerKm, long totalRuns, double totalDistanceKm, int streakDays) {
+        this.runDistanceKm = runDistanceKm;
+        this.runPaceSecPerKm = runPaceSecPerKm;
+        this.totalRuns = totalRuns;
+        this.totalDistanceKm = totalDistanceKm;
+        this.streakDays = streakDays;
+    }
+
+    double getRunDistanceKm() { return runDistanceKm; }
+
+    /**
+     * Average pace of the run in seconds per km, or {@link Double#POSITIVE_INFINITY} if it has no distance.
+     */
+    double getRunPaceSecPerKm() { return runPaceSecPerKm; }
+
+    long getTotalRuns() { return totalRuns; }
+
+    double getTotalDistanceKm() { return totalDistanceKm; }
+
+    /**
+     * Number of consecutive days with at least one run, around the date of the run.
+     */
+    int getStreakDays() { return streakDays; }
+}
@@ -0,0 +1,161 @@
+package com.pavel.jogger.service;
+
+import com.pavel.jogger.persistence.entity.ActivityEntity;
+import com.pavel.jogger.persistence.entity.BadgeOutboxEntity;
+import com.pavel.jogger.persistence.repository.BadgeOutboxRepository;
+import com.pavel.jogger.persistence.repository.RunnerRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Transactional outbox for badge evaluation.
+ * <p>
+ * Writers call {@link #enqueue(Long, ActivityEntity)} inside the transaction that saves the activity, so the
+ * evaluation request is stored durably together with the run. A scheduled worker then drains the table:
+ * <br>
+ * <b>Logic:</b> <br>
+ * 1. Claim up to {@code app.badges.outbox.batch-size} due events with {@code FOR UPDATE SKIP LOCKED} and lease
+ *    them for {@code app.badges.outbox.lease} (short transaction). Other workers skip the locked rows. <br>
+ * 2. Group the events by runner, so a burst of uploads from one runner costs a single evaluation. <br>
+ * 3. Evaluate each runner in its own transaction and delete its events in the same transaction. <br>
+ * 4. On failure, keep the events and retry them with exponential back-off, up to
+ *    {@code app.badges.outbox.max-attempts} times. If the worker dies, the lease expires and the events are
+ *    picked up again.
+ * </p>
+ */
+@Service
+public class BadgeOutboxService {
+
+    private static final Logger log = LoggerFactory.getLogger(BadgeOutboxService.class);
+
+    private static final Duration FIRST_RETRY_DELAY = Duration.ofSeconds(5);
+    private static final Duration MAX_RETRY_DELAY = Duration.ofHours(1);
+    private static final int MAX_BATCHES_PER_RUN = 20;
+
+    private final BadgeOutboxRepository outboxRepository;
+    private final RunnerRepository runnerRepository;
+    private final BadgeService badgeService;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration lease;
+    private final int maxAttempts;
+
+    public BadgeOutboxService(BadgeOutboxRepository outboxRepository,
+                              RunnerRepository runnerRepository,
+                              BadgeService badgeService,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.badges.outbox.batch-size:100}") int batchSize,
+                              @Value("${app.badges.outbox.lease:60s}") Duration lease,
+                              @Value("${app.badges.outbox.max-attempts:8}") int maxAttempts) {
+        this.outboxRepository = outboxRepository;
+        this.runnerRepository = runnerRepository;
+        this.badgeService = badgeService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.lease = lease;
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Records that a run needs badge evaluation. Must be called inside the transaction that saves the run.
+     * @param runnerId The owner of the run.
+     * @param run      The saved (or imported) run.
+     */
+    @Transactional
+    public void enqueue(Long runnerId, ActivityEntity run) {
+        outboxRepository.save(new BadgeOutboxEntity(runnerId, run.getDistanceKm(), run.getDurationSec(), run.getDate()));
+    }
+
+    /**
+     * Drains due events every {@code app.badges.outbox.poll-interval-ms} milliseconds.
+     * Stops early when a batch comes back less than full.
+     */
+    @Scheduled(fixedDelayString = "${app.badges.outbox.poll-interval-ms:1000}")
+    public void drain() {
+        for (int i = 0; i < MAX_BATCHES_PER_RUN; i++) {
+            if (drainBatch() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Claims and processes one batch.
+     * @return The number of events claimed.
+     */
+    int drainBatch() {
+        Instant now = Instant.now();
+        List<BadgeOutboxEntity> events = transactionTemplate.execute(status -> {
+            List<BadgeOutboxEntity> due = outboxRepository.claimDue(now, Limit.of(batchSize));
+            if (!due.isEmpty()) {
+                outboxRepository.lease(due.stream().map(BadgeOutboxEntity::getId).toList(), now.plus(lease));
+            }
+            return due;
+        });
+        if (events == null || events.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, List<BadgeOutboxEntity>> byRunner = new LinkedHashMap<>();
+        for (BadgeOutboxEntity event : events) {
+            byRunner.computeIfAbsent(event.getRunnerId(), id -> new ArrayList<>()).add(event);
+        }
+        byRunner.forEach(this::process);
+
+        return events.size();
+    }
+
+    private void process(Long runnerId, List<BadgeOutboxEntity> events) {
+        List<Long> ids = events.stream().map(BadgeOutboxEntity::getId).toList();
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // The account may have been deleted since the run was saved.
+                if (runnerRepository.existsById(runnerId)) {
+                    badgeService.evaluate(runnerId, events.stream().map(BadgeOutboxService::toRun).toList());
+                }
+                outboxRepository.deleteByIds(ids);
+            });
+        } catch (RuntimeException e) {
+            int attempts = events.stream().mapToInt(BadgeOutboxEntity::getAttempts).max().orElse(0) + 1;
+            Instant retryAt = attempts >= maxAttempts ? null : Instant.now().plus(retryDelay(attempts));
+
+            if (retryAt == null) {
+                log.error("Badge evaluation for runner {} failed {} times, giving up", runnerId, attempts, e);
+            } else {
+                log.warn("Badge evaluation for runner {} failed (attempt {}), retrying at {}", runnerId, attempts, retryAt, e);
+            }
+
+            String error = String.valueOf(e.getMessage());
+            transactionTemplate.executeWithoutResult(status -> outboxRepository.markFailed(
+                    ids, retryAt, error.length() > 500 ? error.substring(0, 500) : error
+            ));
+        }
+    }
+
+    /**
+     * 5s, 10s, 20s, ... capped at one hour.
+     */
+    static Duration retryDelay(int attempts) {
+        Duration delay = FIRST_RETRY_DELAY.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(MAX_RETRY_DELAY) > 0 ? MAX_RETRY_DELAY : delay;
+    }
+
+    private static ActivityEntity toRun(BadgeOutboxEntity event) {
+        return new ActivityEntity(event.getDistanceKm(), event.getDurationSec(), event.getRunDate());
+    }
+}
@@ -0,0 +1,311 @@
+package com.pavel.jogger.service;
+
+import com.pavel.jogger.persistence.entity.BadgeEntity;
+import com.pavel.jogger.persistence.entity.BadgeRecomputeJobEntity;
+import com.pavel.jogger.persistence.entity.BadgeRecomputeJobEntity.Status;
+import com.pavel.jogger.persistence.projection.RunnerBadgeCode;
+import com.pavel.jogger.persistence.projection.RunnerBadgeTotals;
+import com.pavel.jogger.persistence.projection.RunnerDay;
+import com.pavel.jogger.persistence.repository.ActivityRepository;
+import com.pavel.jogger.persistence.repository.ActivityRollupRepository;
+import com.pavel.jogger.persistence.repository.BadgeRecomputeJobRepository;
+import com.pavel.jogger.persistence.repository.BadgeRepository;
+import com.pavel.jogger.persistence.repository.RunnerRepository;
+import com.pavel.jogger.persistence.repository.RunnerStatsRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Admin job that awards every badge of the {@link BadgeCatalog} to all runners who already qualify for it.
+ * <p>
+ * {@link BadgeService} only evaluates runners when they upload a run, so a badge added to the catalog
+ * (or a fixed rule) would otherwise never reach existing runners.
+ * <br>
+ * <b>Logic:</b> <br>
+ * 1. Walk the runners by ID in chunks of {@code app.badges.recompute.chunk-size}. <br>
+ * 2. Per chunk, read the lifetime figures of all its runners with one GROUP BY over the activities, their
+ *    earned codes with one query and, only if a streak badge is still open, their run days from the daily buckets. <br>
+ * 3. Evaluate the open rules of every runner in parallel on a dedicated fork-join pool
+ *    ({@code app.badges.recompute.parallelism} threads), so the request threads' common pool is not used. <br>
+ * 4. Insert all new badges of the chunk in one batch, recount the runners' unseen badges and bump their data
+ *    versions with one statement each, and record the chunk as done, all in the chunk's transaction. <br>
+ * <br>
+ * The progress row ({@link BadgeRecomputeJobEntity}) makes the job resumable: an unfinished job is continued
+ * after the last committed chunk, on startup or by the next start request. Re-running a chunk is harmless anyway,
+ * because earned codes are skipped and duplicate inserts are ignored.
+ * </p>
+ */
+@Service
+public class BadgeRecomputeService {
+
+    private static final Logger log = LoggerFactory.getLogger(BadgeRecomputeService.class);
+
+    private final BadgeRecomputeJobRepository jobRepository;
+    private final RunnerRepository runnerRepository;
+    private final ActivityRepository activityRepository;
+    private final ActivityRollupRepository rollupRepository;
+    private final BadgeRepository badgeRepository;
+    private final RunnerStatsRepository runnerStatsRepository;
+    private final RunnerCacheEvictor runnerCacheEvictor;
+    private final RunnerEventPublisher runnerEventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor jobExecutor;
+    private final ForkJoinPool evaluationPool;
+    private final int chunkSize;
+    private final boolean resumeOnStartup;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    public BadgeRecomputeService(BadgeRecomputeJobRepository jobRepository,
+                                 RunnerRepository runnerRepository,
+                                 ActivityRepository activityRepository,
+                                 ActivityRollupRepository rollupRepository,
+                                 BadgeRepository badgeRepository,
+                                 RunnerStatsRepository runnerStatsRepository,
+                                 RunnerCacheEvictor runnerCacheEvictor,
+                                 RunnerEventPublisher runnerEventPublisher,
+                                 PlatformTransactionManager transactionManager,
+                                 @Qualifier("badgeRecomputeExecutor") Executor jobExecutor,
+                                 @Value("${app.badges.recompute.chunk-size:500}") int chunkSize,
+                                 @Value("${app.badges.recompute.parallelism:4}") int parallelism,
+                                 @Value("${app.badges.recompute.resume-on-startup:true}") boolean resumeOnStartup) {
+        this.jobRepository = jobRepository;
+        this.runnerRepository = runnerRepository;
+        this.activityRepository = activityRepository;
+        this.rollupRepository = rollupRepository;
+        this.badgeRepository = badgeRepository;
+        this.runnerStatsRepository = runnerStatsRepository;
+        this.runnerCacheEvictor = runnerCacheEvictor;
+        this.runnerEventPublisher = runnerEventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jobExecutor = jobExecutor;
+        this.evaluationPool = new ForkJoinPool(parallelism);
+        this.chunkSize = chunkSize;
+        this.resumeOnStartup = resumeOnStartup;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        evaluationPool.shutdownNow();
+    }
+
+    /**
+     * Continues a job that was interrupted by a shutdown, when enabled by configuration.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeOnStartup() {
+        if (resumeOnStartup && getLatestJob().filter(job -> job.getStatus() == Status.RUNNING).isPresent()) {
+            log.info("Resuming interrupted badge recompute job");
+            startRecompute();
+        }
+    }
+
+    /**
+     * Starts the recompute in the background.
+     * <p>
+     * If the latest job did not complete (interrupted or failed), it is continued after its last committed
+     * chunk instead of starting over.
+     * </p>
+     * @return false if a recompute is already running on this instance.
+     */
+    public boolean startRecompute() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+
+        try {
+            BadgeRecomputeJobEntity job = transactionTemplate.execute(status -> {
+                Optional<BadgeRecomputeJobEntity> latest = jobRepository.findFirstByOrderByIdDesc();
+                if (latest.isPresent() && latest.get().getStatus() != Status.COMPLETED) {
+                    jobRepository.updateStatus(latest.get().getId(), Status.RUNNING, null, null);
+                    return latest.get();
+                }
+                return jobRepository.save(new BadgeRecomputeJobEntity(runnerRepository.count()));
+            });
+
+            jobExecutor.execute(() -> {
+                try {
+                    run(job.getId(), job.getLastRunnerId());
+                } finally {
+                    running.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the most recently started job, with its progress.
+     */
+    public Optional<BadgeRecomputeJobEntity> getLatestJob() {
+        return jobRepository.findFirstByOrderByIdDesc();
+    }
+
+    /**
+     * Processes chunks until no runner is left after the cursor.
+     * A failure stops the job; the committed chunks stay done.
+     */
+    void run(Long jobId, long afterRunnerId) {
+        long started = System.currentTimeMillis();
+        long cursor = afterRunnerId;
+
+        try {
+            while (true) {
+                List<Long> ids = runnerRepository.findIdsAfter(cursor, Limit.of(chunkSize));
+                if (ids.isEmpty()) {
+                    break;
+                }
+
+                transactionTemplate.executeWithoutResult(status -> processChunk(jobId, ids));
+                cursor = ids.get(ids.size() - 1);
+            }
+
+            transactionTemplate.executeWithoutResult(status ->
+                    jobRepository.updateStatus(jobId, Status.COMPLETED, Instant.now(), null));
+            log.info("Badge recompute job {} finished in {} ms", jobId, System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            log.error("Badge recompute job {} failed after runner {}", jobId, cursor, e);
+
+            String error = String.valueOf(e.getMessage());
+            transactionTemplate.executeWithoutResult(status -> jobRepository.updateStatus(
+                    jobId, Status.FAILED, Instant.now(), error.length() > 500 ? error.substring(0, 500) : error
+            ));
+        }
+    }
+
+    /**
+     * Evaluates one chunk of runners and records it as done. Runs inside the chunk's transaction.
+     */
+    private void processChunk(Long jobId, List<Long> runnerIds) {
+        Long from = runnerIds.get(0);
+        Long to = runnerIds.get(runnerIds.size() - 1);
+
+        List<RunnerBadgeTotals> totals = activityRepository.findBadgeTotals(from, to, BadgeRule.PACE_MIN_DISTANCE_KM);
+
+        Map<Long, Set<String>> earned = new HashMap<>();
+        for (RunnerBadgeCode badge : badgeRepository.findCodesByRunnerRange(from, to)) {
+            earned.computeIfAbsent(badge.getRunnerId(), id -> new HashSet<>()).add(badge.getCode());
+        }
+
+        Map<Long, Integer> streaks = Map.of();
+        if (needsStreaks(totals, earned)) {
+            try (Stream<RunnerDay> days = rollupRepository.streamRunDays(from, to)) {
+                streaks = longestStreaks(days.iterator(), BadgeCatalog.MAX_STREAK_DAYS);
+            }
+        }
+
+        LocalDate today = LocalDate.now();
+        Map<Long, Integer> runnerStreaks = streaks;
+        Map<Long, List<BadgeEntity>> awarded = evaluationPool.submit(() -> totals.parallelStream()
+                .map(runner -> Map.entry(runner.getRunnerId(), evaluate(
+                        runner,
+                        earned.getOrDefault(runner.getRunnerId(), Set.of()),
+                        runnerStreaks.getOrDefault(runner.getRunnerId(), 0),
+                        today
+                )))
+                .filter(entry -> !entry.getValue().isEmpty())
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue))
+        ).join();
+
+        int count = 0;
+        if (!awarded.isEmpty()) {
+            badgeRepository.insertIgnoringDuplicates(awarded);
+            runnerStatsRepository.refreshUnseenBadges(awarded.keySet());
+            runnerRepository.bumpDataVersions(awarded.keySet());
+            for (Map.Entry<Long, List<BadgeEntity>> entry : awarded.entrySet()) {
+                runnerCacheEvictor.evictBadges(entry.getKey());
+                runnerEventPublisher.badgesAwarded(entry.getKey(), entry.getValue());
+                count += entry.getValue().size();
+            }
+        }
+
+        jobRepository.recordChunk(jobId, to, runnerIds.size(), count);
+    }
+
+    /**
+     * Returns the badges a runner qualifies for but does not have yet.
+     */
+    static List<BadgeEntity> evaluate(RunnerBadgeTotals runner, Set<String> earned, int streakDays, LocalDate today) {
+        Double bestPace = runner.getBestPaceSecPerKm();
+        BadgeFacts facts = new BadgeFacts(
+                runner.getLongestRunKm(),
+                bestPace != null ? bestPace : Double.POSITIVE_INFINITY,
+                runner.getRuns(),
+                runner.getDistanceKm(),
+                streakDays
+        );
+
+        return BadgeCatalog.RULES.stream()
+                .filter(rule -> !earned.contains(rule.getCode()) && rule.isMetBy(facts))
+                .map(rule -> rule.toBadge(today))
+                .toList();
+    }
+
+    /**
+     * True if some runner of the chunk has enough runs for a streak badge it does not have yet.
+     */
+    private static boolean needsStreaks(List<RunnerBadgeTotals> totals, Map<Long, Set<String>> earned) {
+        List<String> streakCodes = BadgeCatalog.RULES.stream()
+                .filter(rule -> rule.getMetric() == BadgeRule.Metric.STREAK_DAYS)
+                .map(BadgeRule::getCode)
+                .toList();
+        if (streakCodes.isEmpty()) {
+            return false;
+        }
+
+        return totals.stream().anyMatch(runner -> runner.getRuns() >= BadgeCatalog.MAX_STREAK_DAYS
+                && !earned.getOrDefault(runner.getRunnerId(), Set.of()).containsAll(streakCodes));
+    }
+
+    /**
+     * Folds run days, ordered by runner and day, into the longest streak of consecutive days per runner.
+     * Streaks are capped at {@code cap}, the longest streak any rule asks for.
+     */
+    static Map<Long, Integer> longestStreaks(Iterator<RunnerDay> days, int cap) {
+        Map<Long, Integer> longest = new HashMap<>();
+        Long runnerId = null;
+        LocalDate previous = null;
+        int current = 0;
+
+        while (days.hasNext()) {
+            RunnerDay day = days.next();
+            if (!day.getRunnerId().equals(runnerId)) {
+                runnerId = day.getRunnerId();
+                current = 0;
+            } else if (!day.getDay().equals(previous.plusDays(1))) {
+                current = 0;
+            }
+            previous = day.getDay();
+            current++;
+            longest.merge(runnerId, Math.min(current, cap), Math::max);
+        }
+        return longest;
+    }
+}
@@ -0,0 +1,85 @@
+package com.pavel.jogger.service;
+
+import com.pavel.jogger.persistence.entity.BadgeEntity;
+
+import java.time.LocalDate;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * One entry of the badge catalog: "award CODE when METRIC reaches THRESHOLD".
+ * <p>
+ * Rules are pure data and are evaluated in memory against a {@link BadgeFacts} snapshot,
+ * so adding a badge never adds a query.
+ * </p>
+ */
+final class BadgeRule {
+
+    /**
+     * Minimum distance of a run for the pace badges.
+     */
+    static final double PACE_MIN_DISTANCE_KM = 5.0;
+
+    /**
+     * The value a rule compares with its threshold.
+     */
+    enum Metric {
+        RUN_DISTANCE_KM(BadgeFacts::getRunDistanceKm, false),
+        /**
+         * Pace of a run of at least 5 km; shorter runs never qualify.
+         */
+        RUN_PACE_5K_SEC_PER_KM(f -> f.getRunDistanceKm() >= PACE_MIN_DISTANCE_KM
+                ? f.getRunPaceSecPerKm() : Double.POSITIVE_INFINITY, true),
+        TOTAL_RUNS(f -> f.getTotalRuns(), false),
+        TOTAL_DISTANCE_KM(BadgeFacts::getTotalDistanceKm, false),
+        STREAK_DAYS(f -> f.getStreakDays(), false);
+
+        private final ToDoubleFunction<BadgeFacts> value;
+        private final boolean lowerIsBetter;
+
+        Metric(ToDoubleFunction<BadgeFacts> value, boolean lowerIsBetter) {
+            this.value = value;
+            this.lowerIsBetter = lowerIsBetter;
+        }
+    }
+
+    private final String code;
+    private final String name;
+    private final String description;
+    private final BadgeTier tier;
+    private final Metric metric;
+    private final double threshold;
+
+    BadgeRule(String code, String name, String description, BadgeTier tier, Metric metric, double threshold) {
+        this.code = code;
+        this.name = name;
+        this.description = description;
+        this.tier = tier;
+        this.metric = metric;
+        this.threshold = threshold;
+    }
+
+    boolean isMetBy(BadgeFacts facts) {
+        double actual = metric.value.applyAsDouble(facts);
+        return metric.lowerIsBetter ? actual <= threshold : actual >= threshold;
+    }
+
+    /**
+     * Creates the unseen badge row for this rule (without runner, the bulk insert sets the owner).
+     */
+    BadgeEntity toBadge(LocalDate awardedAt) {
+        BadgeEntity badge = new BadgeEntity();
+        badge.setCode(code);
+        badge.setName(name);
+        badge.setDescription(description);
+        badge.setAwardedAt(awardedAt);
+        badge.setSeen(false);
+        return badge;
+    }
+
+    String getCode() { return code; }
+    String getName() { return name; }
+    String getDescription() { return description; }
+    BadgeTier getTier() { return tier; }
+    Metric getMetric() { return metric; }
+    double getThreshold() { return threshold; }
+}
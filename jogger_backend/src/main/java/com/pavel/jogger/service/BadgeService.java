@@ -1,21 +1,30 @@
 package com.pavel.jogger.service;
 
+import com.pavel.jogger.config.CacheConfig;
 import com.pavel.jogger.persistence.entity.ActivityEntity;
 import com.pavel.jogger.persistence.entity.BadgeEntity;
-import com.pavel.jogger.persistence.entity.RunnerEntity;
-import com.pavel.jogger.persistence.repository.ActivityRepository;
+import com.pavel.jogger.persistence.entity.RunnerStatsEntity;
+import com.pavel.jogger.persistence.projection.BucketTotals;
+import com.pavel.jogger.persistence.projection.EarnedBadge;
 import com.pavel.jogger.persistence.repository.BadgeRepository;
 import com.pavel.jogger.web.dto.badge.BadgeResponse;
-import org.springframework.scheduling.annotation.Async;
+import com.pavel.jogger.web.dto.chart.ChartBucket;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Service responsible for the Gamification logic (Badges).
  * <p>
- * This service checks rules defined in code against the user's statistics
+ * This service checks the rules declared in {@link BadgeCatalog} against the user's statistics
  * and awards badges if criteria are met.
  * </p>
  */
@@ -23,160 +32,182 @@ import java.util.List;
 public class BadgeService {
 
     private final BadgeRepository badgeRepository;
-    private final ActivityRepository activityRepository;
+    private final RunnerStatsService runnerStatsService;
+    private final ActivityRollupService activityRollupService;
+    private final RunnerCacheEvictor runnerCacheEvictor;
+    private final DataVersionService dataVersionService;
+    private final RunnerEventPublisher runnerEventPublisher;
 
     public BadgeService(BadgeRepository badgeRepository,
-                        ActivityRepository activityRepository) {
+                        RunnerStatsService runnerStatsService,
+                        ActivityRollupService activityRollupService,
+                        RunnerCacheEvictor runnerCacheEvictor,
+                        DataVersionService dataVersionService,
+                        RunnerEventPublisher runnerEventPublisher) {
         this.badgeRepository = badgeRepository;
-        this.activityRepository = activityRepository;
+        this.runnerStatsService = runnerStatsService;
+        this.activityRollupService = activityRollupService;
+        this.runnerCacheEvictor = runnerCacheEvictor;
+        this.dataVersionService = dataVersionService;
+        this.runnerEventPublisher = runnerEventPublisher;
     }
 
     /**
      * Retrieves badges for a runner and maps them to a response DTO.
      * <p>
-     * Logic included: Dynamically determines the "Type" (Gold/Silver/Bronze)
-     * based on the badge code for UI styling purposes.
+     * Logic included: The "Type" (Gold/Silver/Bronze) used for UI styling
+     * is the tier declared for the badge code in {@link BadgeCatalog}.
+     * <br>
+     * The list is cached per runner and dropped when a badge is awarded or marked as seen.
+     * On a miss, only the displayed columns are read (no badge entities are loaded).
      * </p>
      * @param runnerId The user ID.
      * @return List of badge responses ready for the frontend.
      */
+    @Cacheable(cacheNames = CacheConfig.BADGES, key = "#runnerId")
     public List<BadgeResponse> getBadgesForRunner(Long runnerId) {
-        return badgeRepository.findByRunnerId(runnerId)
+        return badgeRepository.findEarnedByRunnerId(runnerId)
                 .stream()
-                .map(b -> {
-                    String type = "BRONZE"; 
-
-                    if (b.getCode().contains("10K") || b.getCode().contains("100_KM")) {
-                        type = "SILVER";
-                    } else if (b.getCode().contains("MARATHON") || b.getCode().contains("1000_KM") || b.getCode().contains("50_RUNS")) {
-                        type = "GOLD";
-                    }
-
-                    return new BadgeResponse(
-                            b.getName(),
-                            b.getDescription(),
-                            type,
-                            b.getAwardedAt(),
-                            b.isSeen()
-                    );
-                })
+                .map(BadgeService::toResponse)
                 .toList();
     }
 
-    /**
-     * Marks all user's badges as "seen" so the notification icon can disappear.
-     */
-    public void markBadgesAsSeen(Long runnerId) {
-        List<BadgeEntity> badges = badgeRepository.findByRunnerId(runnerId);
-        for (BadgeEntity b : badges) {
-            if (!b.isSeen()) b.setSeen(true);
-        }
-        badgeRepository.saveAll(badges);
+    static BadgeResponse toResponse(EarnedBadge badge) {
+        return new BadgeResponse(
+                badge.getName(),
+                badge.getDescription(),
+                BadgeCatalog.tierOf(badge.getCode()).name(),
+                badge.getAwardedAt(),
+                badge.isSeen()
+        );
+    }
+
+    static BadgeResponse toResponse(BadgeEntity badge) {
+        return new BadgeResponse(
+                badge.getName(),
+                badge.getDescription(),
+                BadgeCatalog.tierOf(badge.getCode()).name(),
+                badge.getAwardedAt(),
+                badge.isSeen()
+        );
     }
 
     /**
-     * The MAIN logic for checking achievements.
+     * Returns how many badges the runner has not seen yet.
      * <p>
-     * Annotation @Async("badgeExecutor"):
-     * This method runs on a separate thread (defined in AsyncConfig).
-     * It prevents the "Add Activity" request from waiting for these calculations.
+     * Served from the counter in the stats row (one primary key read), so the home screen can check
+     * for new badges without downloading the badge list.
      * </p>
-     * @param runner      The user to check.
-     * @param newActivity The specific activity that just finished.
      */
-    @Async("badgeExecutor")
-    public void evaluateBadgesAsync(RunnerEntity runner, ActivityEntity newActivity) {
-        checkSingleRunDistance(runner, newActivity);
-        checkTotalStats(runner);
+    public int getUnseenBadgeCount(Long runnerId) {
+        return runnerStatsService.getUnseenBadges(runnerId);
     }
 
     /**
-     * Evaluates badges that depend on a single performance.
+     * Marks all user's badges as "seen" so the notification icon can disappear.
      * <p>
-     * Example: "Run 10km in one go". This logic only cares about the current activity's stats.
+     * One set-based UPDATE of the unseen rows; nothing is loaded. When every badge was already seen,
+     * the cache and the data version are left alone.
      * </p>
-     * @param runner   The user who performed the run.
-     * @param activity The activity entity containing distance and duration.
      */
-    private void checkSingleRunDistance(RunnerEntity runner, ActivityEntity activity) {
-        double dist = activity.getDistanceKm();
-
-        
-        if (dist >= 5.0) {
-            assignBadge(runner, "FIRST_5K", "First 5K", "Completed a run of at least 5 km");
-        }
-
-        
-        if (dist >= 10.0) {
-            assignBadge(runner, "FIRST_10K", "10K Finisher", "Completed a run of at least 10 km");
-        }
-
-        
-        if (dist >= 21.0) {
-            assignBadge(runner, "HALF_MARATHON", "Half Marathon", "Ran 21 km in one go!");
+    @Transactional
+    public void markBadgesAsSeen(Long runnerId) {
+        if (badgeRepository.markAllSeen(runnerId) == 0) {
+            return;
         }
+        runnerStatsService.recordBadgesSeen(runnerId);
+        runnerCacheEvictor.evictBadges(runnerId);
+        dataVersionService.bump(runnerId);
     }
 
     /**
-     * Evaluates badges that depend on lifetime statistics.
+     * The MAIN logic for checking achievements.
+     * <p>
+     * Called by {@link BadgeOutboxService} for the pending runs of one runner, after the activities committed.
+     * Several runs uploaded shortly after each other are evaluated together.
+     * </p>
      * <p>
-     * This method queries the database to get aggregated totals (SUM, COUNT)
-     * and checks if cumulative milestones have been reached.
+     * <b>Logic:</b> <br>
+     * 1. Load the codes the runner already has (one query) and keep the catalog rules not earned yet. <br>
+     * 2. Build one {@link BadgeFacts} snapshot per run: the run itself, the stats row (one primary key read) and,
+     *    only if a streak badge is still open, the runner's recent daily buckets. <br>
+     * 3. Evaluate all open rules in memory. <br>
+     * 4. Insert every newly earned badge. Badges a concurrent evaluation wrote first are skipped; if nothing
+     *    was left, stop here. Otherwise recount the unseen badges, drop the cached badge list, bump the data
+     *    version once and push a "badge-awarded" event with only the inserted badges to the runner's open clients.
      * </p>
-     * @param runner The user to check.
+     * @param runnerId The user to check.
+     * @param runs     The runs that triggered the evaluation (only distance, duration and date are used).
      */
-    private void checkTotalStats(RunnerEntity runner) {
-        long totalRuns = activityRepository.countByRunner(runner);
-        Double totalDistance = activityRepository.sumDistanceByRunner(runner);
+    @Transactional
+    public void evaluate(Long runnerId, List<ActivityEntity> runs) {
+        Set<String> earned = badgeRepository.findCodesByRunnerId(runnerId);
 
-        
-        if (totalRuns >= 1) {
-            assignBadge(runner, "FIRST_RUN", "First Steps", "Completed your very first run");
-        }
-        if (totalRuns >= 10) {
-            assignBadge(runner, "10_RUNS", "Consistent", "Completed 10 runs total");
-        }
-        if (totalRuns >= 50) {
-            assignBadge(runner, "50_RUNS", "Dedicated", "Completed 50 runs total");
+        List<BadgeRule> open = BadgeCatalog.RULES.stream()
+                .filter(rule -> !earned.contains(rule.getCode()))
+                .toList();
+        if (open.isEmpty() || runs.isEmpty()) {
+            return;
         }
 
-        
-        if (totalDistance >= 100.0) {
-            assignBadge(runner, "DIST_100_KM", "Century Club", "Ran a total of 100 km");
+        RunnerStatsEntity stats = runnerStatsService.getStats(runnerId);
+        boolean needsStreak = open.stream().anyMatch(rule -> rule.getMetric() == BadgeRule.Metric.STREAK_DAYS);
+        Map<LocalDate, Integer> streaks = new HashMap<>();
+
+        Set<BadgeRule> met = new LinkedHashSet<>();
+        for (ActivityEntity run : runs) {
+            int streak = needsStreak ? streaks.computeIfAbsent(run.getDate(), d -> streakAround(runnerId, d)) : 0;
+            BadgeFacts facts = toFacts(run, stats, streak);
+            for (BadgeRule rule : open) {
+                if (rule.isMetBy(facts)) {
+                    met.add(rule);
+                }
+            }
         }
-        if (totalDistance >= 500.0) {
-            assignBadge(runner, "DIST_500_KM", "Pro Runner", "Ran a total of 500 km");
+        if (met.isEmpty()) {
+            return;
         }
-        if (totalDistance >= 1000.0) {
-            assignBadge(runner, "DIST_1000_KM", "Kilometer Eater", "Ran a total of 1000 km");
+
+        LocalDate today = LocalDate.now();
+        List<BadgeEntity> awarded = met.stream()
+                .map(rule -> rule.toBadge(today))
+                .toList();
+
+        List<BadgeEntity> inserted = badgeRepository.insertIgnoringDuplicates(runnerId, awarded);
+        if (inserted.isEmpty()) {
+            return;
         }
+        runnerStatsService.recordBadgesAwarded(runnerId);
+        runnerCacheEvictor.evictBadges(runnerId);
+        dataVersionService.bump(runnerId);
+        runnerEventPublisher.badgesAwarded(runnerId, inserted);
+    }
+
+    private static BadgeFacts toFacts(ActivityEntity run, RunnerStatsEntity stats, int streak) {
+        double distance = run.getDistanceKm();
+        double pace = distance > 0 ? run.getDurationSec() / distance : Double.POSITIVE_INFINITY;
+        return new BadgeFacts(distance, pace, stats.getTotalRuns(), stats.getTotalDistanceKm(), streak);
     }
 
     /**
-     * Helper method to safely award a badge to a user.
-     * <p>
-     * Before saving, it checks if the user ALREADY has this badge code.
-     * This prevents duplicate badges (e.g., getting "First 5K" every time you run 5K).
-     * </p>
-     * @param runner      The user receiving the badge.
-     * @param code        Unique code identifier for the badge (e.g., "FIRST_5K").
-     * @param name        Display name of the badge.
-     * @param description Brief description of the achievement.
+     * Counts the consecutive days with runs that include the given date, capped at the longest streak in the catalog.
+     * Reads at most twice that many daily buckets.
      */
-    private void assignBadge(RunnerEntity runner, String code, String name, String description) {
-        
-        if (badgeRepository.findByRunnerAndCode(runner, code).isPresent()) {
-            return;
+    private int streakAround(Long runnerId, LocalDate date) {
+        int window = BadgeCatalog.MAX_STREAK_DAYS;
+        Set<LocalDate> runDays = new HashSet<>();
+        for (BucketTotals day : activityRollupService.getBuckets(
+                runnerId, ChartBucket.DAY, date.minusDays(window - 1), date.plusDays(window))) {
+            runDays.add(day.getBucketStart());
         }
 
-        BadgeEntity badge = new BadgeEntity();
-        badge.setCode(code);
-        badge.setName(name);
-        badge.setDescription(description);
-        badge.setAwardedAt(LocalDate.now());
-        badge.setRunner(runner);
-        badge.setSeen(false);
-
-        badgeRepository.save(badge);
+        int streak = runDays.contains(date) ? 1 : 0;
+        for (LocalDate d = date.minusDays(1); streak > 0 && runDays.contains(d); d = d.minusDays(1)) {
+            streak++;
+        }
+        for (LocalDate d = date.plusDays(1); streak > 0 && runDays.contains(d); d = d.plusDays(1)) {
+            streak++;
+        }
+        return Math.min(streak, window);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,10 @@
+package com.pavel.jogger.service;
+
+/**
+ * Visual tier of a badge, sent to the app as the badge "type" for styling.
+ */
+public enum BadgeTier {
+    BRONZE,
+    SILVER,
+    GOLD
+}
@@ -1,86 +1,154 @@
 package com.pavel.jogger.service;
 
-import com.pavel.jogger.persistence.entity.ActivityEntity;
-import com.pavel.jogger.persistence.repository.ActivityRepository;
+import com.pavel.jogger.config.CacheConfig;
+import com.pavel.jogger.persistence.entity.RunnerStatsEntity;
+import com.pavel.jogger.persistence.projection.BucketTotals;
+import com.pavel.jogger.web.dto.chart.ChartBucket;
+import com.pavel.jogger.web.dto.chart.ChartMetric;
 import com.pavel.jogger.web.dto.chart.ChartResponse;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
-import java.time.temporal.IsoFields;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * Service responsible for calculating statistics and preparing chart data.
  * <p>
  * This class transforms raw activity data from the database into simplified
  * label-value pairs (ChartResponse) ready to be displayed by the frontend charts.
+ * <br>
+ * Results are cached in the "charts" cache. The runner's data version is part of every key, so a change to
+ * the runner's data simply leads to new entries; the old ones are never read again and expire. Methods whose
+ * default range ends today take the resolved date as well, so an entry is not served after midnight.
  * </p>
  */
 @Service
 public class ChartService {
 
-    private final ActivityRepository activityRepository;
+    /**
+     * Upper limit of data points in one series (e.g. ~2.7 years of daily buckets).
+     */
+    public static final int MAX_POINTS = 1000;
+
+    private final ActivityRollupService activityRollupService;
+    private final RunnerStatsService runnerStatsService;
 
-    public ChartService(ActivityRepository activityRepository) {
-        this.activityRepository = activityRepository;
+    public ChartService(ActivityRollupService activityRollupService, RunnerStatsService runnerStatsService) {
+        this.activityRollupService = activityRollupService;
+        this.runnerStatsService = runnerStatsService;
     }
 
     /**
      * Calculates general summary statistics for a runner.
      * <p>
-     * This method aggregates the total distance and total number of runs
-     * to provide a big picture view of the user's performance.
+     * This method reads the total distance and total number of runs from the
+     * runner's pre-computed stats row to provide a big picture view of the user's performance.
      * </p>
-     * @param runnerId The ID of the user.
+     * @param runnerId    The ID of the user.
+     * @param dataVersion The runner's current data version (only part of the cache key).
      * @return A list containing two data points: Total km and Total runs.
      */
-    public List<ChartResponse> getRunnerStats(Long runnerId) {
+    @Cacheable(cacheNames = CacheConfig.CHARTS, keyGenerator = "runnerKeyGenerator")
+    public List<ChartResponse> getRunnerStats(Long runnerId, long dataVersion) {
         List<ChartResponse> charts = new ArrayList<>();
 
-        
-        Double totalKmObj = activityRepository.totalDistance(runnerId);
-        Long runsObj = activityRepository.totalActivities(runnerId);
+        RunnerStatsEntity stats = runnerStatsService.getStats(runnerId);
 
-        double totalKm = (totalKmObj == null) ? 0.0 : totalKmObj;
-        long runs = (runsObj == null) ? 0L : runsObj;
-
-        charts.add(new ChartResponse("Total km", totalKm));
-        charts.add(new ChartResponse("Total runs", (double) runs));
+        charts.add(new ChartResponse("Total km", stats.getTotalDistanceKm()));
+        charts.add(new ChartResponse("Total runs", (double) stats.getTotalRuns()));
 
         return charts;
     }
 
     /**
-     * Groups activities by week number to show consistency over time.
+     * Returns the number of runs per ISO week for the last 12 weeks.
+     * <p>
+     * This is a shortcut for {@link #getSeries} with metric RUNS and bucket WEEK. Weeks are labelled
+     * with their week-based year (e.g. "2024-W10"), so the same week number of different years
+     * is never merged into one bar.
+     * </p>
+     * @param runnerId    The ID of the user.
+     * @param dataVersion The runner's current data version (only part of the cache key).
+     * @param today       The last day of the chart.
+     * @return A list of weekly run counts, sorted chronologically, including weeks without runs.
+     */
+    @Cacheable(cacheNames = CacheConfig.CHARTS, keyGenerator = "runnerKeyGenerator")
+    public List<ChartResponse> getRunsPerWeek(Long runnerId, long dataVersion, LocalDate today) {
+        return getSeries(runnerId, dataVersion, ChartMetric.RUNS, ChartBucket.WEEK, null, today);
+    }
+
+    /**
+     * Generic time-series engine behind all history charts.
      * <p>
      * Logic: <br>
-     * 1. Fetches all activities for the user. <br>
-     * 2. Extracts the ISO Week Number (1-52) from each activity's date. <br>
-     * 3. Counts how many runs happened in each week. <br>
-     * 4. Returns a sorted list (e.g., W10: 3 runs, W11: 5 runs).
+     * 1. Align the requested range to whole buckets (default start: the bucket's default span before the end). <br>
+     * 2. Read the pre-summed buckets of the range from the rollup table (yearly buckets are summed from months). <br>
+     * 3. Walk the range bucket by bucket and fill gaps with zero, so the chart has no holes. <br>
+     * 4. Convert the sums of each bucket into the requested metric.
      * </p>
-     * @param runnerId The ID of the user.
-     * @return A list of weekly run counts, sorted chronologically by week number.
+     * @param runnerId    The ID of the user.
+     * @param dataVersion The runner's current data version (only part of the cache key).
+     * @param metric      What to plot (distance, duration, calories, runs, pace).
+     * @param bucket      Bucket size (day, week, month, year).
+     * @param from        Optional inclusive start date.
+     * @param to          Inclusive end date. Callers resolve its default (today), so it is part of the cache key.
+     * @return One data point per bucket in chronological order.
+     * @throws IllegalArgumentException If the range is inverted or would produce more than {@link #MAX_POINTS} points.
+     */
+    @Cacheable(cacheNames = CacheConfig.CHARTS, keyGenerator = "runnerKeyGenerator")
+    public List<ChartResponse> getSeries(
+            Long runnerId,
+            long dataVersion,
+            ChartMetric metric,
+            ChartBucket bucket,
+            LocalDate from,
+            LocalDate to
+    ) {
+        LocalDate last = bucket.startOf(to);
+        LocalDate first = (from != null)
+                ? bucket.startOf(from)
+                : bucket.plus(last, -(bucket.getDefaultSpan() - 1));
+
+        if (first.isAfter(last)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+
+        List<LocalDate> bucketStarts = new ArrayList<>();
+        for (LocalDate start = first; !start.isAfter(last); start = bucket.plus(start, 1)) {
+            if (bucketStarts.size() == MAX_POINTS) {
+                throw new IllegalArgumentException("Date range too large for bucket " + bucket);
+            }
+            bucketStarts.add(start);
+        }
+
+        Map<LocalDate, BucketTotals> totals = new HashMap<>();
+        for (BucketTotals row : activityRollupService.getBuckets(runnerId, bucket, first, bucket.plus(last, 1))) {
+            totals.put(row.getBucketStart(), row);
+        }
+
+        List<ChartResponse> series = new ArrayList<>(bucketStarts.size());
+        for (LocalDate start : bucketStarts) {
+            BucketTotals row = totals.get(start);
+            series.add(new ChartResponse(bucket.label(start), row == null ? 0.0 : valueOf(metric, row)));
+        }
+        return series;
+    }
+
+    /**
+     * Converts the sums of one bucket into the value of the requested metric (rounded to 2 decimals).
      */
-    public List<ChartResponse> getRunsPerWeek(Long runnerId) {
-        List<ActivityEntity> activities = activityRepository.findByRunnerId(runnerId);
-
-        
-        Map<Integer, Long> runsPerWeek = activities.stream()
-                .collect(Collectors.groupingBy(
-                        a -> a.getDate().get(IsoFields.WEEK_OF_WEEK_BASED_YEAR),
-                        Collectors.counting()
-                ));
-
-        
-        return runsPerWeek.entrySet().stream()
-                .sorted(Map.Entry.comparingByKey()) 
-                .map(entry -> new ChartResponse(
-                        "W" + entry.getKey(),
-                        entry.getValue().doubleValue()
-                ))
-                .toList();
+    private static double valueOf(ChartMetric metric, BucketTotals row) {
+        double value = switch (metric) {
+            case DISTANCE -> row.getDistanceKm();
+            case DURATION -> row.getDurationSec() / 60.0;
+            case CALORIES -> row.getCalories();
+            case RUNS -> row.getRuns();
+            case PACE -> row.getDistanceKm() > 0 ? (row.getDurationSec() / 60.0) / row.getDistanceKm() : 0.0;
+        };
+        return Math.round(value * 100.0) / 100.0;
     }
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.pavel.jogger.service;
+
+import com.pavel.jogger.persistence.repository.RunnerRepository;
+import com.pavel.jogger.web.exception.NotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service managing the per-runner data version used for conditional HTTP requests.
+ * <p>
+ * Every service that changes a runner's activities, badges or profile calls {@link #bump(Long)} inside its
+ * own transaction, so the new version becomes visible together with the data it describes.
+ * Controllers turn the version into an ETag and answer {@code 304 Not Modified} when the client already
+ * has it, which costs one primary key read instead of rebuilding the response.
+ * </p>
+ */
+@Service
+public class DataVersionService {
+
+    private final RunnerRepository runnerRepository;
+
+    public DataVersionService(RunnerRepository runnerRepository) {
+        this.runnerRepository = runnerRepository;
+    }
+
+    /**
+     * Returns the current data version of a runner.
+     * @param runnerId The ID of the user.
+     * @return The version, which only ever increases.
+     * @throws NotFoundException If the runner does not exist.
+     */
+    @Transactional(readOnly = true)
+    public long getVersion(Long runnerId) {
+        return runnerRepository.findDataVersion(runnerId)
+                .orElseThrow(() -> new NotFoundException("Runner not found"));
+    }
+
+    /**
+     * Marks the runner's data as changed.
+     * @param runnerId The ID of the user whose data was modified.
+     */
+    @Transactional
+    public void bump(Long runnerId) {
+        runnerRepository.bumpDataVersion(runnerId);
+    }
+}
@@ -0,0 +1,196 @@
+package com.pavel.jogger.service;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Small layout helper that writes report content top to bottom and starts a new page when the current one is full.
+ * <p>
+ * Only the content stream of the current page is open. It is closed as soon as the next page starts,
+ * so finished pages live in the document's scratch buffer (see {@link ReportResources}) instead of
+ * being kept as drawing state.
+ * <br>
+ * The two standard 14 fonts are created per canvas, because PDFBox fonts must not be shared between documents
+ * rendered at the same time.
+ * <br>
+ * Tables repeat their header row on every page they continue on. Page numbers are added in {@link #close()},
+ * once the total number of pages is known.
+ * </p>
+ */
+final class ReportCanvas implements Closeable {
+
+    private static final float TITLE_SIZE = 18f;
+    private static final float HEADING_SIZE = 13f;
+    private static final float TEXT_SIZE = 10f;
+    private static final float SMALL_SIZE = 7f;
+    private static final float LINE = 15f;
+
+    private final PDDocument document;
+    private final PDFont regular;
+    private final PDFont bold;
+    private final float left = ReportResources.MARGIN;
+    private final float width = ReportResources.PAGE_SIZE.getWidth() - 2 * ReportResources.MARGIN;
+    private final float top = ReportResources.PAGE_SIZE.getHeight() - ReportResources.MARGIN;
+    private final float bottom = ReportResources.MARGIN + LINE;
+
+    private PDPageContentStream content;
+    private float y;
+
+    ReportCanvas(PDDocument document) throws IOException {
+        this.document = document;
+        this.regular = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+        this.bold = new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD);
+        newPage();
+    }
+
+    void title(String text) throws IOException {
+        ensureSpace(TITLE_SIZE + LINE);
+        write(bold, TITLE_SIZE, left, y - TITLE_SIZE, text);
+        y -= TITLE_SIZE + LINE;
+    }
+
+    /**
+     * Writes a section heading, keeping at least {@code keepWithNext} points of the following content on the same page.
+     */
+    void heading(String text, float keepWithNext) throws IOException {
+        ensureSpace(HEADING_SIZE + LINE + keepWithNext);
+        y -= LINE / 2;
+        write(bold, HEADING_SIZE, left, y - HEADING_SIZE, text);
+        y -= HEADING_SIZE + LINE / 2;
+    }
+
+    void text(String text) throws IOException {
+        ensureSpace(LINE);
+        write(regular, TEXT_SIZE, left, y - TEXT_SIZE, text);
+        y -= LINE;
+    }
+
+    /**
+     * Writes a table. Column widths are fractions of the usable page width.
+     */
+    void table(String[] header, float[] columns, List<String[]> rows) throws IOException {
+        ensureSpace(2 * LINE);
+        tableRow(bold, header, columns);
+        for (String[] row : rows) {
+            if (y - LINE < bottom) {
+                newPage();
+                tableRow(bold, header, columns);
+            }
+            tableRow(regular, row, columns);
+        }
+    }
+
+    /**
+     * Draws a bar chart with one bar per label.
+     * Labels are thinned out when there are too many to be readable.
+     */
+    void barChart(List<String> labels, List<Double> values, String unit, float height) throws IOException {
+        float labelSpace = 2 * LINE;
+        ensureSpace(height + labelSpace);
+
+        double max = values.stream().mapToDouble(Double::doubleValue).max().orElse(0);
+        float base = y - height;
+        float slot = width / Math.max(1, values.size());
+        int labelStep = Math.max(1, (int) Math.ceil(values.size() / 12.0));
+
+        content.setStrokingColor(0.8f, 0.8f, 0.8f);
+        content.moveTo(left, base);
+        content.lineTo(left + width, base);
+        content.moveTo(left, y);
+        content.lineTo(left + width, y);
+        content.stroke();
+
+        if (max > 0) {
+            content.setNonStrokingColor(0.13f, 0.59f, 0.95f);
+            for (int i = 0; i < values.size(); i++) {
+                float barHeight = (float) (values.get(i) / max * (height - LINE));
+                content.addRect(left + i * slot + slot * 0.15f, base, slot * 0.7f, barHeight);
+            }
+            content.fill();
+            content.setNonStrokingColor(0f, 0f, 0f);
+        }
+
+        write(regular, SMALL_SIZE, left, y - SMALL_SIZE, String.format(Locale.ROOT, "max %.1f %s", max, unit));
+        for (int i = 0; i < labels.size(); i += labelStep) {
+            write(regular, SMALL_SIZE, left + i * slot + 2, base - SMALL_SIZE - 3, labels.get(i));
+        }
+        y = base - labelSpace;
+    }
+
+    /**
+     * Finishes the last page and writes "Page x of n" on every page.
+     */
+    @Override
+    public void close() throws IOException {
+        content.close();
+
+        int total = document.getNumberOfPages();
+        int number = 1;
+        for (PDPage page : document.getPages()) {
+            try (PDPageContentStream footer = new PDPageContentStream(
+                    document, page, PDPageContentStream.AppendMode.APPEND, true, true)) {
+                writeTo(footer, regular, SMALL_SIZE, left, ReportResources.MARGIN / 2,
+                        "Page " + number++ + " of " + total);
+            }
+        }
+    }
+
+    private void tableRow(PDFont font, String[] cells, float[] columns) throws IOException {
+        float x = left;
+        for (int i = 0; i < cells.length; i++) {
+            write(font, TEXT_SIZE, x, y - TEXT_SIZE, cells[i]);
+            x += columns[i] * width;
+        }
+        y -= LINE;
+    }
+
+    private void ensureSpace(float needed) throws IOException {
+        if (y - needed < bottom) {
+            newPage();
+        }
+    }
+
+    private void newPage() throws IOException {
+        if (content != null) {
+            content.close();
+        }
+        PDPage page = new PDPage(ReportResources.PAGE_SIZE);
+        document.addPage(page);
+        content = new PDPageContentStream(document, page);
+        y = top;
+    }
+
+    private void write(PDFont font, float size, float x, float baseline, String text) throws IOException {
+        writeTo(content, font, size, x, baseline, text);
+    }
+
+    private static void writeTo(PDPageContentStream stream, PDFont font, float size, float x, float baseline, String text)
+            throws IOException {
+        stream.beginText();
+        stream.setFont(font, size);
+        stream.newLineAtOffset(x, baseline);
+        stream.showText(printable(text));
+        stream.endText();
+    }
+
+    /**
+     * The standard fonts only cover Latin characters; anything else (e.g. emoji in a username) is replaced.
+     */
+    private static String printable(String text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            sb.append(c >= 0x20 && c < 0x7F ? c : '?');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,71 @@
+package com.pavel.jogger.service;
+
+import java.nio.file.Path;
+import java.util.UUID;
+
+/**
+ * A request to render the progress report of one runner at one data version.
+ * <p>
+ * Jobs are created by {@link ReportJobService}. The status moves from QUEUED to RUNNING to DONE (or FAILED);
+ * a job whose file was already on disk is created directly in state DONE. Requests for the same runner and
+ * version share one job, so the PDF is rendered at most once per version.
+ * </p>
+ */
+public class ReportJob {
+
+    public enum Status { QUEUED, RUNNING, DONE, FAILED }
+
+    private final String id = UUID.randomUUID().toString();
+    private final Long runnerId;
+    private final long dataVersion;
+    private final Path file;
+
+    private volatile Status status = Status.QUEUED;
+    private volatile String error;
+
+    ReportJob(Long runnerId, long dataVersion, Path file) {
+        this.runnerId = runnerId;
+        this.dataVersion = dataVersion;
+        this.file = file;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Long getRunnerId() {
+        return runnerId;
+    }
+
+    public long getDataVersion() {
+        return dataVersion;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * The rendered PDF. Only valid once the status is DONE.
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    void markRunning() {
+        status = Status.RUNNING;
+    }
+
+    void markDone() {
+        status = Status.DONE;
+    }
+
+    void markFailed(String message) {
+        error = message;
+        status = Status.FAILED;
+    }
+}
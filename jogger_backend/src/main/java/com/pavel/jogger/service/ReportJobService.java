@@ -0,0 +1,204 @@
+package com.pavel.jogger.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pavel.jogger.web.exception.ServiceUnavailableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Pipeline that renders progress reports in the background and keeps the result on local disk.
+ * <p>
+ * <b>Logic:</b> <br>
+ * 1. A report is identified by runner, data version and month (the report covers the last 12 months),
+ *    e.g. {@code runner-5-v42-2024-03.pdf} in {@code app.reports.storage-dir}. <br>
+ * 2. If that file exists, the job is done immediately and the file is served again. <br>
+ * 3. Otherwise the job is queued on the bounded "reportExecutor". Concurrent requests for the same
+ *    file share one job. A full queue is reported as HTTP 503. <br>
+ * 4. The PDF is written to a temporary file and atomically renamed, so readers never see a partial file. <br>
+ * 5. Older versions are not deleted inline, since a client may still be downloading one. A scheduled sweep
+ *    deletes a runner's superseded files once the newest file is older than {@code app.reports.superseded-grace}.
+ * <br>
+ * Job states are kept in memory for {@code app.reports.job-ttl}, which is enough for clients to poll them.
+ * </p>
+ */
+@Service
+public class ReportJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportJobService.class);
+
+    private final ReportService reportService;
+    private final DataVersionService dataVersionService;
+    private final Executor reportExecutor;
+    private final Path storageDir;
+    private final Duration supersededGrace;
+
+    private final Cache<String, ReportJob> jobs;
+    private final ConcurrentMap<Path, ReportJob> inFlight = new ConcurrentHashMap<>();
+
+    public ReportJobService(ReportService reportService,
+                            DataVersionService dataVersionService,
+                            @Qualifier("reportExecutor") Executor reportExecutor,
+                            @Value("${app.reports.storage-dir:${java.io.tmpdir}/jogger-reports}") Path storageDir,
+                            @Value("${app.reports.job-ttl:1h}") Duration jobTtl,
+                            @Value("${app.reports.superseded-grace:10m}") Duration supersededGrace) {
+        this.reportService = reportService;
+        this.dataVersionService = dataVersionService;
+        this.reportExecutor = reportExecutor;
+        this.storageDir = storageDir;
+        this.supersededGrace = supersededGrace;
+        this.jobs = Caffeine.newBuilder()
+                .expireAfterWrite(jobTtl)
+                .maximumSize(10_000)
+                .build();
+
+        try {
+            Files.createDirectories(storageDir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create report directory " + storageDir, e);
+        }
+    }
+
+    /**
+     * Requests the progress report of a runner at its current data version.
+     * @param runnerId The ID of the runner.
+     * @return A finished job if the report is already on disk, otherwise the queued or running job.
+     * @throws ServiceUnavailableException If the render queue is full (HTTP 503).
+     */
+    public ReportJob submit(Long runnerId) {
+        long version = dataVersionService.getVersion(runnerId);
+        Path file = storageDir.resolve(fileName(runnerId, version));
+
+        if (Files.exists(file)) {
+            ReportJob cached = new ReportJob(runnerId, version, file);
+            cached.markDone();
+            jobs.put(cached.getId(), cached);
+            return cached;
+        }
+
+        ReportJob job = new ReportJob(runnerId, version, file);
+        ReportJob running = inFlight.putIfAbsent(file, job);
+        if (running != null) {
+            return running;
+        }
+
+        jobs.put(job.getId(), job);
+        try {
+            reportExecutor.execute(() -> render(job));
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(file, job);
+            jobs.invalidate(job.getId());
+            throw new ServiceUnavailableException("Too many reports are being generated, try again later");
+        }
+        return job;
+    }
+
+    /**
+     * Looks up a job of a runner.
+     * @return The job, or empty if it does not exist, expired or belongs to another runner.
+     */
+    public Optional<ReportJob> getJob(Long runnerId, String jobId) {
+        return Optional.ofNullable(jobs.getIfPresent(jobId))
+                .filter(job -> job.getRunnerId().equals(runnerId));
+    }
+
+    /**
+     * Deletes the report files that were replaced by a newer file of the same runner.
+     * <p>
+     * A file is only deleted once the runner's newest file is older than {@code app.reports.superseded-grace},
+     * so downloads of the previous version that started before it was replaced can finish.
+     * </p>
+     */
+    @Scheduled(fixedDelayString = "${app.reports.sweep-interval-ms:300000}")
+    public void deleteSupersededFiles() {
+        Map<String, List<Path>> byRunner = new HashMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(storageDir, "runner-*-v*.pdf")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                byRunner.computeIfAbsent(name.substring(0, name.indexOf("-v")), r -> new ArrayList<>()).add(file);
+            }
+        } catch (IOException e) {
+            log.warn("Could not list {}", storageDir, e);
+            return;
+        }
+
+        Instant cutoff = Instant.now().minus(supersededGrace);
+        byRunner.values().stream()
+                .filter(files -> files.size() > 1)
+                .forEach(files -> {
+                    files.sort(Comparator.comparing(ReportJobService::lastModified).reversed());
+                    if (lastModified(files.get(0)).isBefore(cutoff)) {
+                        files.subList(1, files.size()).forEach(ReportJobService::deleteQuietly);
+                    }
+                });
+    }
+
+    private void render(ReportJob job) {
+        job.markRunning();
+        Path tmp = null;
+        try {
+            tmp = Files.createTempFile(storageDir, "render-", ".tmp");
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmp))) {
+                reportService.writeProgressReport(job.getRunnerId(), out);
+            }
+            Files.move(tmp, job.getFile(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            job.markDone();
+        } catch (Exception e) {
+            log.warn("Report rendering failed for runner {}", job.getRunnerId(), e);
+            deleteQuietly(tmp);
+            job.markFailed("Failed to generate PDF");
+        } finally {
+            inFlight.remove(job.getFile(), job);
+        }
+    }
+
+    private static Instant lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toInstant();
+        } catch (IOException e) {
+            // Already deleted: treat it as the oldest file.
+            return Instant.EPOCH;
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete {}", file, e);
+        }
+    }
+
+    private static String fileName(Long runnerId, long version) {
+        return "runner-" + runnerId + "-v" + version + "-" + YearMonth.now() + ".pdf";
+    }
+}
@@ -0,0 +1,39 @@
+package com.pavel.jogger.service;
+
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.io.RandomAccessStreamCache;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings shared by all PDF renders: page layout and the scratch buffer policy.
+ * <p>
+ * Fonts are not shared: PDFBox font objects are not thread-safe and belong to one document, so each
+ * {@link ReportCanvas} creates its own. For the standard 14 fonts that is cheap, since PDFBox caches
+ * their metrics.
+ * <br>
+ * Page content is buffered in main memory only up to {@code app.reports.max-memory-bytes} per document;
+ * everything above that goes to a temporary file. This keeps the heap used by one render bounded
+ * no matter how many pages the report has.
+ * </p>
+ */
+@Component
+public class ReportResources {
+
+    static final PDRectangle PAGE_SIZE = PDRectangle.A4;
+    static final float MARGIN = 50f;
+
+    private final RandomAccessStreamCache.StreamCacheCreateFunction streamCache;
+
+    public ReportResources(@Value("${app.reports.max-memory-bytes:4194304}") long maxMemoryBytes) {
+        this.streamCache = MemoryUsageSetting.setupMixed(maxMemoryBytes).streamCache;
+    }
+
+    /**
+     * Scratch buffer factory for a new {@code PDDocument} (memory first, then a temporary file).
+     */
+    public RandomAccessStreamCache.StreamCacheCreateFunction getStreamCache() {
+        return streamCache;
+    }
+}
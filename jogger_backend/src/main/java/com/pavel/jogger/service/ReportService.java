@@ -1,81 +1,244 @@
 package com.pavel.jogger.service;
 
+import com.pavel.jogger.persistence.entity.ActivityEntity;
+import com.pavel.jogger.persistence.entity.RunnerEntity;
+import com.pavel.jogger.persistence.entity.RunnerStatsEntity;
+import com.pavel.jogger.persistence.projection.BucketTotals;
 import com.pavel.jogger.persistence.repository.ActivityRepository;
+import com.pavel.jogger.persistence.repository.RunnerRepository;
+import com.pavel.jogger.web.dto.chart.ChartBucket;
+import com.pavel.jogger.web.exception.NotFoundException;
 import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.pdmodel.PDPage;
-import org.apache.pdfbox.pdmodel.PDPageContentStream;
-import org.apache.pdfbox.pdmodel.common.PDRectangle;
-import org.apache.pdfbox.pdmodel.font.PDType1Font;
-import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 
 /**
  * Service responsible for generating binary document reports (PDFs).
  * <p>
  * It uses the Apache PDFBox library to draw text and graphics onto a PDF canvas programmatically,
  * fetching data from the database to write the report.
+ * <br>
+ * The progress report covers the runner's full history: lifetime totals, personal bests,
+ * a chart of the last 12 months, a chart per year and a table of every month with activities.
+ * </p>
+ * <p>
+ * <b>Logic:</b> <br>
+ * - Totals come from the runner's stats row and all monthly/yearly figures from the pre-summed rollup buckets. <br>
+ * - Personal bests are LIMIT 1 queries. <br>
+ * - The raw activities are therefore never loaded, so the data behind a report grows with the number
+ *   of months, not the number of runs. <br>
+ * - Pages are buffered in a bounded scratch space ({@link ReportResources}) before the document is written
+ *   to the output stream.
  * </p>
  */
 @Service
 public class ReportService {
 
-    private final ActivityRepository activityRepository;
+    /**
+     * Runs shorter than this are ignored for the fastest pace, so short test recordings do not count.
+     */
+    static final double MIN_PACE_DISTANCE_KM = 1.0;
+
+    private static final float CHART_HEIGHT = 140f;
 
-    public ReportService(ActivityRepository activityRepository) {
+    private final RunnerRepository runnerRepository;
+    private final ActivityRepository activityRepository;
+    private final RunnerStatsService runnerStatsService;
+    private final ActivityRollupService activityRollupService;
+    private final ReportResources resources;
+
+    public ReportService(RunnerRepository runnerRepository,
+                         ActivityRepository activityRepository,
+                         RunnerStatsService runnerStatsService,
+                         ActivityRollupService activityRollupService,
+                         ReportResources resources) {
+        this.runnerRepository = runnerRepository;
         this.activityRepository = activityRepository;
+        this.runnerStatsService = runnerStatsService;
+        this.activityRollupService = activityRollupService;
+        this.resources = resources;
     }
 
     /**
-     * Creates a simple one-page PDF summarizing the runner's progress.
+     * Writes the multi-page progress report of a runner.
+     * <p>
+     * The document is written straight to the given stream instead of being collected in a byte array first.
+     * </p>
      * @param runnerId The ID of the runner.
-     * @return A byte array representing the PDF file content.
-     * @throws RuntimeException If the PDF creation fails.
+     * @param out      The stream receiving the PDF (not closed by this method).
+     * @throws NotFoundException If the runner does not exist.
+     * @throws RuntimeException  If the PDF creation fails.
      */
-    public byte[] generateProgressReport(Long runnerId) {
-
-        Double totalKmObj = activityRepository.totalDistance(runnerId);
-        Long totalRunsObj = activityRepository.totalActivities(runnerId);
+    public void writeProgressReport(Long runnerId, OutputStream out) {
+
+        RunnerEntity runner = runnerRepository.findById(runnerId)
+                .orElseThrow(() -> new NotFoundException("Runner not found"));
+        RunnerStatsEntity stats = runnerStatsService.getStats(runnerId);
+
+        LocalDate today = LocalDate.now();
+        LocalDate firstDate = activityRepository.findFirstActivityDate(runnerId);
+        LocalDate from = firstDate != null ? firstDate : today;
+
+        List<BucketTotals> months = activityRollupService.getBuckets(
+                runnerId, ChartBucket.MONTH,
+                ChartBucket.MONTH.startOf(from), ChartBucket.MONTH.plus(ChartBucket.MONTH.startOf(today), 1)
+        );
+        List<BucketTotals> years = activityRollupService.getBuckets(
+                runnerId, ChartBucket.YEAR,
+                ChartBucket.YEAR.startOf(from), ChartBucket.YEAR.plus(ChartBucket.YEAR.startOf(today), 1)
+        );
+
+        try (PDDocument document = new PDDocument(resources.getStreamCache())) {
+
+            try (ReportCanvas canvas = new ReportCanvas(document)) {
+                canvas.title("Jogger Progress Report");
+                canvas.text("Runner: " + runner.getUsername() + " (ID " + runnerId + ")");
+                canvas.text("Generated on: " + today);
+
+                writeTotals(canvas, stats, firstDate);
+                writePersonalBests(canvas, runnerId);
+                writeLastYearChart(canvas, months, today);
+                writeYearChart(canvas, years);
+                writeMonthTable(canvas, months);
+            }
 
-        double totalKm = (totalKmObj == null) ? 0.0 : totalKmObj;
-        long totalRuns = (totalRunsObj == null) ? 0L : totalRunsObj;
+            document.save(out);
+        } catch (NotFoundException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to generate PDF", e);
+        }
+    }
 
-        try (PDDocument document = new PDDocument()) {
+    private void writeTotals(ReportCanvas canvas, RunnerStatsEntity stats, LocalDate firstDate) throws Exception {
+        canvas.heading("Totals", 60f);
+        canvas.text("Total distance: " + km(stats.getTotalDistanceKm()));
+        canvas.text("Total runs: " + stats.getTotalRuns());
+        canvas.text("Total time: " + duration(stats.getTotalDurationSec()));
+        canvas.text("Total calories: " + stats.getTotalCalories() + " kcal");
+        if (stats.getTotalDistanceKm() > 0) {
+            canvas.text("Average pace: " + pace(stats.getTotalDurationSec(), stats.getTotalDistanceKm()));
+        }
+        if (firstDate != null) {
+            canvas.text("Running since: " + firstDate);
+        }
+    }
 
-            PDPage page = new PDPage(PDRectangle.A4);
-            document.addPage(page);
+    private void writePersonalBests(ReportCanvas canvas, Long runnerId) throws Exception {
+        canvas.heading("Personal bests", 60f);
 
-            try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+        List<ActivityEntity> longest = activityRepository.findLongestRuns(runnerId, Limit.of(1));
+        if (longest.isEmpty()) {
+            canvas.text("No runs recorded yet.");
+            return;
+        }
+        ActivityEntity run = longest.get(0);
+        canvas.text("Longest run: " + km(run.getDistanceKm()) + " on " + run.getDate());
+
+        List<ActivityEntity> fastest = activityRepository.findFastestRuns(runnerId, MIN_PACE_DISTANCE_KM, Limit.of(1));
+        if (!fastest.isEmpty()) {
+            ActivityEntity best = fastest.get(0);
+            canvas.text("Fastest pace: " + pace(best.getDurationSec(), best.getDistanceKm())
+                    + " over " + km(best.getDistanceKm()) + " on " + best.getDate());
+        }
 
-                content.beginText();
-                content.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD), 18);
-                content.setLeading(20f);
-                content.newLineAtOffset(50, 750);
+        for (BucketTotals week : activityRollupService.getTopBuckets(runnerId, ChartBucket.WEEK, 1)) {
+            canvas.text("Best week: " + km(week.getDistanceKm()) + " in " + ChartBucket.WEEK.label(week.getBucketStart()));
+        }
+        for (BucketTotals month : activityRollupService.getTopBuckets(runnerId, ChartBucket.MONTH, 1)) {
+            canvas.text("Best month: " + km(month.getDistanceKm()) + " in " + ChartBucket.MONTH.label(month.getBucketStart()));
+        }
+    }
 
-                content.showText("Jogger Progress Report");
-                content.newLine();
-                content.newLine();
+    /**
+     * Distance per month for the last 12 months, with empty months shown as zero.
+     */
+    private void writeLastYearChart(ReportCanvas canvas, List<BucketTotals> months, LocalDate today) throws Exception {
+        canvas.heading("Distance per month (last 12 months)", CHART_HEIGHT + 30f);
+
+        LocalDate start = ChartBucket.MONTH.plus(ChartBucket.MONTH.startOf(today), -11);
+        List<String> labels = new ArrayList<>(12);
+        List<Double> values = new ArrayList<>(12);
+        for (int i = 0; i < 12; i++) {
+            LocalDate month = ChartBucket.MONTH.plus(start, i);
+            labels.add(ChartBucket.MONTH.label(month));
+            values.add(0.0);
+        }
+        for (BucketTotals month : months) {
+            int index = (int) ChronoUnit.MONTHS.between(start, month.getBucketStart());
+            if (index >= 0 && index < 12) {
+                values.set(index, month.getDistanceKm());
+            }
+        }
+        canvas.barChart(labels, values, "km", CHART_HEIGHT);
+    }
 
-                content.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 12);
+    private void writeYearChart(ReportCanvas canvas, List<BucketTotals> years) throws Exception {
+        if (years.isEmpty()) {
+            return;
+        }
+        canvas.heading("Distance per year", CHART_HEIGHT + 30f);
 
-                content.showText("Runner ID: " + runnerId);
-                content.newLine();
+        List<String> labels = new ArrayList<>(years.size());
+        List<Double> values = new ArrayList<>(years.size());
+        for (BucketTotals year : years) {
+            labels.add(ChartBucket.YEAR.label(year.getBucketStart()));
+            values.add(year.getDistanceKm());
+        }
+        canvas.barChart(labels, values, "km", CHART_HEIGHT);
+    }
 
-                content.showText("Total distance: " + totalKm + " km");
-                content.newLine();
+    /**
+     * One row per month with activities, newest first.
+     */
+    private void writeMonthTable(ReportCanvas canvas, List<BucketTotals> months) throws Exception {
+        if (months.isEmpty()) {
+            return;
+        }
+        canvas.heading("Monthly history", 45f);
+
+        List<String[]> rows = new ArrayList<>(months.size());
+        for (int i = months.size() - 1; i >= 0; i--) {
+            BucketTotals month = months.get(i);
+            rows.add(new String[]{
+                    ChartBucket.MONTH.label(month.getBucketStart()),
+                    String.valueOf(month.getRuns()),
+                    km(month.getDistanceKm()),
+                    duration(month.getDurationSec()),
+                    month.getDistanceKm() > 0 ? pace(month.getDurationSec(), month.getDistanceKm()) : "-",
+                    month.getCalories() + " kcal"
+            });
+        }
+        canvas.table(
+                new String[]{"Month", "Runs", "Distance", "Time", "Avg pace", "Calories"},
+                new float[]{0.16f, 0.10f, 0.18f, 0.18f, 0.18f, 0.20f},
+                rows
+        );
+    }
 
-                content.showText("Total runs: " + totalRuns);
-                content.newLine();
+    private static String km(double km) {
+        return String.format(Locale.ROOT, "%.2f km", km);
+    }
 
-                content.endText();
-            }
+    /**
+     * Formats seconds as "h:mm:ss".
+     */
+    private static String duration(long seconds) {
+        return String.format(Locale.ROOT, "%d:%02d:%02d", seconds / 3600, (seconds % 3600) / 60, seconds % 60);
+    }
 
-            ByteArrayOutputStream out = new ByteArrayOutputStream();
-            document.save(out);
-            return out.toByteArray();
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to generate PDF", e);
-        }
+    /**
+     * Formats the average pace as "m:ss /km".
+     */
+    private static String pace(long seconds, double km) {
+        long perKm = Math.round(seconds / km);
+        return String.format(Locale.ROOT, "%d:%02d /km", perKm / 60, perKm % 60);
     }
 }
@@ -0,0 +1,174 @@
+package com.pavel.jogger.service;
+
+import com.pavel.jogger.persistence.repository.ActivityRollupRepository;
+import com.pavel.jogger.persistence.repository.RunnerRepository;
+import com.pavel.jogger.persistence.repository.RunnerStatsRepository;
+import com.pavel.jogger.web.dto.chart.ChartBucket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Background jobs that keep the rollup table ("activity_rollups") consistent with the activities table.
+ * <p>
+ * <b>Compaction</b> (nightly, {@code app.rollups.compaction-cron}): regenerates the buckets of runners that
+ * were active in the last {@code app.rollups.compaction-window-days} days and purges buckets whose
+ * activities were all deleted.
+ * <br>
+ * <b>Full rebuild</b> (admin endpoint, or {@code app.rollups.rebuild-on-startup=true} after a schema change):
+ * walks all runners by ID in chunks of {@code app.rollups.rebuild-chunk-size} and regenerates each chunk
+ * in parallel on the "rollupExecutor" pool. Every chunk is one transaction (delete + one INSERT ... SELECT
+ * per period), so readers see either the old or the new buckets of a runner, never a mix.
+ * <br>
+ * Only one job runs at a time.
+ * </p>
+ */
+@Service
+public class RollupMaintenanceService {
+
+    private static final Logger log = LoggerFactory.getLogger(RollupMaintenanceService.class);
+
+    private final ActivityRollupRepository rollupRepository;
+    private final RunnerRepository runnerRepository;
+    private final RunnerStatsRepository runnerStatsRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor rollupExecutor;
+    private final int chunkSize;
+    private final int compactionWindowDays;
+    private final boolean rebuildOnStartup;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    public RollupMaintenanceService(ActivityRollupRepository rollupRepository,
+                                    RunnerRepository runnerRepository,
+                                    RunnerStatsRepository runnerStatsRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    @Qualifier("rollupExecutor") Executor rollupExecutor,
+                                    @Value("${app.rollups.rebuild-chunk-size:500}") int chunkSize,
+                                    @Value("${app.rollups.compaction-window-days:7}") int compactionWindowDays,
+                                    @Value("${app.rollups.rebuild-on-startup:false}") boolean rebuildOnStartup) {
+        this.rollupRepository = rollupRepository;
+        this.runnerRepository = runnerRepository;
+        this.runnerStatsRepository = runnerStatsRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rollupExecutor = rollupExecutor;
+        this.chunkSize = chunkSize;
+        this.compactionWindowDays = compactionWindowDays;
+        this.rebuildOnStartup = rebuildOnStartup;
+    }
+
+    /**
+     * Starts the full rebuild in the background right after startup when requested by configuration.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (rebuildOnStartup) {
+            startRebuild();
+        }
+    }
+
+    /**
+     * Starts a full rebuild of all runners' buckets in the background.
+     * @return false if a rebuild or compaction is already running.
+     */
+    public boolean startRebuild() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+
+        try {
+            rollupExecutor.execute(() -> {
+                try {
+                    rebuildAll();
+                } finally {
+                    running.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+        return true;
+    }
+
+    /**
+     * Nightly compaction of recently changed runners.
+     * <p>
+     * Logic: <br>
+     * 1. Find runners whose last activity falls inside the compaction window (one read of runner_stats). <br>
+     * 2. Regenerate their buckets one runner per transaction, correcting any drift from the live deltas. <br>
+     * 3. Delete buckets that reached zero runs.
+     * </p>
+     */
+    @Scheduled(cron = "${app.rollups.compaction-cron:0 30 3 * * *}")
+    public void compact() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("Rollup compaction skipped, another rollup job is running");
+            return;
+        }
+
+        try {
+            List<Long> runnerIds = runnerStatsRepository.findRunnerIdsActiveSince(
+                    LocalDate.now().minusDays(compactionWindowDays)
+            );
+            for (Long runnerId : runnerIds) {
+                rebuildRange(runnerId, runnerId);
+            }
+
+            Integer purged = transactionTemplate.execute(status -> rollupRepository.deleteEmptyBuckets());
+            log.info("Rollup compaction rebuilt {} runners and purged {} empty buckets", runnerIds.size(), purged);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Regenerates the buckets of every runner, one chunk of runner IDs per task.
+     * @return The number of chunks processed.
+     */
+    int rebuildAll() {
+        long started = System.currentTimeMillis();
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+
+        Long afterId = 0L;
+        while (true) {
+            List<Long> ids = runnerRepository.findIdsAfter(afterId, Limit.of(chunkSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+
+            Long first = ids.get(0);
+            Long last = ids.get(ids.size() - 1);
+            chunks.add(CompletableFuture.runAsync(() -> rebuildRange(first, last), rollupExecutor));
+            afterId = last;
+        }
+
+        CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new)).join();
+        log.info("Rollup rebuild finished: {} chunks in {} ms", chunks.size(), System.currentTimeMillis() - started);
+        return chunks.size();
+    }
+
+    private void rebuildRange(Long fromRunnerId, Long toRunnerId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            rollupRepository.deleteByRunnerRange(fromRunnerId, toRunnerId);
+            for (ChartBucket period : ActivityRollupService.STORED_PERIODS) {
+                rollupRepository.insertFromActivities(fromRunnerId, toRunnerId, period);
+            }
+        });
+    }
+}
@@ -0,0 +1,49 @@
+package com.pavel.jogger.service;
+
+import com.pavel.jogger.config.CacheConfig;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Removes cached read results of a single runner after their data was changed.
+ * <p>
+ * Services call it from their write methods. The eviction is deferred until the surrounding transaction
+ * has committed, so a concurrent reader cannot put the old data back into the cache in between.
+ * Outside a transaction (e.g. the asynchronous badge evaluation) it happens immediately.
+ * <br>
+ * Only the entries of the given runner are removed; other runners keep their cached data.
+ * <br>
+ * Charts need no eviction: their keys contain the runner's data version (see {@link ChartService}).
+ * </p>
+ */
+@Component
+public class RunnerCacheEvictor {
+
+    private final CacheManager cacheManager;
+
+    public RunnerCacheEvictor(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Drops the cached badge list of the runner.
+     */
+    public void evictBadges(Long runnerId) {
+        AfterCommit.run(() -> evict(CacheConfig.BADGES, runnerId));
+    }
+
+    /**
+     * Drops the cached profile of the runner.
+     */
+    public void evictProfile(String username) {
+        AfterCommit.run(() -> evict(CacheConfig.RUNNERS, username));
+    }
+
+    private void evict(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evict(key);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.pavel.jogger.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of the last runner returned in a page of the admin list.
+ * <p>
+ * The list is ordered by id, so the id alone is enough to continue. Like {@link ActivityCursor},
+ * it is handed to the client as an opaque Base64 string.
+ * </p>
+ */
+public class RunnerCursor {
+
+    private final Long id;
+
+    public RunnerCursor(Long id) {
+        this.id = id;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Converts the cursor into the opaque token handed to the client.
+     * @return A URL-safe Base64 string.
+     */
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(("r:" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parses a token previously produced by {@link #encode()}.
+     * @param token The cursor string received from the client.
+     * @return The decoded cursor.
+     * @throws IllegalArgumentException If the token is malformed (mapped to HTTP 400).
+     */
+    public static RunnerCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            if (!raw.startsWith("r:")) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new RunnerCursor(Long.parseLong(raw.substring(2)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
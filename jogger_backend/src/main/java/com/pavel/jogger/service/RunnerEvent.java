@@ -0,0 +1,44 @@
+package com.pavel.jogger.service;
+
+/**
+ * Something that happened to a runner's data and may be pushed to the runner's open clients.
+ * <p>
+ * Published by {@link RunnerEventPublisher} after the change has committed. {@code data} is a response DTO
+ * (or a small map) that is sent as the JSON payload of the event.
+ * </p>
+ */
+public class RunnerEvent {
+
+    public enum Type {
+        BADGE_AWARDED("badge-awarded"),
+        ACTIVITY_ADDED("activity-added"),
+        STATS_CHANGED("stats-changed");
+
+        private final String eventName;
+
+        Type(String eventName) {
+            this.eventName = eventName;
+        }
+
+        /**
+         * The name sent in the "event:" field of the stream.
+         */
+        public String getEventName() { return eventName; }
+    }
+
+    private final Long runnerId;
+    private final Type type;
+    private final Object data;
+
+    public RunnerEvent(Long runnerId, Type type, Object data) {
+        this.runnerId = runnerId;
+        this.type = type;
+        this.data = data;
+    }
+
+    public Long getRunnerId() { return runnerId; }
+
+    public Type getType() { return type; }
+
+    public Object getData() { return data; }
+}
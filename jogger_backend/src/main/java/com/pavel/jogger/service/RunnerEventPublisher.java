@@ -0,0 +1,56 @@
+package com.pavel.jogger.service;
+
+import com.pavel.jogger.persistence.entity.ActivityEntity;
+import com.pavel.jogger.persistence.entity.BadgeEntity;
+import com.pavel.jogger.persistence.mapper.ActivityMapper;
+import com.pavel.jogger.web.dto.badge.BadgeResponse;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Announces changes of a runner's data as {@link RunnerEvent}s, so open clients can be notified instead of polling.
+ * <p>
+ * Services call it from their write methods. Like the cache eviction, the event is deferred until the surrounding
+ * transaction has committed, so a client reacting to it already reads the new data, and a rolled back change
+ * is never announced. Delivery is best effort: a client that was not connected simply refreshes when it opens.
+ * </p>
+ */
+@Component
+public class RunnerEventPublisher {
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    public RunnerEventPublisher(ApplicationEventPublisher applicationEventPublisher) {
+        this.applicationEventPublisher = applicationEventPublisher;
+    }
+
+    /**
+     * Announces newly awarded badges (payload: the badges as {@link BadgeResponse}s).
+     */
+    public void badgesAwarded(Long runnerId, List<BadgeEntity> badges) {
+        List<BadgeResponse> data = badges.stream().map(BadgeService::toResponse).toList();
+        publish(new RunnerEvent(runnerId, RunnerEvent.Type.BADGE_AWARDED, data));
+    }
+
+    /**
+     * Announces a new activity (payload: the activity as returned by the activities endpoint).
+     */
+    public void activityAdded(Long runnerId, ActivityEntity activity) {
+        publish(new RunnerEvent(runnerId, RunnerEvent.Type.ACTIVITY_ADDED, ActivityMapper.toResponse(activity)));
+    }
+
+    /**
+     * Announces that the runner's totals and charts changed (payload: the runner ID only; clients re-read
+     * what they display, which costs a 304 for anything that did not change).
+     */
+    public void statsChanged(Long runnerId) {
+        publish(new RunnerEvent(runnerId, RunnerEvent.Type.STATS_CHANGED, Map.of("runnerId", runnerId)));
+    }
+
+    private void publish(RunnerEvent event) {
+        AfterCommit.run(() -> applicationEventPublisher.publishEvent(event));
+    }
+}
@@ -0,0 +1,35 @@
+package com.pavel.jogger.service;
+
+import com.pavel.jogger.persistence.projection.RunnerSummary;
+
+import java.util.List;
+
+/**
+ * One page of the admin runner list, ordered by id.
+ * <p>
+ * {@code nextCursor} is null when the page is the last one. Otherwise it must be passed back
+ * as the {@code cursor} parameter (with the same search) to fetch the following page.
+ * </p>
+ */
+public class RunnerPage {
+
+    private final List<RunnerSummary> items;
+    private final String nextCursor;
+
+    public RunnerPage(List<RunnerSummary> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<RunnerSummary> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
@@ -1,13 +1,22 @@
 package com.pavel.jogger.service;
 
+import com.pavel.jogger.config.CacheConfig;
 import com.pavel.jogger.persistence.entity.RunnerEntity;
+import com.pavel.jogger.persistence.projection.RunnerSummary;
 import com.pavel.jogger.persistence.repository.RunnerRepository;
+import com.pavel.jogger.security.VerifiedTokenCache;
+import com.pavel.jogger.web.dto.runner.RunnerResponse;
 import com.pavel.jogger.web.exception.ConflictException;
 import com.pavel.jogger.web.exception.NotFoundException;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.SortedSet;
+import java.util.TreeSet;
 
 /**
  * Service class encapsulating business logic for User management.
@@ -19,23 +28,45 @@ import java.util.Optional;
 @Service
 public class RunnerService {
 
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
     private final RunnerRepository runnerRepository;
+    private final AccountDeletionService accountDeletionService;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final RunnerCacheEvictor runnerCacheEvictor;
+    private final DataVersionService dataVersionService;
 
-    public RunnerService(RunnerRepository runnerRepository) {
+    public RunnerService(RunnerRepository runnerRepository,
+                         AccountDeletionService accountDeletionService,
+                         VerifiedTokenCache verifiedTokenCache,
+                         RunnerCacheEvictor runnerCacheEvictor,
+                         DataVersionService dataVersionService) {
         this.runnerRepository = runnerRepository;
+        this.accountDeletionService = accountDeletionService;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.runnerCacheEvictor = runnerCacheEvictor;
+        this.dataVersionService = dataVersionService;
     }
 
-    
-    public Optional<RunnerEntity> getRunnerById(Long id) {
-        return runnerRepository.findById(id);
+    /**
+     * Finds the public profile of a runner.
+     * Read as a DTO in a read-only transaction; disabled (deleted) accounts are not found.
+     */
+    @Transactional(readOnly = true)
+    public Optional<RunnerResponse> getProfile(Long id) {
+        return runnerRepository.findProfileById(id);
     }
 
     /**
-     * Finds a runner by their username.
-     * Essential for the login process and the {@code /me} endpoint.
+     * Finds the public profile of a runner by their username.
+     * Essential for the {@code /me} endpoint.
+     * Found profiles are cached by username until the profile is updated or deleted.
+     * No transaction is opened here, so a cache hit never takes a database connection.
      */
-    public Optional<RunnerEntity> getRunnerByUsername(String username) {
-        return runnerRepository.findByUsername(username);
+    @Cacheable(cacheNames = CacheConfig.RUNNERS, key = "#username", unless = "#result == null")
+    public Optional<RunnerResponse> getProfileByUsername(String username) {
+        return runnerRepository.findProfileByUsername(username);
     }
 
     /**
@@ -53,6 +84,7 @@ public class RunnerService {
      * @throws NotFoundException If user ID is invalid.
      * @throws ConflictException If the new email is already in use (HTTP 409).
      */
+    @Transactional
     public RunnerEntity updateRunner(Long id, String newEmail, Double newWeight) {
         RunnerEntity runner = runnerRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("Runner not found"));
@@ -67,25 +99,102 @@ public class RunnerService {
             runner.setWeight(newWeight);
         }
 
-        return runnerRepository.save(runner);
+        RunnerEntity saved = runnerRepository.save(runner);
+        runnerCacheEvictor.evictProfile(saved.getUsername());
+        dataVersionService.bump(id);
+        return saved;
     }
 
     /**
-     * Permanently deletes a user account by the user id.
+     * Deletes a user account by the user id.
+     * <p>
+     * The account is disabled at once with a single UPDATE: it can no longer log in, its tokens stop working
+     * and it disappears from the admin list. Its data is then deleted in chunks in the background
+     * (see {@link AccountDeletionService}), so this call returns quickly even for a long history.
+     * The runner's cached reads are dropped.
+     * </p>
      * @throws NotFoundException If the user does not exist.
      */
+    @Transactional
     public void deleteRunner(Long id) {
-        if (!runnerRepository.existsById(id)) {
-            throw new NotFoundException("Runner not found");
+        RunnerEntity runner = runnerRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException("Runner not found"));
+
+        if (runnerRepository.disable(id) == 0) {
+            // Already waiting for deletion.
+            return;
         }
-        runnerRepository.deleteById(id);
+
+        runnerCacheEvictor.evictProfile(runner.getUsername());
+        runnerCacheEvictor.evictBadges(id);
+        AfterCommit.run(() -> {
+            verifiedTokenCache.evictRunner(id);
+            accountDeletionService.deleteSoon();
+        });
     }
 
     /**
-     * Retrieves all registered users.
+     * Lists runners for the admin panel, one page at a time.
+     * <p>
+     * <b>Logic:</b> <br>
+     * 1. Clamp the page size to {@link #MAX_PAGE_SIZE} (default {@link #DEFAULT_PAGE_SIZE}). <br>
+     * 2. Without a search, fetch one row more than the page size after the cursor, selecting only the listed
+     *    columns (and, if asked, the totals from the stats table in the same query). <br>
+     * 3. With a search, turn the text into an escaped prefix pattern and fetch the first matching IDs after the
+     *    cursor from the username index and from the email index separately. The smallest page size + 1 IDs
+     *    of both decide the page; its rows are then loaded by primary key (a page may come back shorter if one
+     *    of the accounts is waiting for deletion). <br>
+     * 4. If the extra row (or ID) exists, there is a next page, starting after the last id of this one.
+     * <br>
      * Intended for Admin use only.
+     * </p>
+     * @param search        Optional start of a username or email.
+     * @param cursor        Optional cursor taken from the previous page.
+     * @param limit         Optional page size.
+     * @param includeTotals Whether to include each runner's lifetime runs and distance.
+     * @return The page and the cursor of the next one.
+     * @throws IllegalArgumentException If the cursor or limit is invalid (HTTP 400).
+     */
+    @Transactional(readOnly = true)
+    public RunnerPage getRunnersPage(String search, String cursor, Integer limit, boolean includeTotals) {
+        if (limit != null && limit < 1) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        int pageSize = (limit == null) ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+        long afterId = (cursor != null) ? RunnerCursor.decode(cursor).getId() : 0L;
+        String prefix = (search == null || search.isBlank()) ? null : escapeLike(search.strip()) + "%";
+
+        Limit fetch = Limit.of(pageSize + 1);
+        if (prefix != null) {
+            SortedSet<Long> matches = new TreeSet<>(runnerRepository.findIdsByUsernamePrefix(afterId, prefix, fetch));
+            matches.addAll(runnerRepository.findIdsByEmailPrefix(afterId, prefix, fetch));
+            if (matches.isEmpty()) {
+                return new RunnerPage(List.of(), null);
+            }
+
+            List<Long> ids = matches.stream().limit(pageSize).toList();
+            List<RunnerSummary> items = includeTotals
+                    ? runnerRepository.findSummariesWithTotalsByIds(ids)
+                    : runnerRepository.findSummariesByIds(ids);
+            String next = matches.size() > pageSize ? new RunnerCursor(ids.get(pageSize - 1)).encode() : null;
+            return new RunnerPage(items, next);
+        }
+
+        List<RunnerSummary> rows = includeTotals
+                ? runnerRepository.findSummariesWithTotals(afterId, fetch)
+                : runnerRepository.findSummaries(afterId, fetch);
+
+        if (rows.size() <= pageSize) {
+            return new RunnerPage(rows, null);
+        }
+        List<RunnerSummary> items = rows.subList(0, pageSize);
+        return new RunnerPage(items, new RunnerCursor(items.get(pageSize - 1).getId()).encode());
+    }
+
+    /**
+     * Escapes the LIKE wildcards of user input, using {@code !} as the escape character.
      */
-    public List<RunnerEntity> getAllRunners() {
-        return runnerRepository.findAll();
+    static String escapeLike(String text) {
+        return text.replace("!", "!!").replace("%", "!%").replace("_", "!_");
     }
 }
@@ -0,0 +1,237 @@
+package com.pavel.jogger.service;
+
+import com.pavel.jogger.persistence.entity.ActivityEntity;
+import com.pavel.jogger.persistence.entity.RunnerStatsEntity;
+import com.pavel.jogger.persistence.projection.ActivityTotals;
+import com.pavel.jogger.persistence.repository.ActivityRepository;
+import com.pavel.jogger.persistence.repository.BadgeRepository;
+import com.pavel.jogger.persistence.repository.RunnerStatsRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Service maintaining the per-runner aggregate row ({@link RunnerStatsEntity}).
+ * <p>
+ * Writers ({@link ActivityService}) report every change as a delta, which is applied with a single
+ * relative UPDATE inside the caller's transaction. Readers (charts, reports, badges) get the totals
+ * with one primary key lookup instead of scanning the runner's whole history.
+ * <br>
+ * Runners that existed before this table was introduced have no row yet. Their row is built once
+ * from the activities table the first time it is needed, with an insert that skips the row when a concurrent
+ * transaction created it first. The loser then applies its change to that row like any other writer.
+ * </p>
+ */
+@Service
+public class RunnerStatsService {
+
+    private final RunnerStatsRepository runnerStatsRepository;
+    private final ActivityRepository activityRepository;
+    private final BadgeRepository badgeRepository;
+
+    public RunnerStatsService(RunnerStatsRepository runnerStatsRepository,
+                              ActivityRepository activityRepository,
+                              BadgeRepository badgeRepository) {
+        this.runnerStatsRepository = runnerStatsRepository;
+        this.activityRepository = activityRepository;
+        this.badgeRepository = badgeRepository;
+    }
+
+    /**
+     * Returns the lifetime totals of a runner.
+     * @param runnerId The ID of the user.
+     * @return The stats row, created from the activities table if it did not exist yet.
+     */
+    @Transactional
+    public RunnerStatsEntity getStats(Long runnerId) {
+        return runnerStatsRepository.findById(runnerId)
+                .orElseGet(() -> create(runnerId));
+    }
+
+    /**
+     * Recomputes a runner's row from scratch using a full aggregate query.
+     * @param runnerId The ID of the user.
+     * @return The saved stats row.
+     */
+    @Transactional
+    public RunnerStatsEntity rebuild(Long runnerId) {
+        return runnerStatsRepository.save(compute(runnerId));
+    }
+
+    /**
+     * Adds a freshly saved activity to its runner's totals.
+     * @param runnerId The owner of the activity.
+     * @param activity The saved activity.
+     */
+    @Transactional
+    public void recordAdded(Long runnerId, ActivityEntity activity) {
+        applyDelta(runnerId,
+                activity.getDistanceKm(), 1, activity.getDurationSec(), activity.getCalories(),
+                activity.getDate());
+    }
+
+    /**
+     * Adds the sums of a bulk import to its runner's totals with a single delta.
+     * @param runnerId    The owner of the imported activities.
+     * @param runs        Number of imported activities.
+     * @param distanceKm  Summed distance.
+     * @param durationSec Summed duration.
+     * @param calories    Summed calories.
+     * @param lastDate    Most recent date among the imported activities.
+     */
+    @Transactional
+    public void recordImported(Long runnerId,
+                               long runs,
+                               double distanceKm,
+                               long durationSec,
+                               long calories,
+                               LocalDate lastDate) {
+        applyDelta(runnerId, distanceKm, runs, durationSec, calories, lastDate);
+    }
+
+    /**
+     * Replaces the old values of an edited activity with the new ones in the totals.
+     * @param runnerId       The owner of the activity.
+     * @param oldDistanceKm  Distance before the edit.
+     * @param oldDurationSec Duration before the edit.
+     * @param oldCalories    Calories before the edit.
+     * @param updated        The activity after the edit.
+     */
+    @Transactional
+    public void recordUpdated(Long runnerId,
+                              double oldDistanceKm,
+                              int oldDurationSec,
+                              int oldCalories,
+                              ActivityEntity updated) {
+        applyDelta(runnerId,
+                updated.getDistanceKm() - oldDistanceKm,
+                0,
+                updated.getDurationSec() - oldDurationSec,
+                updated.getCalories() - oldCalories,
+                null);
+    }
+
+    /**
+     * Removes a deleted activity from its runner's totals.
+     * <p>
+     * If the deleted run was the most recent one, the last activity date is looked up again
+     * (a cheap MAX over the runner_id/date index).
+     * </p>
+     * @param runnerId The owner of the activity.
+     * @param removed  The activity that was deleted.
+     */
+    @Transactional
+    public void recordRemoved(Long runnerId, ActivityEntity removed) {
+        boolean applied = applyDelta(runnerId,
+                -removed.getDistanceKm(), -1, -removed.getDurationSec(), -removed.getCalories(),
+                null);
+
+        if (!applied) {
+            return;
+        }
+
+        runnerStatsRepository.findById(runnerId)
+                .map(RunnerStatsEntity::getLastActivityDate)
+                .filter(last -> !last.isAfter(removed.getDate()))
+                .ifPresent(last -> runnerStatsRepository.updateLastActivityDate(
+                        runnerId, activityRepository.findLastActivityDate(runnerId)));
+    }
+
+    /**
+     * Returns the number of badges the runner has not seen yet.
+     * @param runnerId The ID of the user.
+     * @return The counter from the stats row (built first if the runner has none yet).
+     */
+    @Transactional
+    public int getUnseenBadges(Long runnerId) {
+        return runnerStatsRepository.findUnseenBadges(runnerId)
+                .orElseGet(() -> create(runnerId).getUnseenBadges());
+    }
+
+    /**
+     * Updates the unseen badge counter after badges were awarded to a runner.
+     */
+    @Transactional
+    public void recordBadgesAwarded(Long runnerId) {
+        if (runnerStatsRepository.refreshUnseenBadges(List.of(runnerId)) == 0 && !insertIfAbsent(compute(runnerId))) {
+            runnerStatsRepository.refreshUnseenBadges(List.of(runnerId));
+        }
+    }
+
+    /**
+     * Clears the unseen badge counter after the runner has seen all badges.
+     */
+    @Transactional
+    public void recordBadgesSeen(Long runnerId) {
+        if (runnerStatsRepository.resetUnseenBadges(runnerId) == 0 && !insertIfAbsent(compute(runnerId))) {
+            runnerStatsRepository.resetUnseenBadges(runnerId);
+        }
+    }
+
+    /**
+     * Adds a change to the runner's row, creating the row first if the runner has none.
+     * @return True if the delta was applied to an existing row, false if the row was created from the tables
+     *         (which already include the flushed change).
+     */
+    private boolean applyDelta(Long runnerId,
+                               double distanceKm,
+                               long runs,
+                               long durationSec,
+                               long calories,
+                               LocalDate activityDate) {
+        int updated = runnerStatsRepository.applyDelta(
+                runnerId, distanceKm, runs, durationSec, calories, activityDate
+        );
+        if (updated > 0) {
+            return true;
+        }
+        // No row yet: the change is already flushed, so a row built from the tables includes it.
+        if (insertIfAbsent(compute(runnerId))) {
+            return false;
+        }
+
+        // A concurrent transaction created the row from a state without this change.
+        runnerStatsRepository.applyDelta(runnerId, distanceKm, runs, durationSec, calories, activityDate);
+        return true;
+    }
+
+    /**
+     * Builds the missing row of a read path.
+     * <p>
+     * When a concurrent transaction inserted the row first, the computed values are still returned:
+     * they are consistent with what this transaction has read so far.
+     * </p>
+     */
+    private RunnerStatsEntity create(Long runnerId) {
+        RunnerStatsEntity stats = compute(runnerId);
+        insertIfAbsent(stats);
+        return stats;
+    }
+
+    /**
+     * Computes a runner's row from the activities and badges tables without saving it.
+     */
+    private RunnerStatsEntity compute(Long runnerId) {
+        ActivityTotals totals = activityRepository.aggregateTotals(runnerId);
+
+        RunnerStatsEntity stats = new RunnerStatsEntity(runnerId);
+        stats.setTotalDistanceKm(totals.getTotalDistanceKm());
+        stats.setTotalRuns(totals.getTotalRuns());
+        stats.setTotalDurationSec(totals.getTotalDurationSec());
+        stats.setTotalCalories(totals.getTotalCalories());
+        stats.setLastActivityDate(totals.getLastActivityDate());
+        stats.setUnseenBadges(badgeRepository.countUnseen(runnerId));
+        return stats;
+    }
+
+    /**
+     * @return True if this call created the row, false if another transaction already had.
+     */
+    private boolean insertIfAbsent(RunnerStatsEntity stats) {
+        return runnerStatsRepository.insertIfAbsent(stats.getRunnerId(),
+                stats.getTotalRuns(), stats.getTotalDistanceKm(), stats.getTotalDurationSec(), stats.getTotalCalories(),
+                stats.getLastActivityDate(), stats.getUnseenBadges()) > 0;
+    }
+}
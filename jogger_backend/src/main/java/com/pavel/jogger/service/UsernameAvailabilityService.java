@@ -0,0 +1,133 @@
+package com.pavel.jogger.service;
+
+import com.pavel.jogger.persistence.repository.RunnerRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Answers "is this username still free?" for the sign-up form, mostly without touching the database.
+ * <p>
+ * <b>Logic:</b> <br>
+ * 1. A {@link BloomFilter} holds every existing username. It is built when the application starts and
+ *    rebuilt every {@code app.usernames.bloom.refresh-interval-ms} (to pick up names registered on other
+ *    instances). Registrations on this instance are added right away. <br>
+ * 2. If the filter does not contain the name, it is free: no query is needed. This is the common case. <br>
+ * 3. If the filter might contain it (taken, or a false positive), one {@code existsByUsername} query decides. <br>
+ * 4. Until the first build has finished, every check queries the database.
+ * <br>
+ * Every name goes through {@link #normalize} first, the same form registration stores, so the filter,
+ * the query and the saved row agree. The filter keys are also lower-cased, because the MySQL collation
+ * of the column ignores case. The answer is advisory: registration itself relies on the unique constraint.
+ * </p>
+ */
+@Service
+public class UsernameAvailabilityService {
+
+    private static final Logger log = LoggerFactory.getLogger(UsernameAvailabilityService.class);
+
+    private final RunnerRepository runnerRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final long expectedUsernames;
+    private final double falsePositiveProbability;
+
+    private volatile BloomFilter filter;
+    /** Names registered while a rebuild is scanning the table; copied into the new filter before it is used. */
+    private volatile Set<String> addedDuringRebuild;
+
+    public UsernameAvailabilityService(RunnerRepository runnerRepository,
+                                       PlatformTransactionManager transactionManager,
+                                       @Value("${app.usernames.bloom.expected-usernames:1000000}") long expectedUsernames,
+                                       @Value("${app.usernames.bloom.false-positive-probability:0.01}") double falsePositiveProbability) {
+        this.runnerRepository = runnerRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.expectedUsernames = expectedUsernames;
+        this.falsePositiveProbability = falsePositiveProbability;
+    }
+
+    /**
+     * Checks whether a username can still be registered.
+     * @param username The wanted username.
+     * @return true if no runner uses it.
+     */
+    public boolean isAvailable(String username) {
+        String name = normalize(username);
+        BloomFilter current = filter;
+        if (current != null && !current.mightContain(filterKey(name))) {
+            return true;
+        }
+        return !runnerRepository.existsByUsername(name);
+    }
+
+    /**
+     * Records a username registered on this instance.
+     */
+    public void added(String username) {
+        String name = filterKey(username);
+        Set<String> pending = addedDuringRebuild;
+        if (pending != null) {
+            pending.add(name);
+        }
+        BloomFilter current = filter;
+        if (current != null) {
+            current.add(name);
+        }
+    }
+
+    /**
+     * Builds the filter from all usernames in the database, then replaces the current one.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${app.usernames.bloom.refresh-interval-ms:3600000}",
+            fixedDelayString = "${app.usernames.bloom.refresh-interval-ms:3600000}")
+    public void rebuild() {
+        Set<String> pending = ConcurrentHashMap.newKeySet();
+        addedDuringRebuild = pending;
+        try {
+            BloomFilter rebuilt = new BloomFilter(expectedUsernames, falsePositiveProbability);
+            Long count = readOnlyTransaction.execute(status -> {
+                long added = 0;
+                try (Stream<String> usernames = runnerRepository.streamUsernames()) {
+                    for (Iterator<String> it = usernames.iterator(); it.hasNext(); added++) {
+                        rebuilt.add(filterKey(it.next()));
+                    }
+                }
+                return added;
+            });
+            pending.forEach(rebuilt::add);
+            filter = rebuilt;
+            // A name added between the copy above and the swap is added to the new filter here.
+            pending.forEach(rebuilt::add);
+            log.info("Username filter rebuilt with {} usernames", count);
+        } catch (RuntimeException e) {
+            log.warn("Username filter rebuild failed, availability checks query the database", e);
+        } finally {
+            addedDuringRebuild = null;
+        }
+    }
+
+    /**
+     * Brings a username into the form it is stored in (surrounding whitespace removed).
+     * Used by registration and login as well, so a checked name is the name that gets saved.
+     */
+    public static String normalize(String username) {
+        return username.strip();
+    }
+
+    private static String filterKey(String username) {
+        return normalize(username).toLowerCase(Locale.ROOT);
+    }
+}
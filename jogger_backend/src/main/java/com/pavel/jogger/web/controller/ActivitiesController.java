@@ -1,6 +1,5 @@
 package com.pavel.jogger.web.controller;
 
-import com.pavel.jogger.persistence.entity.ActivityEntity;
 import com.pavel.jogger.persistence.mapper.ActivityMapper;
 import com.pavel.jogger.service.AccessService;
 import com.pavel.jogger.service.ActivityService;
@@ -33,8 +32,8 @@ public class ActivitiesController {
     /**
      * Updates the details of an existing activity.
      * <p>
-     * This method first retrieves the activity to identify its owner, then checks if the
-     * currently authenticated user has permission to modify it.
+     * The ownership check is part of the query that loads the activity, so the activity and its owner
+     * are not looked up separately. Admins may update any activity.
      * </p>
      * @param activityId     The unique ID of the activity to update.
      * @param request        The {@link UpdateActivityRequest} DTO containing the new values.
@@ -50,14 +49,10 @@ public class ActivitiesController {
             @Valid @RequestBody UpdateActivityRequest request,
             Authentication authentication
     ) {
-        ActivityEntity existing = activityService.getActivityById(activityId);
-        Long runnerId = existing.getRunner().getId();
-
-        accessService.checkRunnerAccess(authentication, runnerId);
-
         return ActivityMapper.toResponse(
                 activityService.updateActivity(
                         activityId,
+                        accessService.ownerScope(authentication),
                         request.getDistanceKm(),
                         request.getDurationSec(),
                         request.getRoute(),
@@ -69,7 +64,7 @@ public class ActivitiesController {
     /**
      * Deletes a specific activity permanently.
      * <p>
-     * Similar to update, it verifies ownership before deletion.
+     * Like update, it checks ownership in the query that loads the activity.
      * returns HTTP 204 No Content upon success.
      * </p>
      * @param activityId     The unique ID of the activity to delete.
@@ -83,12 +78,7 @@ public class ActivitiesController {
             @PathVariable Long activityId,
             Authentication authentication
     ) {
-        ActivityEntity existing = activityService.getActivityById(activityId);
-        Long runnerId = existing.getRunner().getId();
-
-        accessService.checkRunnerAccess(authentication, runnerId);
-
-        activityService.deleteActivity(activityId);
+        activityService.deleteActivity(activityId, accessService.ownerScope(authentication));
         return ResponseEntity.noContent().build();
     }
 }
@@ -2,13 +2,24 @@ package com.pavel.jogger.web.controller;
 
 import com.pavel.jogger.persistence.mapper.ActivityMapper;
 import com.pavel.jogger.service.AccessService;
+import com.pavel.jogger.service.ActivityImportResult;
+import com.pavel.jogger.service.ActivityImportService;
+import com.pavel.jogger.service.ActivityPage;
 import com.pavel.jogger.service.ActivityService;
+import com.pavel.jogger.service.DataVersionService;
 import com.pavel.jogger.web.dto.activity.ActivityResponse;
 import com.pavel.jogger.web.dto.activity.CreateActivityRequest;
+import com.pavel.jogger.web.dto.activity.ImportActivitiesResponse;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.InputStream;
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -23,39 +34,81 @@ import java.util.List;
 @RequestMapping("/runners")
 public class ActivityController {
 
+    /**
+     * Response header carrying the cursor of the next page. It is part of the cached representation:
+     * a 304 answer does not repeat it (see {@link #getActivitiesForRunner}).
+     */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final ActivityService activityService;
+    private final ActivityImportService activityImportService;
     private final AccessService accessService;
+    private final DataVersionService dataVersionService;
 
-    public ActivityController(ActivityService activityService, AccessService accessService) {
+    public ActivityController(ActivityService activityService,
+                              ActivityImportService activityImportService,
+                              AccessService accessService,
+                              DataVersionService dataVersionService) {
         this.activityService = activityService;
+        this.activityImportService = activityImportService;
         this.accessService = accessService;
+        this.dataVersionService = dataVersionService;
     }
 
     /**
-     * Retrieves a list of all jogging activities for a specific runner.
+     * Retrieves one page of jogging activities for a specific runner, newest first.
      * <p>
      * This endpoint performs a security check to ensure the requesting user
      * has permission to view the target runner's data.
+     * <br>
+     * The body stays a plain JSON array. When more activities are available, the cursor for the
+     * next page is returned in the {@value #NEXT_CURSOR_HEADER} response header and can be sent
+     * back as the {@code cursor} parameter.
+     * <br>
+     * The response carries an ETag derived from the runner's data version. When the client sends it back in
+     * {@code If-None-Match} and nothing changed, the endpoint answers 304 without reading any activity.
+     * <br>
+     * Because the page is not read, the 304 carries no {@value #NEXT_CURSOR_HEADER} header. The cursor only
+     * depends on the query and the data version, so the one stored with the body is still valid: a client that
+     * revalidates must cache the header together with the body and reuse both on 304, as an HTTP cache does
+     * (a 304 only updates the headers it contains).
      * </p>
      * @param id             The unique ID of the runner whose activities are being requested.
      * Mapped from the URL path variable.
+     * @param from           Optional inclusive start date (ISO format, e.g. 2024-01-31).
+     * @param to             Optional inclusive end date (ISO format).
+     * @param cursor         Optional cursor taken from the previous page's response header.
+     * @param limit          Optional page size, capped at {@link ActivityService#MAX_PAGE_SIZE}.
+     * @param webRequest     The current request, used to evaluate {@code If-None-Match}.
      * @param authentication The security context containing the currently logged-in user's details.
      * Injected automatically by Spring Security.
-     * @return A {@link List} of {@link ActivityResponse} DTOs representing the user's run history.
+     * @return A {@link List} of {@link ActivityResponse} DTOs representing one page of the user's run history.
      * @throws com.pavel.jogger.web.exception.ForbiddenException If the logged-in user is not allowed to access this data.
-     * @throws com.pavel.jogger.web.exception.NotFoundException  If the runner with the given ID does not exist.
+     * @throws IllegalArgumentException If the cursor, date range or limit is invalid (HTTP 400).
      */
     @GetMapping("/{id}/activities")
-    public List<ActivityResponse> getActivitiesForRunner(
+    public ResponseEntity<List<ActivityResponse>> getActivitiesForRunner(
             @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            WebRequest webRequest,
             Authentication authentication
     ) {
         accessService.checkRunnerAccess(authentication, id);
 
-        return activityService.getActivitiesForRunner(id)
-                .stream()
-                .map(ActivityMapper::toResponse)
-                .toList();
+        if (webRequest.checkNotModified(RunnerETags.of(id, dataVersionService.getVersion(id)))) {
+            return null;
+        }
+
+        ActivityPage page = activityService.getActivitiesPage(id, from, to, cursor, limit);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().cacheControl(RunnerETags.REVALIDATE);
+        if (page.hasMore()) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
     }
 
     /**
@@ -91,4 +144,30 @@ public class ActivityController {
                 )
         );
     }
+
+    /**
+     * Imports many activities for a runner in one request (e.g. history exported from another app).
+     * <p>
+     * The body is a JSON array of the same objects accepted by {@code POST /runners/{id}/activities}.
+     * It is read as a stream, so large histories are never buffered in memory. Invalid rows are skipped
+     * and reported in the response; everything else is stored in one transaction.
+     * </p>
+     * @param id             The unique ID of the runner receiving the activities.
+     * @param body           The raw request body (JSON array).
+     * @param authentication The security context of the current user.
+     * @return The number of imported and rejected rows.
+     * @throws com.pavel.jogger.web.exception.ForbiddenException If the logged-in user tries to import for someone else.
+     * @throws IllegalArgumentException If the body is not a valid JSON array or is too large (HTTP 400).
+     */
+    @PostMapping(value = "/{id}/activities/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ImportActivitiesResponse importActivities(
+            @PathVariable Long id,
+            InputStream body,
+            Authentication authentication
+    ) {
+        accessService.checkRunnerAccess(authentication, id);
+
+        ActivityImportResult result = activityImportService.importActivities(id, body);
+        return new ImportActivitiesResponse(result.getImported(), result.getRejected(), result.getErrors());
+    }
 }
@@ -0,0 +1,117 @@
+package com.pavel.jogger.web.controller;
+
+import com.pavel.jogger.persistence.entity.BadgeRecomputeJobEntity;
+import com.pavel.jogger.service.AccessService;
+import com.pavel.jogger.service.BadgeRecomputeService;
+import com.pavel.jogger.service.RollupMaintenanceService;
+import com.pavel.jogger.web.dto.badge.BadgeRecomputeResponse;
+import com.pavel.jogger.web.exception.ConflictException;
+import com.pavel.jogger.web.exception.ForbiddenException;
+import com.pavel.jogger.web.exception.NotFoundException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST Controller for maintenance operations reserved to administrators.
+ */
+@RestController
+@RequestMapping("/admin")
+public class AdminController {
+
+    private final RollupMaintenanceService rollupMaintenanceService;
+    private final BadgeRecomputeService badgeRecomputeService;
+    private final AccessService accessService;
+
+    public AdminController(RollupMaintenanceService rollupMaintenanceService,
+                           BadgeRecomputeService badgeRecomputeService,
+                           AccessService accessService) {
+        this.rollupMaintenanceService = rollupMaintenanceService;
+        this.badgeRecomputeService = badgeRecomputeService;
+        this.accessService = accessService;
+    }
+
+    /**
+     * Regenerates the chart rollup buckets of all runners from the activities table.
+     * <p>
+     * The rebuild runs in the background in parallel chunks of runners, so the endpoint returns immediately.
+     * Use it after a schema change or a manual data fix.
+     * </p>
+     * @param authentication The security context (must be an admin).
+     * @return 202 Accepted when the rebuild was started.
+     * @throws ForbiddenException If the caller is not an admin.
+     * @throws ConflictException  If a rollup job is already running.
+     */
+    @PostMapping("/rollups/rebuild")
+    public ResponseEntity<Void> rebuildRollups(Authentication authentication) {
+        if (!accessService.isAdmin(authentication)) {
+            throw new ForbiddenException("Access denied. Admins only.");
+        }
+
+        if (!rollupMaintenanceService.startRebuild()) {
+            throw new ConflictException("A rollup job is already running");
+        }
+
+        return ResponseEntity.accepted().build();
+    }
+
+    /**
+     * Awards every catalog badge to all runners who already qualify for it (e.g. after a new badge was added).
+     * <p>
+     * The job runs in the background in chunks of runners. An unfinished previous job is continued where it stopped.
+     * </p>
+     * @param authentication The security context (must be an admin).
+     * @return 202 Accepted with the job's progress.
+     * @throws ForbiddenException If the caller is not an admin.
+     * @throws ConflictException  If a recompute is already running.
+     */
+    @PostMapping("/badges/recompute")
+    public ResponseEntity<BadgeRecomputeResponse> recomputeBadges(Authentication authentication) {
+        if (!accessService.isAdmin(authentication)) {
+            throw new ForbiddenException("Access denied. Admins only.");
+        }
+
+        if (!badgeRecomputeService.startRecompute()) {
+            throw new ConflictException("A badge recompute job is already running");
+        }
+
+        return badgeRecomputeService.getLatestJob()
+                .map(job -> ResponseEntity.accepted().body(toResponse(job)))
+                .orElseGet(() -> ResponseEntity.accepted().build());
+    }
+
+    /**
+     * Returns the progress of the latest badge recompute job.
+     * @param authentication The security context (must be an admin).
+     * @return The job's progress.
+     * @throws ForbiddenException If the caller is not an admin.
+     * @throws NotFoundException  If no recompute was ever started.
+     */
+    @GetMapping("/badges/recompute")
+    public ResponseEntity<BadgeRecomputeResponse> getBadgeRecompute(Authentication authentication) {
+        if (!accessService.isAdmin(authentication)) {
+            throw new ForbiddenException("Access denied. Admins only.");
+        }
+
+        BadgeRecomputeJobEntity job = badgeRecomputeService.getLatestJob()
+                .orElseThrow(() -> new NotFoundException("No badge recompute job found"));
+        return ResponseEntity.ok(toResponse(job));
+    }
+
+    private static BadgeRecomputeResponse toResponse(BadgeRecomputeJobEntity job) {
+        return new BadgeRecomputeResponse(
+                job.getId(),
+                job.getStatus().name(),
+                job.getStartedAt(),
+                job.getFinishedAt(),
+                job.getTotalRunners(),
+                job.getProcessedRunners(),
+                job.getLastRunnerId(),
+                job.getAwardedBadges(),
+                job.getLastError()
+        );
+    }
+}
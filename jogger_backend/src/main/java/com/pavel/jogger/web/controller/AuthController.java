@@ -1,13 +1,17 @@
 package com.pavel.jogger.web.controller;
 
 import com.pavel.jogger.service.AuthService;
+import com.pavel.jogger.service.UsernameAvailabilityService;
 import com.pavel.jogger.web.dto.auth.AuthResponse;
 import com.pavel.jogger.web.dto.auth.LoginRequest;
 import com.pavel.jogger.web.dto.auth.RegisterRequest;
+import com.pavel.jogger.web.dto.auth.UsernameAvailabilityResponse;
 import jakarta.validation.Valid;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 /**
@@ -23,13 +27,16 @@ import org.springframework.web.bind.annotation.RestController;
 public class AuthController {
 
     private final AuthService authService;
+    private final UsernameAvailabilityService usernameAvailabilityService;
 
     /**
-     * Constructor injection for the authentication service.
-     * @param authService The service containing the business logic for login/register.
+     * Constructor injection for the authentication services.
+     * @param authService                 The service containing the business logic for login/register.
+     * @param usernameAvailabilityService Answers username checks of the sign-up form.
      */
-    public AuthController(AuthService authService) {
+    public AuthController(AuthService authService, UsernameAvailabilityService usernameAvailabilityService) {
         this.authService = authService;
+        this.usernameAvailabilityService = usernameAvailabilityService;
     }
 
     /**
@@ -59,4 +66,18 @@ public class AuthController {
     public AuthResponse login(@RequestBody @Valid LoginRequest req) {
         return new AuthResponse(authService.login(req));
     }
+
+    /**
+     * Endpoint for the sign-up form: checks whether a username is still free.
+     * <p>
+     * Most checks are answered from memory (see {@link UsernameAvailabilityService}). The answer is advisory;
+     * a name taken in the meantime still makes {@code /auth/register} answer 409.
+     * </p>
+     * @param username The wanted username.
+     * @return The username and whether it is available.
+     */
+    @GetMapping("/username-available")
+    public UsernameAvailabilityResponse usernameAvailable(@RequestParam String username) {
+        return new UsernameAvailabilityResponse(username, usernameAvailabilityService.isAvailable(username));
+    }
 }
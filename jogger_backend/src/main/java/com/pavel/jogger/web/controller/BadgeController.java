@@ -2,9 +2,13 @@ package com.pavel.jogger.web.controller;
 
 import com.pavel.jogger.service.AccessService;
 import com.pavel.jogger.service.BadgeService;
+import com.pavel.jogger.service.DataVersionService;
 import com.pavel.jogger.web.dto.badge.BadgeResponse;
+import com.pavel.jogger.web.dto.badge.UnseenBadgeCountResponse;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -21,10 +25,14 @@ public class BadgeController {
 
     private final BadgeService badgeService;
     private final AccessService accessService;
+    private final DataVersionService dataVersionService;
 
-    public BadgeController(BadgeService badgeService, AccessService accessService) {
+    public BadgeController(BadgeService badgeService,
+                           AccessService accessService,
+                           DataVersionService dataVersionService) {
         this.badgeService = badgeService;
         this.accessService = accessService;
+        this.dataVersionService = dataVersionService;
     }
 
     /**
@@ -32,19 +40,50 @@ public class BadgeController {
      * <p>
      * This endpoint is called when the user opens the "Awards" or "Profile" screen.
      * It includes details like the badge name, description, and whether it has been seen yet.
+     * <br>
+     * Answers 304 Not Modified when the client's {@code If-None-Match} matches the runner's data version.
      * </p>
      * @param id             The unique ID of the runner.
+     * @param webRequest     The current request, used to evaluate {@code If-None-Match}.
      * @param authentication The security context of the current user.
      * @return A list of {@link BadgeResponse} DTOs.
      * @throws com.pavel.jogger.web.exception.ForbiddenException If the user tries to view someone else's badges.
      */
     @GetMapping("/{id}/badges")
-    public List<BadgeResponse> getBadgesForRunner(
+    public ResponseEntity<List<BadgeResponse>> getBadgesForRunner(
             @PathVariable Long id,
+            WebRequest webRequest,
             Authentication authentication
     ) {
         accessService.checkRunnerAccess(authentication, id);
-        return badgeService.getBadgesForRunner(id);
+
+        if (webRequest.checkNotModified(RunnerETags.of(id, dataVersionService.getVersion(id)))) {
+            return null;
+        }
+
+        return ResponseEntity.ok()
+                .cacheControl(RunnerETags.REVALIDATE)
+                .body(badgeService.getBadgesForRunner(id));
+    }
+
+    /**
+     * Returns how many badges the runner has not seen yet.
+     * <p>
+     * <b>UI Logic:</b> The home screen polls this instead of the badge list and only loads the list
+     * (to show the popup) when the count is above zero. The count is a single column of the stats row.
+     * </p>
+     * @param id             The unique ID of the runner.
+     * @param authentication The security context of the current user.
+     * @return The number of unseen badges.
+     * @throws com.pavel.jogger.web.exception.ForbiddenException If the user tries to view someone else's badges.
+     */
+    @GetMapping("/{id}/badges/unseen-count")
+    public UnseenBadgeCountResponse getUnseenBadgeCount(
+            @PathVariable Long id,
+            Authentication authentication
+    ) {
+        accessService.checkRunnerAccess(authentication, id);
+        return new UnseenBadgeCountResponse(badgeService.getUnseenBadgeCount(id));
     }
 
     /**
@@ -2,13 +2,21 @@ package com.pavel.jogger.web.controller;
 
 import com.pavel.jogger.service.AccessService;
 import com.pavel.jogger.service.ChartService;
+import com.pavel.jogger.service.DataVersionService;
+import com.pavel.jogger.web.dto.chart.ChartBucket;
+import com.pavel.jogger.web.dto.chart.ChartMetric;
 import com.pavel.jogger.web.dto.chart.ChartResponse;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -17,6 +25,9 @@ import java.util.List;
  * This controller serves as the data provider for the dashboard visualizations.
  * It uses the ChartService to aggregate raw data into simple label-value pairs
  * that the frontend can render immediately.
+ * <br>
+ * Every chart response carries an ETag built from the runner's data version and the current day.
+ * A matching {@code If-None-Match} is answered with 304 Not Modified before any chart is computed.
  * </p>
  */
 @RestController
@@ -25,48 +36,116 @@ public class ChartController {
 
     private final ChartService chartService;
     private final AccessService accessService;
+    private final DataVersionService dataVersionService;
 
-    public ChartController(ChartService chartService, AccessService accessService) {
+    public ChartController(ChartService chartService,
+                           AccessService accessService,
+                           DataVersionService dataVersionService) {
         this.chartService = chartService;
         this.accessService = accessService;
+        this.dataVersionService = dataVersionService;
     }
 
     /**
      * Retrieves general statistics for the runner (Total Distance, Total Runs).
      * <p>
      * This endpoint provides the numbers usually displayed at the top of a profile.
-     * It calls {@code chartService.getRunnerStats(id)} which performs efficient SQL aggregations.
+     * It calls {@code chartService.getRunnerStats(id, version)} which performs efficient SQL aggregations.
      * </p>
      * @param id             The ID of the runner.
+     * @param webRequest     The current request, used to evaluate {@code If-None-Match}.
      * @param authentication The security context to verify access rights.
      * @return A list of {@link ChartResponse} objects (e.g., [{"Total km", 150.5}, {"Total runs", 20.0}]).
      */
     @GetMapping("/{id}/charts")
-    public List<ChartResponse> getCharts(
+    public ResponseEntity<List<ChartResponse>> getCharts(
             @PathVariable Long id,
+            WebRequest webRequest,
             Authentication authentication
     ) {
         accessService.checkRunnerAccess(authentication, id);
-        return chartService.getRunnerStats(id);
+
+        long version = dataVersionService.getVersion(id);
+        if (isNotModified(id, version, webRequest)) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(RunnerETags.REVALIDATE).body(chartService.getRunnerStats(id, version));
     }
 
     /**
-     * Retrieves the volume of runs grouped by week number.
+     * Retrieves the volume of runs grouped by ISO week for the last 12 weeks.
      * <p>
-     * It calls {@code chartService.getRunsPerWeek(id)} which groups dates by ISO Week Number.
+     * It calls {@code chartService.getRunsPerWeek(id, version, today)}, which lets the database group runs by week.
+     * Weeks without runs are included with a value of 0.
      * <br>
-     * <b>Example Response:</b> [{"label": "W10", "value": 3.0}, {"label": "W11", "value": 5.0}]
+     * <b>Example Response:</b> [{"label": "2024-W10", "value": 3.0}, {"label": "2024-W11", "value": 0.0}]
      * </p>
      * @param id             The ID of the runner.
+     * @param webRequest     The current request, used to evaluate {@code If-None-Match}.
      * @param authentication The security context to verify access rights.
-     * @return A list of {@link ChartResponse} objects sorted by week number.
+     * @return A list of {@link ChartResponse} objects sorted chronologically.
      */
     @GetMapping("/{id}/charts/weekly")
-    public List<ChartResponse> getWeeklyProgress(
+    public ResponseEntity<List<ChartResponse>> getWeeklyProgress(
+            @PathVariable Long id,
+            WebRequest webRequest,
+            Authentication authentication
+    ) {
+        accessService.checkRunnerAccess(authentication, id);
+
+        long version = dataVersionService.getVersion(id);
+        if (isNotModified(id, version, webRequest)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(RunnerETags.REVALIDATE)
+                .body(chartService.getRunsPerWeek(id, version, LocalDate.now()));
+    }
+
+    /**
+     * Retrieves a time series of any metric, aggregated per day, week, month or year.
+     * <p>
+     * All grouping happens in the database, so the cost depends on the number of buckets returned,
+     * not on how many activities the runner has. Empty buckets are filled with 0.
+     * <br>
+     * <b>Example:</b> {@code /runners/5/charts/series?metric=DISTANCE&bucket=MONTH&from=2024-01-01}
+     * </p>
+     * @param id             The ID of the runner.
+     * @param metric         What to plot: DISTANCE, DURATION, CALORIES, RUNS or PACE.
+     * @param bucket         Bucket size: DAY, WEEK, MONTH or YEAR (default WEEK).
+     * @param from           Optional inclusive start date (ISO format).
+     * @param to             Optional inclusive end date (ISO format, default today).
+     * @param webRequest     The current request, used to evaluate {@code If-None-Match}.
+     * @param authentication The security context to verify access rights.
+     * @return A list of {@link ChartResponse} objects, one per bucket, sorted chronologically.
+     * @throws IllegalArgumentException If the range is invalid or too large (HTTP 400).
+     */
+    @GetMapping("/{id}/charts/series")
+    public ResponseEntity<List<ChartResponse>> getSeries(
             @PathVariable Long id,
+            @RequestParam ChartMetric metric,
+            @RequestParam(defaultValue = "WEEK") ChartBucket bucket,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            WebRequest webRequest,
             Authentication authentication
     ) {
         accessService.checkRunnerAccess(authentication, id);
-        return chartService.getRunsPerWeek(id);
+
+        long version = dataVersionService.getVersion(id);
+        if (isNotModified(id, version, webRequest)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(RunnerETags.REVALIDATE)
+                .body(chartService.getSeries(id, version, metric, bucket, from, to != null ? to : LocalDate.now()));
+    }
+
+    /**
+     * Sets the chart ETag on the response and checks it against the client's {@code If-None-Match}.
+     * @return true if the response status was set to 304 and no body must be written.
+     */
+    private boolean isNotModified(Long runnerId, long dataVersion, WebRequest webRequest) {
+        return webRequest.checkNotModified(RunnerETags.ofToday(runnerId, dataVersion));
     }
-}
\ No newline at end of file
+}
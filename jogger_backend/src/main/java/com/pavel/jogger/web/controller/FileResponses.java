@@ -0,0 +1,59 @@
+package com.pavel.jogger.web.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Helper for sending files from local disk as the response body.
+ * <p>
+ * When the servlet container supports it (Tomcat's NIO connector does by default), the file is handed over
+ * with the "sendfile" request attributes: the controller only writes the headers and Tomcat transfers the
+ * file from the page cache to the socket without copying it through the JVM heap. Otherwise the file is
+ * streamed with a small buffer.
+ * </p>
+ */
+final class FileResponses {
+
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private FileResponses() {
+    }
+
+    /**
+     * Writes a file as a download.
+     * @param request      The current request (used to detect sendfile support).
+     * @param response     The current response.
+     * @param file         The file to send.
+     * @param contentType  The media type of the file.
+     * @param downloadName The file name proposed to the client.
+     * @throws IOException If the file cannot be read.
+     */
+    static void send(HttpServletRequest request,
+                     HttpServletResponse response,
+                     Path file,
+                     String contentType,
+                     String downloadName) throws IOException {
+        long length = Files.size(file);
+
+        response.setContentType(contentType);
+        response.setContentLengthLong(length);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + downloadName);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, RunnerETags.REVALIDATE.getHeaderValue());
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, length);
+        } else {
+            Files.copy(file, response.getOutputStream());
+        }
+    }
+}
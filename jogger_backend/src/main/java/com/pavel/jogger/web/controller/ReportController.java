@@ -1,59 +1,194 @@
 package com.pavel.jogger.web.controller;
 
 import com.pavel.jogger.service.AccessService;
-import com.pavel.jogger.service.ReportService;
+import com.pavel.jogger.service.DataVersionService;
+import com.pavel.jogger.service.ReportJob;
+import com.pavel.jogger.service.ReportJobService;
+import com.pavel.jogger.web.dto.report.ReportJobResponse;
+import com.pavel.jogger.web.exception.ConflictException;
+import com.pavel.jogger.web.exception.NotFoundException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
 
 /**
  * REST Controller for generating and downloading document reports.
  * <p>
  * Unlike other controllers that return JSON data, this controller returns binary files (PDFs).
  * It is used for the PDF functionality in the application.
+ * <br>
+ * Reports are rendered in the background by {@link ReportJobService} and kept on disk per data version,
+ * so a repeated download is served straight from the file until the runner's data changes.
  * </p>
  */
 @RestController
 @RequestMapping("/runners/{id}/reports")
 public class ReportController {
 
-    private final ReportService reportService;
+    private final ReportJobService reportJobService;
     private final AccessService accessService;
+    private final DataVersionService dataVersionService;
 
-    public ReportController(ReportService reportService, AccessService accessService) {
-        this.reportService = reportService;
+    public ReportController(ReportJobService reportJobService,
+                            AccessService accessService,
+                            DataVersionService dataVersionService) {
+        this.reportJobService = reportJobService;
         this.accessService = accessService;
+        this.dataVersionService = dataVersionService;
     }
 
     /**
-     * Generates and downloads a PDF progress report for the specified runner.
+     * Downloads the PDF progress report for the specified runner.
      * <p>
-     * This endpoint sets specific HTTP headers to trigger a file download in the browser/app.
-     * The response body contains the raw bytes of the PDF file generated by the service.
+     * This endpoint is opened directly by the app (and browsers), so it still answers with the PDF itself:
+     * <br>
+     * 1. If the client already holds the report for the current data version (same ETag in
+     *    {@code If-None-Match}), answer 304 Not Modified. <br>
+     * 2. If the report for the current version is on disk, send it. <br>
+     * 3. Otherwise submit a render job and answer 202 Accepted at once, with the job status URL in the
+     *    {@code Location} header. No request thread waits for a render. <br>
+     * 4. A job that has already failed is returned with its FAILED status, like {@link #getJob}.
      * </p>
      * @param id             The ID of the runner requesting the report.
+     * @param webRequest     The current request, used to evaluate {@code If-None-Match}.
+     * @param request        The servlet request (used for zero-copy file transfer).
+     * @param response       The servlet response the PDF is written to.
      * @param authentication The security context to verify access rights.
-     * @return A {@link ResponseEntity} containing the PDF bytes, with Content-Type set to 'application/pdf'
-     * and Content-Disposition set to 'attachment' (triggering download).
+     * @return null when the PDF (or a 304) was written, otherwise the {@link ReportJobResponse}
+     *         (202 while the job is queued or running).
+     * @throws IOException If the report file cannot be read.
      */
     @GetMapping("/progress")
-    public ResponseEntity<byte[]> getProgressReport(
+    public ResponseEntity<ReportJobResponse> getProgressReport(
+            @PathVariable Long id,
+            WebRequest webRequest,
+            HttpServletRequest request,
+            HttpServletResponse response,
+            Authentication authentication
+    ) throws IOException {
+        accessService.checkRunnerAccess(authentication, id);
+
+        if (webRequest.checkNotModified(RunnerETags.ofToday(id, dataVersionService.getVersion(id)))) {
+            return null;
+        }
+
+        ReportJob job = reportJobService.submit(id);
+        if (job.getStatus() == ReportJob.Status.FAILED) {
+            return ResponseEntity.ok(toResponse(id, job));
+        }
+        if (job.getStatus() != ReportJob.Status.DONE) {
+            return accepted(id, job);
+        }
+
+        FileResponses.send(request, response, job.getFile(), MediaType.APPLICATION_PDF_VALUE, downloadName(id));
+        return null;
+    }
+
+    /**
+     * Starts rendering the progress report without waiting for it.
+     * @param id             The ID of the runner.
+     * @param authentication The security context to verify access rights.
+     * @return 202 Accepted with the job and its status URL in the Location header.
+     */
+    @PostMapping("/progress/jobs")
+    public ResponseEntity<ReportJobResponse> submitProgressReport(
             @PathVariable Long id,
             Authentication authentication
     ) {
         accessService.checkRunnerAccess(authentication, id);
+        return accepted(id, reportJobService.submit(id));
+    }
 
-        byte[] pdf = reportService.generateProgressReport(id);
+    /**
+     * Returns the status of a report job.
+     * @param id             The ID of the runner.
+     * @param jobId          The ID returned when the job was submitted.
+     * @param authentication The security context to verify access rights.
+     * @return The job status. Once DONE, {@code downloadUrl} points to the file.
+     * @throws NotFoundException If the job does not exist (or expired).
+     */
+    @GetMapping("/jobs/{jobId}")
+    public ReportJobResponse getJob(
+            @PathVariable Long id,
+            @PathVariable String jobId,
+            Authentication authentication
+    ) {
+        accessService.checkRunnerAccess(authentication, id);
+        return toResponse(id, findJob(id, jobId));
+    }
+
+    /**
+     * Downloads the file of a finished report job.
+     * @param id             The ID of the runner.
+     * @param jobId          The ID of a finished job.
+     * @param request        The servlet request (used for zero-copy file transfer).
+     * @param response       The servlet response the PDF is written to.
+     * @param authentication The security context to verify access rights.
+     * @throws NotFoundException If the job does not exist, or its file was replaced by a newer version.
+     * @throws ConflictException If the job has not finished yet.
+     * @throws IOException       If the report file cannot be read.
+     */
+    @GetMapping("/jobs/{jobId}/file")
+    public void downloadJobFile(
+            @PathVariable Long id,
+            @PathVariable String jobId,
+            HttpServletRequest request,
+            HttpServletResponse response,
+            Authentication authentication
+    ) throws IOException {
+        accessService.checkRunnerAccess(authentication, id);
+
+        ReportJob job = findJob(id, jobId);
+        if (job.getStatus() != ReportJob.Status.DONE) {
+            throw new ConflictException("Report is not ready yet");
+        }
+        if (!Files.exists(job.getFile())) {
+            throw new NotFoundException("Report expired, request a new one");
+        }
+
+        FileResponses.send(request, response, job.getFile(), MediaType.APPLICATION_PDF_VALUE, downloadName(id));
+    }
+
+    private ReportJob findJob(Long runnerId, String jobId) {
+        return reportJobService.getJob(runnerId, jobId)
+                .orElseThrow(() -> new NotFoundException("Report job not found"));
+    }
+
+    private static ResponseEntity<ReportJobResponse> accepted(Long runnerId, ReportJob job) {
+        return ResponseEntity.accepted()
+                .location(URI.create(jobUrl(runnerId, job)))
+                .header(HttpHeaders.RETRY_AFTER, "2")
+                .body(toResponse(runnerId, job));
+    }
+
+    private static ReportJobResponse toResponse(Long runnerId, ReportJob job) {
+        return new ReportJobResponse(
+                job.getId(),
+                job.getStatus().name(),
+                job.getDataVersion(),
+                job.getStatus() == ReportJob.Status.DONE ? jobUrl(runnerId, job) + "/file" : null,
+                job.getError()
+        );
+    }
+
+    private static String jobUrl(Long runnerId, ReportJob job) {
+        return "/runners/" + runnerId + "/reports/jobs/" + job.getId();
+    }
 
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION,
-                        "attachment; filename=progress_report_runner_" + id + ".pdf")
-                .contentType(MediaType.APPLICATION_PDF)
-                .body(pdf);
+    private static String downloadName(Long runnerId) {
+        return "progress_report_runner_" + runnerId + ".pdf";
     }
 }
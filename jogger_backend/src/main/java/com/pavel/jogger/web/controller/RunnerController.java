@@ -2,8 +2,10 @@ package com.pavel.jogger.web.controller;
 
 import com.pavel.jogger.persistence.mapper.RunnerMapper;
 import com.pavel.jogger.service.AccessService;
+import com.pavel.jogger.service.RunnerPage;
 import com.pavel.jogger.service.RunnerService;
 import com.pavel.jogger.web.dto.runner.RunnerResponse;
+import com.pavel.jogger.web.dto.runner.RunnerSummaryResponse;
 import com.pavel.jogger.web.dto.runner.UpdateRunnerRequest;
 import com.pavel.jogger.web.exception.ForbiddenException;
 import com.pavel.jogger.web.exception.NotFoundException;
@@ -37,28 +39,50 @@ public class RunnerController {
     }
 
     /**
-     * Admin Endpoint: Retrieves a list of ALL registered runners.
+     * Admin Endpoint: Lists the registered runners, one page at a time.
      * <p>
      * This endpoint is restricted to administrators only. It is typically used for
-     * an admin dashboard to view the user base.
+     * an admin dashboard to view and search the user base.
+     * <br>
+     * The body is a JSON array ordered by id. When more runners are available, the cursor for the next page
+     * is returned in the {@value ActivityController#NEXT_CURSOR_HEADER} response header and can be sent back
+     * as the {@code cursor} parameter (together with the same {@code q}).
      * </p>
-     * @param auth The security context used to verify if the requester has {@code ROLE_ADMIN}.
-     * @return A list of all users in {@link RunnerResponse} format.
-     * @throws ForbiddenException If a regular user tries to access this endpoint.
+     * @param q      Optional start of a username or email.
+     * @param cursor Optional cursor taken from the previous page's response header.
+     * @param limit  Optional page size, capped at {@link RunnerService#MAX_PAGE_SIZE}.
+     * @param totals Whether to include each runner's lifetime runs and distance.
+     * @param auth   The security context used to verify if the requester has {@code ROLE_ADMIN}.
+     * @return One page of runners in {@link RunnerSummaryResponse} format.
+     * @throws ForbiddenException       If a regular user tries to access this endpoint.
+     * @throws IllegalArgumentException If the cursor or limit is invalid (HTTP 400).
      */
     @GetMapping
-    public ResponseEntity<List<RunnerResponse>> getAllRunners(Authentication auth) {
+    public ResponseEntity<List<RunnerSummaryResponse>> getAllRunners(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean totals,
+            Authentication auth
+    ) {
         if (!accessService.isAdmin(auth)) {
             throw new ForbiddenException("Access denied. Admins only.");
         }
 
-        List<RunnerResponse> runners = runnerService.getAllRunners()
+        RunnerPage page = runnerService.getRunnersPage(q, cursor, limit, totals);
+
+        List<RunnerSummaryResponse> runners = page.getItems()
                 .stream()
                 .map(RunnerMapper::toResponse)
                 .toList();
 
-        return ResponseEntity.ok(runners);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.hasMore()) {
+            response.header(ActivityController.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(runners);
     }
+
     /**
      * Retrieves the profile details of a specific runner by ID.
      * <p>
@@ -78,8 +102,7 @@ public class RunnerController {
     ) {
         accessService.checkRunnerAccess(authentication, id);
 
-        return runnerService.getRunnerById(id)
-                .map(RunnerMapper::toResponse)
+        return runnerService.getProfile(id)
                 .map(ResponseEntity::ok)
                 .orElseThrow(() -> new NotFoundException("Runner not found"));
     }
@@ -99,8 +122,7 @@ public class RunnerController {
     @GetMapping("/me")
     public ResponseEntity<RunnerResponse> getMe(Authentication authentication) {
         String username = authentication.getName();
-        return runnerService.getRunnerByUsername(username)
-                .map(RunnerMapper::toResponse)
+        return runnerService.getProfileByUsername(username)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -136,8 +158,8 @@ public class RunnerController {
     /**
      * Permanently deletes a runner's account.
      * <p>
-     * This action is irreversible. It triggers a cascade delete in the database,
-     * removing all associated activities and badges (depending on DB configuration).
+     * This action is irreversible. The account is disabled immediately (it can no longer log in and its
+     * tokens stop working); its activities, badges and other data are deleted in the background.
      * </p>
      * @param id             The ID of the account to delete.
      * @param authentication The security context to verify ownership.
@@ -0,0 +1,39 @@
+package com.pavel.jogger.web.controller;
+
+import org.springframework.http.CacheControl;
+
+import java.time.LocalDate;
+
+/**
+ * Helper for building the ETags of runner data responses.
+ * <p>
+ * The tag is derived from the runner's data version (see {@link com.pavel.jogger.service.DataVersionService}),
+ * so it changes exactly when the runner's activities, badges or profile change. Controllers compare it with
+ * the client's {@code If-None-Match} header via {@code WebRequest.checkNotModified} before doing any work.
+ * <br>
+ * Responses are marked {@code private, no-cache}: clients may keep a copy but must revalidate it
+ * on every use, which costs a 304 without a body when nothing changed.
+ * </p>
+ */
+final class RunnerETags {
+
+    static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private RunnerETags() {
+    }
+
+    /**
+     * ETag for responses that depend only on the runner's stored data.
+     */
+    static String of(Long runnerId, long dataVersion) {
+        return "\"r" + runnerId + "-v" + dataVersion + "\"";
+    }
+
+    /**
+     * ETag for responses whose default date range ends today (charts, reports),
+     * so they are also refreshed when the day changes.
+     */
+    static String ofToday(Long runnerId, long dataVersion) {
+        return "\"r" + runnerId + "-v" + dataVersion + "-" + LocalDate.now() + "\"";
+    }
+}
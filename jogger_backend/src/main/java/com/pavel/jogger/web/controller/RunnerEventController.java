@@ -0,0 +1,53 @@
+package com.pavel.jogger.web.controller;
+
+import com.pavel.jogger.service.AccessService;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * REST Controller for the push channel of a runner.
+ * <p>
+ * Instead of re-polling the badge and chart endpoints, the client keeps one stream open and reloads
+ * only when told to. The stream carries these events (JSON data):
+ * <br>
+ * - {@code badge-awarded}: the newly earned badges. <br>
+ * - {@code activity-added}: the new activity. <br>
+ * - {@code stats-changed}: totals and charts changed (an activity was added, edited, deleted or imported).
+ * </p>
+ */
+@RestController
+@RequestMapping("/runners")
+public class RunnerEventController {
+
+    private final RunnerEventStreams runnerEventStreams;
+    private final AccessService accessService;
+
+    public RunnerEventController(RunnerEventStreams runnerEventStreams, AccessService accessService) {
+        this.runnerEventStreams = runnerEventStreams;
+        this.accessService = accessService;
+    }
+
+    /**
+     * Opens the server-sent event stream of a runner.
+     * <p>
+     * Browsers' EventSource cannot send headers, so the token may also be passed as {@code ?token=}.
+     * </p>
+     * @param id             The unique ID of the runner.
+     * @param authentication The security context of the current user.
+     * @return The open stream.
+     * @throws com.pavel.jogger.web.exception.ForbiddenException If the user tries to listen to someone else's events.
+     */
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(
+            @PathVariable Long id,
+            Authentication authentication
+    ) {
+        accessService.checkRunnerAccess(authentication, id);
+        return runnerEventStreams.open(id);
+    }
+}
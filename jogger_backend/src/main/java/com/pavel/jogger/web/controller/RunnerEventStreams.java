@@ -0,0 +1,278 @@
+package com.pavel.jogger.web.controller;
+
+import com.pavel.jogger.service.RunnerEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Registry of the open event streams ("text/event-stream") of all runners on this node.
+ * <p>
+ * <b>Logic:</b> <br>
+ * - An open stream is an {@link SseEmitter} kept in a map by runner ID. The request stays in servlet async mode,
+ *   so an idle connection holds a socket and a few small objects, but no thread. <br>
+ * - {@link RunnerEvent}s are published after commit and written on the "eventExecutor" pool, never on the thread
+ *   that made the change, so a slow or dead client cannot hold up an upload or the badge worker. If the pool's
+ *   queue is full, the stream is closed instead of dropping the event: the client reconnects and reloads. <br>
+ * - Each stream queues its own events and has at most one write task at a time, which sends them in order.
+ *   Closing a stream only marks it and removes it from the map; the emitter is completed by its write task
+ *   after the current write returns, or at once if no write is running. A stuck write therefore never blocks
+ *   the scheduler or the thread that closes the stream. <br>
+ * - Every {@code app.events.heartbeat-interval-ms} a comment line is sent to the streams that were idle for at
+ *   least half that time, all in one task. This keeps proxies from closing idle streams and removes connections
+ *   whose client went away. <br>
+ * - A write that has not finished after {@code app.events.write-timeout} (a client that stopped reading) closes
+ *   its stream, so the client gets no further writes and reconnects. The blocked write itself ends when the
+ *   container's write timeout ({@code server.tomcat.connection-timeout}) expires. <br>
+ * - Streams end after {@code app.events.timeout}; EventSource clients reconnect by themselves. A runner has at most
+ *   {@code app.events.max-streams-per-runner} streams, opening one more closes the oldest.
+ * </p>
+ */
+@Component
+public class RunnerEventStreams {
+
+    private static final Logger log = LoggerFactory.getLogger(RunnerEventStreams.class);
+
+    private static final long RECONNECT_DELAY_MS = 5000;
+
+    private final Map<Long, List<Stream>> streams = new ConcurrentHashMap<>();
+    private final Executor eventExecutor;
+    private final Duration timeout;
+    private final int maxStreamsPerRunner;
+    private final long idleNanos;
+    private final long writeTimeoutNanos;
+
+    public RunnerEventStreams(@Qualifier("eventExecutor") Executor eventExecutor,
+                              @Value("${app.events.timeout:30m}") Duration timeout,
+                              @Value("${app.events.max-streams-per-runner:5}") int maxStreamsPerRunner,
+                              @Value("${app.events.heartbeat-interval-ms:25000}") long heartbeatIntervalMs,
+                              @Value("${app.events.write-timeout:10s}") Duration writeTimeout) {
+        this.eventExecutor = eventExecutor;
+        this.timeout = timeout;
+        this.maxStreamsPerRunner = maxStreamsPerRunner;
+        this.idleNanos = Duration.ofMillis(heartbeatIntervalMs / 2).toNanos();
+        this.writeTimeoutNanos = writeTimeout.toNanos();
+    }
+
+    /**
+     * Opens a new stream for a runner.
+     * @param runnerId The runner whose events are sent on the stream.
+     * @return The emitter to return from the controller.
+     */
+    public SseEmitter open(Long runnerId) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Stream stream = new Stream(runnerId, emitter);
+        emitter.onCompletion(() -> forget(stream));
+        emitter.onTimeout(() -> close(stream));
+        emitter.onError(e -> forget(stream));
+
+        // Flushes the response headers, so the client knows the stream is open. Sent before the stream is
+        // registered, so no event can be written at the same time.
+        try {
+            emitter.send(SseEmitter.event().reconnectTime(RECONNECT_DELAY_MS).comment("connected"));
+            stream.lastWriteNanos = System.nanoTime();
+        } catch (IOException e) {
+            return emitter;
+        }
+
+        List<Stream> runnerStreams = streams.compute(runnerId, (id, list) -> {
+            List<Stream> result = list != null ? list : new CopyOnWriteArrayList<>();
+            result.add(stream);
+            return result;
+        });
+        while (runnerStreams.size() > maxStreamsPerRunner) {
+            close(runnerStreams.get(0));
+        }
+        return emitter;
+    }
+
+    /**
+     * Pushes an event to every open stream of its runner. Runners without open streams cost one map lookup.
+     */
+    @EventListener
+    public void onRunnerEvent(RunnerEvent event) {
+        List<Stream> targets = streams.get(event.getRunnerId());
+        if (targets == null) {
+            return;
+        }
+
+        for (Stream stream : targets) {
+            if (stream.closed) {
+                continue;
+            }
+            stream.pending.add(() -> SseEmitter.event()
+                    .name(event.getType().getEventName())
+                    .data(event.getData(), MediaType.APPLICATION_JSON));
+            if (stream.scheduled.compareAndSet(false, true)) {
+                submit(stream);
+            }
+        }
+    }
+
+    /**
+     * Sends a comment line on the idle streams (one task for all of them) and closes the streams whose
+     * write is stuck.
+     */
+    @Scheduled(fixedDelayString = "${app.events.heartbeat-interval-ms:25000}")
+    public void heartbeat() {
+        long now = System.nanoTime();
+        List<Stream> idle = new ArrayList<>();
+
+        streams.values().forEach(list -> {
+            for (Stream stream : list) {
+                long writeStarted = stream.writeStartedNanos;
+                if (writeStarted != 0 && now - writeStarted > writeTimeoutNanos) {
+                    log.debug("Write to a stream of runner {} is stuck, closing it", stream.runnerId);
+                    close(stream);
+                } else if (now - stream.lastWriteNanos >= idleNanos && stream.scheduled.compareAndSet(false, true)) {
+                    idle.add(stream);
+                }
+            }
+        });
+        if (idle.isEmpty()) {
+            return;
+        }
+
+        try {
+            eventExecutor.execute(() -> idle.forEach(stream -> {
+                if (!stream.closed) {
+                    write(stream, () -> SseEmitter.event().comment("ping"));
+                }
+                drain(stream);
+            }));
+        } catch (TaskRejectedException e) {
+            log.debug("Event queue full, skipping {} heartbeats", idle.size());
+            idle.forEach(this::release);
+        }
+    }
+
+    /**
+     * Returns the number of open streams on this node.
+     */
+    int size() {
+        return streams.values().stream().mapToInt(List::size).sum();
+    }
+
+    /**
+     * Starts the write task of a stream. The caller holds {@code stream.scheduled}.
+     */
+    private void submit(Stream stream) {
+        try {
+            eventExecutor.execute(() -> drain(stream));
+        } catch (TaskRejectedException e) {
+            log.warn("Event queue full, closing a stream of runner {} so its client reconnects", stream.runnerId);
+            stream.closed = true;
+            remove(stream);
+            // This thread holds the stream, so no write is running and completing cannot wait on one.
+            stream.emitter.complete();
+        }
+    }
+
+    /**
+     * The write task of a stream: sends the queued events in order, then completes the emitter if the stream
+     * was closed meanwhile.
+     */
+    private void drain(Stream stream) {
+        do {
+            Supplier<SseEmitter.SseEventBuilder> event;
+            while (!stream.closed && (event = stream.pending.poll()) != null) {
+                write(stream, event);
+            }
+            if (stream.closed) {
+                // Stays scheduled: a closed stream takes no further tasks.
+                stream.pending.clear();
+                stream.emitter.complete();
+                return;
+            }
+            stream.scheduled.set(false);
+        } while ((stream.closed || !stream.pending.isEmpty()) && stream.scheduled.compareAndSet(false, true));
+    }
+
+    /**
+     * Gives up a stream that was taken for a heartbeat that could not be submitted.
+     */
+    private void release(Stream stream) {
+        stream.scheduled.set(false);
+        if ((stream.closed || !stream.pending.isEmpty()) && stream.scheduled.compareAndSet(false, true)) {
+            submit(stream);
+        }
+    }
+
+    private void write(Stream stream, Supplier<SseEmitter.SseEventBuilder> event) {
+        stream.writeStartedNanos = System.nanoTime();
+        try {
+            stream.emitter.send(event.get());
+            stream.lastWriteNanos = System.nanoTime();
+        } catch (IOException | IllegalStateException e) {
+            // The client went away; the container completes the request, we only forget the stream.
+            forget(stream);
+        } finally {
+            stream.writeStartedNanos = 0;
+        }
+    }
+
+    /**
+     * Closes a stream without waiting: the emitter is completed here only if no write task holds the stream,
+     * otherwise by that task once its current write returns.
+     */
+    private void close(Stream stream) {
+        forget(stream);
+        if (stream.scheduled.compareAndSet(false, true)) {
+            stream.emitter.complete();
+        }
+    }
+
+    private void forget(Stream stream) {
+        stream.closed = true;
+        remove(stream);
+    }
+
+    private void remove(Stream stream) {
+        streams.computeIfPresent(stream.runnerId, (id, list) -> {
+            list.remove(stream);
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    /**
+     * An open stream, its queued events and when it was last written to.
+     * <p>
+     * {@code scheduled} is held by whoever may write to the emitter: the stream's write task, or a thread that
+     * is about to complete it. The timestamps are only hints for the heartbeat, so volatile is enough.
+     * </p>
+     */
+    private static final class Stream {
+
+        private final Long runnerId;
+        private final SseEmitter emitter;
+        private final ConcurrentLinkedQueue<Supplier<SseEmitter.SseEventBuilder>> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean closed;
+        private volatile long lastWriteNanos = System.nanoTime();
+        private volatile long writeStartedNanos;
+
+        private Stream(Long runnerId, SseEmitter emitter) {
+            this.runnerId = runnerId;
+            this.emitter = emitter;
+        }
+    }
+}
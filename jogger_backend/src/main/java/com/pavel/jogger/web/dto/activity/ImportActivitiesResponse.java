@@ -0,0 +1,34 @@
+package com.pavel.jogger.web.dto.activity;
+
+import java.util.List;
+
+/**
+ * DTO returned by the bulk import endpoint.
+ * <p>
+ * {@code errors} lists the first validation errors as "Row n: message" (rows are counted from 1).
+ * </p>
+ */
+public class ImportActivitiesResponse {
+
+    private int imported;
+    private int rejected;
+    private List<String> errors;
+
+    public ImportActivitiesResponse(int imported, int rejected, List<String> errors) {
+        this.imported = imported;
+        this.rejected = rejected;
+        this.errors = errors;
+    }
+
+    public int getImported() {
+        return imported;
+    }
+
+    public int getRejected() {
+        return rejected;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+}
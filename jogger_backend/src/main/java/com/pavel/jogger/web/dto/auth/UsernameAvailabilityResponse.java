@@ -0,0 +1,19 @@
+package com.pavel.jogger.web.dto.auth;
+
+/**
+ * DTO telling the sign-up form whether a username can still be registered.
+ */
+public class UsernameAvailabilityResponse {
+
+    private String username;
+    private boolean available;
+
+    public UsernameAvailabilityResponse(String username, boolean available) {
+        this.username = username;
+        this.available = available;
+    }
+
+    public String getUsername() { return username; }
+
+    public boolean isAvailable() { return available; }
+}
@@ -0,0 +1,73 @@
+package com.pavel.jogger.web.dto.badge;
+
+import java.time.Instant;
+
+/**
+ * DTO describing the progress of the badge recompute job.
+ * <p>
+ * {@code lastRunnerId} is the highest runner ID already processed; the job continues after it when resumed.
+ * {@code finishedAt} is only set once the status is COMPLETED or FAILED, {@code error} only when it is FAILED.
+ * </p>
+ */
+public class BadgeRecomputeResponse {
+
+    private Long jobId;
+    private String status;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private long totalRunners;
+    private long processedRunners;
+    private long lastRunnerId;
+    private long awardedBadges;
+    private String error;
+
+    public BadgeRecomputeResponse(Long jobId, String status, Instant startedAt, Instant finishedAt,
+                                  long totalRunners, long processedRunners, long lastRunnerId,
+                                  long awardedBadges, String error) {
+        this.jobId = jobId;
+        this.status = status;
+        this.startedAt = startedAt;
+        this.finishedAt = finishedAt;
+        this.totalRunners = totalRunners;
+        this.processedRunners = processedRunners;
+        this.lastRunnerId = lastRunnerId;
+        this.awardedBadges = awardedBadges;
+        this.error = error;
+    }
+
+    public Long getJobId() {
+        return jobId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public long getTotalRunners() {
+        return totalRunners;
+    }
+
+    public long getProcessedRunners() {
+        return processedRunners;
+    }
+
+    public long getLastRunnerId() {
+        return lastRunnerId;
+    }
+
+    public long getAwardedBadges() {
+        return awardedBadges;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,15 @@
+package com.pavel.jogger.web.dto.badge;
+
+/**
+ * DTO carrying the number of badges a runner has not seen yet.
+ */
+public class UnseenBadgeCountResponse {
+
+    private int count;
+
+    public UnseenBadgeCountResponse(int count) {
+        this.count = count;
+    }
+
+    public int getCount() { return count; }
+}
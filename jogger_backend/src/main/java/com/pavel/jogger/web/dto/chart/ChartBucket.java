@@ -0,0 +1,73 @@
+package com.pavel.jogger.web.dto.chart;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.IsoFields;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Time granularity of a chart series.
+ * <p>
+ * Every bucket is identified by the date it starts on: the day itself, the Monday of the ISO week,
+ * the first day of the month or the first day of the year. Using the start date (instead of a week
+ * number alone) keeps week 5 of 2024 and week 5 of 2025 in separate buckets.
+ * </p>
+ */
+public enum ChartBucket {
+
+    DAY(30),
+    WEEK(12),
+    MONTH(12),
+    YEAR(5);
+
+    private final int defaultSpan;
+
+    ChartBucket(int defaultSpan) {
+        this.defaultSpan = defaultSpan;
+    }
+
+    /**
+     * Number of buckets shown when the client does not send a start date.
+     */
+    public int getDefaultSpan() {
+        return defaultSpan;
+    }
+
+    /**
+     * Returns the first day of the bucket containing the given date.
+     */
+    public LocalDate startOf(LocalDate date) {
+        return switch (this) {
+            case DAY -> date;
+            case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> date.withDayOfMonth(1);
+            case YEAR -> date.withDayOfYear(1);
+        };
+    }
+
+    /**
+     * Moves a bucket start date forward (positive) or backward (negative) by whole buckets.
+     */
+    public LocalDate plus(LocalDate start, long buckets) {
+        return switch (this) {
+            case DAY -> start.plusDays(buckets);
+            case WEEK -> start.plusWeeks(buckets);
+            case MONTH -> start.plusMonths(buckets);
+            case YEAR -> start.plusYears(buckets);
+        };
+    }
+
+    /**
+     * Builds the label shown on the chart axis, e.g. "2024-03-18", "2024-W12", "2024-03" or "2024".
+     */
+    public String label(LocalDate start) {
+        return switch (this) {
+            case DAY -> start.toString();
+            case WEEK -> String.format("%d-W%02d",
+                    start.get(IsoFields.WEEK_BASED_YEAR),
+                    start.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+            case MONTH -> String.format("%d-%02d", start.getYear(), start.getMonthValue());
+            case YEAR -> String.valueOf(start.getYear());
+        };
+    }
+}
@@ -0,0 +1,19 @@
+package com.pavel.jogger.web.dto.chart;
+
+/**
+ * The value plotted for every bucket of a chart series.
+ * <ul>
+ *     <li>DISTANCE - total kilometers.</li>
+ *     <li>DURATION - total minutes.</li>
+ *     <li>CALORIES - total calories burned.</li>
+ *     <li>RUNS - number of activities.</li>
+ *     <li>PACE - average pace in min/km (total time divided by total distance).</li>
+ * </ul>
+ */
+public enum ChartMetric {
+    DISTANCE,
+    DURATION,
+    CALORIES,
+    RUNS,
+    PACE
+}
@@ -0,0 +1,44 @@
+package com.pavel.jogger.web.dto.report;
+
+/**
+ * DTO describing the state of a report rendering job.
+ * <p>
+ * {@code downloadUrl} is only set once the status is DONE. {@code error} is only set when the status is FAILED.
+ * </p>
+ */
+public class ReportJobResponse {
+
+    private String jobId;
+    private String status;
+    private long dataVersion;
+    private String downloadUrl;
+    private String error;
+
+    public ReportJobResponse(String jobId, String status, long dataVersion, String downloadUrl, String error) {
+        this.jobId = jobId;
+        this.status = status;
+        this.dataVersion = dataVersion;
+        this.downloadUrl = downloadUrl;
+        this.error = error;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public long getDataVersion() {
+        return dataVersion;
+    }
+
+    public String getDownloadUrl() {
+        return downloadUrl;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
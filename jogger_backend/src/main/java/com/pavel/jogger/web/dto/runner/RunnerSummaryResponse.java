@@ -0,0 +1,43 @@
+package com.pavel.jogger.web.dto.runner;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO representing one runner in the admin list.
+ * <p>
+ * Has the same fields as {@link RunnerResponse}. The lifetime totals are only present when the admin
+ * asked for them ({@code totals=true}).
+ * </p>
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RunnerSummaryResponse {
+
+    private Long id;
+    private String username;
+    private String email;
+    private String role;
+    private LocalDateTime dateJoined;
+    private Long totalRuns;
+    private Double totalDistanceKm;
+
+    public RunnerSummaryResponse(Long id, String username, String email, String role, LocalDateTime dateJoined,
+                                 Long totalRuns, Double totalDistanceKm) {
+        this.id = id;
+        this.username = username;
+        this.email = email;
+        this.role = role;
+        this.dateJoined = dateJoined;
+        this.totalRuns = totalRuns;
+        this.totalDistanceKm = totalDistanceKm;
+    }
+
+    public Long getId() { return id; }
+    public String getUsername() { return username; }
+    public String getEmail() { return email; }
+    public String getRole() { return role; }
+    public LocalDateTime getDateJoined() { return dateJoined; }
+    public Long getTotalRuns() { return totalRuns; }
+    public Double getTotalDistanceKm() { return totalDistanceKm; }
+}
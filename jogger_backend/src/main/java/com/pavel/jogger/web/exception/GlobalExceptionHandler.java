@@ -1,5 +1,6 @@
 package com.pavel.jogger.web.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -84,6 +85,17 @@ public class GlobalExceptionHandler {
         );
     }
 
+    /**
+     * Handles temporary overload (503).
+     * Tells the client when to retry via the Retry-After header (in seconds).
+     */
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ApiError> handleServiceUnavailable(ServiceUnavailableException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(new ApiError(HttpStatus.SERVICE_UNAVAILABLE.value(), Map.of("message", ex.getMessage())));
+    }
+
     /**
      * Handles Bad Requests (400) for illegal arguments.
      */
@@ -0,0 +1,14 @@
+package com.pavel.jogger.web.exception;
+
+/**
+ * Exception thrown when the server is temporarily too busy to accept more work of a given kind.
+ * <p>
+ * Maps to HTTP 503 Service Unavailable.
+ * Typical use case: The report rendering queue is full, the client should retry later.
+ * </p>
+ */
+public class ServiceUnavailableException extends RuntimeException {
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
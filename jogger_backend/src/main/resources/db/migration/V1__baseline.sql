@@ -0,0 +1,42 @@
+-- Baseline: the schema of the original db.sql dump (what ddl-auto=update had created before the migrations).
+-- Existing databases are baselined at version 1 (spring.flyway.baseline-on-migrate), so this script only
+-- runs on empty databases; everything added later lives in V2 and up and runs on both.
+
+CREATE TABLE runners (
+    id            BIGINT       NOT NULL AUTO_INCREMENT,
+    date_joined   DATETIME(6)  NOT NULL,
+    email         VARCHAR(255) NOT NULL,
+    password_hash VARCHAR(255) NOT NULL,
+    username      VARCHAR(255) NOT NULL,
+    role          VARCHAR(255) NOT NULL,
+    weight        DOUBLE DEFAULT NULL,
+    PRIMARY KEY (id),
+    UNIQUE KEY UKhj9kyi9m63so71vqd1eops2xi (email),
+    UNIQUE KEY UK71tg5v9di7vwh1e642kiin8nr (username)
+) ENGINE = InnoDB;
+
+CREATE TABLE activities (
+    id           BIGINT       NOT NULL AUTO_INCREMENT,
+    calories     INT          NOT NULL,
+    date         DATE         NOT NULL,
+    distance_km  DOUBLE       NOT NULL,
+    duration_sec INT          NOT NULL,
+    route        VARCHAR(255) DEFAULT NULL,
+    runner_id    BIGINT       NOT NULL,
+    PRIMARY KEY (id),
+    KEY FKo8fgr8n0m5tlfgpqf0ih452w3 (runner_id),
+    CONSTRAINT FKo8fgr8n0m5tlfgpqf0ih452w3 FOREIGN KEY (runner_id) REFERENCES runners (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE badges (
+    id          BIGINT       NOT NULL AUTO_INCREMENT,
+    awarded_at  DATE         DEFAULT NULL,
+    description VARCHAR(255) DEFAULT NULL,
+    name        VARCHAR(255) DEFAULT NULL,
+    runner_id   BIGINT       DEFAULT NULL,
+    code        VARCHAR(255) NOT NULL,
+    seen        BIT(1)       NOT NULL,
+    PRIMARY KEY (id),
+    UNIQUE KEY UK2lnld9q6xcpf2ngghixfjduw0 (runner_id, code),
+    CONSTRAINT FKpyshpukvstphxwj5aqdirsq45 FOREIGN KEY (runner_id) REFERENCES runners (id)
+) ENGINE = InnoDB;
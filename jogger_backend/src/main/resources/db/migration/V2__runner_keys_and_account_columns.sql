@@ -0,0 +1,13 @@
+-- Gives the unique keys of runners stable names. AuthService tells a taken username from a taken email
+-- by the violated constraint (RunnerEntity.UK_USERNAME / UK_EMAIL); the generated names are not stable.
+-- The new key is added before the old one is dropped, so the columns are never unprotected.
+ALTER TABLE runners ADD CONSTRAINT uk_runners_username UNIQUE (username);
+ALTER TABLE runners DROP CONSTRAINT UK71tg5v9di7vwh1e642kiin8nr;
+ALTER TABLE runners ADD CONSTRAINT uk_runners_email UNIQUE (email);
+ALTER TABLE runners DROP CONSTRAINT UKhj9kyi9m63so71vqd1eops2xi;
+
+-- ETag counter, JWT version and the account-deletion flag. Existing runners start at 0 / not disabled,
+-- which is what the application writes for a new runner too.
+ALTER TABLE runners ADD COLUMN data_version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE runners ADD COLUMN token_version INT NOT NULL DEFAULT 0;
+ALTER TABLE runners ADD COLUMN disabled BIT(1) NOT NULL DEFAULT 0;
@@ -0,0 +1,57 @@
+-- Keyset pagination of a runner's history (newest first).
+CREATE INDEX idx_activities_runner_date_id ON activities (runner_id, date, id);
+
+-- Per-runner totals. Rows are built from the activities table the first time a runner needs one
+-- (RunnerStatsService), so existing runners need no backfill here.
+CREATE TABLE runner_stats (
+    runner_id          BIGINT    NOT NULL,
+    total_runs         BIGINT    NOT NULL,
+    total_distance_km  FLOAT(53) NOT NULL,
+    total_duration_sec BIGINT    NOT NULL,
+    total_calories     BIGINT    NOT NULL,
+    last_activity_date DATE,
+    unseen_badges      INTEGER   NOT NULL,
+    PRIMARY KEY (runner_id)
+) ENGINE = InnoDB;
+
+-- Pre-summed chart buckets. Buckets of activities that existed before this script are filled in by one full
+-- rebuild (RollupMaintenanceService: the admin endpoint, or app.rollups.rebuild-on-startup=true once).
+CREATE TABLE activity_rollups (
+    id           BIGINT                               NOT NULL AUTO_INCREMENT,
+    runner_id    BIGINT                               NOT NULL,
+    period       ENUM ('DAY', 'MONTH', 'WEEK', 'YEAR') NOT NULL,
+    bucket_start DATE                                 NOT NULL,
+    runs         BIGINT                               NOT NULL,
+    distance_km  FLOAT(53)                            NOT NULL,
+    duration_sec BIGINT                               NOT NULL,
+    calories     BIGINT                               NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_rollups_runner_period_bucket UNIQUE (runner_id, period, bucket_start)
+) ENGINE = InnoDB;
+
+CREATE TABLE badge_outbox (
+    id           BIGINT       NOT NULL AUTO_INCREMENT,
+    runner_id    BIGINT       NOT NULL,
+    run_date     DATE         NOT NULL,
+    distance_km  FLOAT(53)    NOT NULL,
+    duration_sec INTEGER      NOT NULL,
+    attempts     INTEGER      NOT NULL,
+    available_at DATETIME(6),
+    last_error   VARCHAR(500),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_badge_outbox_available ON badge_outbox (available_at, id);
+
+CREATE TABLE badge_recompute_jobs (
+    id                BIGINT                                  NOT NULL AUTO_INCREMENT,
+    status            ENUM ('COMPLETED', 'FAILED', 'RUNNING') NOT NULL,
+    started_at        DATETIME(6)                             NOT NULL,
+    finished_at       DATETIME(6),
+    total_runners     BIGINT                                  NOT NULL,
+    processed_runners BIGINT                                  NOT NULL,
+    last_runner_id    BIGINT                                  NOT NULL,
+    awarded_badges    BIGINT                                  NOT NULL,
+    last_error        VARCHAR(500),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
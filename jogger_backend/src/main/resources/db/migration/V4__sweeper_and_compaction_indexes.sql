@@ -0,0 +1,7 @@
+-- Found by QueryPlanTest: both queries read their whole table.
+
+-- AccountDeletionService polls for disabled accounts every minute (WHERE disabled = true ORDER BY id).
+CREATE INDEX idx_runners_disabled_id ON runners (disabled, id);
+
+-- RollupMaintenanceService looks up the runners active in the compaction window; covers the query.
+CREATE INDEX idx_runner_stats_last_activity ON runner_stats (last_activity_date, runner_id);
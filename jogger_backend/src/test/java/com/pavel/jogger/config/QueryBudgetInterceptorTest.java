@@ -0,0 +1,57 @@
+package com.pavel.jogger.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class QueryBudgetInterceptorTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final QueryBudgetInterceptor interceptor = new QueryBudgetInterceptor(meterRegistry, 2, 3);
+
+    @Test
+    void should_record_the_statements_of_a_request_per_endpoint() throws Exception {
+        HandlerMethod handler = new HandlerMethod(new SampleController(), SampleController.class.getMethod("list"));
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        interceptor.preHandle(request, response, handler);
+        SqlStatementCounter listener = new SqlStatementCounter();
+        for (int i = 0; i < 4; i++) {
+            listener.afterQuery(new ExecutionInfo(), List.of(new QueryInfo("select 1")));
+        }
+        interceptor.afterCompletion(request, response, handler, null);
+
+        DistributionSummary statements = meterRegistry.get(QueryBudgetInterceptor.STATEMENTS_METRIC)
+                .tag("endpoint", "SampleController.list")
+                .summary();
+        assertEquals(1, statements.count());
+        assertEquals(4.0, statements.totalAmount());
+        assertEquals(1, meterRegistry.get(QueryBudgetInterceptor.JDBC_TIME_METRIC).timer().count());
+        assertNull(SqlStatementCounter.stop(), "counting must stop with the request");
+    }
+
+    @Test
+    void should_not_count_statements_outside_a_request() {
+        new SqlStatementCounter().afterQuery(new ExecutionInfo(), List.of());
+
+        assertNull(SqlStatementCounter.stop());
+        assertEquals(0, meterRegistry.getMeters().size());
+    }
+
+    public static class SampleController {
+        public void list() {
+        }
+    }
+}
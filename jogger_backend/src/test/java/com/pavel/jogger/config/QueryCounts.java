@@ -0,0 +1,33 @@
+package com.pavel.jogger.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Test helper around {@link SqlStatementCounter}: pins how many SQL statements a piece of code runs,
+ * so an N+1 regression fails a test instead of slowing down production.
+ * <p>
+ * Needs the proxied data source, i.e. {@code @Import(QueryMetricsConfig.class)} in slice tests.
+ * </p>
+ */
+public final class QueryCounts {
+
+    private QueryCounts() {
+    }
+
+    /**
+     * Runs the code and returns how many statements reached the database.
+     */
+    public static int count(Runnable code) {
+        SqlStatementCounter.Counts counts = SqlStatementCounter.start();
+        try {
+            code.run();
+        } finally {
+            SqlStatementCounter.stop();
+        }
+        return counts.getStatements();
+    }
+
+    public static void assertStatements(int expected, Runnable code) {
+        assertEquals(expected, count(code), "SQL statements");
+    }
+}
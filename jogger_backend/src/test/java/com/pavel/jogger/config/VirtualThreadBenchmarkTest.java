@@ -0,0 +1,85 @@
+package com.pavel.jogger.config;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the current thread pool with virtual threads on a request-shaped workload.
+ * <p>
+ * Every simulated request waits {@value #IO_WAIT_MS} ms on I/O (a slow client, a remote call) and then
+ * {@value #DB_WAIT_MS} ms holding one of {@value #DB_CONNECTIONS} database connections, like the default
+ * Hikari pool. The platform run uses 200 threads, Tomcat's default maximum.
+ * <br>
+ * Run with {@code mvn test -Pbenchmark,jdk21} on Java 21 or newer.
+ * </p>
+ */
+@Tag("benchmark")
+@EnabledForJreRange(min = JRE.JAVA_21)
+class VirtualThreadBenchmarkTest {
+
+    private static final int REQUESTS = 5_000;
+    private static final int TOMCAT_THREADS = 200;
+    private static final int DB_CONNECTIONS = 10;
+    private static final long IO_WAIT_MS = 50;
+    private static final long DB_WAIT_MS = 1;
+
+    @Test
+    void virtual_threads_should_serve_io_bound_requests_faster_than_the_platform_pool() throws InterruptedException {
+        ExecutorService platform = Executors.newFixedThreadPool(TOMCAT_THREADS);
+        try {
+            // Warm-up, so both runs start with loaded classes and started threads.
+            run(platform);
+            run(new VirtualThreadTaskExecutor("bench-"));
+
+            double platformRate = run(platform);
+            double virtualRate = run(new VirtualThreadTaskExecutor("bench-"));
+
+            System.out.printf("platform (%d threads): %.0f req/s, virtual: %.0f req/s%n",
+                    TOMCAT_THREADS, platformRate, virtualRate);
+            assertTrue(virtualRate > platformRate);
+        } finally {
+            platform.shutdownNow();
+        }
+    }
+
+    /**
+     * @return Requests per second.
+     */
+    private static double run(Executor executor) throws InterruptedException {
+        Semaphore connections = new Semaphore(DB_CONNECTIONS);
+        CountDownLatch done = new CountDownLatch(REQUESTS);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < REQUESTS; i++) {
+            executor.execute(() -> {
+                try {
+                    Thread.sleep(IO_WAIT_MS);
+                    connections.acquire();
+                    try {
+                        Thread.sleep(DB_WAIT_MS);
+                    } finally {
+                        connections.release();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        assertTrue(done.await(2, TimeUnit.MINUTES));
+        return REQUESTS / ((System.nanoTime() - start) / 1e9);
+    }
+}
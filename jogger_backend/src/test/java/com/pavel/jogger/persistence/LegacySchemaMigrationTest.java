@@ -0,0 +1,123 @@
+package com.pavel.jogger.persistence;
+
+import com.pavel.jogger.persistence.entity.RunnerEntity;
+import com.pavel.jogger.persistence.repository.ActivityRepository;
+import com.pavel.jogger.persistence.repository.RunnerRepository;
+import org.flywaydb.core.api.MigrationInfo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.flyway.autoconfigure.FlywayMigrationStrategy;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Upgrades a database that was created without Flyway (the schema of the old db.sql dump, with data in it)
+ * the way production does: it is baselined at version 1 and the later scripts run on top.
+ * <p>
+ * The context only starts if Hibernate's schema validation accepts the result, so the test also fails
+ * when a column or table added by the entities is missing from the migrations.
+ * </p>
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:legacy;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+        "spring.flyway.baseline-on-migrate=true",
+        "spring.flyway.baseline-version=1"
+})
+@Import(LegacySchemaMigrationTest.LegacyDatabase.class)
+class LegacySchemaMigrationTest {
+
+    @Autowired
+    private RunnerRepository runnerRepository;
+
+    @Autowired
+    private ActivityRepository activityRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void existing_rows_should_get_defaults_for_the_new_columns() {
+        RunnerEntity runner = runnerRepository.findByUsername("legacy").orElseThrow();
+
+        assertEquals(0, runner.getDataVersion());
+        assertEquals(0, runner.getTokenVersion());
+        assertFalse(runner.isDisabled());
+        assertEquals(0, runnerRepository.findActiveTokenVersion(runner.getId()).orElseThrow());
+        assertEquals(1, activityRepository.aggregateTotals(runner.getId()).getTotalRuns());
+    }
+
+    @Test
+    void unique_keys_should_carry_the_names_the_application_maps_to_conflicts() {
+        DataIntegrityViolationException username = assertThrows(DataIntegrityViolationException.class,
+                () -> insertRunner("legacy", "other@test.com"));
+        DataIntegrityViolationException email = assertThrows(DataIntegrityViolationException.class,
+                () -> insertRunner("other", "legacy@test.com"));
+
+        assertTrue(message(username).contains(RunnerEntity.UK_USERNAME), message(username));
+        assertTrue(message(email).contains(RunnerEntity.UK_EMAIL), message(email));
+    }
+
+    private void insertRunner(String username, String email) {
+        jdbcTemplate.update("""
+                INSERT INTO runners (date_joined, email, password_hash, username, role)
+                VALUES (CURRENT_TIMESTAMP, ?, 'hash', ?, 'USER')
+                """, email, username);
+    }
+
+    private static String message(DataIntegrityViolationException e) {
+        return String.valueOf(e.getMostSpecificCause().getMessage()).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Creates the pre-Flyway schema with a runner, an activity and a badge before migrating.
+     */
+    @TestConfiguration
+    static class LegacyDatabase {
+
+        @Bean
+        FlywayMigrationStrategy legacySchemaThenMigrate() {
+            return flyway -> {
+                DataSource dataSource = flyway.getConfiguration().getDataSource();
+                new ResourceDatabasePopulator(new ClassPathResource("db/migration/V1__baseline.sql")).execute(dataSource);
+
+                JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+                jdbc.update("""
+                        INSERT INTO runners (id, date_joined, email, password_hash, username, role)
+                        VALUES (1, CURRENT_TIMESTAMP, 'legacy@test.com', 'hash', 'legacy', 'USER')
+                        """);
+                jdbc.update("""
+                        INSERT INTO activities (calories, date, distance_km, duration_sec, runner_id)
+                        VALUES (350, DATE '2024-03-10', 5.0, 1500, 1)
+                        """);
+                jdbc.update("""
+                        INSERT INTO badges (awarded_at, name, runner_id, code, seen)
+                        VALUES (DATE '2024-03-10', 'First run', 1, 'FIRST_RUN', 0)
+                        """);
+
+                flyway.migrate();
+
+                List<String> versions = Arrays.stream(flyway.info().applied())
+                        .map(MigrationInfo::getVersion)
+                        .map(Object::toString)
+                        .toList();
+                assertEquals(List.of("1", "2", "3", "4"), versions, "baseline followed by the upgrades");
+            };
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.pavel.jogger.persistence.repository;
+
+import com.pavel.jogger.config.QueryMetricsConfig;
+import com.pavel.jogger.persistence.entity.ActivityEntity;
+import com.pavel.jogger.persistence.entity.RunnerEntity;
+import com.pavel.jogger.persistence.projection.RunnerBadgeTotals;
+import com.pavel.jogger.web.dto.activity.ActivityResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.pavel.jogger.config.QueryCounts.assertStatements;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@Import(QueryMetricsConfig.class)
+class ActivityRepositoryTest {
+
+    @Autowired
+    private RunnerRepository runnerRepository;
+
+    @Autowired
+    private ActivityRepository activityRepository;
+
+    @Test
+    void findPageForRunner_shouldSeekPastCursorNewestFirst() {
+        RunnerEntity runner = runnerRepository.save(new RunnerEntity("pager", "pager@test.com", "hash"));
+        RunnerEntity other = runnerRepository.save(new RunnerEntity("other", "other@test.com", "hash"));
+
+        LocalDate day = LocalDate.of(2024, 3, 10);
+        ActivityEntity older = save(runner, day.minusDays(1));
+        ActivityEntity first = save(runner, day);
+        ActivityEntity second = save(runner, day);
+        save(other, day);
+
+        activityRepository.flush();
+        List<ActivityResponse> firstPage = new ArrayList<>();
+        // The page is projected in one SELECT, no matter how many rows it holds.
+        assertStatements(1, () -> firstPage.addAll(activityRepository.findPageForRunner(
+                runner.getId(), LocalDate.of(1000, 1, 1), LocalDate.of(9999, 12, 31), Long.MAX_VALUE, Limit.of(2)
+        )));
+
+        assertEquals(List.of(second.getId(), first.getId()), firstPage.stream().map(ActivityResponse::getId).toList());
+        // 1500 s over 5 km: 5 min/km, computed by the query.
+        assertEquals(5.0, firstPage.get(0).getPace(), 1e-9);
+
+        List<ActivityResponse> nextPage = activityRepository.findPageForRunner(
+                runner.getId(), LocalDate.of(1000, 1, 1), day, first.getId(), Limit.of(2)
+        );
+
+        assertEquals(List.of(older.getId()), nextPage.stream().map(ActivityResponse::getId).toList());
+    }
+
+    @Test
+    void findFastestRuns_shouldOrderByPaceAndSkipShortRuns() {
+        RunnerEntity runner = runnerRepository.save(new RunnerEntity("pacer", "pacer@test.com", "hash"));
+
+        LocalDate day = LocalDate.of(2024, 3, 10);
+        ActivityEntity steady = save(runner, 10.0, 3000, day);
+        ActivityEntity quick = save(runner, 5.0, 1400, day);
+        save(runner, 0.5, 100, day);
+
+        List<ActivityEntity> fastest = activityRepository.findFastestRuns(runner.getId(), 1.0, Limit.of(2));
+        List<ActivityEntity> longest = activityRepository.findLongestRuns(runner.getId(), Limit.of(1));
+
+        assertEquals(List.of(quick.getId(), steady.getId()), fastest.stream().map(ActivityEntity::getId).toList());
+        assertEquals(List.of(steady.getId()), longest.stream().map(ActivityEntity::getId).toList());
+    }
+
+    @Test
+    void insertAll_shouldWriteRowsInOneBatch() {
+        RunnerEntity runner = runnerRepository.save(new RunnerEntity("importer", "importer@test.com", "hash"));
+
+        ActivityEntity first = new ActivityEntity(5.0, 1500, LocalDate.of(2020, 1, 1));
+        ActivityEntity second = new ActivityEntity(12.5, 4000, LocalDate.of(2020, 1, 8));
+        second.setRoute("Park loop");
+        second.setCalories(900);
+
+        int[] inserted = new int[1];
+        assertStatements(1, () -> inserted[0] = activityRepository.insertAll(runner.getId(), List.of(first, second)));
+
+        assertEquals(2, inserted[0]);
+        assertEquals(2, activityRepository.aggregateTotals(runner.getId()).getTotalRuns());
+        assertEquals(17.5, activityRepository.aggregateTotals(runner.getId()).getTotalDistanceKm(), 1e-9);
+    }
+
+    @Test
+    void findBadgeTotals_shouldGroupRunnersOfTheRange() {
+        RunnerEntity fast = runnerRepository.save(new RunnerEntity("fast", "fast@test.com", "hash"));
+        RunnerEntity casual = runnerRepository.save(new RunnerEntity("casual", "casual@test.com", "hash"));
+        RunnerEntity outside = runnerRepository.save(new RunnerEntity("outside", "outside@test.com", "hash"));
+
+        LocalDate day = LocalDate.of(2024, 3, 10);
+        save(fast, 10.0, 3000, day);
+        save(fast, 5.0, 1400, day);
+        save(fast, 2.0, 400, day);
+        save(casual, 3.0, 1200, day);
+        save(outside, 8.0, 2400, day);
+
+        List<RunnerBadgeTotals> totals = activityRepository.findBadgeTotals(fast.getId(), casual.getId(), 5.0);
+
+        assertEquals(List.of(fast.getId(), casual.getId()), totals.stream().map(RunnerBadgeTotals::getRunnerId).toList());
+        assertEquals(3, totals.get(0).getRuns());
+        assertEquals(17.0, totals.get(0).getDistanceKm(), 1e-9);
+        assertEquals(10.0, totals.get(0).getLongestRunKm(), 1e-9);
+        assertEquals(280.0, totals.get(0).getBestPaceSecPerKm(), 1e-9);
+        assertNull(totals.get(1).getBestPaceSecPerKm());
+    }
+
+    @Test
+    void findOwnedForUpdate_shouldOnlyMatchTheOwnerUnlessUnrestricted() {
+        RunnerEntity owner = runnerRepository.save(new RunnerEntity("owner", "owner@test.com", "hash"));
+        RunnerEntity other = runnerRepository.save(new RunnerEntity("intruder", "intruder@test.com", "hash"));
+        ActivityEntity activity = save(owner, LocalDate.of(2024, 3, 10));
+
+        assertEquals(activity.getId(), activityRepository.findOwnedForUpdate(activity.getId(), owner.getId()).orElseThrow().getId());
+        assertTrue(activityRepository.findOwnedForUpdate(activity.getId(), other.getId()).isEmpty());
+        assertTrue(activityRepository.findOwnedForUpdate(activity.getId(), null).isPresent());
+    }
+
+    @Test
+    void deleteChunkByRunner_shouldDeleteAtMostOneChunkOfTheRunner() {
+        RunnerEntity runner = runnerRepository.save(new RunnerEntity("leaving", "leaving@test.com", "hash"));
+        RunnerEntity other = runnerRepository.save(new RunnerEntity("staying", "staying@test.com", "hash"));
+
+        LocalDate day = LocalDate.of(2024, 3, 10);
+        save(runner, day);
+        save(runner, day);
+        save(runner, day);
+        save(other, day);
+        activityRepository.flush();
+
+        assertEquals(2, activityRepository.deleteChunkByRunner(runner.getId(), 2));
+        assertEquals(1, activityRepository.deleteChunkByRunner(runner.getId(), 2));
+        assertEquals(0, activityRepository.deleteChunkByRunner(runner.getId(), 2));
+        assertEquals(1, activityRepository.aggregateTotals(other.getId()).getTotalRuns());
+    }
+
+    private ActivityEntity save(RunnerEntity runner, LocalDate date) {
+        return save(runner, 5.0, 1500, date);
+    }
+
+    private ActivityEntity save(RunnerEntity runner, double distanceKm, int durationSec, LocalDate date) {
+        ActivityEntity activity = new ActivityEntity(distanceKm, durationSec, date);
+        activity.setRunner(runner);
+        return activityRepository.save(activity);
+    }
+}
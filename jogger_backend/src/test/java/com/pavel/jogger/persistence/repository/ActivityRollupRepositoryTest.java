@@ -0,0 +1,81 @@
+package com.pavel.jogger.persistence.repository;
+
+import com.pavel.jogger.persistence.entity.ActivityEntity;
+import com.pavel.jogger.persistence.entity.RunnerEntity;
+import com.pavel.jogger.persistence.projection.BucketTotals;
+import com.pavel.jogger.web.dto.chart.ChartBucket;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+class ActivityRollupRepositoryTest {
+
+    @Autowired
+    private RunnerRepository runnerRepository;
+
+    @Autowired
+    private ActivityRepository activityRepository;
+
+    @Autowired
+    private ActivityRollupRepository rollupRepository;
+
+    @Test
+    void insertFromActivities_should_group_by_iso_week_start_and_month() {
+        RunnerEntity runner = runnerRepository.save(new RunnerEntity("weekly", "weekly@test.com", "hash"));
+
+        save(runner, LocalDate.of(2024, 12, 30));
+        save(runner, LocalDate.of(2025, 1, 5));
+        save(runner, LocalDate.of(2025, 1, 6));
+
+        rollupRepository.insertFromActivities(runner.getId(), runner.getId(), ChartBucket.WEEK);
+        rollupRepository.insertFromActivities(runner.getId(), runner.getId(), ChartBucket.MONTH);
+
+        List<BucketTotals> weeks = rollupRepository.findBuckets(
+                runner.getId(), ChartBucket.WEEK, LocalDate.of(2024, 12, 1), LocalDate.of(2025, 2, 1)
+        );
+
+        assertEquals(List.of(LocalDate.of(2024, 12, 30), LocalDate.of(2025, 1, 6)),
+                weeks.stream().map(BucketTotals::getBucketStart).toList());
+        assertEquals(2, weeks.get(0).getRuns());
+        assertEquals(10.0, weeks.get(0).getDistanceKm());
+
+        List<BucketTotals> years = rollupRepository.findBuckets(
+                runner.getId(), ChartBucket.YEAR, LocalDate.of(2024, 1, 1), LocalDate.of(2026, 1, 1)
+        );
+
+        assertEquals(List.of(LocalDate.of(2024, 1, 1), LocalDate.of(2025, 1, 1)),
+                years.stream().map(BucketTotals::getBucketStart).toList());
+        assertEquals(2, years.get(1).getRuns());
+    }
+
+    @Test
+    void addToBucket_should_create_then_accumulate_and_hide_empty_buckets() {
+        LocalDate day = LocalDate.of(2024, 3, 18);
+
+        rollupRepository.addToBucket(7L, "DAY", day, 1, 5.0, 1500, 300);
+        rollupRepository.addToBucket(7L, "DAY", day, 1, 3.0, 900, 200);
+
+        List<BucketTotals> buckets = rollupRepository.findBuckets(7L, ChartBucket.DAY, day, day.plusDays(1));
+        assertEquals(1, buckets.size());
+        assertEquals(2, buckets.get(0).getRuns());
+        assertEquals(8.0, buckets.get(0).getDistanceKm());
+        assertEquals(500, buckets.get(0).getCalories());
+
+        rollupRepository.addToBucket(7L, "DAY", day, -2, -8.0, -2400, -500);
+
+        assertEquals(List.of(), rollupRepository.findBuckets(7L, ChartBucket.DAY, day, day.plusDays(1)));
+        assertEquals(1, rollupRepository.deleteEmptyBuckets());
+    }
+
+    private void save(RunnerEntity runner, LocalDate date) {
+        ActivityEntity activity = new ActivityEntity(5.0, 1500, date);
+        activity.setRunner(runner);
+        activityRepository.save(activity);
+    }
+}
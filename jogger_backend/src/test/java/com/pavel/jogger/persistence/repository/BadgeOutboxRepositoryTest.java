@@ -0,0 +1,33 @@
+package com.pavel.jogger.persistence.repository;
+
+import com.pavel.jogger.persistence.entity.BadgeOutboxEntity;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.data.domain.Limit;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+class BadgeOutboxRepositoryTest {
+
+    @Autowired
+    private BadgeOutboxRepository outboxRepository;
+
+    @Test
+    void claimDue_shouldSkipLeasedEvents() {
+        BadgeOutboxEntity first = outboxRepository.save(new BadgeOutboxEntity(1L, 5.0, 1500, LocalDate.of(2024, 5, 1)));
+        BadgeOutboxEntity second = outboxRepository.save(new BadgeOutboxEntity(2L, 8.0, 2500, LocalDate.of(2024, 5, 1)));
+        Instant now = Instant.now().plusSeconds(1);
+
+        outboxRepository.lease(List.of(first.getId()), now.plusSeconds(60));
+
+        List<BadgeOutboxEntity> due = outboxRepository.claimDue(now, Limit.of(10));
+
+        assertEquals(List.of(second.getId()), due.stream().map(BadgeOutboxEntity::getId).toList());
+    }
+}
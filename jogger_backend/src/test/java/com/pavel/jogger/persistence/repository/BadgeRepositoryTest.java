@@ -0,0 +1,53 @@
+package com.pavel.jogger.persistence.repository;
+
+import com.pavel.jogger.persistence.entity.BadgeEntity;
+import com.pavel.jogger.persistence.entity.RunnerEntity;
+import com.pavel.jogger.persistence.projection.EarnedBadge;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+@DataJpaTest
+class BadgeRepositoryTest {
+
+    @Autowired
+    private RunnerRepository runnerRepository;
+
+    @Autowired
+    private BadgeRepository badgeRepository;
+
+    @Test
+    void insertIgnoringDuplicates_shouldSkipCodesTheRunnerAlreadyHas() {
+        RunnerEntity runner = runnerRepository.save(new RunnerEntity("badger", "badger@test.com", "hash"));
+        badgeRepository.saveAndFlush(new BadgeEntity("FIRST_5K", "First 5K", "5 km", runner));
+
+        List<BadgeEntity> inserted = badgeRepository.insertIgnoringDuplicates(runner.getId(), List.of(
+                new BadgeEntity("FIRST_5K", "First 5K", "5 km", null),
+                new BadgeEntity("FIRST_10K", "10K Finisher", "10 km", null)
+        ));
+
+        assertEquals(List.of("FIRST_10K"), inserted.stream().map(BadgeEntity::getCode).toList());
+        assertEquals(Set.of("FIRST_5K", "FIRST_10K"), badgeRepository.findCodesByRunnerId(runner.getId()));
+        assertEquals(2, badgeRepository.count());
+    }
+
+    @Test
+    void findEarnedByRunnerId_shouldReadOnlyTheRunnersBadges() {
+        RunnerEntity runner = runnerRepository.save(new RunnerEntity("earner", "earner@test.com", "hash"));
+        RunnerEntity other = runnerRepository.save(new RunnerEntity("other", "other@test.com", "hash"));
+        badgeRepository.save(new BadgeEntity("FIRST_5K", "First 5K", "5 km", runner));
+        badgeRepository.save(new BadgeEntity("FIRST_10K", "10K Finisher", "10 km", other));
+
+        List<EarnedBadge> earned = badgeRepository.findEarnedByRunnerId(runner.getId());
+
+        assertEquals(List.of("FIRST_5K"), earned.stream().map(EarnedBadge::getCode).toList());
+        assertEquals("First 5K", earned.get(0).getName());
+        assertFalse(earned.get(0).isSeen());
+    }
+}
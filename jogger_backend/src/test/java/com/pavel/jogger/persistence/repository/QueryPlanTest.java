@@ -0,0 +1,175 @@
+package com.pavel.jogger.persistence.repository;
+
+import com.pavel.jogger.persistence.entity.RunnerEntity;
+import com.pavel.jogger.web.dto.chart.ChartBucket;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Runs {@code EXPLAIN} on the SQL that Hibernate generates for the hot repository queries and fails if
+ * one of them reads a whole table instead of using an index.
+ * <p>
+ * The schema comes from the Flyway migrations, so a dropped or missing index shows up here.
+ * H2 writes the access path of every table as a comment in the plan: {@code /* public.idx: runner_id = ?1 *}{@code /}
+ * for an index lookup, {@code tableScan} or a bare index name (no condition) for a full scan.
+ * <br>
+ * MySQL plans a {@code LIKE} with the bound prefix, while H2's EXPLAIN only sees the unbound parameter and cannot
+ * turn it into an index range. The prefix is therefore inlined before explaining, and the prefix searches must
+ * use the index of the searched column (a range on the primary key would still read every runner).
+ * </p>
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.pavel.jogger.persistence.repository.QueryPlanTest$CapturedSql")
+class QueryPlanTest {
+
+    private static final Map<String, String> EXPECTED_INDEX = Map.of(
+            "RunnerRepository.findIdsByUsernamePrefix", RunnerEntity.UK_USERNAME,
+            "RunnerRepository.findIdsByEmailPrefix", RunnerEntity.UK_EMAIL
+    );
+
+    private static final Pattern ACCESS_PATH = Pattern.compile("/\\* (public\\.[^*]*?) \\*/", Pattern.DOTALL);
+
+    @Autowired
+    private ActivityRepository activityRepository;
+
+    @Autowired
+    private BadgeRepository badgeRepository;
+
+    @Autowired
+    private RunnerRepository runnerRepository;
+
+    @Autowired
+    private RunnerStatsRepository runnerStatsRepository;
+
+    @Autowired
+    private ActivityRollupRepository rollupRepository;
+
+    @Autowired
+    private BadgeOutboxRepository badgeOutboxRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void hot_queries_should_not_scan_whole_tables() {
+        LocalDate day = LocalDate.of(2024, 3, 10);
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+
+        queries.put("ActivityRepository.findPageForRunner",
+                () -> activityRepository.findPageForRunner(1L, day, day, Long.MAX_VALUE, Limit.of(51)));
+        queries.put("ActivityRepository.aggregateTotals", () -> activityRepository.aggregateTotals(1L));
+        queries.put("ActivityRepository.findLastActivityDate", () -> activityRepository.findLastActivityDate(1L));
+        queries.put("ActivityRepository.findFirstActivityDate", () -> activityRepository.findFirstActivityDate(1L));
+        queries.put("ActivityRepository.findLongestRuns", () -> activityRepository.findLongestRuns(1L, Limit.of(3)));
+        queries.put("ActivityRepository.findFastestRuns", () -> activityRepository.findFastestRuns(1L, 1.0, Limit.of(3)));
+        queries.put("ActivityRepository.findBadgeTotals", () -> activityRepository.findBadgeTotals(1L, 500L, 5.0));
+        queries.put("ActivityRepository.findOwnedForUpdate", () -> activityRepository.findOwnedForUpdate(1L, 1L));
+        queries.put("ActivityRepository.deleteChunkByRunner", () -> activityRepository.deleteChunkByRunner(1L, 1000));
+
+        queries.put("BadgeRepository.findCodesByRunnerId", () -> badgeRepository.findCodesByRunnerId(1L));
+        queries.put("BadgeRepository.findEarnedByRunnerId", () -> badgeRepository.findEarnedByRunnerId(1L));
+        queries.put("BadgeRepository.markAllSeen", () -> badgeRepository.markAllSeen(1L));
+        queries.put("BadgeRepository.countUnseen", () -> badgeRepository.countUnseen(1L));
+        queries.put("BadgeRepository.findCodesByRunnerRange", () -> badgeRepository.findCodesByRunnerRange(1L, 500L));
+        queries.put("BadgeRepository.deleteChunkByRunner", () -> badgeRepository.deleteChunkByRunner(1L, 1000));
+
+        queries.put("RunnerRepository.findByUsername", () -> runnerRepository.findByUsername("pavel"));
+        queries.put("RunnerRepository.findProfileByUsername", () -> runnerRepository.findProfileByUsername("pavel"));
+        queries.put("RunnerRepository.findActiveTokenVersion", () -> runnerRepository.findActiveTokenVersion(1L));
+        queries.put("RunnerRepository.findDisabledIds", () -> runnerRepository.findDisabledIds(Limit.of(50)));
+        queries.put("RunnerRepository.findSummaries", () -> runnerRepository.findSummaries(0L, Limit.of(51)));
+        queries.put("RunnerRepository.findSummariesWithTotals",
+                () -> runnerRepository.findSummariesWithTotals(0L, Limit.of(51)));
+        queries.put("RunnerRepository.findIdsByUsernamePrefix",
+                () -> runnerRepository.findIdsByUsernamePrefix(0L, "ali%", Limit.of(51)));
+        queries.put("RunnerRepository.findIdsByEmailPrefix",
+                () -> runnerRepository.findIdsByEmailPrefix(0L, "ali%", Limit.of(51)));
+        queries.put("RunnerRepository.findSummariesWithTotalsByIds",
+                () -> runnerRepository.findSummariesWithTotalsByIds(List.of(1L, 2L)));
+
+        queries.put("RunnerStatsRepository.findRunnerIdsActiveSince",
+                () -> runnerStatsRepository.findRunnerIdsActiveSince(day));
+        queries.put("ActivityRollupRepository.findBuckets",
+                () -> rollupRepository.findBuckets(1L, ChartBucket.WEEK, day, day.plusDays(7)));
+        queries.put("ActivityRollupRepository.findTopBuckets",
+                () -> rollupRepository.findTopBuckets(1L, ChartBucket.WEEK, Limit.of(3)));
+        queries.put("BadgeOutboxRepository.claimDue", () -> badgeOutboxRepository.claimDue(Instant.now(), Limit.of(100)));
+
+        List<String> fullScans = new ArrayList<>();
+        queries.forEach((name, query) -> {
+            String plan = explain(withLikePrefix(capture(query)));
+            Matcher accessPaths = ACCESS_PATH.matcher(plan);
+            boolean found = false;
+            while (accessPaths.find()) {
+                found = true;
+                String path = accessPaths.group(1);
+                if (path.contains("tableScan") || !path.contains(":")) {
+                    fullScans.add(name + " -> " + path.strip());
+                }
+            }
+            assertTrue(found, () -> "No access path in the plan of " + name + ":\n" + plan);
+
+            String expected = EXPECTED_INDEX.get(name);
+            if (expected != null && !plan.contains(expected)) {
+                fullScans.add(name + " -> does not use " + expected);
+            }
+        });
+
+        if (!fullScans.isEmpty()) {
+            fail("Queries reading whole tables:\n" + String.join("\n", fullScans));
+        }
+    }
+
+    private static String capture(Runnable query) {
+        CapturedSql.STATEMENTS.clear();
+        query.run();
+        if (CapturedSql.STATEMENTS.isEmpty()) {
+            fail("The query did not reach the database");
+        }
+        return CapturedSql.STATEMENTS.get(CapturedSql.STATEMENTS.size() - 1);
+    }
+
+    private static String withLikePrefix(String sql) {
+        return sql.replace("like ?", "like 'ali%'");
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.query(con -> con.prepareStatement("EXPLAIN " + sql), rs -> {
+            StringBuilder plan = new StringBuilder();
+            while (rs.next()) {
+                plan.append(rs.getString(1)).append('\n');
+            }
+            return plan.toString();
+        });
+    }
+
+    /**
+     * Records every SQL statement Hibernate sends, so the test can explain exactly what a repository method runs.
+     */
+    public static class CapturedSql implements StatementInspector {
+
+        static final List<String> STATEMENTS = new ArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
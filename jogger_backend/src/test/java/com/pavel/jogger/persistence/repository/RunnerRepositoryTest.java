@@ -0,0 +1,108 @@
+package com.pavel.jogger.persistence.repository;
+
+import com.pavel.jogger.persistence.entity.RunnerEntity;
+import com.pavel.jogger.persistence.entity.RunnerStatsEntity;
+import com.pavel.jogger.persistence.projection.RunnerSummary;
+import jakarta.persistence.EntityManager;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+class RunnerRepositoryTest {
+
+    @Autowired
+    private RunnerRepository runnerRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void bumpDataVersion_should_survive_saving_a_stale_entity() {
+        RunnerEntity runner = runnerRepository.save(new RunnerEntity("versioned", "v@test.com", "hash"));
+        assertEquals(0L, runnerRepository.findDataVersion(runner.getId()).orElseThrow());
+
+        runnerRepository.bumpDataVersion(runner.getId());
+        runnerRepository.bumpDataVersion(runner.getId());
+
+        runner.setEmail("changed@test.com");
+        runnerRepository.saveAndFlush(runner);
+        entityManager.clear();
+
+        assertEquals(2L, runnerRepository.findDataVersion(runner.getId()).orElseThrow());
+    }
+
+    @Test
+    void saveAndFlush_should_name_the_violated_unique_constraint() {
+        runnerRepository.saveAndFlush(new RunnerEntity("taken", "taken@test.com", "hash"));
+
+        DataIntegrityViolationException username = assertThrows(DataIntegrityViolationException.class,
+                () -> runnerRepository.saveAndFlush(new RunnerEntity("taken", "other@test.com", "hash")));
+        entityManager.clear();
+        DataIntegrityViolationException email = assertThrows(DataIntegrityViolationException.class,
+                () -> runnerRepository.saveAndFlush(new RunnerEntity("other", "taken@test.com", "hash")));
+
+        assertTrue(constraintName(username).contains(RunnerEntity.UK_USERNAME));
+        assertTrue(constraintName(email).contains(RunnerEntity.UK_EMAIL));
+    }
+
+    @Test
+    void findSummaries_should_page_by_id_and_match_username_or_email_prefixes() {
+        RunnerEntity alice = runnerRepository.save(new RunnerEntity("alice", "alice@test.com", "hash"));
+        RunnerEntity alina = runnerRepository.save(new RunnerEntity("alina", "a@test.com", "hash"));
+        RunnerEntity bob = runnerRepository.save(new RunnerEntity("bob", "ali_bob@test.com", "hash"));
+        runnerRepository.save(new RunnerEntity("al_x", "x@test.com", "hash"));
+        entityManager.persist(new RunnerStatsEntity(alice.getId()));
+
+        List<RunnerSummary> first = runnerRepository.findSummaries(0L, Limit.of(2));
+        List<RunnerSummary> second = runnerRepository.findSummaries(first.get(1).getId(), Limit.of(2));
+
+        assertEquals(List.of(alice.getId(), alina.getId()), first.stream().map(RunnerSummary::getId).toList());
+        assertEquals(bob.getId(), second.get(0).getId());
+
+        assertEquals(List.of(alice.getId(), alina.getId()), runnerRepository.findIdsByUsernamePrefix(0L, "ali%", Limit.of(10)));
+        assertEquals(List.of(bob.getId()), runnerRepository.findIdsByEmailPrefix(alice.getId(), "ali%", Limit.of(10)));
+        // An escaped underscore only matches itself.
+        assertEquals(List.of("al_x"), runnerRepository.findSummariesByIds(
+                runnerRepository.findIdsByUsernamePrefix(0L, "al!_%", Limit.of(10))
+        ).stream().map(RunnerSummary::getUsername).toList());
+
+        List<RunnerSummary> withTotals = runnerRepository.findSummariesWithTotals(0L, Limit.of(2));
+        assertEquals(0L, withTotals.get(0).getTotalRuns());
+        assertNull(withTotals.get(1).getTotalRuns());
+    }
+
+    @Test
+    void disable_should_revoke_tokens_and_hide_the_runner_until_it_is_deleted() {
+        RunnerEntity runner = runnerRepository.save(new RunnerEntity("leaving", "leaving@test.com", "hash"));
+        assertEquals(0, runnerRepository.findActiveTokenVersion(runner.getId()).orElseThrow());
+        assertEquals("leaving@test.com", runnerRepository.findProfileById(runner.getId()).orElseThrow().getEmail());
+
+        assertEquals(1, runnerRepository.disable(runner.getId()));
+        assertEquals(0, runnerRepository.disable(runner.getId()));
+
+        assertTrue(runnerRepository.findActiveTokenVersion(runner.getId()).isEmpty());
+        assertEquals(List.of(runner.getId()), runnerRepository.findDisabledIds(Limit.of(10)));
+        assertTrue(runnerRepository.findSummaries(0L, Limit.of(10)).isEmpty());
+        assertTrue(runnerRepository.findSummariesByIds(List.of(runner.getId())).isEmpty());
+        assertTrue(runnerRepository.findProfileByUsername("leaving").isEmpty());
+
+        assertEquals(1, runnerRepository.deleteDisabled(runner.getId()));
+        assertTrue(runnerRepository.findById(runner.getId()).isEmpty());
+    }
+
+    private static String constraintName(DataIntegrityViolationException e) {
+        return ((ConstraintViolationException) e.getCause()).getConstraintName().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,109 @@
+package com.pavel.jogger.persistence.repository;
+
+import com.pavel.jogger.persistence.entity.ActivityEntity;
+import com.pavel.jogger.persistence.entity.BadgeEntity;
+import com.pavel.jogger.persistence.entity.RunnerEntity;
+import com.pavel.jogger.persistence.entity.RunnerStatsEntity;
+import com.pavel.jogger.persistence.projection.ActivityTotals;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+class RunnerStatsRepositoryTest {
+
+    @Autowired
+    private RunnerRepository runnerRepository;
+
+    @Autowired
+    private ActivityRepository activityRepository;
+
+    @Autowired
+    private RunnerStatsRepository runnerStatsRepository;
+
+    @Autowired
+    private BadgeRepository badgeRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void aggregateTotals_and_applyDelta_should_agree() {
+        RunnerEntity runner = runnerRepository.save(new RunnerEntity("stats", "stats@test.com", "hash"));
+
+        LocalDate day = LocalDate.of(2024, 1, 15);
+        ActivityEntity run = new ActivityEntity(8.0, 2400, day);
+        run.setCalories(500);
+        run.setRunner(runner);
+        activityRepository.save(run);
+
+        ActivityTotals totals = activityRepository.aggregateTotals(runner.getId());
+        assertEquals(8.0, totals.getTotalDistanceKm());
+        assertEquals(1, totals.getTotalRuns());
+        assertEquals(2400, totals.getTotalDurationSec());
+        assertEquals(500, totals.getTotalCalories());
+        assertEquals(day, totals.getLastActivityDate());
+
+        runnerStatsRepository.save(new RunnerStatsEntity(runner.getId()));
+        runnerStatsRepository.applyDelta(runner.getId(), 8.0, 1, 2400, 500, day);
+        runnerStatsRepository.applyDelta(runner.getId(), 2.0, 0, 100, 0, null);
+        entityManager.clear();
+
+        RunnerStatsEntity stats = runnerStatsRepository.findById(runner.getId()).orElseThrow();
+        assertEquals(10.0, stats.getTotalDistanceKm());
+        assertEquals(1, stats.getTotalRuns());
+        assertEquals(2500, stats.getTotalDurationSec());
+        assertEquals(day, stats.getLastActivityDate());
+    }
+
+    @Test
+    void aggregateTotals_returns_zeros_without_activities() {
+        RunnerEntity runner = runnerRepository.save(new RunnerEntity("empty", "empty@test.com", "hash"));
+
+        ActivityTotals totals = activityRepository.aggregateTotals(runner.getId());
+
+        assertEquals(0.0, totals.getTotalDistanceKm());
+        assertEquals(0, totals.getTotalRuns());
+    }
+
+    @Test
+    void insertIfAbsent_should_keep_the_row_that_was_created_first() {
+        RunnerEntity runner = runnerRepository.save(new RunnerEntity("first", "first@test.com", "hash"));
+        LocalDate day = LocalDate.of(2024, 2, 1);
+
+        assertEquals(1, runnerStatsRepository.insertIfAbsent(runner.getId(), 3, 15.0, 4500, 900, day, 1));
+        assertEquals(0, runnerStatsRepository.insertIfAbsent(runner.getId(), 1, 5.0, 1500, 300, day, 0));
+        entityManager.clear();
+
+        RunnerStatsEntity stats = runnerStatsRepository.findById(runner.getId()).orElseThrow();
+        assertEquals(3, stats.getTotalRuns());
+        assertEquals(15.0, stats.getTotalDistanceKm());
+        assertEquals(day, stats.getLastActivityDate());
+        assertEquals(1, stats.getUnseenBadges());
+    }
+
+    @Test
+    void unseen_badge_counter_follows_the_badges_table() {
+        RunnerEntity runner = runnerRepository.save(new RunnerEntity("collector", "collector@test.com", "hash"));
+        runnerStatsRepository.saveAndFlush(new RunnerStatsEntity(runner.getId()));
+
+        badgeRepository.saveAndFlush(new BadgeEntity("FIRST_RUN", "First Steps", "1 run", runner));
+        badgeRepository.saveAndFlush(new BadgeEntity("FIRST_5K", "First 5K", "5 km", runner));
+        runnerStatsRepository.refreshUnseenBadges(List.of(runner.getId()));
+
+        assertEquals(2, runnerStatsRepository.findUnseenBadges(runner.getId()).orElseThrow());
+
+        assertEquals(2, badgeRepository.markAllSeen(runner.getId()));
+        assertEquals(0, badgeRepository.markAllSeen(runner.getId()));
+        runnerStatsRepository.resetUnseenBadges(runner.getId());
+
+        assertEquals(0, runnerStatsRepository.findUnseenBadges(runner.getId()).orElseThrow());
+        assertEquals(0, badgeRepository.countUnseen(runner.getId()));
+    }
+}
@@ -0,0 +1,95 @@
+package com.pavel.jogger.security;
+
+import com.pavel.jogger.persistence.entity.RunnerEntity;
+import com.pavel.jogger.persistence.repository.RunnerRepository;
+import com.pavel.jogger.service.RunnerCacheEvictor;
+import com.pavel.jogger.web.exception.ServiceUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+class BoundedPasswordEncoderTest {
+
+    private final ThreadPoolExecutor executor =
+            new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<>(10));
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void encode_should_fail_fast_with_503_when_the_pool_is_full() throws InterruptedException {
+        CountDownLatch hashing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder slow = mock(PasswordEncoder.class);
+        when(slow.encode("first")).thenAnswer(invocation -> {
+            hashing.countDown();
+            release.await();
+            return "hash";
+        });
+        // One thread and no queue: a second concurrent hash is rejected.
+        ThreadPoolExecutor full = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new SynchronousQueue<>());
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(slow, full);
+
+        Thread first = new Thread(() -> encoder.encode("first"));
+        first.start();
+        assertTrue(hashing.await(5, TimeUnit.SECONDS));
+
+        assertThrows(ServiceUnavailableException.class, () -> encoder.encode("second"));
+
+        release.countDown();
+        first.join();
+        full.shutdown();
+        verify(slow, never()).encode("second");
+    }
+
+    @Test
+    void upgradeEncoding_should_detect_hashes_made_with_another_cost() {
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(5), executor);
+
+        assertTrue(encoder.matches("secret", new BCryptPasswordEncoder(4).encode("secret")));
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret")));
+        assertFalse(encoder.upgradeEncoding(encoder.encode("secret")));
+    }
+
+    @Test
+    void upgradeEncoding_should_detect_hashes_made_with_a_higher_cost() {
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new ExactCostBCryptPasswordEncoder(4), executor);
+
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(5).encode("secret")));
+        assertFalse(encoder.upgradeEncoding(encoder.encode("secret")));
+    }
+
+    @Test
+    void login_should_rehash_a_password_stored_with_an_outdated_cost() {
+        RunnerRepository runnerRepository = mock(RunnerRepository.class);
+        RunnerEntity runner = new RunnerEntity("user", "user@test.com", new BCryptPasswordEncoder(4).encode("secret"));
+        runner.setRole("USER");
+        when(runnerRepository.findByUsername("user")).thenReturn(Optional.of(runner));
+
+        UserDetailsServiceImpl users = new UserDetailsServiceImpl(runnerRepository, mock(RunnerCacheEvictor.class));
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(users);
+        provider.setPasswordEncoder(new BoundedPasswordEncoder(new BCryptPasswordEncoder(5), executor));
+        provider.setUserDetailsPasswordService(users);
+
+        provider.authenticate(new UsernamePasswordAuthenticationToken("user", "secret"));
+
+        verify(runnerRepository).updatePasswordHash(eq("user"), startsWith("$2a$05$"));
+    }
+}
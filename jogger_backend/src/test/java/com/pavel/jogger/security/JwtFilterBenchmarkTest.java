@@ -0,0 +1,81 @@
+package com.pavel.jogger.security;
+
+import com.pavel.jogger.persistence.entity.RunnerEntity;
+import com.pavel.jogger.persistence.repository.RunnerRepository;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures the overhead of {@link JwtAuthenticationFilter} per request, with and without the verified-token cache.
+ * <p>
+ * Run with {@code mvn test -Pbenchmark}.
+ * </p>
+ */
+@Tag("benchmark")
+class JwtFilterBenchmarkTest {
+
+    private static final int WARM_UP = 20_000;
+    private static final int REQUESTS = 200_000;
+
+    private final JwtService jwtService = new JwtService("THIS_IS_A_VERY_LONG_SECRET_KEY_1234567890_ABCDEF");
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void cached_tokens_should_be_cheaper_than_verifying_every_request() throws Exception {
+        RunnerEntity runner = new RunnerEntity("user", "user@test.com", "hash");
+        runner.setRole("USER");
+        ReflectionTestUtils.setField(runner, "id", 42L);
+        String token = jwtService.generateToken(runner);
+        RunnerRepository runnerRepository = mock(RunnerRepository.class);
+        when(runnerRepository.findActiveTokenVersion(42L)).thenReturn(Optional.of(0));
+
+        // Capacity 0 keeps nothing, so every request verifies the token like before the cache.
+        JwtAuthenticationFilter uncached = new JwtAuthenticationFilter(
+                new VerifiedTokenCache(jwtService, runnerRepository, 0, Duration.ofMinutes(1), mock(ObjectProvider.class)));
+        JwtAuthenticationFilter cached = new JwtAuthenticationFilter(
+                new VerifiedTokenCache(jwtService, runnerRepository, 1000, Duration.ofMinutes(1), mock(ObjectProvider.class)));
+
+        run(uncached, token, WARM_UP);
+        run(cached, token, WARM_UP);
+        double uncachedNanos = run(uncached, token, REQUESTS);
+        double cachedNanos = run(cached, token, REQUESTS);
+
+        System.out.printf("filter overhead: verify every request %.0f ns, cached %.0f ns%n", uncachedNanos, cachedNanos);
+        assertTrue(cachedNanos < uncachedNanos);
+    }
+
+    /**
+     * @return Nanoseconds per request.
+     */
+    private static double run(JwtAuthenticationFilter filter, String token, int requests) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/runners/42");
+        request.addHeader("Authorization", "Bearer " + token);
+        FilterChain chain = (req, res) -> { };
+
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            filter.doFilter(request, new MockHttpServletResponse(), chain);
+            request.removeAttribute(filter.getClass().getName() + ".FILTERED");
+        }
+        return (System.nanoTime() - start) / (double) requests;
+    }
+}
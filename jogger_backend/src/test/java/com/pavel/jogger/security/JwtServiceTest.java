@@ -0,0 +1,41 @@
+package com.pavel.jogger.security;
+
+import com.pavel.jogger.persistence.entity.RunnerEntity;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JwtServiceTest {
+
+    private final JwtService jwtService = new JwtService("THIS_IS_A_VERY_LONG_SECRET_KEY_1234567890_ABCDEF");
+
+    @Test
+    void toPrincipal_should_read_the_runner_from_the_token_claims() {
+        RunnerEntity runner = new RunnerEntity("user", "user@test.com", "hash");
+        runner.setRole("USER");
+        ReflectionTestUtils.setField(runner, "id", 42L);
+        ReflectionTestUtils.setField(runner, "tokenVersion", 3);
+
+        RunnerPrincipal principal = jwtService.toPrincipal(jwtService.decode(jwtService.generateToken(runner)));
+
+        assertEquals(42L, principal.getId());
+        assertEquals("user", principal.getName());
+        assertEquals("USER", principal.getRole());
+        assertEquals(3, principal.getTokenVersion());
+    }
+
+    @Test
+    void toPrincipal_should_reject_a_token_issued_before_the_runner_id_claim() {
+        Jwt legacy = Jwt.withTokenValue("token")
+                .header("alg", "HS256")
+                .subject("user")
+                .claim("role", "USER")
+                .build();
+
+        assertThrows(JwtException.class, () -> jwtService.toPrincipal(legacy));
+    }
+}
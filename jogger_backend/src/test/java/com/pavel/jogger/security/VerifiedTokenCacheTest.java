@@ -0,0 +1,99 @@
+package com.pavel.jogger.security;
+
+import com.pavel.jogger.persistence.entity.RunnerEntity;
+import com.pavel.jogger.persistence.repository.RunnerRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class VerifiedTokenCacheTest {
+
+    private final JwtService jwtService = spy(new JwtService("THIS_IS_A_VERY_LONG_SECRET_KEY_1234567890_ABCDEF"));
+    private final RunnerRepository runnerRepository = mock(RunnerRepository.class);
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final VerifiedTokenCache cache =
+            new VerifiedTokenCache(jwtService, runnerRepository, 100, Duration.ofMinutes(1), registry());
+
+    @Test
+    void verify_should_check_the_signature_once_per_token() {
+        when(runnerRepository.findActiveTokenVersion(42L)).thenReturn(Optional.of(0));
+        String token = jwtService.generateToken(runner(42L));
+
+        assertEquals(42L, cache.verify(token).getId());
+        assertEquals(42L, cache.verify(token).getId());
+
+        verify(jwtService, times(1)).decode(token);
+        verify(runnerRepository, times(1)).findActiveTokenVersion(42L);
+        assertEquals(1, cache.size());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "jwt").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void verify_should_not_cache_invalid_tokens() {
+        String tampered = jwtService.generateToken(runner(42L)) + "x";
+
+        assertThrows(JwtException.class, () -> cache.verify(tampered));
+        assertThrows(JwtException.class, () -> cache.verify(tampered));
+
+        verify(jwtService, times(2)).decode(tampered);
+        verify(jwtService, never()).toPrincipal(any());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void verify_should_reject_tokens_of_disabled_accounts_once_evicted() {
+        when(runnerRepository.findActiveTokenVersion(42L)).thenReturn(Optional.of(0));
+        String token = jwtService.generateToken(runner(42L));
+        cache.verify(token);
+
+        // The account was disabled: its token version moved on (or the row is gone).
+        when(runnerRepository.findActiveTokenVersion(42L)).thenReturn(Optional.empty());
+        cache.evictRunner(42L);
+
+        assertThrows(JwtException.class, () -> cache.verify(token));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void verify_should_recheck_the_account_once_the_revalidation_interval_has_passed() {
+        VerifiedTokenCache revalidating = new VerifiedTokenCache(jwtService, runnerRepository, 100, Duration.ZERO, registry());
+        when(runnerRepository.findActiveTokenVersion(42L)).thenReturn(Optional.of(0));
+        String token = jwtService.generateToken(runner(42L));
+        revalidating.verify(token);
+
+        // Disabled through another instance: nothing was evicted here.
+        when(runnerRepository.findActiveTokenVersion(42L)).thenReturn(Optional.empty());
+
+        assertThrows(JwtException.class, () -> revalidating.verify(token));
+    }
+
+    @SuppressWarnings("unchecked")
+    private ObjectProvider<MeterRegistry> registry() {
+        ObjectProvider<MeterRegistry> provider = mock(ObjectProvider.class);
+        doAnswer(invocation -> {
+            invocation.<Consumer<MeterRegistry>>getArgument(0).accept(meterRegistry);
+            return null;
+        }).when(provider).ifAvailable(any());
+        return provider;
+    }
+
+    private static RunnerEntity runner(Long id) {
+        RunnerEntity runner = new RunnerEntity("user", "user@test.com", "hash");
+        runner.setRole("USER");
+        ReflectionTestUtils.setField(runner, "id", id);
+        return runner;
+    }
+}
@@ -0,0 +1,44 @@
+package com.pavel.jogger.service;
+
+import com.pavel.jogger.security.RunnerPrincipal;
+import com.pavel.jogger.web.exception.ForbiddenException;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AccessServiceTest {
+
+    private final AccessService accessService = new AccessService();
+
+    @Test
+    void checkRunnerAccess_should_compare_the_id_from_the_token() {
+        Authentication user = authentication(7L, "USER");
+
+        assertDoesNotThrow(() -> accessService.checkRunnerAccess(user, 7L));
+        assertThrows(ForbiddenException.class, () -> accessService.checkRunnerAccess(user, 8L));
+    }
+
+    @Test
+    void checkRunnerAccess_should_let_admins_access_any_runner() {
+        assertDoesNotThrow(() -> accessService.checkRunnerAccess(authentication(1L, "ADMIN"), 8L));
+    }
+
+    @Test
+    void checkRunnerAccess_should_reject_anonymous_requests() {
+        assertThrows(ForbiddenException.class, () -> accessService.checkRunnerAccess(null, 8L));
+    }
+
+    private static Authentication authentication(Long runnerId, String role) {
+        return new UsernamePasswordAuthenticationToken(
+                new RunnerPrincipal(runnerId, "user" + runnerId, role, 0),
+                null,
+                List.of(new SimpleGrantedAuthority("ROLE_" + role))
+        );
+    }
+}
@@ -0,0 +1,124 @@
+package com.pavel.jogger.service;
+
+import com.pavel.jogger.persistence.entity.ActivityEntity;
+import com.pavel.jogger.persistence.entity.RunnerEntity;
+import com.pavel.jogger.persistence.projection.BucketTotals;
+import com.pavel.jogger.persistence.repository.ActivityRepository;
+import com.pavel.jogger.persistence.repository.RunnerRepository;
+import com.pavel.jogger.web.dto.chart.ChartBucket;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ActivityImportServiceTest {
+
+    private final ActivityRepository activityRepo = mock(ActivityRepository.class);
+    private final RunnerRepository runnerRepo = mock(RunnerRepository.class);
+    private final RunnerStatsService statsService = mock(RunnerStatsService.class);
+    private final ActivityRollupService rollupService = mock(ActivityRollupService.class);
+    private final BadgeOutboxService badgeOutboxService = mock(BadgeOutboxService.class);
+    private final DataVersionService dataVersionService = mock(DataVersionService.class);
+
+    private final ActivityImportService service = new ActivityImportService(
+            activityRepo, runnerRepo, statsService, rollupService, badgeOutboxService,
+            dataVersionService, mock(RunnerEventPublisher.class),
+            Validation.buildDefaultValidatorFactory().getValidator(),
+            JsonMapper.builder().build(),
+            2,
+            100
+    );
+
+    @Test
+    void importActivities_batches_rows_and_updates_aggregates_once() {
+        RunnerEntity runner = new RunnerEntity("user", "u@test.com", "hash");
+        when(runnerRepo.findById(1L)).thenReturn(Optional.of(runner));
+
+        List<Integer> batchSizes = new ArrayList<>();
+        when(activityRepo.insertAll(eq(1L), anyList())).thenAnswer(i -> {
+            int size = i.getArgument(1, List.class).size();
+            batchSizes.add(size);
+            return size;
+        });
+
+        String json = """
+            [
+              {"distanceKm": 5.0, "durationSec": 1500, "date": "2023-01-01", "calories": 300},
+              {"distanceKm": -1, "durationSec": 1500, "date": "2023-01-02"},
+              {"distanceKm": 21.1, "durationSec": 7000, "date": "2023-01-08", "calories": 1500},
+              {"distanceKm": 3.0, "durationSec": 900, "date": "2022-12-30", "calories": 200}
+            ]
+        """;
+
+        ActivityImportResult result = service.importActivities(1L, stream(json));
+
+        assertEquals(3, result.getImported());
+        assertEquals(1, result.getRejected());
+        assertEquals(List.of("Row 2: Distance must be positive"), result.getErrors());
+        assertEquals(List.of(2, 1), batchSizes);
+
+        verify(statsService).recordImported(1L, 3, 29.1, 9400, 2000, LocalDate.of(2023, 1, 8));
+        verify(rollupService).rebuildRunner(1L);
+        verify(dataVersionService, times(1)).bump(1L);
+        verify(badgeOutboxService, times(1)).enqueue(eq(1L),
+                argThat((ActivityEntity a) -> a.getDistanceKm() == 21.1));
+    }
+
+    @Test
+    void importActivities_queues_the_fastest_qualifying_run_and_a_streak_run_besides_the_longest() {
+        when(runnerRepo.findById(1L)).thenReturn(Optional.of(new RunnerEntity("user", "u@test.com", "hash")));
+        when(activityRepo.insertAll(eq(1L), anyList())).thenAnswer(i -> i.getArgument(1, List.class).size());
+        // The runner already ran on June 2-5, so the imported June 1 and 6 complete a 6-day streak.
+        when(rollupService.getBuckets(eq(1L), eq(ChartBucket.DAY), any(), any())).thenReturn(List.of(
+                day(LocalDate.of(2023, 6, 2)), day(LocalDate.of(2023, 6, 3)),
+                day(LocalDate.of(2023, 6, 4)), day(LocalDate.of(2023, 6, 5))));
+
+        String json = """
+            [
+              {"distanceKm": 21.1, "durationSec": 7600, "date": "2023-01-08", "calories": 1500},
+              {"distanceKm": 5.2, "durationSec": 1500, "date": "2023-03-01", "calories": 350},
+              {"distanceKm": 3.0, "durationSec": 700, "date": "2023-03-02", "calories": 200},
+              {"distanceKm": 4.0, "durationSec": 1400, "date": "2023-06-01", "calories": 250},
+              {"distanceKm": 4.0, "durationSec": 1400, "date": "2023-06-06", "calories": 250}
+            ]
+        """;
+
+        service.importActivities(1L, stream(json));
+
+        // Longest run, fastest run of at least 5 km (the 3 km run is faster but too short), first day of the streak.
+        ArgumentCaptor<ActivityEntity> queued = ArgumentCaptor.forClass(ActivityEntity.class);
+        verify(badgeOutboxService, times(3)).enqueue(eq(1L), queued.capture());
+        assertEquals(List.of(21.1, 5.2, 4.0), queued.getAllValues().stream().map(ActivityEntity::getDistanceKm).toList());
+        assertEquals(LocalDate.of(2023, 6, 1), queued.getAllValues().get(2).getDate());
+    }
+
+    @Test
+    void importActivities_rejects_malformed_json() {
+        when(runnerRepo.findById(1L)).thenReturn(Optional.of(new RunnerEntity("user", "u@test.com", "hash")));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> service.importActivities(1L, stream("[{\"distanceKm\": 5.0, ")));
+        verify(statsService, never()).recordImported(any(), anyLong(), anyDouble(), anyLong(), anyLong(), any());
+    }
+
+    private static BucketTotals day(LocalDate date) {
+        return new BucketTotals(date, 1, 5.0, 1500, 300);
+    }
+
+    private static ByteArrayInputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,38 @@
+package com.pavel.jogger.service;
+
+import com.pavel.jogger.persistence.entity.ActivityEntity;
+import com.pavel.jogger.persistence.repository.ActivityRollupRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class ActivityRollupServiceTest {
+
+    private final ActivityRollupRepository rollupRepository = mock(ActivityRollupRepository.class);
+    private final ActivityRollupService service = new ActivityRollupService(rollupRepository);
+
+    @Test
+    void recordAdded_should_update_day_week_and_month() {
+        ActivityEntity run = new ActivityEntity(5.0, 1500, LocalDate.of(2024, 3, 21));
+        run.setCalories(300);
+
+        service.recordAdded(1L, run);
+
+        verify(rollupRepository).addToBucket(1L, "DAY", LocalDate.of(2024, 3, 21), 1, 5.0, 1500, 300);
+        verify(rollupRepository).addToBucket(1L, "WEEK", LocalDate.of(2024, 3, 18), 1, 5.0, 1500, 300);
+        verify(rollupRepository).addToBucket(1L, "MONTH", LocalDate.of(2024, 3, 1), 1, 5.0, 1500, 300);
+    }
+
+    @Test
+    void recordUpdated_should_apply_only_the_difference() {
+        ActivityEntity run = new ActivityEntity(7.0, 2000, LocalDate.of(2024, 3, 21));
+        run.setCalories(450);
+
+        service.recordUpdated(1L, 5.0, 1500, 300, run);
+
+        verify(rollupRepository).addToBucket(1L, "DAY", LocalDate.of(2024, 3, 21), 0, 2.0, 500, 150);
+    }
+}
@@ -4,12 +4,19 @@ import com.pavel.jogger.persistence.entity.ActivityEntity;
 import com.pavel.jogger.persistence.entity.RunnerEntity;
 import com.pavel.jogger.persistence.repository.ActivityRepository;
 import com.pavel.jogger.persistence.repository.RunnerRepository;
+import com.pavel.jogger.web.dto.activity.ActivityResponse;
+import com.pavel.jogger.web.exception.ForbiddenException;
+import com.pavel.jogger.web.exception.NotFoundException;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class ActivityServiceTest {
@@ -18,9 +25,17 @@ class ActivityServiceTest {
     void addActivity_saves_activity() {
         ActivityRepository activityRepo = mock(ActivityRepository.class);
         RunnerRepository runnerRepo = mock(RunnerRepository.class);
-        BadgeService badgeService = mock(BadgeService.class);
+        BadgeOutboxService badgeOutboxService = mock(BadgeOutboxService.class);
 
-        ActivityService service = new ActivityService(activityRepo, runnerRepo, badgeService);
+        RunnerStatsService statsService = mock(RunnerStatsService.class);
+        ActivityRollupService rollupService = mock(ActivityRollupService.class);
+        DataVersionService dataVersionService = mock(DataVersionService.class);
+        RunnerEventPublisher eventPublisher = mock(RunnerEventPublisher.class);
+
+        ActivityService service = new ActivityService(
+                activityRepo, runnerRepo, badgeOutboxService, statsService, rollupService, dataVersionService,
+                eventPublisher
+        );
 
         RunnerEntity runner = new RunnerEntity("user", "u@test.com", "hash");
         when(runnerRepo.findById(1L)).thenReturn(Optional.of(runner));
@@ -37,6 +52,94 @@ class ActivityServiceTest {
         );
 
         verify(activityRepo).save(any(ActivityEntity.class));
-        verify(badgeService).evaluateBadgesAsync(any(), any());
+        verify(statsService).recordAdded(eq(1L), any(ActivityEntity.class));
+        verify(rollupService).recordAdded(eq(1L), any(ActivityEntity.class));
+        verify(dataVersionService).bump(1L);
+        verify(eventPublisher).activityAdded(eq(1L), any(ActivityEntity.class));
+        verify(eventPublisher).statsChanged(1L);
+        verify(badgeOutboxService).enqueue(eq(1L), any(ActivityEntity.class));
+    }
+
+    @Test
+    void getActivitiesPage_returns_cursor_when_more_rows_exist() {
+        ActivityRepository activityRepo = mock(ActivityRepository.class);
+        ActivityService service = new ActivityService(
+                activityRepo, mock(RunnerRepository.class), mock(BadgeOutboxService.class), mock(RunnerStatsService.class),
+                mock(ActivityRollupService.class),
+                mock(DataVersionService.class),
+                mock(RunnerEventPublisher.class)
+        );
+
+        LocalDate date = LocalDate.of(2024, 5, 1);
+        when(activityRepo.findPageForRunner(eq(1L), any(), any(), any(), eq(Limit.of(3))))
+                .thenReturn(List.of(
+                        new ActivityResponse(3L, 5.0, 1500, 350, date, null, 5.0),
+                        new ActivityResponse(2L, 6.0, 1600, 420, date, null, 4.44),
+                        new ActivityResponse(1L, 7.0, 1700, 490, date, null, 4.05)
+                ));
+
+        ActivityPage page = service.getActivitiesPage(1L, null, null, null, 2);
+
+        assertEquals(2, page.getItems().size());
+        assertTrue(page.hasMore());
+        assertNotNull(page.getNextCursor());
+    }
+
+    @Test
+    void getActivitiesPage_continues_after_cursor() {
+        ActivityRepository activityRepo = mock(ActivityRepository.class);
+        ActivityService service = new ActivityService(
+                activityRepo, mock(RunnerRepository.class), mock(BadgeOutboxService.class), mock(RunnerStatsService.class),
+                mock(ActivityRollupService.class),
+                mock(DataVersionService.class),
+                mock(RunnerEventPublisher.class)
+        );
+
+        LocalDate date = LocalDate.of(2024, 5, 1);
+        String cursor = new ActivityCursor(date, 42L).encode();
+        when(activityRepo.findPageForRunner(any(), any(), any(), any(), any())).thenReturn(List.of());
+
+        ActivityPage page = service.getActivitiesPage(1L, null, null, cursor, 500);
+
+        verify(activityRepo).findPageForRunner(
+                1L, LocalDate.of(1000, 1, 1), date, 42L, Limit.of(ActivityService.MAX_PAGE_SIZE + 1)
+        );
+        assertFalse(page.hasMore());
+    }
+
+    @Test
+    void getActivitiesPage_rejects_malformed_cursor() {
+        ActivityService service = new ActivityService(
+                mock(ActivityRepository.class), mock(RunnerRepository.class),
+                mock(BadgeOutboxService.class), mock(RunnerStatsService.class),
+                mock(ActivityRollupService.class),
+                mock(DataVersionService.class),
+                mock(RunnerEventPublisher.class)
+        );
+
+        assertThrows(IllegalArgumentException.class,
+                () -> service.getActivitiesPage(1L, null, null, "not-a-cursor", null));
+    }
+
+    @Test
+    void deleteActivity_tells_missing_from_foreign_activities_only_when_nothing_matches() {
+        ActivityRepository activityRepo = mock(ActivityRepository.class);
+        RunnerStatsService statsService = mock(RunnerStatsService.class);
+        ActivityService service = new ActivityService(
+                activityRepo, mock(RunnerRepository.class),
+                mock(BadgeOutboxService.class), statsService,
+                mock(ActivityRollupService.class),
+                mock(DataVersionService.class),
+                mock(RunnerEventPublisher.class)
+        );
+
+        when(activityRepo.findOwnedForUpdate(any(), any())).thenReturn(Optional.empty());
+        when(activityRepo.existsById(7L)).thenReturn(true);
+        when(activityRepo.existsById(8L)).thenReturn(false);
+
+        assertThrows(ForbiddenException.class, () -> service.deleteActivity(7L, 1L));
+        assertThrows(NotFoundException.class, () -> service.deleteActivity(8L, 1L));
+        verify(activityRepo, never()).delete(any());
+        verifyNoInteractions(statsService);
     }
-}
\ No newline at end of file
+}
@@ -4,11 +4,17 @@ import com.pavel.jogger.persistence.entity.RunnerEntity;
 import com.pavel.jogger.persistence.repository.RunnerRepository;
 import com.pavel.jogger.security.JwtService;
 import com.pavel.jogger.web.dto.auth.RegisterRequest;
+import com.pavel.jogger.web.exception.ConflictException;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.sql.SQLException;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
 class AuthServiceTest {
@@ -17,12 +23,14 @@ class AuthServiceTest {
     private final PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
     private final AuthenticationManager authenticationManager = mock(AuthenticationManager.class);
     private final JwtService jwtService = mock(JwtService.class);
+    private final UsernameAvailabilityService usernameAvailabilityService = mock(UsernameAvailabilityService.class);
 
     private final AuthService authService = new AuthService(
             runnerRepository,
             passwordEncoder,
             authenticationManager,
-            jwtService
+            jwtService,
+            usernameAvailabilityService
     );
 
     @Test
@@ -32,14 +40,62 @@ class AuthServiceTest {
         req.email = "user@test.com";
         req.password = "pass";
 
-        when(runnerRepository.existsByUsername("user")).thenReturn(false);
-        when(runnerRepository.existsByEmail("user@test.com")).thenReturn(false);
         when(passwordEncoder.encode("pass")).thenReturn("hashed");
-        when(jwtService.generateToken(any(), any())).thenReturn("TOKEN");
+        when(jwtService.generateToken(any())).thenReturn("TOKEN");
 
         String token = authService.register(req);
 
         assertEquals("TOKEN", token);
-        verify(runnerRepository).save(any(RunnerEntity.class));
+        verify(runnerRepository).saveAndFlush(any(RunnerEntity.class));
+        verify(usernameAvailabilityService).added("user");
+    }
+
+    @Test
+    void register_shouldSaveTheUsernameInTheFormTheAvailabilityCheckUses() {
+        RegisterRequest req = new RegisterRequest();
+        req.username = "  user ";
+        req.email = "user@test.com";
+        req.password = "pass";
+
+        authService.register(req);
+
+        verify(runnerRepository).saveAndFlush(argThat(runner -> runner.getUsername().equals("user")));
+        verify(usernameAvailabilityService).added("user");
+    }
+
+    @Test
+    void register_shouldTranslateTheViolatedUniqueConstraintIntoConflict() {
+        RegisterRequest req = new RegisterRequest();
+        req.username = "user";
+        req.email = "user@test.com";
+        req.password = "pass";
+
+        when(runnerRepository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("duplicate",
+                new ConstraintViolationException("duplicate", new SQLException(), RunnerEntity.UK_EMAIL)));
+
+        ConflictException ex = assertThrows(ConflictException.class, () -> authService.register(req));
+
+        assertEquals("Email already exists", ex.getMessage());
+        verify(runnerRepository, never()).existsByUsername(any());
+        verify(runnerRepository, never()).existsByEmail(any());
+        verifyNoInteractions(usernameAvailabilityService, jwtService);
+    }
+
+    @Test
+    void register_shouldLookUpTheTakenValueWhenTheConstraintNameIsUnknown() {
+        RegisterRequest req = new RegisterRequest();
+        req.username = "user";
+        req.email = "user@test.com";
+        req.password = "pass";
+
+        // A key name generated by Hibernate, as on a database whose keys were never renamed.
+        when(runnerRepository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("duplicate",
+                new ConstraintViolationException("duplicate", new SQLException(), "runners.UK71tg5v9di7vwh1e642kiin8nr")));
+        when(runnerRepository.existsByUsername("user")).thenReturn(true);
+
+        ConflictException ex = assertThrows(ConflictException.class, () -> authService.register(req));
+
+        assertEquals("Username already exists", ex.getMessage());
+        verifyNoInteractions(usernameAvailabilityService, jwtService);
     }
-}
\ No newline at end of file
+}
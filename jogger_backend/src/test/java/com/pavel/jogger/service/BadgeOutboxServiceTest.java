@@ -0,0 +1,72 @@
+package com.pavel.jogger.service;
+
+import com.pavel.jogger.persistence.entity.BadgeOutboxEntity;
+import com.pavel.jogger.persistence.repository.BadgeOutboxRepository;
+import com.pavel.jogger.persistence.repository.RunnerRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNotNull;
+import static org.mockito.Mockito.*;
+
+class BadgeOutboxServiceTest {
+
+    private final BadgeOutboxRepository outboxRepository = mock(BadgeOutboxRepository.class);
+    private final RunnerRepository runnerRepository = mock(RunnerRepository.class);
+    private final BadgeService badgeService = mock(BadgeService.class);
+
+    private final BadgeOutboxService service = new BadgeOutboxService(
+            outboxRepository, runnerRepository, badgeService, mock(PlatformTransactionManager.class),
+            10, Duration.ofSeconds(60), 3
+    );
+
+    @Test
+    void drainBatch_evaluates_each_runner_once_and_deletes_its_events() {
+        when(outboxRepository.claimDue(any(), any())).thenReturn(List.of(
+                event(1L, 1L), event(2L, 2L), event(3L, 1L)
+        ));
+        when(runnerRepository.existsById(any())).thenReturn(true);
+
+        assertEquals(3, service.drainBatch());
+
+        verify(outboxRepository).lease(eq(List.of(1L, 2L, 3L)), any());
+        verify(badgeService).evaluate(eq(1L), argThat(runs -> runs.size() == 2));
+        verify(badgeService).evaluate(eq(2L), argThat(runs -> runs.size() == 1));
+        verify(outboxRepository).deleteByIds(List.of(1L, 3L));
+        verify(outboxRepository).deleteByIds(List.of(2L));
+    }
+
+    @Test
+    void drainBatch_schedules_a_retry_when_evaluation_fails() {
+        when(outboxRepository.claimDue(any(), any())).thenReturn(List.of(event(1L, 1L)));
+        when(runnerRepository.existsById(1L)).thenReturn(true);
+        doThrow(new IllegalStateException("db down")).when(badgeService).evaluate(eq(1L), anyList());
+
+        service.drainBatch();
+
+        verify(outboxRepository, never()).deleteByIds(any());
+        verify(outboxRepository).markFailed(eq(List.of(1L)), isNotNull(), eq("db down"));
+    }
+
+    @Test
+    void retryDelay_grows_exponentially_up_to_one_hour() {
+        assertEquals(Duration.ofSeconds(5), BadgeOutboxService.retryDelay(1));
+        assertEquals(Duration.ofSeconds(20), BadgeOutboxService.retryDelay(3));
+        assertEquals(Duration.ofHours(1), BadgeOutboxService.retryDelay(30));
+    }
+
+    private static BadgeOutboxEntity event(Long id, Long runnerId) {
+        BadgeOutboxEntity event = new BadgeOutboxEntity(runnerId, 5.0, 1500, LocalDate.of(2024, 5, 1));
+        ReflectionTestUtils.setField(event, "id", id);
+        return event;
+    }
+}
@@ -0,0 +1,139 @@
+package com.pavel.jogger.service;
+
+import com.pavel.jogger.persistence.entity.BadgeEntity;
+import com.pavel.jogger.persistence.entity.BadgeRecomputeJobEntity;
+import com.pavel.jogger.persistence.entity.BadgeRecomputeJobEntity.Status;
+import com.pavel.jogger.persistence.projection.RunnerBadgeCode;
+import com.pavel.jogger.persistence.projection.RunnerBadgeTotals;
+import com.pavel.jogger.persistence.projection.RunnerDay;
+import com.pavel.jogger.persistence.repository.ActivityRepository;
+import com.pavel.jogger.persistence.repository.ActivityRollupRepository;
+import com.pavel.jogger.persistence.repository.BadgeRecomputeJobRepository;
+import com.pavel.jogger.persistence.repository.BadgeRepository;
+import com.pavel.jogger.persistence.repository.RunnerRepository;
+import com.pavel.jogger.persistence.repository.RunnerStatsRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class BadgeRecomputeServiceTest {
+
+    private final BadgeRecomputeJobRepository jobRepository = mock(BadgeRecomputeJobRepository.class);
+    private final RunnerRepository runnerRepository = mock(RunnerRepository.class);
+    private final ActivityRepository activityRepository = mock(ActivityRepository.class);
+    private final ActivityRollupRepository rollupRepository = mock(ActivityRollupRepository.class);
+    private final BadgeRepository badgeRepository = mock(BadgeRepository.class);
+
+    private final BadgeRecomputeService service = new BadgeRecomputeService(
+            jobRepository,
+            runnerRepository,
+            activityRepository,
+            rollupRepository,
+            badgeRepository,
+            mock(RunnerStatsRepository.class),
+            mock(RunnerCacheEvictor.class),
+            mock(RunnerEventPublisher.class),
+            mock(PlatformTransactionManager.class),
+            Runnable::run,
+            2,
+            2,
+            false
+    );
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void startRecompute_should_award_missing_badges_chunk_by_chunk() {
+        BadgeRecomputeJobEntity job = new BadgeRecomputeJobEntity(3);
+        ReflectionTestUtils.setField(job, "id", 7L);
+        when(jobRepository.findFirstByOrderByIdDesc()).thenReturn(Optional.empty());
+        when(jobRepository.save(any())).thenReturn(job);
+
+        when(runnerRepository.findIdsAfter(0L, Limit.of(2))).thenReturn(List.of(1L, 4L));
+        when(runnerRepository.findIdsAfter(4L, Limit.of(2))).thenReturn(List.of(9L));
+        when(runnerRepository.findIdsAfter(9L, Limit.of(2))).thenReturn(List.of());
+
+        // Runner 1 already has FIRST_RUN and FIRST_5K, runner 4 has no badge yet, runner 9 never ran.
+        when(activityRepository.findBadgeTotals(eq(1L), eq(4L), anyDouble())).thenReturn(List.of(
+                new RunnerBadgeTotals(1L, 3, 18.0, 10.0, 290.0),
+                new RunnerBadgeTotals(4L, 1, 3.0, 3.0, null)
+        ));
+        when(activityRepository.findBadgeTotals(eq(9L), eq(9L), anyDouble())).thenReturn(List.of());
+        when(badgeRepository.findCodesByRunnerRange(1L, 4L)).thenReturn(List.of(
+                new RunnerBadgeCode(1L, "FIRST_RUN"),
+                new RunnerBadgeCode(1L, "FIRST_5K")
+        ));
+
+        assertTrue(service.startRecompute());
+
+        ArgumentCaptor<Map<Long, List<BadgeEntity>>> inserted = ArgumentCaptor.forClass(Map.class);
+        verify(badgeRepository).insertIgnoringDuplicates(inserted.capture());
+        assertEquals(Set.of("FIRST_10K", "PACE_5K_SUB_5"), codes(inserted.getValue().get(1L)));
+        assertEquals(Set.of("FIRST_RUN"), codes(inserted.getValue().get(4L)));
+        verify(runnerRepository).bumpDataVersions(Set.of(1L, 4L));
+
+        verify(jobRepository).recordChunk(7L, 4L, 2, 3);
+        verify(jobRepository).recordChunk(7L, 9L, 1, 0);
+        verify(jobRepository).updateStatus(eq(7L), eq(Status.COMPLETED), any(), eq(null));
+        // Nobody in these chunks has enough runs for a streak badge.
+        verify(rollupRepository, never()).streamRunDays(any(), any());
+    }
+
+    @Test
+    void startRecompute_should_continue_an_unfinished_job_after_its_last_chunk() {
+        BadgeRecomputeJobEntity job = new BadgeRecomputeJobEntity(10);
+        ReflectionTestUtils.setField(job, "id", 3L);
+        ReflectionTestUtils.setField(job, "status", Status.FAILED);
+        ReflectionTestUtils.setField(job, "lastRunnerId", 40L);
+        when(jobRepository.findFirstByOrderByIdDesc()).thenReturn(Optional.of(job));
+        when(runnerRepository.findIdsAfter(anyLong(), any())).thenReturn(List.of());
+
+        assertTrue(service.startRecompute());
+
+        verify(jobRepository, never()).save(any());
+        verify(jobRepository).updateStatus(3L, Status.RUNNING, null, null);
+        verify(runnerRepository).findIdsAfter(40L, Limit.of(2));
+        verify(jobRepository).updateStatus(eq(3L), eq(Status.COMPLETED), any(), eq(null));
+    }
+
+    @Test
+    void longestStreaks_should_count_consecutive_days_per_runner_up_to_the_cap() {
+        LocalDate day = LocalDate.of(2024, 5, 1);
+        Stream<RunnerDay> days = Stream.of(
+                new RunnerDay(1L, day),
+                new RunnerDay(1L, day.plusDays(1)),
+                new RunnerDay(1L, day.plusDays(3)),
+                new RunnerDay(1L, day.plusDays(4)),
+                new RunnerDay(1L, day.plusDays(5)),
+                new RunnerDay(2L, day.plusDays(6)),
+                new RunnerDay(2L, day.plusDays(7)),
+                new RunnerDay(2L, day.plusDays(8)),
+                new RunnerDay(2L, day.plusDays(9))
+        );
+
+        Map<Long, Integer> streaks = BadgeRecomputeService.longestStreaks(days.iterator(), 3);
+
+        assertEquals(Map.of(1L, 3, 2L, 3), streaks);
+    }
+
+    private static Set<String> codes(List<BadgeEntity> badges) {
+        return badges.stream().map(BadgeEntity::getCode).collect(Collectors.toSet());
+    }
+}
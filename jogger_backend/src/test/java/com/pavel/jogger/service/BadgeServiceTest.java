@@ -1,36 +1,133 @@
 package com.pavel.jogger.service;
 
 import com.pavel.jogger.persistence.entity.ActivityEntity;
-import com.pavel.jogger.persistence.entity.RunnerEntity;
-import com.pavel.jogger.persistence.repository.ActivityRepository;
+import com.pavel.jogger.persistence.entity.BadgeEntity;
+import com.pavel.jogger.persistence.entity.RunnerStatsEntity;
+import com.pavel.jogger.persistence.projection.BucketTotals;
 import com.pavel.jogger.persistence.repository.BadgeRepository;
+import com.pavel.jogger.web.dto.chart.ChartBucket;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 
 import java.time.LocalDate;
-import java.util.Optional;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class BadgeServiceTest {
 
+    private final BadgeRepository badgeRepo = mock(BadgeRepository.class);
+    private final RunnerStatsService statsService = mock(RunnerStatsService.class);
+    private final ActivityRollupService rollupService = mock(ActivityRollupService.class);
+    private final DataVersionService dataVersionService = mock(DataVersionService.class);
+    private final RunnerEventPublisher eventPublisher = mock(RunnerEventPublisher.class);
+
+    private final BadgeService badgeService = new BadgeService(
+            badgeRepo, statsService, rollupService, mock(RunnerCacheEvictor.class), dataVersionService, eventPublisher
+    );
+
     @Test
-    void first5k_badge_is_awarded() {
-        BadgeRepository badgeRepo = mock(BadgeRepository.class);
-        ActivityRepository activityRepo = mock(ActivityRepository.class);
+    void only_inserted_badges_are_published() {
+        ActivityEntity activity = new ActivityEntity(10.0, 3600, LocalDate.of(2024, 5, 10));
+
+        when(badgeRepo.findCodesByRunnerId(any())).thenReturn(Set.of("FIRST_RUN"));
+        when(statsService.getStats(any())).thenReturn(new RunnerStatsEntity(1L));
+        when(badgeRepo.insertIgnoringDuplicates(any(), anyList())).thenAnswer(call -> {
+            List<BadgeEntity> badges = call.getArgument(1);
+            return badges.stream().filter(b -> !b.getCode().equals("FIRST_5K")).toList();
+        });
+
+        badgeService.evaluate(1L, List.of(activity));
+
+        verify(eventPublisher).badgesAwarded(eq(1L), argThat(badges ->
+                badges.stream().map(BadgeEntity::getCode).toList().equals(List.of("FIRST_10K"))));
+    }
+
+    @Test
+    void nothing_is_published_when_a_concurrent_evaluation_inserted_every_badge() {
+        ActivityEntity activity = new ActivityEntity(5.5, 3000, LocalDate.of(2024, 5, 10));
+
+        when(badgeRepo.findCodesByRunnerId(any())).thenReturn(Set.of("FIRST_RUN"));
+        when(statsService.getStats(any())).thenReturn(new RunnerStatsEntity(1L));
 
-        BadgeService badgeService = new BadgeService(badgeRepo, activityRepo);
+        badgeService.evaluate(1L, List.of(activity));
+
+        verify(badgeRepo).insertIgnoringDuplicates(eq(1L), anyList());
+        verify(dataVersionService, never()).bump(any());
+        verify(eventPublisher, never()).badgesAwarded(any(), any());
+    }
 
-        RunnerEntity runner = new RunnerEntity("user", "u@test.com", "hash");
+    @Test
+    void first5k_badge_is_awarded() {
 
         ActivityEntity activity = new ActivityEntity();
         activity.setDistanceKm(5.5);
         activity.setDate(LocalDate.now());
 
-        when(badgeRepo.findByRunnerAndCode(runner, "FIRST_5K"))
-                .thenReturn(Optional.empty());
+        when(badgeRepo.findCodesByRunnerId(any())).thenReturn(Set.of());
+        when(statsService.getStats(any())).thenReturn(new RunnerStatsEntity(1L));
+
+        badgeService.evaluate(1L, List.of(activity));
+
+        verify(badgeRepo).insertIgnoringDuplicates(any(), argThat(badges ->
+                badges.stream().anyMatch(b -> b.getCode().equals("FIRST_5K"))));
+    }
+
+    @Test
+    void evaluation_skips_earned_codes_and_inserts_new_badges_once() {
+        LocalDate day = LocalDate.of(2024, 5, 10);
+
+        ActivityEntity activity = new ActivityEntity(10.0, 2900, day);
+
+        RunnerStatsEntity stats = new RunnerStatsEntity(1L);
+        stats.setTotalRuns(7);
+        stats.setTotalDistanceKm(60.0);
+        when(statsService.getStats(any())).thenReturn(stats);
+        when(badgeRepo.findCodesByRunnerId(any())).thenReturn(Set.of("FIRST_RUN", "FIRST_5K"));
+        when(rollupService.getBuckets(any(), eq(ChartBucket.DAY), any(), any())).thenReturn(
+                IntStream.range(0, 7)
+                        .mapToObj(i -> new BucketTotals(day.minusDays(i), 1, 5.0, 1500, 300))
+                        .toList()
+        );
+        when(badgeRepo.insertIgnoringDuplicates(any(), anyList())).thenAnswer(call -> call.getArgument(1));
+
+        badgeService.evaluate(1L, List.of(activity));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<BadgeEntity>> captor = ArgumentCaptor.forClass(List.class);
+        verify(badgeRepo, times(1)).insertIgnoringDuplicates(any(), captor.capture());
+        assertEquals(
+                Set.of("FIRST_10K", "PACE_5K_SUB_5", "STREAK_7_DAYS"),
+                Set.copyOf(captor.getValue().stream().map(BadgeEntity::getCode).toList())
+        );
+        verify(dataVersionService, times(1)).bump(any());
+        verify(eventPublisher, times(1)).badgesAwarded(eq(1L), eq(captor.getValue()));
+    }
+
+    @Test
+    void markBadgesAsSeen_updates_in_bulk_and_clears_the_counter() {
+        when(badgeRepo.markAllSeen(1L)).thenReturn(2);
+
+        badgeService.markBadgesAsSeen(1L);
+
+        verify(badgeRepo, never()).saveAll(any());
+        verify(statsService).recordBadgesSeen(1L);
+        verify(dataVersionService).bump(1L);
+    }
+
+    @Test
+    void markBadgesAsSeen_does_nothing_when_all_badges_were_seen() {
+        when(badgeRepo.markAllSeen(1L)).thenReturn(0);
 
-        badgeService.evaluateBadgesAsync(runner, activity);
+        badgeService.markBadgesAsSeen(1L);
 
-        verify(badgeRepo, atLeastOnce()).save(any());
+        verify(statsService, never()).recordBadgesSeen(any());
+        verify(dataVersionService, never()).bump(any());
     }
-}
\ No newline at end of file
+}
@@ -1,25 +1,70 @@
 package com.pavel.jogger.service;
 
-import com.pavel.jogger.persistence.repository.ActivityRepository;
+import com.pavel.jogger.persistence.entity.RunnerStatsEntity;
+import com.pavel.jogger.persistence.projection.BucketTotals;
+import com.pavel.jogger.web.dto.chart.ChartBucket;
+import com.pavel.jogger.web.dto.chart.ChartMetric;
+import com.pavel.jogger.web.dto.chart.ChartResponse;
 import org.junit.jupiter.api.Test;
 
+import java.time.LocalDate;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 class ChartServiceTest {
 
     @Test
     void getRunnerStats_returns_two_charts() {
-        ActivityRepository repo = mock(ActivityRepository.class);
+        ActivityRollupService rollups = mock(ActivityRollupService.class);
+        RunnerStatsService statsService = mock(RunnerStatsService.class);
 
-        when(repo.totalDistance(1L)).thenReturn(10.0);
-        when(repo.totalActivities(1L)).thenReturn(5L);
+        RunnerStatsEntity stats = new RunnerStatsEntity(1L);
+        stats.setTotalDistanceKm(10.0);
+        stats.setTotalRuns(5);
+        when(statsService.getStats(1L)).thenReturn(stats);
 
-        ChartService service = new ChartService(repo);
+        ChartService service = new ChartService(rollups, statsService);
 
-        var charts = service.getRunnerStats(1L);
+        var charts = service.getRunnerStats(1L, 0);
 
         assertEquals(2, charts.size());
+        assertEquals(10.0, charts.get(0).getValue());
+        assertEquals(5.0, charts.get(1).getValue());
+        verifyNoInteractions(rollups);
+    }
+
+    @Test
+    void getSeries_zero_fills_and_keeps_years_apart() {
+        ActivityRollupService rollups = mock(ActivityRollupService.class);
+        ChartService service = new ChartService(rollups, mock(RunnerStatsService.class));
+
+        LocalDate lastWeekOf2024 = LocalDate.of(2024, 12, 30);
+        LocalDate firstFullWeekOf2025 = LocalDate.of(2025, 1, 13);
+        when(rollups.getBuckets(1L, ChartBucket.WEEK, LocalDate.of(2024, 12, 30), LocalDate.of(2025, 1, 20)))
+                .thenReturn(List.of(
+                        new BucketTotals(lastWeekOf2024, 2, 10.0, 3000, 600),
+                        new BucketTotals(firstFullWeekOf2025, 1, 5.0, 1800, 300)
+                ));
+
+        List<ChartResponse> series = service.getSeries(
+                1L, 0, ChartMetric.PACE, ChartBucket.WEEK, LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 15)
+        );
+
+        assertEquals(List.of("2025-W01", "2025-W02", "2025-W03"), series.stream().map(ChartResponse::getLabel).toList());
+        assertEquals(List.of(5.0, 0.0, 6.0), series.stream().map(ChartResponse::getValue).toList());
+    }
+
+    @Test
+    void getSeries_rejects_oversized_range() {
+        ChartService service = new ChartService(mock(ActivityRollupService.class), mock(RunnerStatsService.class));
+
+        assertThrows(IllegalArgumentException.class, () -> service.getSeries(
+                1L, 0, ChartMetric.RUNS, ChartBucket.DAY, LocalDate.of(2000, 1, 1), LocalDate.of(2024, 1, 1)
+        ));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,86 @@
+package com.pavel.jogger.service;
+
+import com.pavel.jogger.web.exception.ServiceUnavailableException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ReportJobServiceTest {
+
+    @TempDir
+    Path storageDir;
+
+    private final ReportService reportService = mock(ReportService.class);
+    private final DataVersionService dataVersionService = mock(DataVersionService.class);
+
+    @Test
+    void submit_should_render_once_and_reuse_the_file_for_the_same_version() throws Exception {
+        when(dataVersionService.getVersion(1L)).thenReturn(3L);
+        doAnswer(inv -> {
+            inv.getArgument(1, OutputStream.class).write("%PDF".getBytes());
+            return null;
+        }).when(reportService).writeProgressReport(eq(1L), any());
+        ReportJobService service = newService(Runnable::run);
+
+        ReportJob first = service.submit(1L);
+        ReportJob second = service.submit(1L);
+
+        assertEquals(ReportJob.Status.DONE, first.getStatus());
+        assertEquals(ReportJob.Status.DONE, second.getStatus());
+        assertEquals("%PDF", Files.readString(second.getFile()));
+        assertTrue(service.getJob(1L, first.getId()).isPresent());
+        assertTrue(service.getJob(2L, first.getId()).isEmpty());
+        verify(reportService, times(1)).writeProgressReport(eq(1L), any());
+    }
+
+    @Test
+    void sweep_should_keep_the_previous_version_until_the_grace_period_has_passed() throws Exception {
+        when(dataVersionService.getVersion(1L)).thenReturn(3L, 4L);
+        ReportJobService service = newService(Runnable::run);
+
+        Path old = service.submit(1L).getFile();
+        Path current = service.submit(1L).getFile();
+        Path otherRunner = storageDir.resolve("runner-10-v1-2024-01.pdf");
+        Files.writeString(otherRunner, "%PDF");
+        Files.setLastModifiedTime(old, FileTime.from(Instant.now().minus(Duration.ofHours(2))));
+        Files.setLastModifiedTime(otherRunner, FileTime.from(Instant.now().minus(Duration.ofHours(2))));
+
+        service.deleteSupersededFiles();
+        assertTrue(Files.exists(old), "the new version was written only just now");
+
+        Files.setLastModifiedTime(current, FileTime.from(Instant.now().minus(Duration.ofHours(1))));
+        service.deleteSupersededFiles();
+
+        assertFalse(Files.exists(old));
+        assertTrue(Files.exists(current));
+        assertTrue(Files.exists(otherRunner));
+    }
+
+    @Test
+    void submit_should_return_503_when_the_queue_is_full() {
+        when(dataVersionService.getVersion(1L)).thenReturn(3L);
+        ReportJobService service = newService(task -> {
+            throw new RejectedExecutionException();
+        });
+
+        assertThrows(ServiceUnavailableException.class, () -> service.submit(1L));
+    }
+
+    private ReportJobService newService(Executor executor) {
+        return new ReportJobService(reportService, dataVersionService, executor,
+                storageDir, Duration.ofHours(1), Duration.ofMinutes(10));
+    }
+}
@@ -0,0 +1,79 @@
+package com.pavel.jogger.service;
+
+import com.pavel.jogger.persistence.entity.ActivityEntity;
+import com.pavel.jogger.persistence.entity.RunnerEntity;
+import com.pavel.jogger.persistence.entity.RunnerStatsEntity;
+import com.pavel.jogger.persistence.projection.BucketTotals;
+import com.pavel.jogger.persistence.repository.ActivityRepository;
+import com.pavel.jogger.persistence.repository.RunnerRepository;
+import com.pavel.jogger.web.dto.chart.ChartBucket;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ReportServiceTest {
+
+    private final RunnerRepository runnerRepository = mock(RunnerRepository.class);
+    private final ActivityRepository activityRepository = mock(ActivityRepository.class);
+    private final RunnerStatsService statsService = mock(RunnerStatsService.class);
+    private final ActivityRollupService rollups = mock(ActivityRollupService.class);
+
+    private final ReportService service = new ReportService(
+            runnerRepository, activityRepository, statsService, rollups, new ReportResources(1024 * 1024)
+    );
+
+    @Test
+    void writeProgressReport_should_page_a_long_history_without_reading_activities() throws Exception {
+        RunnerEntity runner = new RunnerEntity();
+        runner.setUsername("pavel");
+        when(runnerRepository.findById(1L)).thenReturn(Optional.of(runner));
+
+        RunnerStatsEntity stats = new RunnerStatsEntity(1L);
+        stats.setTotalDistanceKm(1200.0);
+        stats.setTotalRuns(240);
+        stats.setTotalDurationSec(432_000);
+        when(statsService.getStats(1L)).thenReturn(stats);
+
+        LocalDate first = LocalDate.now().minusYears(10).withDayOfMonth(1);
+        when(activityRepository.findFirstActivityDate(1L)).thenReturn(first);
+
+        List<BucketTotals> months = new ArrayList<>();
+        for (LocalDate m = first; !m.isAfter(LocalDate.now()); m = m.plusMonths(1)) {
+            months.add(new BucketTotals(m, 2, 10.0, 3600, 700));
+        }
+        when(rollups.getBuckets(eq(1L), eq(ChartBucket.MONTH), any(), any())).thenReturn(months);
+        when(rollups.getBuckets(eq(1L), eq(ChartBucket.YEAR), any(), any()))
+                .thenReturn(List.of(new BucketTotals(first.withDayOfYear(1), 24, 120.0, 43_200, 8400)));
+        when(rollups.getTopBuckets(1L, ChartBucket.MONTH, 1)).thenReturn(List.of(months.get(0)));
+
+        ActivityEntity longest = new ActivityEntity(21.1, 7200, first);
+        when(activityRepository.findLongestRuns(1L, Limit.of(1))).thenReturn(List.of(longest));
+        when(activityRepository.findFastestRuns(eq(1L), anyDouble(), eq(Limit.of(1)))).thenReturn(List.of(longest));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.writeProgressReport(1L, out);
+
+        try (PDDocument pdf = Loader.loadPDF(out.toByteArray())) {
+            assertTrue(pdf.getNumberOfPages() > 2);
+            String text = new PDFTextStripper().getText(pdf);
+            assertTrue(text.contains("Longest run: 21.10 km"));
+            assertTrue(text.contains("Monthly history"));
+            assertTrue(text.contains("Page 1 of " + pdf.getNumberOfPages()));
+        }
+        verify(activityRepository, never()).findAll();
+    }
+}
@@ -0,0 +1,47 @@
+package com.pavel.jogger.service;
+
+import com.pavel.jogger.persistence.repository.ActivityRollupRepository;
+import com.pavel.jogger.persistence.repository.RunnerRepository;
+import com.pavel.jogger.persistence.repository.RunnerStatsRepository;
+import com.pavel.jogger.web.dto.chart.ChartBucket;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+class RollupMaintenanceServiceTest {
+
+    private final ActivityRollupRepository rollupRepository = mock(ActivityRollupRepository.class);
+    private final RunnerRepository runnerRepository = mock(RunnerRepository.class);
+
+    private final RollupMaintenanceService service = new RollupMaintenanceService(
+            rollupRepository,
+            runnerRepository,
+            mock(RunnerStatsRepository.class),
+            mock(PlatformTransactionManager.class),
+            Runnable::run,
+            2,
+            7,
+            false
+    );
+
+    @Test
+    void startRebuild_should_regenerate_runners_in_id_chunks() {
+        when(runnerRepository.findIdsAfter(0L, Limit.of(2))).thenReturn(List.of(1L, 4L));
+        when(runnerRepository.findIdsAfter(4L, Limit.of(2))).thenReturn(List.of(9L));
+        when(runnerRepository.findIdsAfter(9L, Limit.of(2))).thenReturn(List.of());
+
+        assertTrue(service.startRebuild());
+
+        verify(rollupRepository).deleteByRunnerRange(1L, 4L);
+        verify(rollupRepository).deleteByRunnerRange(9L, 9L);
+        for (ChartBucket period : ActivityRollupService.STORED_PERIODS) {
+            verify(rollupRepository).insertFromActivities(1L, 4L, period);
+            verify(rollupRepository).insertFromActivities(9L, 9L, period);
+        }
+    }
+}
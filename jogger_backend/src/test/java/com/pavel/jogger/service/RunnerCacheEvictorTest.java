@@ -0,0 +1,38 @@
+package com.pavel.jogger.service;
+
+import com.pavel.jogger.config.CacheConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RunnerCacheEvictorTest {
+
+    private final CaffeineCacheManager cacheManager =
+            new CaffeineCacheManager(CacheConfig.CHARTS, CacheConfig.BADGES, CacheConfig.RUNNERS);
+    private final RunnerCacheEvictor evictor = new RunnerCacheEvictor(cacheManager);
+
+    @Test
+    void evictBadges_should_only_drop_entries_of_that_runner() {
+        Cache badges = cacheManager.getCache(CacheConfig.BADGES);
+        badges.put(1L, "a");
+        badges.put(2L, "b");
+
+        evictor.evictBadges(1L);
+
+        assertNull(badges.get(1L));
+        assertNotNull(badges.get(2L));
+    }
+
+    @Test
+    void evictProfile_should_drop_username_entry() {
+        Cache runners = cacheManager.getCache(CacheConfig.RUNNERS);
+        runners.put("pavel", "profile");
+
+        evictor.evictProfile("pavel");
+
+        assertNull(runners.get("pavel"));
+    }
+}
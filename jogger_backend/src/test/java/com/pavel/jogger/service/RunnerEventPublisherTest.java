@@ -0,0 +1,37 @@
+package com.pavel.jogger.service;
+
+import com.pavel.jogger.persistence.entity.BadgeEntity;
+import com.pavel.jogger.web.dto.badge.BadgeResponse;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+class RunnerEventPublisherTest {
+
+    private final ApplicationEventPublisher applicationEventPublisher = mock(ApplicationEventPublisher.class);
+    private final RunnerEventPublisher publisher = new RunnerEventPublisher(applicationEventPublisher);
+
+    @Test
+    void badgesAwarded_publishes_the_badges_with_their_tier() {
+        BadgeEntity badge = new BadgeEntity("HALF_MARATHON", "Half Marathon", "21 km", null);
+        badge.setAwardedAt(LocalDate.of(2024, 5, 1));
+
+        publisher.badgesAwarded(3L, List.of(badge));
+
+        ArgumentCaptor<RunnerEvent> captor = ArgumentCaptor.forClass(RunnerEvent.class);
+        verify(applicationEventPublisher).publishEvent(captor.capture());
+        RunnerEvent event = captor.getValue();
+        assertEquals(3L, event.getRunnerId());
+        assertEquals("badge-awarded", event.getType().getEventName());
+
+        @SuppressWarnings("unchecked")
+        List<BadgeResponse> data = (List<BadgeResponse>) event.getData();
+        assertEquals("GOLD", data.get(0).getBadgeType());
+    }
+}
@@ -1,12 +1,19 @@
 package com.pavel.jogger.service;
 
 import com.pavel.jogger.persistence.entity.RunnerEntity;
+import com.pavel.jogger.persistence.projection.RunnerSummary;
 import com.pavel.jogger.persistence.repository.RunnerRepository;
+import com.pavel.jogger.security.VerifiedTokenCache;
+import com.pavel.jogger.web.dto.runner.RunnerResponse;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -14,15 +21,21 @@ import static org.mockito.Mockito.*;
 class RunnerServiceTest {
 
     private final RunnerRepository runnerRepository = mock(RunnerRepository.class);
-    private final RunnerService runnerService = new RunnerService(runnerRepository);
+    private final AccountDeletionService accountDeletionService = mock(AccountDeletionService.class);
+    private final VerifiedTokenCache verifiedTokenCache = mock(VerifiedTokenCache.class);
+    private final RunnerCacheEvictor runnerCacheEvictor = mock(RunnerCacheEvictor.class);
+    private final DataVersionService dataVersionService = mock(DataVersionService.class);
+    private final RunnerService runnerService = new RunnerService(
+            runnerRepository, accountDeletionService, verifiedTokenCache, runnerCacheEvictor, dataVersionService
+    );
 
     @Test
-    void getRunnerById_shouldReturnRunner() {
-        RunnerEntity runner = new RunnerEntity("u", "e", "p");
+    void getProfile_shouldReturnRunner() {
+        RunnerResponse runner = new RunnerResponse(1L, "u", "e", "USER", LocalDateTime.now());
 
-        when(runnerRepository.findById(1L)).thenReturn(Optional.of(runner));
+        when(runnerRepository.findProfileById(1L)).thenReturn(Optional.of(runner));
 
-        Optional<RunnerEntity> result = runnerService.getRunnerById(1L);
+        Optional<RunnerResponse> result = runnerService.getProfile(1L);
 
         assertTrue(result.isPresent());
         assertEquals("u", result.get().getUsername());
@@ -41,14 +54,54 @@ class RunnerServiceTest {
 
         assertEquals("new@test.com", updated.getEmail());
         verify(runnerRepository).save(runner);
+        verify(dataVersionService).bump(1L);
     }
 
     @Test
-    void deleteRunner_shouldCallRepository() {
-        when(runnerRepository.existsById(1L)).thenReturn(true);
+    void deleteRunner_shouldDisableTheAccountAndLeaveTheRowsToTheBackgroundJob() {
+        RunnerEntity runner = new RunnerEntity("u", "e", "p");
+        when(runnerRepository.findById(1L)).thenReturn(Optional.of(runner));
+        when(runnerRepository.disable(1L)).thenReturn(1);
 
         runnerService.deleteRunner(1L);
 
-        verify(runnerRepository).deleteById(1L);
+        verify(runnerRepository).disable(1L);
+        verify(runnerRepository, never()).delete(any());
+        verify(runnerCacheEvictor).evictProfile("u");
+        // No transaction in this test, so the after-commit work runs at once.
+        verify(verifiedTokenCache).evictRunner(1L);
+        verify(accountDeletionService).deleteSoon();
+    }
+
+    @Test
+    void getRunnersPage_shouldReturnACursorOnlyWhenMoreRunnersExist() {
+        when(runnerRepository.findSummaries(0L, Limit.of(3))).thenReturn(List.of(summary(4L), summary(9L), summary(12L)));
+        when(runnerRepository.findSummaries(9L, Limit.of(3))).thenReturn(List.of(summary(12L)));
+
+        RunnerPage first = runnerService.getRunnersPage(null, null, 2, false);
+        RunnerPage second = runnerService.getRunnersPage(" ", first.getNextCursor(), 2, false);
+
+        assertEquals(List.of(4L, 9L), first.getItems().stream().map(RunnerSummary::getId).toList());
+        assertEquals(List.of(12L), second.getItems().stream().map(RunnerSummary::getId).toList());
+        assertFalse(second.hasMore());
+        verify(runnerRepository, never()).findSummariesWithTotals(any(), any());
+    }
+
+    @Test
+    void getRunnersPage_shouldMergeUsernameAndEmailMatchesInIdOrder() {
+        when(runnerRepository.findIdsByUsernamePrefix(0L, "50!%!_off%", Limit.of(3))).thenReturn(List.of(4L, 12L));
+        when(runnerRepository.findIdsByEmailPrefix(0L, "50!%!_off%", Limit.of(3))).thenReturn(List.of(4L, 9L, 15L));
+        when(runnerRepository.findSummariesByIds(List.of(4L, 9L))).thenReturn(List.of(summary(4L), summary(9L)));
+
+        RunnerPage page = runnerService.getRunnersPage(" 50%_off ", null, 2, false);
+
+        assertEquals(List.of(4L, 9L), page.getItems().stream().map(RunnerSummary::getId).toList());
+        assertTrue(page.hasMore());
+        assertEquals(9L, RunnerCursor.decode(page.getNextCursor()).getId());
+        verify(runnerRepository, never()).findSummaries(any(), any());
+    }
+
+    private static RunnerSummary summary(Long id) {
+        return new RunnerSummary(id, "runner" + id, id + "@test.com", "USER", LocalDateTime.now());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,111 @@
+package com.pavel.jogger.service;
+
+import com.pavel.jogger.persistence.entity.ActivityEntity;
+import com.pavel.jogger.persistence.entity.RunnerStatsEntity;
+import com.pavel.jogger.persistence.projection.ActivityTotals;
+import com.pavel.jogger.persistence.repository.ActivityRepository;
+import com.pavel.jogger.persistence.repository.BadgeRepository;
+import com.pavel.jogger.persistence.repository.RunnerStatsRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class RunnerStatsServiceTest {
+
+    private final RunnerStatsRepository statsRepo = mock(RunnerStatsRepository.class);
+    private final ActivityRepository activityRepo = mock(ActivityRepository.class);
+    private final RunnerStatsService service = new RunnerStatsService(statsRepo, activityRepo, mock(BadgeRepository.class));
+
+    @Test
+    void recordAdded_applies_delta_without_scanning_activities() {
+        LocalDate date = LocalDate.of(2024, 6, 1);
+        ActivityEntity activity = new ActivityEntity(5.0, 1500, date);
+        activity.setCalories(350);
+
+        when(statsRepo.applyDelta(1L, 5.0, 1, 1500, 350, date)).thenReturn(1);
+
+        service.recordAdded(1L, activity);
+
+        verify(statsRepo).applyDelta(1L, 5.0, 1, 1500, 350, date);
+        verifyNoInteractions(activityRepo);
+    }
+
+    @Test
+    void recordAdded_builds_row_when_missing() {
+        ActivityEntity activity = new ActivityEntity(5.0, 1500, LocalDate.now());
+        ActivityTotals totals = mock(ActivityTotals.class);
+        when(totals.getTotalDistanceKm()).thenReturn(12.0);
+        when(totals.getTotalRuns()).thenReturn(2L);
+
+        when(statsRepo.applyDelta(any(), anyDouble(), anyLong(), anyLong(), anyLong(), any())).thenReturn(0);
+        when(activityRepo.aggregateTotals(1L)).thenReturn(totals);
+        when(statsRepo.insertIfAbsent(eq(1L), anyLong(), anyDouble(), anyLong(), anyLong(), any(), anyInt())).thenReturn(1);
+
+        service.recordAdded(1L, activity);
+
+        verify(statsRepo).insertIfAbsent(eq(1L), eq(2L), eq(12.0), anyLong(), anyLong(), any(), anyInt());
+        verify(statsRepo, times(1)).applyDelta(any(), anyDouble(), anyLong(), anyLong(), anyLong(), any());
+        verify(statsRepo, never()).save(any());
+    }
+
+    @Test
+    void recordAdded_applies_delta_when_a_concurrent_transaction_created_the_row_first() {
+        LocalDate date = LocalDate.of(2024, 6, 1);
+        ActivityEntity activity = new ActivityEntity(5.0, 1500, date);
+        activity.setCalories(350);
+
+        when(statsRepo.applyDelta(1L, 5.0, 1, 1500, 350, date)).thenReturn(0, 1);
+        when(activityRepo.aggregateTotals(1L)).thenReturn(mock(ActivityTotals.class));
+        when(statsRepo.insertIfAbsent(eq(1L), anyLong(), anyDouble(), anyLong(), anyLong(), any(), anyInt())).thenReturn(0);
+
+        service.recordAdded(1L, activity);
+
+        verify(statsRepo, times(2)).applyDelta(1L, 5.0, 1, 1500, 350, date);
+        verify(statsRepo, never()).save(any());
+    }
+
+    @Test
+    void recordBadgesSeen_resets_counter_when_a_concurrent_transaction_created_the_row_first() {
+        when(statsRepo.resetUnseenBadges(1L)).thenReturn(0, 1);
+        when(activityRepo.aggregateTotals(1L)).thenReturn(mock(ActivityTotals.class));
+        when(statsRepo.insertIfAbsent(eq(1L), anyLong(), anyDouble(), anyLong(), anyLong(), any(), anyInt())).thenReturn(0);
+
+        service.recordBadgesSeen(1L);
+
+        verify(statsRepo, times(2)).resetUnseenBadges(1L);
+    }
+
+    @Test
+    void recordRemoved_refreshes_last_date_when_latest_run_is_deleted() {
+        LocalDate date = LocalDate.of(2024, 6, 1);
+        ActivityEntity removed = new ActivityEntity(5.0, 1500, date);
+
+        RunnerStatsEntity stats = new RunnerStatsEntity(1L);
+        stats.setLastActivityDate(date);
+
+        when(statsRepo.applyDelta(1L, -5.0, -1, -1500, 0, null)).thenReturn(1);
+        when(statsRepo.findById(1L)).thenReturn(Optional.of(stats));
+        when(activityRepo.findLastActivityDate(1L)).thenReturn(date.minusDays(3));
+
+        service.recordRemoved(1L, removed);
+
+        verify(statsRepo).updateLastActivityDate(1L, date.minusDays(3));
+    }
+
+    @Test
+    void getStats_returns_existing_row() {
+        RunnerStatsEntity stats = new RunnerStatsEntity(1L);
+        stats.setTotalRuns(7);
+        when(statsRepo.findById(1L)).thenReturn(Optional.of(stats));
+
+        assertEquals(7, service.getStats(1L).getTotalRuns());
+        verifyNoInteractions(activityRepo);
+    }
+}
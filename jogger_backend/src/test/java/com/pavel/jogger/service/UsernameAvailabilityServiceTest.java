@@ -0,0 +1,65 @@
+package com.pavel.jogger.service;
+
+import com.pavel.jogger.persistence.repository.RunnerRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class UsernameAvailabilityServiceTest {
+
+    private final RunnerRepository runnerRepository = mock(RunnerRepository.class);
+
+    private final UsernameAvailabilityService service = new UsernameAvailabilityService(
+            runnerRepository,
+            mock(PlatformTransactionManager.class),
+            1000,
+            0.01
+    );
+
+    @Test
+    void isAvailable_should_answer_unknown_names_without_a_query() {
+        when(runnerRepository.streamUsernames()).thenReturn(Stream.of("alice", "Bob"));
+        service.rebuild();
+
+        assertTrue(service.isAvailable("carol"));
+
+        verify(runnerRepository, never()).existsByUsername(any());
+    }
+
+    @Test
+    void isAvailable_should_confirm_possibly_taken_names_with_the_database() {
+        when(runnerRepository.streamUsernames()).thenReturn(Stream.of("alice"));
+        service.rebuild();
+        service.added("Dave");
+        when(runnerRepository.existsByUsername(any())).thenReturn(true);
+
+        assertFalse(service.isAvailable("ALICE"));
+        assertFalse(service.isAvailable("dave"));
+    }
+
+    @Test
+    void isAvailable_should_query_the_database_until_the_filter_is_built() {
+        when(runnerRepository.existsByUsername("carol")).thenReturn(false);
+
+        assertTrue(service.isAvailable("carol"));
+
+        verify(runnerRepository).existsByUsername("carol");
+    }
+
+    @Test
+    void isAvailable_should_check_the_name_in_its_stored_form() {
+        when(runnerRepository.streamUsernames()).thenReturn(Stream.of("alice"));
+        service.rebuild();
+        when(runnerRepository.existsByUsername("alice")).thenReturn(true);
+
+        assertFalse(service.isAvailable(" alice "));
+
+        verify(runnerRepository).existsByUsername("alice");
+    }
+}
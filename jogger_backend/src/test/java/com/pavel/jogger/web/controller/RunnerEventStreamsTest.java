@@ -0,0 +1,95 @@
+package com.pavel.jogger.web.controller;
+
+import com.pavel.jogger.service.RunnerEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RunnerEventStreamsTest {
+
+    private final List<Runnable> submitted = new ArrayList<>();
+    private final Executor queueing = submitted::add;
+
+    @Test
+    void a_full_queue_should_close_the_stream_instead_of_dropping_the_event() {
+        Executor full = task -> {
+            throw new TaskRejectedException("full");
+        };
+        RunnerEventStreams registry = new RunnerEventStreams(full, Duration.ofMinutes(30), 5, 25000, Duration.ofSeconds(10));
+        registry.open(1L);
+
+        registry.onRunnerEvent(new RunnerEvent(1L, RunnerEvent.Type.STATS_CHANGED, Map.of()));
+
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    void events_of_a_stream_should_share_one_write_task() {
+        RunnerEventStreams registry = new RunnerEventStreams(queueing, Duration.ofMinutes(30), 5, 25000, Duration.ofSeconds(10));
+        registry.open(1L);
+
+        registry.onRunnerEvent(new RunnerEvent(1L, RunnerEvent.Type.STATS_CHANGED, Map.of()));
+        registry.onRunnerEvent(new RunnerEvent(1L, RunnerEvent.Type.ACTIVITY_ADDED, Map.of()));
+
+        assertEquals(1, submitted.size());
+        submitted.get(0).run();
+
+        registry.onRunnerEvent(new RunnerEvent(1L, RunnerEvent.Type.STATS_CHANGED, Map.of()));
+        assertEquals(2, submitted.size());
+    }
+
+    @Test
+    void closing_a_busy_stream_should_leave_completion_to_its_write_task() {
+        RunnerEventStreams registry = new RunnerEventStreams(queueing, Duration.ofMinutes(30), 1, 25000, Duration.ofSeconds(10));
+        SseEmitter first = registry.open(1L);
+        registry.onRunnerEvent(new RunnerEvent(1L, RunnerEvent.Type.STATS_CHANGED, Map.of()));
+
+        // Over the per-runner limit: the first stream is closed while its write task is pending.
+        registry.open(1L);
+
+        assertEquals(1, registry.size());
+        assertFalse(completed(first));
+
+        submitted.get(0).run();
+        assertTrue(completed(first));
+    }
+
+    @Test
+    void heartbeat_should_ping_idle_streams_in_one_task() {
+        RunnerEventStreams registry = new RunnerEventStreams(queueing, Duration.ofMinutes(30), 5, 0, Duration.ofSeconds(10));
+        registry.open(1L);
+        registry.open(1L);
+        registry.open(2L);
+
+        registry.heartbeat();
+
+        assertEquals(1, submitted.size());
+        submitted.get(0).run();
+        assertEquals(3, registry.size());
+    }
+
+    @Test
+    void heartbeat_should_skip_streams_written_recently() {
+        RunnerEventStreams registry = new RunnerEventStreams(queueing, Duration.ofMinutes(30), 5, 25000, Duration.ofSeconds(10));
+        registry.open(1L);
+
+        registry.heartbeat();
+
+        assertEquals(0, submitted.size());
+    }
+
+    private static boolean completed(SseEmitter emitter) {
+        return (boolean) ReflectionTestUtils.getField(emitter, "complete");
+    }
+}
@@ -1,3 +1,4 @@
+import 'dart:async';
 import 'package:flutter/material.dart';
 import '../services/api_service.dart';
 import '../models/user.dart';
@@ -14,6 +15,10 @@ class _AdminScreenState extends State<AdminScreen> {
   final ApiService _apiService = ApiService();
   List<User>? _allRunners;
   bool _isLoading = true;
+  bool _isLoadingMore = false;
+  String? _nextCursor;
+  String _search = '';
+  Timer? _searchDebounce;
 
   @override
   void initState() {
@@ -21,11 +26,29 @@ class _AdminScreenState extends State<AdminScreen> {
     _loadData();
   }
 
+  @override
+  void dispose() {
+    _searchDebounce?.cancel();
+    super.dispose();
+  }
+
+  void _onSearchChanged(String value) {
+    _searchDebounce?.cancel();
+    _searchDebounce = Timer(const Duration(milliseconds: 300), () {
+      _search = value.trim();
+      setState(() => _isLoading = true);
+      _loadData();
+    });
+  }
+
   Future<void> _loadData() async {
+    final search = _search;
     try {
-      final runners = await _apiService.getAllRunners();
+      final page = await _apiService.getAllRunners(search: search);
+      if (!mounted || search != _search) return;
       setState(() {
-        _allRunners = runners;
+        _allRunners = page.runners;
+        _nextCursor = page.nextCursor;
         _isLoading = false;
       });
     } catch (e) {
@@ -39,6 +62,27 @@ class _AdminScreenState extends State<AdminScreen> {
     }
   }
 
+  Future<void> _loadMore() async {
+    if (_isLoadingMore || _nextCursor == null) return;
+    final search = _search;
+    setState(() => _isLoadingMore = true);
+    try {
+      final page = await _apiService.getAllRunners(
+        search: search,
+        cursor: _nextCursor,
+      );
+      if (!mounted || search != _search) return;
+      setState(() {
+        _allRunners = [...?_allRunners, ...page.runners];
+        _nextCursor = page.nextCursor;
+      });
+    } catch (_) {
+      // Keep what is loaded; the button stays so the admin can retry.
+    } finally {
+      if (mounted) setState(() => _isLoadingMore = false);
+    }
+  }
+
   @override
   Widget build(BuildContext context) {
     return Scaffold(
@@ -60,45 +104,74 @@ class _AdminScreenState extends State<AdminScreen> {
           ),
         ],
       ),
-      body: _isLoading
-          ? const Center(child: CircularProgressIndicator())
-          : _allRunners == null || _allRunners!.isEmpty
-          ? const Center(child: Text("No users found."))
-          : ListView.builder(
-              itemCount: _allRunners!.length,
-              itemBuilder: (context, index) {
-                final user = _allRunners![index];
-                return Card(
-                  margin: const EdgeInsets.symmetric(
-                    horizontal: 10,
-                    vertical: 5,
-                  ),
-                  child: ListTile(
-                    leading: CircleAvatar(
-                      backgroundColor: user.role == 'ADMIN'
-                          ? Colors.red
-                          : Colors.blue,
-                      child: Icon(
-                        user.role == 'ADMIN' ? Icons.security : Icons.person,
-                        color: Colors.white,
-                      ),
-                    ),
-                    title: Text(
-                      user.username,
-                      style: const TextStyle(fontWeight: FontWeight.bold),
+      body: Column(
+        children: [
+          Padding(
+            padding: const EdgeInsets.all(10),
+            child: TextField(
+              decoration: const InputDecoration(
+                labelText: 'Search username or email',
+                prefixIcon: Icon(Icons.search),
+              ),
+              onChanged: _onSearchChanged,
+            ),
+          ),
+          Expanded(child: _buildList()),
+        ],
+      ),
+    );
+  }
+
+  Widget _buildList() {
+    return _isLoading
+        ? const Center(child: CircularProgressIndicator())
+        : _allRunners == null || _allRunners!.isEmpty
+        ? const Center(child: Text("No users found."))
+        : ListView.builder(
+            itemCount: _allRunners!.length + (_nextCursor != null ? 1 : 0),
+            itemBuilder: (context, index) {
+              if (index == _allRunners!.length) {
+                return Padding(
+                  padding: const EdgeInsets.all(10),
+                  child: _isLoadingMore
+                      ? const Center(child: CircularProgressIndicator())
+                      : TextButton(
+                          onPressed: _loadMore,
+                          child: const Text('Load more'),
+                        ),
+                );
+              }
+              final user = _allRunners![index];
+              return Card(
+                margin: const EdgeInsets.symmetric(
+                  horizontal: 10,
+                  vertical: 5,
+                ),
+                child: ListTile(
+                  leading: CircleAvatar(
+                    backgroundColor: user.role == 'ADMIN'
+                        ? Colors.red
+                        : Colors.blue,
+                    child: Icon(
+                      user.role == 'ADMIN' ? Icons.security : Icons.person,
+                      color: Colors.white,
                     ),
-                    subtitle: Text(user.email),
-                    trailing: Text(
-                      user.role,
-                      style: TextStyle(
-                        color: user.role == 'ADMIN' ? Colors.red : Colors.grey,
-                        fontWeight: FontWeight.bold,
-                      ),
+                  ),
+                  title: Text(
+                    user.username,
+                    style: const TextStyle(fontWeight: FontWeight.bold),
+                  ),
+                  subtitle: Text(user.email),
+                  trailing: Text(
+                    user.role,
+                    style: TextStyle(
+                      color: user.role == 'ADMIN' ? Colors.red : Colors.grey,
+                      fontWeight: FontWeight.bold,
                     ),
                   ),
-                );
-              },
-            ),
-    );
+                ),
+              );
+            },
+          );
   }
 }
@@ -1,3 +1,4 @@
+import 'dart:async';
 import 'package:flutter/material.dart';
 import '../services/api_service.dart';
 import '../models/user.dart';
@@ -23,6 +24,9 @@ class _HomeScreenState extends State<HomeScreen> {
   List<Activity> _activities = [];
   List<ChartData> _weeklyData = [];
   bool _isLoading = true;
+  bool _isLoadingMore = false;
+  String? _nextCursor;
+  StreamSubscription<String>? _events;
 
   @override
   void initState() {
@@ -30,25 +34,52 @@ class _HomeScreenState extends State<HomeScreen> {
     _loadData();
   }
 
+  @override
+  void dispose() {
+    _events?.cancel();
+    super.dispose();
+  }
+
+  // Reloads when the server reports a change instead of polling.
+  // Reconnects a few seconds after the server closes the stream.
+  void _listenForEvents(int userId) {
+    _events?.cancel();
+    _events = _apiService.getRunnerEvents(userId).listen(
+      (event) {
+        if (event == 'badge-awarded') {
+          _checkNewBadges(userId);
+        } else if (event == 'stats-changed') {
+          _loadData();
+        }
+      },
+      onError: (e) => print("Event stream error: $e"),
+      onDone: () => Future.delayed(const Duration(seconds: 5), () {
+        if (mounted) _listenForEvents(userId);
+      }),
+    );
+  }
+
   Future<void> _loadData() async {
     setState(() => _isLoading = true);
     try {
       final user = await _apiService.getCurrentUser();
       if (user != null) {
-        final activities = await _apiService.getActivities(user.id);
+        // The first page holds the newest runs, which is all the pace and
+        // calories charts show; older runs are loaded with "Load more".
+        final page = await _apiService.getActivities(user.id);
         final weekly = await _apiService.getWeeklyRuns(user.id);
 
-        activities.sort((a, b) => b.date.compareTo(a.date));
-
         if (mounted) {
           setState(() {
             _currentUser = user;
-            _activities = activities;
+            _activities = page.activities;
+            _nextCursor = page.nextCursor;
             _weeklyData = weekly;
             _isLoading = false;
           });
         }
         _checkNewBadges(user.id);
+        if (_events == null) _listenForEvents(user.id);
       }
     } catch (e) {
       setState(() => _isLoading = false);
@@ -56,8 +87,31 @@ class _HomeScreenState extends State<HomeScreen> {
     }
   }
 
+  Future<void> _loadMore() async {
+    final user = _currentUser;
+    if (_isLoadingMore || _nextCursor == null || user == null) return;
+    setState(() => _isLoadingMore = true);
+    try {
+      final page = await _apiService.getActivities(
+        user.id,
+        cursor: _nextCursor,
+      );
+      if (!mounted) return;
+      setState(() {
+        _activities = [..._activities, ...page.activities];
+        _nextCursor = page.nextCursor;
+      });
+    } catch (_) {
+      // Keep what is loaded; the button stays so the user can retry.
+    } finally {
+      if (mounted) setState(() => _isLoadingMore = false);
+    }
+  }
+
   Future<void> _checkNewBadges(int userId) async {
     try {
+      if (await _apiService.getUnseenBadgeCount(userId) == 0) return;
+
       final badges = await _apiService.getBadges(userId);
       final newBadges = badges.where((b) => !b.isSeen).toList();
 
@@ -368,6 +422,17 @@ class _HomeScreenState extends State<HomeScreen> {
                       );
                     }),
 
+                  if (_nextCursor != null)
+                    Padding(
+                      padding: const EdgeInsets.all(10),
+                      child: _isLoadingMore
+                          ? const Center(child: CircularProgressIndicator())
+                          : TextButton(
+                              onPressed: _loadMore,
+                              child: const Text('Load more'),
+                            ),
+                    ),
+
                   const SizedBox(height: 40),
                 ],
               ),
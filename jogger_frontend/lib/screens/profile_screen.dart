@@ -70,7 +70,15 @@ class _ProfileScreenState extends State<ProfileScreen> {
   }
 
   Future<void> _downloadPdf() async {
-    final urlString = await _apiService.getReportUrl(widget.user.id);
+    final urlString = await _apiService.prepareReport(widget.user.id);
+    if (urlString == null) {
+      if (mounted) {
+        ScaffoldMessenger.of(context).showSnackBar(
+          const SnackBar(content: Text('Could not generate the PDF report')),
+        );
+      }
+      return;
+    }
     final uri = Uri.parse(urlString);
 
     if (!await launchUrl(uri, mode: LaunchMode.externalApplication)) {
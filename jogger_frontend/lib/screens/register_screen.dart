@@ -1,3 +1,4 @@
+import 'dart:async';
 import 'package:flutter/material.dart';
 import '../services/api_service.dart';
 import 'home_screen.dart';
@@ -15,6 +16,33 @@ class _RegisterScreenState extends State<RegisterScreen> {
   final _passwordController = TextEditingController();
   final _apiService = ApiService();
   bool _isLoading = false;
+  Timer? _usernameCheck;
+  String? _usernameError;
+
+  @override
+  void dispose() {
+    _usernameCheck?.cancel();
+    _usernameController.dispose();
+    _emailController.dispose();
+    _passwordController.dispose();
+    super.dispose();
+  }
+
+  /// Checks the username once the user stops typing for a moment.
+  void _onUsernameChanged(String value) {
+    _usernameCheck?.cancel();
+    if (_usernameError != null) setState(() => _usernameError = null);
+    final username = value.trim();
+    if (username.length < 3) return;
+
+    _usernameCheck = Timer(const Duration(milliseconds: 400), () async {
+      final available = await _apiService.isUsernameAvailable(username);
+      if (!mounted || _usernameController.text.trim() != username) return;
+      setState(() {
+        _usernameError = available == false ? 'Username is already taken' : null;
+      });
+    });
+  }
 
   Future<void> _handleRegister() async {
     final username = _usernameController.text;
@@ -62,7 +90,11 @@ class _RegisterScreenState extends State<RegisterScreen> {
           children: [
             TextField(
               controller: _usernameController,
-              decoration: const InputDecoration(labelText: 'Username'),
+              decoration: InputDecoration(
+                labelText: 'Username',
+                errorText: _usernameError,
+              ),
+              onChanged: _onUsernameChanged,
             ),
             const SizedBox(height: 10),
             TextField(
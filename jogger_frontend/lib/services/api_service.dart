@@ -72,6 +72,20 @@ class ApiService {
     }
   }
 
+  /// Asks the server whether a username is still free (for the sign-up form).
+  /// Returns null if the check failed, so the form does not block the user.
+  Future<bool?> isUsernameAvailable(String username) async {
+    final url = Uri.parse('$baseUrl/auth/username-available')
+        .replace(queryParameters: {'username': username});
+    try {
+      final response = await http.get(url);
+      if (response.statusCode == 200) {
+        return jsonDecode(response.body)['available'] as bool;
+      }
+    } catch (_) {}
+    return null;
+  }
+
   Future<void> logout() async {
     final prefs = await SharedPreferences.getInstance();
     await prefs.remove('token');
@@ -104,15 +118,26 @@ class ApiService {
     return null;
   }
 
-  Future<List<Activity>> getActivities(int runnerId) async {
-    final url = Uri.parse('$baseUrl/runners/$runnerId/activities');
+  /// Loads one page of the runner's activities, newest first. Pass the
+  /// returned cursor to load the next (older) page; it is null on the last
+  /// page.
+  Future<({List<Activity> activities, String? nextCursor})> getActivities(
+    int runnerId, {
+    String? cursor,
+  }) async {
+    final url = Uri.parse('$baseUrl/runners/$runnerId/activities').replace(
+      queryParameters: {if (cursor != null) 'cursor': cursor},
+    );
     final headers = await _getHeaders();
 
     final response = await http.get(url, headers: headers);
 
     if (response.statusCode == 200) {
       final List<dynamic> body = jsonDecode(response.body);
-      return body.map((json) => Activity.fromJson(json)).toList();
+      return (
+        activities: body.map((json) => Activity.fromJson(json)).toList(),
+        nextCursor: response.headers['x-next-cursor'],
+      );
     } else {
       throw Exception('Failed to load activities');
     }
@@ -189,9 +214,78 @@ class ApiService {
     }
   }
 
-  Future<String> getReportUrl(int userId) async {
-    final token = await _getToken();
-    return '$baseUrl/runners/$userId/reports/progress?token=$token';
+  Future<int> getUnseenBadgeCount(int userId) async {
+    final url = Uri.parse('$baseUrl/runners/$userId/badges/unseen-count');
+
+    final headers = await _getHeaders();
+    final response = await http.get(url, headers: headers);
+
+    if (response.statusCode == 200) {
+      return jsonDecode(response.body)['count'] as int;
+    } else {
+      return 0;
+    }
+  }
+
+  /// Opens the runner's server-sent event stream and yields the event names
+  /// ("badge-awarded", "activity-added", "stats-changed") as they arrive.
+  /// The stream ends when the server closes the connection.
+  Stream<String> getRunnerEvents(int userId) async* {
+    final request = http.Request(
+      'GET',
+      Uri.parse('$baseUrl/runners/$userId/events'),
+    );
+    request.headers.addAll(await _getHeaders());
+    request.headers['Accept'] = 'text/event-stream';
+
+    final client = http.Client();
+    try {
+      final response = await client.send(request);
+      if (response.statusCode != 200) return;
+
+      final lines = response.stream
+          .transform(utf8.decoder)
+          .transform(const LineSplitter());
+      await for (final line in lines) {
+        if (line.startsWith('event:')) {
+          yield line.substring(6).trim();
+        }
+      }
+    } finally {
+      client.close();
+    }
+  }
+
+  /// Asks the server to render the progress report and polls the job until
+  /// the file is ready. Returns the download URL, or null if rendering failed
+  /// or did not finish within about a minute.
+  Future<String?> prepareReport(int userId) async {
+    final headers = await _getHeaders();
+    var response = await http.post(
+      Uri.parse('$baseUrl/runners/$userId/reports/progress/jobs'),
+      headers: headers,
+    );
+
+    for (var attempt = 0; attempt < 30; attempt++) {
+      if (response.statusCode != 200 && response.statusCode != 202) {
+        return null;
+      }
+      final job = jsonDecode(response.body);
+      if (job['status'] == 'DONE') {
+        final token = await _getToken();
+        return '$baseUrl${job['downloadUrl']}?token=$token';
+      }
+      if (job['status'] == 'FAILED') {
+        return null;
+      }
+
+      await Future.delayed(const Duration(seconds: 2));
+      response = await http.get(
+        Uri.parse('$baseUrl/runners/$userId/reports/jobs/${job['jobId']}'),
+        headers: headers,
+      );
+    }
+    return null;
   }
 
   Future<bool> deleteActivity(int activityId) async {
@@ -210,14 +304,28 @@ class ApiService {
     await http.post(url, headers: headers);
   }
 
-  Future<List<User>> getAllRunners() async {
-    final url = Uri.parse('$baseUrl/runners');
+  /// Loads one page of the admin runner list. [search] matches the start of
+  /// a username or email; pass the returned cursor to load the next page
+  /// (it is null on the last page).
+  Future<({List<User> runners, String? nextCursor})> getAllRunners({
+    String? search,
+    String? cursor,
+  }) async {
+    final url = Uri.parse('$baseUrl/runners').replace(
+      queryParameters: {
+        if (search != null && search.isNotEmpty) 'q': search,
+        if (cursor != null) 'cursor': cursor,
+      },
+    );
     final headers = await _getHeaders();
     final response = await http.get(url, headers: headers);
 
     if (response.statusCode == 200) {
       final List<dynamic> data = jsonDecode(response.body);
-      return data.map((json) => User.fromJson(json)).toList();
+      return (
+        runners: data.map((json) => User.fromJson(json)).toList(),
+        nextCursor: response.headers['x-next-cursor'],
+      );
     } else {
       throw Exception('Failed to load runners');
     }